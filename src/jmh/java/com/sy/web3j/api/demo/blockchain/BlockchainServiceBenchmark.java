@@ -0,0 +1,92 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import com.sy.web3j.api.demo.listener.BlockEventListener;
+import com.sy.web3j.api.demo.listener.ListenerDispatcher;
+import com.sy.web3j.api.demo.listener.ListenerDispatcher.OverflowPolicy;
+import com.sy.web3j.api.demo.listener.TransactionBatchListener;
+import com.sy.web3j.api.demo.listener.TransactionEventListener;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.protocol.Web3j;
+
+/**
+ * Benchmark of the account queries of {@link BlockchainService} against a local stub node, with
+ * and without the account state cache.
+ *
+ * @author selim
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockchainServiceBenchmark {
+
+  private static final String ACCOUNT_ADDRESS = "0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2";
+
+  @Param({"false", "true"})
+  private boolean cached;
+
+  private Web3j web3j;
+
+  private BlockchainService blockchainService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    web3j = Web3j.build(new StubWeb3jService("0x2a5a058fc295ed000000"));
+    var accountStateCache = new AccountStateCache(10_000);
+    if (cached) {
+      accountStateCache.onNewBlock(1);
+    }
+    var logFilterEngine = new LogFilterEngine(web3j, 5, 500, 10_000);
+    blockchainService = new BlockchainService(web3j, accountStateCache,
+        new TransferEngine(web3j, 0), new TransferJobRegistry(1), new TransferTracker(1),
+        60_000, 64, new BlockStream(web3j, false, 1_000, 30_000, 60_000, 1_000, 16), null, null,
+        new TransactionDeduplicator(1, 1), new ConfirmationEngine(web3j, 1, 0, null),
+        logFilterEngine,
+        new ListenerDispatcher<>("block-listener", 1, OverflowPolicy.DROP_OLDEST, 1,
+            BlockEventListener::onNewBlock),
+        new ListenerDispatcher<>("transaction-listener", 1, OverflowPolicy.DROP_OLDEST, 1,
+            (listener, confirmation) -> confirmation.deliverTo(listener)),
+        new ListenerDispatcher<>("transaction-batch-listener", 1, OverflowPolicy.DROP_OLDEST, 1,
+            TransactionBatchListener::onTransactionsConfirmed),
+        new ListenerDispatcher<>("log-listener", 1, OverflowPolicy.DROP_OLDEST, 1,
+            logFilterEngine::deliver),
+        1_000, 500, false);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    web3j.shutdown();
+  }
+
+  @Benchmark
+  public BigDecimal getBalance() {
+    return blockchainService.getBalance(ACCOUNT_ADDRESS);
+  }
+
+  @Benchmark
+  public BigDecimal getBalanceAsync() {
+    return blockchainService.getBalanceAsync(ACCOUNT_ADDRESS).join();
+  }
+
+  @Benchmark
+  public BigInteger getTransactionsCount() {
+    return blockchainService.getTransactionsCount(ACCOUNT_ADDRESS);
+  }
+}
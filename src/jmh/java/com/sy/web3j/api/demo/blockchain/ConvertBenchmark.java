@@ -0,0 +1,98 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.utils.Convert;
+import org.web3j.utils.Convert.Unit;
+import org.web3j.utils.Numeric;
+
+/**
+ * Benchmark of the conversion of balances from Wei to Ether, as done by {@link BlockchainService}
+ * before and after {@link Wei}, against a plain decimal shift, and of the lookup of an account by
+ * its address as a lowercased string against its {@link Address}.
+ *
+ * @author selim
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvertBenchmark {
+
+  private static final String ACCOUNT_ADDRESS = "0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2";
+
+  private final BigInteger balanceInWei = new BigInteger("200000000000000000000000");
+
+  private final String balanceQuantity = Numeric.encodeQuantity(
+      new BigInteger("2999996999874000000000000"));
+
+  private final Map<String, BigInteger> balancesByString = new HashMap<>();
+
+  private final Map<Address, BigInteger> balancesByAddress = new HashMap<>();
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < 1000; i++) {
+      var accountAddress = Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(i), 40);
+      balancesByString.put(accountAddress, balanceInWei);
+      balancesByAddress.put(Address.parse(accountAddress), balanceInWei);
+    }
+    balancesByString.put(ACCOUNT_ADDRESS.toLowerCase(), balanceInWei);
+    balancesByAddress.put(Address.parse(ACCOUNT_ADDRESS), balanceInWei);
+  }
+
+  @Benchmark
+  public BigDecimal fromWeiThroughString() {
+    return Convert.fromWei(balanceInWei.toString(), Unit.ETHER);
+  }
+
+  @Benchmark
+  public BigDecimal fromWeiThroughBigDecimal() {
+    return Convert.fromWei(new BigDecimal(balanceInWei), Unit.ETHER);
+  }
+
+  @Benchmark
+  public BigDecimal movePointLeft() {
+    return new BigDecimal(balanceInWei).movePointLeft(18);
+  }
+
+  @Benchmark
+  public BigDecimal fromWeiThroughWei() {
+    return Wei.of(balanceInWei).toEther();
+  }
+
+  @Benchmark
+  public BigDecimal quantityToEtherThroughString() {
+    return Convert.fromWei(Numeric.decodeQuantity(balanceQuantity).toString(), Unit.ETHER);
+  }
+
+  @Benchmark
+  public BigDecimal quantityToEtherThroughWei() {
+    return Wei.parseHex(balanceQuantity).toEther();
+  }
+
+  @Benchmark
+  public BigInteger lookupByLowercaseString() {
+    return balancesByString.get(ACCOUNT_ADDRESS.toLowerCase());
+  }
+
+  @Benchmark
+  public BigInteger lookupByAddress() {
+    return balancesByAddress.get(Address.parse(ACCOUNT_ADDRESS));
+  }
+}
@@ -0,0 +1,37 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.web3j.protocol.Service;
+
+/**
+ * Web3j service answering every JSON-RPC request locally with the same quantity, so that
+ * benchmarks measure the serialization of requests and responses without any network I/O.
+ *
+ * @author selim
+ */
+class StubWeb3jService extends Service {
+
+  private static final String RESPONSE = "{\"jsonrpc\":\"2.0\",\"id\":%d,\"result\":\"%s\"}";
+
+  private final String result;
+
+  StubWeb3jService(final String result) {
+    super(false);
+    this.result = result;
+  }
+
+  @Override
+  protected InputStream performIO(final String payload) throws IOException {
+    var id = objectMapper.readTree(payload).path("id").asLong();
+    return new ByteArrayInputStream(
+        String.format(RESPONSE, id, result).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void close() {
+    // Nothing to release.
+  }
+}
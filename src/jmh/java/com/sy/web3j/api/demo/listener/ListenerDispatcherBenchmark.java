@@ -0,0 +1,81 @@
+package com.sy.web3j.api.demo.listener;
+
+import com.sy.web3j.api.demo.listener.ListenerDispatcher.OverflowPolicy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the fan-out of block notifications to the block listeners, that is what the block
+ * subscription of the blockchain service does for every block. The dispatcher blocks when a
+ * listener falls behind, so the throughput is the one of every listener receiving every block.
+ *
+ * @author selim
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerDispatcherBenchmark {
+
+  @Param({"1", "10", "100", "1000"})
+  private int listeners;
+
+  private final LongAdder received = new LongAdder();
+
+  private final BlockEvent blockEvent = new BlockEvent(1, "0x1", "0x0", 0, null, null, null,
+      List.of(), List.of());
+
+  private ListenerDispatcher<BlockEventListener, BlockEvent> dispatcher;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    dispatcher = new ListenerDispatcher<>("block-listener", 1024, OverflowPolicy.BLOCK, 1,
+        BlockEventListener::onNewBlock);
+    IntStream.range(0, listeners)
+        .forEach(index -> dispatcher.register(new CountingListener(received)));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dispatcher.shutdown();
+  }
+
+  @Benchmark
+  public void dispatch() {
+    dispatcher.dispatch(blockEvent);
+  }
+
+  /**
+   * Listener counting the blocks received. Every instance is a distinct listener.
+   */
+  private static final class CountingListener implements BlockEventListener {
+
+    private final LongAdder received;
+
+    private CountingListener(final LongAdder received) {
+      this.received = received;
+    }
+
+    @Override
+    public void onNewBlock(final BlockEvent blockEvent) {
+      received.increment();
+    }
+  }
+}
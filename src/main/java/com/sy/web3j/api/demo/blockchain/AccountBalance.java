@@ -0,0 +1,42 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import java.math.BigDecimal;
+import lombok.Value;
+
+/**
+ * Represents the balance of an account, or the reason why it could not be read.
+ *
+ * @author selim
+ */
+@Value
+@JsonInclude(Include.NON_NULL)
+public class AccountBalance {
+
+  private final String accountAddress;
+  private final BigDecimal balanceInEther;
+  private final String error;
+
+  /**
+   * Return the balance of an account.
+   *
+   * @param accountAddress the account address.
+   * @param balanceInEther the balance in Ether.
+   * @return a new account balance.
+   */
+  public static AccountBalance of(String accountAddress, BigDecimal balanceInEther) {
+    return new AccountBalance(accountAddress, balanceInEther, null);
+  }
+
+  /**
+   * Return the failure to read the balance of an account.
+   *
+   * @param accountAddress the account address.
+   * @param error the reason of the failure.
+   * @return a new account balance without balance.
+   */
+  public static AccountBalance failed(String accountAddress, String error) {
+    return new AccountBalance(accountAddress, null, error);
+  }
+}
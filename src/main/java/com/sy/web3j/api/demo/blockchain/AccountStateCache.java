@@ -0,0 +1,192 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.validation.constraints.NotNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded cache of account balances and transaction counts. Every entry is keyed by the account
+ * address and the number of the block it was read at, so that the whole cache is invalidated
+ * whenever a new block is mined. As long as no block has been observed, the cache is bypassed.
+ *
+ * @author selim
+ */
+@Slf4j
+public class AccountStateCache {
+
+  /**
+   * The kind of account state that is cached.
+   */
+  public enum Kind {
+    BALANCE,
+    TRANSACTION_COUNT
+  }
+
+  private static final long NO_BLOCK = -1;
+
+  private final int maxSize;
+
+  private final LinkedHashMap<Key, BigInteger> entries;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  private volatile long blockNumber = NO_BLOCK;
+
+  /**
+   * Construct a new instance of <code>{@link AccountStateCache}</code>.
+   *
+   * @param maxSize the maximum number of entries held by the cache.
+   */
+  public AccountStateCache(final int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The cache size must be positive");
+    }
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, BigInteger> eldest) {
+        var evict = size() > AccountStateCache.this.maxSize;
+        if (evict) {
+          evictions.increment();
+        }
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * Return the cached value of the given account state, or load it if it is absent.
+   *
+   * @param kind the kind of account state.
+   * @param accountAddress the account address.
+   * @param loader the function that reads the value from the blockchain.
+   * @return the account state at the latest block.
+   */
+  public BigInteger get(final Kind kind, @NotNull final Address accountAddress,
+      final Supplier<BigInteger> loader) {
+    var key = currentKey(kind, accountAddress);
+    var cached = key.flatMap(this::lookup);
+    if (cached.isPresent()) {
+      hits.increment();
+      return cached.get();
+    }
+    misses.increment();
+    var value = loader.get();
+    key.ifPresent(aKey -> put(aKey, value));
+    return value;
+  }
+
+  /**
+   * Return the cached value of the given account state, or load it asynchronously if it is absent.
+   *
+   * @param kind the kind of account state.
+   * @param accountAddress the account address.
+   * @param loader the function that reads the value from the blockchain.
+   * @return the account state at the latest block.
+   */
+  public CompletableFuture<BigInteger> getAsync(final Kind kind,
+      @NotNull final Address accountAddress,
+      final Supplier<CompletableFuture<BigInteger>> loader) {
+    var key = currentKey(kind, accountAddress);
+    var cached = key.flatMap(this::lookup);
+    if (cached.isPresent()) {
+      hits.increment();
+      return CompletableFuture.completedFuture(cached.get());
+    }
+    misses.increment();
+    return loader.get()
+        .thenApply(value -> {
+          key.ifPresent(aKey -> put(aKey, value));
+          return value;
+        });
+  }
+
+  /**
+   * Invalidate all the cached values when a newer block is mined, or when the latest block is
+   * replaced by a reorganization of the chain.
+   *
+   * @param newBlockNumber the number of the block that has just been mined.
+   */
+  public void onNewBlock(final long newBlockNumber) {
+    synchronized (entries) {
+      if (newBlockNumber >= blockNumber) {
+        blockNumber = newBlockNumber;
+        entries.clear();
+      }
+    }
+  }
+
+  /**
+   * Remove all entries and forget the latest block, which bypasses the cache until a new block is
+   * mined.
+   */
+  public void clear() {
+    synchronized (entries) {
+      blockNumber = NO_BLOCK;
+      entries.clear();
+    }
+  }
+
+  /**
+   * Return a snapshot of the cache statistics.
+   *
+   * @return the cache statistics.
+   */
+  public CacheStats stats() {
+    synchronized (entries) {
+      return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+  }
+
+  private Optional<Key> currentKey(final Kind kind, final Address accountAddress) {
+    var number = blockNumber;
+    return number == NO_BLOCK ? Optional.empty()
+        : Optional.of(new Key(kind, accountAddress, number));
+  }
+
+  private Optional<BigInteger> lookup(final Key key) {
+    synchronized (entries) {
+      return Optional.ofNullable(entries.get(key));
+    }
+  }
+
+  private void put(final Key key, final BigInteger value) {
+    synchronized (entries) {
+      // A block may have been mined while the value was loaded, do not keep stale values.
+      if (key.getBlockNumber() == blockNumber) {
+        entries.put(key, value);
+      }
+    }
+  }
+
+  @Value
+  private static class Key {
+
+    private final Kind kind;
+    private final Address accountAddress;
+    private final long blockNumber;
+  }
+
+  /**
+   * Snapshot of the cache statistics.
+   */
+  @Value
+  public static class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+  }
+}
@@ -0,0 +1,146 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Ethereum account address, held as its 20 bytes rather than as a hex string. Addresses read in
+ * any case are equal, so that they are used as keys without being lowercased first, and compared
+ * and hashed without walking a string. They are written as lowercase hex strings only at the JSON
+ * boundary.
+ *
+ * @author selim
+ */
+public final class Address {
+
+  /**
+   * The number of bytes of an address.
+   */
+  public static final int LENGTH = 20;
+
+  private static final int DIGITS = LENGTH * 2;
+
+  private final long high;
+
+  private final long middle;
+
+  private final int low;
+
+  private Address(final long high, final long middle, final int low) {
+    this.high = high;
+    this.middle = middle;
+    this.low = low;
+  }
+
+  /**
+   * Return the address written as 40 hexadecimal digits, with or without a <code>0x</code>
+   * prefix, in any case.
+   *
+   * @param value the hexadecimal address.
+   * @return the address.
+   * @throws IllegalArgumentException if the value is not an address.
+   */
+  @JsonCreator
+  public static Address parse(@NotNull final CharSequence value) {
+    var start = Hex.start(value);
+    if (value.length() - start != DIGITS) {
+      throw new IllegalArgumentException("Invalid address " + value);
+    }
+    long high = 0;
+    long middle = 0;
+    int low = 0;
+    for (int i = 0; i < 16; i++) {
+      high = high << 4 | Hex.digit(value, start + i);
+    }
+    for (int i = 16; i < 32; i++) {
+      middle = middle << 4 | Hex.digit(value, start + i);
+    }
+    for (int i = 32; i < DIGITS; i++) {
+      low = low << 4 | Hex.digit(value, start + i);
+    }
+    return new Address(high, middle, low);
+  }
+
+  /**
+   * Return the address of the given bytes.
+   *
+   * @param bytes the 20 bytes of the address.
+   * @return the address.
+   * @throws IllegalArgumentException if there are not 20 bytes.
+   */
+  public static Address fromByteArray(@NotNull final byte[] bytes) {
+    if (bytes.length != LENGTH) {
+      throw new IllegalArgumentException("An address has " + LENGTH + " bytes");
+    }
+    long high = 0;
+    long middle = 0;
+    int low = 0;
+    for (int i = 0; i < 8; i++) {
+      high = high << 8 | bytes[i] & 0xFF;
+    }
+    for (int i = 8; i < 16; i++) {
+      middle = middle << 8 | bytes[i] & 0xFF;
+    }
+    for (int i = 16; i < LENGTH; i++) {
+      low = low << 8 | bytes[i] & 0xFF;
+    }
+    return new Address(high, middle, low);
+  }
+
+  /**
+   * Return the 20 bytes of the address.
+   *
+   * @return the bytes of the address.
+   */
+  public byte[] toByteArray() {
+    var bytes = new byte[LENGTH];
+    for (int i = 0; i < 8; i++) {
+      bytes[i] = (byte) (high >>> (56 - 8 * i));
+      bytes[8 + i] = (byte) (middle >>> (56 - 8 * i));
+    }
+    for (int i = 0; i < 4; i++) {
+      bytes[16 + i] = (byte) (low >>> (24 - 8 * i));
+    }
+    return bytes;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Address)) {
+      return false;
+    }
+    var address = (Address) other;
+    return high == address.high && middle == address.middle && low == address.low;
+  }
+
+  @Override
+  public int hashCode() {
+    // The address is a hash itself, its low bytes are spread enough.
+    return low ^ (int) middle;
+  }
+
+  /**
+   * Return the address as a lowercase hex string, with the <code>0x</code> prefix.
+   *
+   * @return the hexadecimal address.
+   */
+  @JsonValue
+  @Override
+  public String toString() {
+    var chars = new char[DIGITS + 2];
+    chars[0] = '0';
+    chars[1] = 'x';
+    for (int i = 0; i < 16; i++) {
+      chars[2 + i] = Hex.toDigit((int) (high >>> (60 - 4 * i)) & 0xF);
+      chars[18 + i] = Hex.toDigit((int) (middle >>> (60 - 4 * i)) & 0xF);
+    }
+    for (int i = 0; i < 8; i++) {
+      chars[34 + i] = Hex.toDigit(low >>> (28 - 4 * i) & 0xF);
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,309 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static java.lang.String.format;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.vavr.control.Try;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.http.HttpService;
+
+/**
+ * HTTP service that coalesces concurrent account, receipt and block queries into JSON-RPC
+ * batches. The calls are collected during a short window, or until the batch is full, then sent as
+ * a single JSON-RPC array and the responses are fanned out to the waiting callers by request id.
+ * Any other method is sent as is. Asynchronous calls are queued by the dispatcher of the HTTP
+ * client rather than blocking a thread each, so that its concurrency limits apply to them.
+ * Cancelled calls are left out of the batches, or cancelled on the wire when sent as is.
+ *
+ * @author selim
+ */
+@Slf4j
+public class BatchingHttpService extends HttpService {
+
+  static final Set<String> BATCHED_METHODS = Set.of("eth_getBalance", "eth_getTransactionCount",
+      "eth_getTransactionReceipt", "eth_getBlockByNumber");
+
+  private final String url;
+
+  private final OkHttpClient httpClient;
+
+  private final long windowInMillis;
+
+  private final int maxBatchSize;
+
+  private final ScheduledExecutorService executor;
+
+  private final Object lock = new Object();
+
+  private List<PendingCall<?>> pendingCalls = new ArrayList<>();
+
+  private ScheduledFuture<?> scheduledFlush;
+
+  /**
+   * Construct a new instance of <code>{@link BatchingHttpService}</code>.
+   *
+   * @param url The blockchain client address.
+   * @param windowInMillis The time to wait for concurrent calls before sending a batch.
+   * @param maxBatchSize The maximum number of calls in a batch, a batch of 1 disables batching.
+   */
+  public BatchingHttpService(final String url, final long windowInMillis,
+      final int maxBatchSize) {
+    this(url, new OkHttpClient(), windowInMillis, maxBatchSize);
+  }
+
+  /**
+   * Construct a new instance of <code>{@link BatchingHttpService}</code>.
+   *
+   * @param url The blockchain client address.
+   * @param httpClient The HTTP client, owned by the service from now on.
+   * @param windowInMillis The time to wait for concurrent calls before sending a batch.
+   * @param maxBatchSize The maximum number of calls in a batch, a batch of 1 disables batching.
+   */
+  public BatchingHttpService(final String url, final OkHttpClient httpClient,
+      final long windowInMillis, final int maxBatchSize) {
+    super(url, httpClient);
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("The batch size must be positive");
+    }
+    this.url = url;
+    this.httpClient = httpClient;
+    this.windowInMillis = windowInMillis;
+    this.maxBatchSize = maxBatchSize;
+    var threadCount = new AtomicInteger();
+    this.executor = Executors.newScheduledThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        runnable -> {
+          var thread = new Thread(runnable, "json-rpc-batch-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @Override
+  public <T extends Response> T send(final Request request, final Class<T> responseType)
+      throws IOException {
+    if (!isBatched(request)) {
+      return super.send(request, responseType);
+    }
+    try {
+      return sendAsync(request, responseType).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the batch response", e);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException
+          ? (IOException) e.getCause()
+          : new IOException(e.getCause());
+    }
+  }
+
+  @Override
+  public <T extends Response> CompletableFuture<T> sendAsync(final Request request,
+      final Class<T> responseType) {
+    if (!isBatched(request)) {
+      var call = Try.of(() -> objectMapper.writeValueAsString(request))
+          .map(this::performIOAsync)
+          .getOrElseGet(CompletableFuture::failedFuture);
+      var response = call.thenApply(inputStream -> read(inputStream, responseType));
+      // Cancelling the response, say a hedged read that lost, cancels the HTTP call.
+      response.whenComplete((aResponse, throwable) -> {
+        if (response.isCancelled()) {
+          call.cancel(true);
+        }
+      });
+      return response;
+    }
+    var pendingCall = new PendingCall<>(request, responseType, new CompletableFuture<>());
+    synchronized (lock) {
+      pendingCalls.add(pendingCall);
+      if (pendingCalls.size() >= maxBatchSize) {
+        var batch = drain();
+        executor.execute(() -> flush(batch));
+      } else if (scheduledFlush == null) {
+        scheduledFlush = executor.schedule(() -> flush(drainOnSchedule()), windowInMillis,
+            TimeUnit.MILLISECONDS);
+      }
+    }
+    return pendingCall.future;
+  }
+
+  @Override
+  public void close() throws IOException {
+    executor.shutdown();
+    synchronized (lock) {
+      drain().forEach(pendingCall -> pendingCall.future
+          .completeExceptionally(new IOException("The HTTP service has been closed")));
+    }
+    // The HTTP client may be shared with other services, it is left to its owner.
+    super.close();
+  }
+
+  /**
+   * Send a payload to the blockchain client without blocking the calling thread. Cancelling the
+   * returned future cancels the HTTP call.
+   *
+   * @param payload The JSON-RPC payload.
+   * @return the body of the response, if any.
+   */
+  protected CompletableFuture<InputStream> performIOAsync(final String payload) {
+    var future = new CompletableFuture<InputStream>();
+    var call = httpClient.newCall(new okhttp3.Request.Builder()
+        .url(url)
+        .headers(Headers.of(getHeaders()))
+        .post(RequestBody.create(JSON_MEDIA_TYPE, payload))
+        .build());
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(final Call aCall, final IOException e) {
+        future.completeExceptionally(e);
+      }
+
+      @Override
+      public void onResponse(final Call aCall, final okhttp3.Response response)
+          throws IOException {
+        var body = response.body();
+        if (!response.isSuccessful()) {
+          try (response) {
+            future.completeExceptionally(new ClientConnectionException(
+                format("Invalid response received: %d; %s", response.code(),
+                    body == null ? "N/A" : body.string())));
+          }
+          return;
+        }
+        // A response nobody waits for anymore, such as the loser of a hedged read, still holds
+        // its connection.
+        if (!future.complete(body == null ? null : body.byteStream())) {
+          response.close();
+        }
+      }
+    });
+    future.whenComplete((inputStream, throwable) -> {
+      if (future.isCancelled()) {
+        call.cancel();
+      }
+    });
+    return future;
+  }
+
+  private boolean isBatched(final Request request) {
+    return maxBatchSize > 1 && BATCHED_METHODS.contains(request.getMethod());
+  }
+
+  private List<PendingCall<?>> drainOnSchedule() {
+    synchronized (lock) {
+      return drain();
+    }
+  }
+
+  private List<PendingCall<?>> drain() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    var batch = pendingCalls;
+    pendingCalls = new ArrayList<>();
+    return batch;
+  }
+
+  private void flush(final List<PendingCall<?>> batch) {
+    batch.removeIf(pendingCall -> pendingCall.future.isCancelled());
+    if (batch.isEmpty()) {
+      return;
+    }
+    var requests = new ArrayList<Request>(batch.size());
+    batch.forEach(pendingCall -> requests.add(pendingCall.request));
+
+    Try.of(() -> objectMapper.writeValueAsString(requests))
+        .map(this::performIOAsync)
+        .getOrElseGet(CompletableFuture::failedFuture)
+        .thenApply(this::readBatch)
+        .whenComplete((responses, throwable) -> {
+          if (throwable == null) {
+            batch.forEach(pendingCall -> pendingCall.complete(responses));
+            return;
+          }
+          var cause = unwrap(throwable);
+          LOG.warn("Could not send a JSON-RPC batch of {} requests: {}", batch.size(),
+              cause.getMessage());
+          batch.forEach(pendingCall -> pendingCall.future.completeExceptionally(cause));
+        });
+  }
+
+  @SneakyThrows
+  private <T extends Response> T read(final InputStream body, final Class<T> responseType) {
+    if (body == null) {
+      return null;
+    }
+    try (InputStream inputStream = body) {
+      return objectMapper.readValue(inputStream, responseType);
+    }
+  }
+
+  @SneakyThrows
+  private Map<Long, JsonNode> readBatch(final InputStream body) {
+    try (InputStream inputStream = body) {
+      if (inputStream == null) {
+        throw new IOException("Empty response to a JSON-RPC batch");
+      }
+      var responses = new HashMap<Long, JsonNode>();
+      var root = objectMapper.readTree(inputStream);
+      if (!root.isArray()) {
+        // Nodes answer a single error object when they reject the whole batch.
+        throw new IOException(format("Invalid response to a JSON-RPC batch: %s", root));
+      }
+      root.forEach(response -> responses.put(response.path("id").asLong(), response));
+      return responses;
+    }
+  }
+
+  private static Throwable unwrap(final Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+  }
+
+  @AllArgsConstructor
+  private class PendingCall<T extends Response> {
+
+    private final Request request;
+    private final Class<T> responseType;
+    private final CompletableFuture<T> future;
+
+    private void complete(final Map<Long, JsonNode> responses) {
+      var response = responses.get(request.getId());
+      if (response == null) {
+        future.completeExceptionally(new IOException(
+            format("No response for JSON-RPC request %d", request.getId())));
+        return;
+      }
+      Try.of(() -> objectMapper.treeToValue(response, responseType))
+          .onSuccess(future::complete)
+          .onFailure(future::completeExceptionally);
+    }
+  }
+}
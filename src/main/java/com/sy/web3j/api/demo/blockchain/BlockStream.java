@@ -0,0 +1,207 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static java.lang.String.format;
+import static org.web3j.utils.Numeric.decodeQuantity;
+
+import com.sy.web3j.api.demo.util.Backoff;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import java.math.BigInteger;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+
+/**
+ * Gap-free stream of the blocks mined on the blockchain. The new blocks are either pushed by the
+ * blockchain client through an <code>eth_subscribe</code> subscription to <code>newHeads</code>,
+ * available over WebSocket only, or polled from a block filter. The stream remembers the number of
+ * the last block it delivered: whenever the subscription to new blocks fails or stalls, it
+ * subscribes again after an exponential backoff with jitter, and the blocks missed in the meantime
+ * are read by number, concurrently, and delivered in order before the next new block.
+ *
+ * <p>The stream also remembers the hashes of the last blocks it delivered. A block is never
+ * delivered twice, but a block replacing one delivered at the same number, after a reorganization
+ * of the chain, is delivered again so that its consumers reconcile it.
+ *
+ * @author selim
+ */
+@Slf4j
+public class BlockStream {
+
+  // The number of delivered blocks whose hash is remembered, to tell a replacement from a repeat.
+  private static final int REMEMBERED_BLOCKS = 64;
+
+  private final Web3j web3j;
+
+  private final boolean pushSubscriptions;
+
+  private final long minBackoff;
+
+  private final long maxBackoff;
+
+  private final long staleTimeout;
+
+  private final int maxBackfill;
+
+  private final int backfillConcurrency;
+
+  /**
+   * Construct a new instance of <code>{@link BlockStream}</code>.
+   *
+   * @param web3j The component to communicate with the blockchain.
+   * @param pushSubscriptions Whether the new blocks are pushed by the blockchain client, rather
+   * than polled.
+   * @param minBackoff The minimum time in milliseconds to wait before subscribing again.
+   * @param maxBackoff The maximum time in milliseconds to wait before subscribing again.
+   * @param staleTimeout The time in milliseconds without any new block after which the
+   * subscription is considered lost.
+   * @param maxBackfill The maximum number of missed blocks read after a subscription is restored,
+   * the older ones are skipped.
+   * @param backfillConcurrency The maximum number of missed blocks read at once.
+   */
+  public BlockStream(final Web3j web3j, final boolean pushSubscriptions, final long minBackoff,
+      final long maxBackoff, final long staleTimeout, final int maxBackfill,
+      final int backfillConcurrency) {
+    if (minBackoff <= 0 || maxBackoff < minBackoff || staleTimeout <= 0 || maxBackfill < 0
+        || backfillConcurrency <= 0) {
+      throw new IllegalArgumentException(
+          "The backoff delays, stale timeout and backfill concurrency must be positive");
+    }
+    this.web3j = web3j;
+    this.pushSubscriptions = pushSubscriptions;
+    this.minBackoff = minBackoff;
+    this.maxBackoff = maxBackoff;
+    this.staleTimeout = staleTimeout;
+    this.maxBackfill = maxBackfill;
+    this.backfillConcurrency = backfillConcurrency;
+  }
+
+  /**
+   * Return the stream of the blocks mined from now on. Every subscriber gets its own subscription
+   * to the blockchain and remembers its own last blocks.
+   *
+   * @param fullTransactionObjects Whether the blocks carry full transaction objects, or only
+   * their hashes.
+   * @return the gap-free stream of blocks.
+   */
+  public Flowable<Block> blocks(final boolean fullTransactionObjects) {
+    return blocks(fullTransactionObjects, null);
+  }
+
+  /**
+   * Return the stream of the blocks mined from the given block number on, such as the block after
+   * the last one handled before a restart. The blocks mined before the first new block are read by
+   * number as missed blocks, so only the last ones are read past the maximum backfill.
+   *
+   * @param fullTransactionObjects Whether the blocks carry full transaction objects, or only
+   * their hashes.
+   * @param fromBlockNumber The number of the first block of the stream.
+   * @return the gap-free stream of blocks.
+   */
+  public Flowable<Block> blocks(final boolean fullTransactionObjects, final long fromBlockNumber) {
+    return blocks(fullTransactionObjects, BigInteger.valueOf(fromBlockNumber));
+  }
+
+  private Flowable<Block> blocks(final boolean fullTransactionObjects,
+      final BigInteger fromBlockNumber) {
+    return Flowable.defer(() -> {
+      var delivered = new ConcurrentSkipListMap<BigInteger, String>();
+      var attempts = new AtomicInteger();
+      return Flowable.defer(() -> newBlocks(fullTransactionObjects))
+          .timeout(staleTimeout, TimeUnit.MILLISECONDS)
+          // The gap is computed once the previous blocks are delivered.
+          .concatMap(head -> Flowable.defer(() ->
+              fillGap(delivered, fromBlockNumber, head, fullTransactionObjects)))
+          .doOnNext(block -> {
+            // The blocks above a replaced block belong to the dropped branch.
+            delivered.tailMap(block.getNumber(), false).clear();
+            delivered.put(block.getNumber(), block.getHash());
+            while (delivered.size() > REMEMBERED_BLOCKS) {
+              delivered.pollFirstEntry();
+            }
+            attempts.set(0);
+          })
+          .retryWhen(errors -> errors.concatMap(throwable -> {
+            var delay = Backoff.delay(attempts.getAndIncrement(), minBackoff, maxBackoff);
+            LOG.warn("Block subscription lost after block {}, subscribing again in {} ms: {}",
+                delivered.isEmpty() ? null : delivered.lastKey(), delay, throwable.toString());
+            return Flowable.timer(delay, TimeUnit.MILLISECONDS);
+          }));
+    });
+  }
+
+  private Flowable<Block> newBlocks(final boolean fullTransactionObjects) {
+    if (!pushSubscriptions) {
+      return web3j.blockFlowable(fullTransactionObjects)
+          .map(EthBlock::getBlock);
+    }
+    // A head only carries the block header, the block is read as soon as it is announced.
+    return web3j.newHeadsNotifications()
+        .map(notification -> decodeQuantity(notification.getParams().getResult().getNumber()))
+        .concatMapEager(number -> block(number, fullTransactionObjects).toFlowable());
+  }
+
+  private Flowable<Block> fillGap(final NavigableMap<BigInteger, String> delivered,
+      final BigInteger fromBlockNumber, final Block head, final boolean fullTransactionObjects) {
+    var headNumber = head.getNumber();
+    if (delivered.isEmpty()) {
+      // A head behind the first block expected, such as a chain reset, is delivered as it comes.
+      return fromBlockNumber == null || headNumber.compareTo(fromBlockNumber) <= 0
+          ? Flowable.just(head)
+          : backfill(fromBlockNumber, head, fullTransactionObjects);
+    }
+    var lastBlockNumber = delivered.lastKey();
+    if (headNumber.compareTo(lastBlockNumber) <= 0) {
+      var deliveredHash = delivered.get(headNumber);
+      if (deliveredHash == null || deliveredHash.equals(head.getHash())) {
+        // Delivered already, before the subscription was restored, or too old to tell.
+        return Flowable.empty();
+      }
+      LOG.info("Block {} replaced by block {}.", headNumber, head.getHash());
+      return Flowable.just(head);
+    }
+    return backfill(lastBlockNumber.add(BigInteger.ONE), head, fullTransactionObjects);
+  }
+
+  private Flowable<Block> backfill(final BigInteger fromBlockNumber, final Block head,
+      final boolean fullTransactionObjects) {
+    var headNumber = head.getNumber();
+    var from = fromBlockNumber;
+    var missed = headNumber.subtract(from).longValueExact();
+    if (missed == 0) {
+      return Flowable.just(head);
+    }
+    if (missed > maxBackfill) {
+      LOG.warn("Skip blocks {} to {}, only the last {} missed blocks are read.", from,
+          headNumber.subtract(BigInteger.valueOf(maxBackfill + 1)), maxBackfill);
+      from = headNumber.subtract(BigInteger.valueOf(maxBackfill));
+      missed = maxBackfill;
+    }
+    LOG.info("Read the {} blocks missed before block {}.", missed, headNumber);
+    return Flowable.rangeLong(from.longValueExact(), missed)
+        .concatMapEager(number -> block(BigInteger.valueOf(number), fullTransactionObjects)
+            .toFlowable(), backfillConcurrency, 1)
+        .concatWith(Flowable.just(head));
+  }
+
+  private Single<Block> block(final BigInteger number, final boolean fullTransactionObjects) {
+    return Single.create(emitter -> web3j
+        .ethGetBlockByNumber(DefaultBlockParameter.valueOf(number), fullTransactionObjects)
+        .sendAsync()
+        .whenComplete((ethBlock, throwable) -> {
+          if (throwable != null) {
+            emitter.onError(throwable);
+          } else if (ethBlock.getBlock() == null) {
+            emitter.onError(new BlockchainException(format("Could not read block %s", number)));
+          } else {
+            emitter.onSuccess(ethBlock.getBlock());
+          }
+        }));
+  }
+}
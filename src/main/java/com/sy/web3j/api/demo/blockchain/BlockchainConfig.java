@@ -1,17 +1,41 @@
 package com.sy.web3j.api.demo.blockchain;
 
+import com.sy.web3j.api.demo.blockchain.NodePoolService.LoadBalancing;
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.BlockEventListener;
+import com.sy.web3j.api.demo.listener.EventJournal;
+import com.sy.web3j.api.demo.listener.ListenerDispatcher;
+import com.sy.web3j.api.demo.listener.ListenerDispatcher.OverflowPolicy;
+import com.sy.web3j.api.demo.listener.LogEvent;
+import com.sy.web3j.api.demo.listener.LogEventListener;
+import com.sy.web3j.api.demo.listener.TransactionBatchListener;
+import com.sy.web3j.api.demo.listener.TransactionConfirmation;
+import com.sy.web3j.api.demo.listener.TransactionEventListener;
+import com.sy.web3j.api.demo.mocknode.MockNodeHttpServer;
+import com.sy.web3j.api.demo.mocknode.MockNodeWebSocketServer;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.net.URI;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Profile;
 import org.web3j.protocol.Web3j;
-import org.web3j.protocol.http.HttpService;
-import org.web3j.protocol.websocket.WebSocketClient;
+import org.web3j.protocol.Web3jService;
 import org.web3j.protocol.websocket.WebSocketService;
+import org.web3j.utils.Async;
 
 /**
  * Configuration for blockchain components.
@@ -23,37 +47,435 @@ import org.web3j.protocol.websocket.WebSocketService;
 @SuppressWarnings("unused")
 public class BlockchainConfig {
 
+  /**
+   * Construct a new instance of {@link OkHttpClient} tuned for many concurrent calls to the
+   * blockchain client.
+   * @param maxIdleConnections The maximum number of idle connections kept alive in the pool.
+   * @param keepAlive The time in milliseconds an idle connection is kept alive.
+   * @param maxRequests The maximum number of concurrent asynchronous calls.
+   * @param maxRequestsPerHost The maximum number of concurrent asynchronous calls to the client.
+   * @param connectTimeout The time in milliseconds to wait for a connection.
+   * @param readTimeout The time in milliseconds to wait for a read on a connection.
+   * @param writeTimeout The time in milliseconds to wait for a write on a connection.
+   * @param callTimeout The time in milliseconds to wait for a whole call, 0 for no limit.
+   * @param gzipRequests Whether the requests are compressed, the client has to accept them.
+   * @return A new instance of {@link OkHttpClient}.
+   */
+  @Profile("!rpc-ws")
+  @Bean
+  OkHttpClient web3jHttpClient(
+      final @Value("${web3j.http.pool.max-idle-connections}") int maxIdleConnections,
+      final @Value("${web3j.http.pool.keep-alive}") long keepAlive,
+      final @Value("${web3j.http.dispatcher.max-requests}") int maxRequests,
+      final @Value("${web3j.http.dispatcher.max-requests-per-host}") int maxRequestsPerHost,
+      final @Value("${web3j.http.timeout.connect}") long connectTimeout,
+      final @Value("${web3j.http.timeout.read}") long readTimeout,
+      final @Value("${web3j.http.timeout.write}") long writeTimeout,
+      final @Value("${web3j.http.timeout.call}") long callTimeout,
+      final @Value("${web3j.http.gzip-requests}") boolean gzipRequests) {
+    var dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(maxRequests);
+    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+    var builder = new OkHttpClient.Builder()
+        .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive, TimeUnit.MILLISECONDS))
+        .dispatcher(dispatcher)
+        .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+        .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+        .writeTimeout(writeTimeout, TimeUnit.MILLISECONDS)
+        .callTimeout(callTimeout, TimeUnit.MILLISECONDS);
+    if (gzipRequests) {
+      builder.addInterceptor(new GzipRequestInterceptor());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Release the threads and connections of the HTTP client shared by the services of the
+   * blockchain clients, once they are closed.
+   * @param web3jHttpClient The HTTP client used to reach the blockchain client.
+   * @return The release of the HTTP client on shutdown.
+   */
+  @Profile("!rpc-ws")
+  @Bean
+  DisposableBean web3jHttpClientShutdown(final OkHttpClient web3jHttpClient) {
+    return () -> {
+      web3jHttpClient.dispatcher().executorService().shutdown();
+      web3jHttpClient.connectionPool().evictAll();
+    };
+  }
+
+  /**
+   * Construct a new instance of {@link HttpClientMetrics}.
+   * @param web3jHttpClient The HTTP client used to reach the blockchain client.
+   * @return A new instance of {@link HttpClientMetrics}.
+   */
+  @Profile("!rpc-ws")
+  @Bean
+  HttpClientMetrics httpClientMetrics(final OkHttpClient web3jHttpClient) {
+    return new HttpClientMetrics(web3jHttpClient);
+  }
+
   /**
    * Construct a new instance of {@link Web3j}.
    * @param web3Url The blockchain client address.
+   * @param web3jHttpClient The HTTP client used to reach the blockchain client.
+   * @param batchWindow The time in milliseconds to wait for concurrent account queries.
+   * @param batchMaxSize The maximum number of account queries sent in a JSON-RPC batch.
+   * @param pollingInterval The time in milliseconds between two polls of the filters.
+   * @param replicaAddresses The addresses of other blockchain clients reads are spread over.
+   * @param loadBalancing How the reads are spread over the blockchain clients.
+   * @param healthCheckInterval The time in milliseconds between two checks of the clients.
+   * @param maxBlockLag The number of blocks a client may lag behind the others.
+   * @param maxFailures The number of failed calls in a row that ejects a client.
+   * @param hedging Whether the reads not answered in time are sent to another client.
+   * @param hedgePercentile The percentile of the latency of the latest reads after which a read
+   * is hedged.
+   * @param minHedgeDelay The minimum time in milliseconds to wait before hedging a read.
+   * @param maxHedgeDelay The maximum time in milliseconds to wait before hedging a read.
+   * @param mockNodeHttpServer The in-process mock node, available with the mock-node profile.
+   * @param meterRegistry The registry of the measures of the calls to the blockchain client.
    * @return A new instance of {@link Web3j}.
    */
   @Profile("!rpc-ws")
   @Bean(destroyMethod = "shutdown")
+  // The HTTP client is released once the services are closed.
+  @DependsOn("web3jHttpClientShutdown")
   @SuppressWarnings("unused")
   @SneakyThrows
-  Web3j web3jOverHttp(final @Value("${web3j.http.client-address}") String web3Url) {
-    return Web3j.build(new HttpService(web3Url));
+  Web3j web3jOverHttp(final @Value("${web3j.http.client-address}") String web3Url,
+      final OkHttpClient web3jHttpClient,
+      final @Value("${web3j.http.batch.window}") long batchWindow,
+      final @Value("${web3j.http.batch.max-size}") int batchMaxSize,
+      final @Value("${web3j.http.polling-interval}") long pollingInterval,
+      final @Value("${web3j.pool.replica-addresses}") String[] replicaAddresses,
+      final @Value("${web3j.pool.load-balancing}") LoadBalancing loadBalancing,
+      final @Value("${web3j.pool.health-check.interval}") long healthCheckInterval,
+      final @Value("${web3j.pool.health-check.max-block-lag}") long maxBlockLag,
+      final @Value("${web3j.pool.health-check.max-failures}") int maxFailures,
+      final @Value("${web3j.pool.hedging.enabled}") boolean hedging,
+      final @Value("${web3j.pool.hedging.percentile}") double hedgePercentile,
+      final @Value("${web3j.pool.hedging.min-delay}") long minHedgeDelay,
+      final @Value("${web3j.pool.hedging.max-delay}") long maxHedgeDelay,
+      final ObjectProvider<MockNodeHttpServer> mockNodeHttpServer,
+      final MeterRegistry meterRegistry) {
+    // The mock node, if any, has to listen before the first request is sent.
+    mockNodeHttpServer.ifAvailable(server -> LOG.info("Target the mock node on port {}.",
+        server.getPort()));
+    Web3jService service = new BatchingHttpService(web3Url, web3jHttpClient, batchWindow,
+        batchMaxSize);
+    if (replicaAddresses.length > 0) {
+      var services = new LinkedHashMap<String, Web3jService>();
+      services.put(web3Url, service);
+      for (var replicaAddress : replicaAddresses) {
+        services.put(replicaAddress, new BatchingHttpService(replicaAddress, web3jHttpClient,
+            batchWindow, batchMaxSize));
+      }
+      var nodePoolService = new NodePoolService(services, loadBalancing, healthCheckInterval,
+          maxBlockLag, maxFailures, hedging, hedgePercentile, minHedgeDelay, maxHedgeDelay);
+      nodePoolService.bindTo(meterRegistry);
+      LOG.info("Spread the reads over {} blockchain clients.", services.size());
+      service = nodePoolService;
+    }
+    return Web3j.build(new InstrumentedWeb3jService(service, meterRegistry), pollingInterval,
+        Async.defaultExecutorService());
   }
 
+  /**
+   * Construct a new instance of {@link Web3j} over a WebSocket connection that reconnects by
+   * itself.
+   * @param web3Url The blockchain client address.
+   * @param reconnectMinBackoff The minimum time in milliseconds to wait before reconnecting.
+   * @param reconnectMaxBackoff The maximum time in milliseconds to wait before reconnecting.
+   * @param mockNodeWebSocketServer The in-process mock node, available with the mock-node profile.
+   * @param meterRegistry The registry of the measures of the calls to the blockchain client.
+   * @return A new instance of {@link Web3j}.
+   */
   @Profile("rpc-ws")
   @Bean(destroyMethod = "shutdown")
   @SneakyThrows
-  Web3j web3jOverWebSocket(final @Value("${web3j.ws.client-address}") String web3Url) {
-    var webSocketClient =  new WebSocketClient(URI.create(web3Url));
+  Web3j web3jOverWebSocket(final @Value("${web3j.ws.client-address}") String web3Url,
+      final @Value("${web3j.subscription.reconnect.min-backoff}") long reconnectMinBackoff,
+      final @Value("${web3j.subscription.reconnect.max-backoff}") long reconnectMaxBackoff,
+      final ObjectProvider<MockNodeWebSocketServer> mockNodeWebSocketServer,
+      final MeterRegistry meterRegistry) {
+    // The mock node, if any, has to listen before the connection is opened.
+    mockNodeWebSocketServer.ifAvailable(server -> LOG.info("Target the mock node on port {}.",
+        server.getPort()));
+    var webSocketClient = new ReconnectingWebSocketClient(URI.create(web3Url), reconnectMinBackoff,
+        reconnectMaxBackoff);
     var webSocketService = new WebSocketService(webSocketClient, true);
     webSocketService.connect();
-    return Web3j.build(webSocketService);
+    return Web3j.build(new InstrumentedWeb3jService(webSocketService, meterRegistry));
+  }
+
+  /**
+   * Construct a new instance of {@link AccountStateCache}.
+   * @param maxSize The maximum number of account states held by the cache.
+   * @return A new instance of {@link AccountStateCache}.
+   */
+  @Bean
+  AccountStateCache accountStateCache(final @Value("${web3j.cache.max-size}") int maxSize) {
+    return new AccountStateCache(maxSize);
+  }
+
+  /**
+   * Construct a new instance of {@link TransferEngine}.
+   * @param web3j The blockchain service.
+   * @param maxRetries The maximum number of times a transfer rejected because of its nonce is
+   * retried.
+   * @return A new instance of {@link TransferEngine}.
+   */
+  @Bean
+  TransferEngine transferEngine(final Web3j web3j,
+      final @Value("${web3j.transfer.max-retries}") int maxRetries) {
+    return new TransferEngine(web3j, maxRetries);
+  }
+
+  /**
+   * Construct a new instance of {@link TransferJobRegistry}.
+   * @param maxJobs The maximum number of batches of fund transfers remembered.
+   * @return A new instance of {@link TransferJobRegistry}.
+   */
+  @Bean
+  TransferJobRegistry transferJobRegistry(final @Value("${web3j.transfer.max-jobs}") int maxJobs) {
+    return new TransferJobRegistry(maxJobs);
+  }
+
+  /**
+   * Construct a new instance of {@link TransferTracker}.
+   * @param maxSize The maximum number of fund transfers tracked.
+   * @return A new instance of {@link TransferTracker}.
+   */
+  @Bean
+  TransferTracker transferTracker(final @Value("${web3j.transfer.tracker.max-size}") int maxSize) {
+    return new TransferTracker(maxSize);
+  }
+
+  /**
+   * Construct a new instance of {@link ConfirmationEngine}.
+   * @param web3j The blockchain service.
+   * @param depth The number of blocks a transaction is buried under, its own block included,
+   * before being confirmed.
+   * @param maxReorgDepth The number of blocks kept beyond the confirmation depth to detect the
+   * reorganizations of confirmed blocks.
+   * @param eventJournal The journal the blocks confirmed are written to, if enabled.
+   * @return A new instance of {@link ConfirmationEngine}.
+   */
+  @Bean
+  ConfirmationEngine confirmationEngine(final Web3j web3j,
+      final @Value("${web3j.confirmation.depth}") int depth,
+      final @Value("${web3j.confirmation.max-reorg-depth}") int maxReorgDepth,
+      final ObjectProvider<EventJournal> eventJournal) {
+    LOG.info("Confirm transactions {} blocks deep.", depth);
+    return new ConfirmationEngine(web3j, depth, maxReorgDepth, eventJournal.getIfAvailable());
+  }
+
+  /**
+   * Construct a new instance of {@link LogFilterEngine}.
+   * @param web3j The blockchain service.
+   * @param maxRetries The maximum number of times the reads of a block are retried.
+   * @param minBackoff The minimum time in milliseconds to wait before reading a block again.
+   * @param maxBackoff The maximum time in milliseconds to wait before reading a block again.
+   * @return A new instance of {@link LogFilterEngine}.
+   */
+  @Bean(destroyMethod = "shutdown")
+  LogFilterEngine logFilterEngine(final Web3j web3j,
+      final @Value("${web3j.logs.max-retries}") int maxRetries,
+      final @Value("${web3j.logs.retry.min-backoff}") long minBackoff,
+      final @Value("${web3j.logs.retry.max-backoff}") long maxBackoff) {
+    return new LogFilterEngine(web3j, maxRetries, minBackoff, maxBackoff);
+  }
+
+  /**
+   * Construct a new instance of {@link TransactionDeduplicator}.
+   * @param maxSize The maximum number of transaction hashes remembered per generation.
+   * @param retentionBlocks The number of blocks the transaction hashes are remembered for.
+   * @return A new instance of {@link TransactionDeduplicator}.
+   */
+  @Bean
+  TransactionDeduplicator transactionDeduplicator(
+      final @Value("${web3j.listener.dedup.max-size}") int maxSize,
+      final @Value("${web3j.listener.dedup.retention-blocks}") long retentionBlocks) {
+    return new TransactionDeduplicator(maxSize, retentionBlocks);
+  }
+
+  /**
+   * Construct a new instance of {@link ListenerDispatcher} for block notifications.
+   * @param bufferSize The maximum number of notifications buffered per listener.
+   * @param overflowPolicy What to do with a notification when the buffer of a listener is full.
+   * @param sampleRate The rate of overflowing notifications kept with the sample policy.
+   * @return A new instance of {@link ListenerDispatcher}.
+   */
+  @Bean
+  ListenerDispatcher<BlockEventListener, BlockEvent> blockDispatcher(
+      final @Value("${web3j.listener.buffer-size}") int bufferSize,
+      final @Value("${web3j.listener.overflow-policy}") OverflowPolicy overflowPolicy,
+      final @Value("${web3j.listener.sample-rate}") int sampleRate) {
+    return new ListenerDispatcher<>("block-listener", bufferSize, overflowPolicy, sampleRate,
+        BlockEventListener::onNewBlock);
+  }
+
+  /**
+   * Construct a new instance of {@link ListenerDispatcher} for transaction confirmations and
+   * retractions.
+   * @param bufferSize The maximum number of notifications buffered per listener.
+   * @param overflowPolicy What to do with a notification when the buffer of a listener is full.
+   * @param sampleRate The rate of overflowing notifications kept with the sample policy.
+   * @return A new instance of {@link ListenerDispatcher}.
+   */
+  @Bean
+  ListenerDispatcher<TransactionEventListener, TransactionConfirmation> transactionDispatcher(
+      final @Value("${web3j.listener.buffer-size}") int bufferSize,
+      final @Value("${web3j.listener.overflow-policy}") OverflowPolicy overflowPolicy,
+      final @Value("${web3j.listener.sample-rate}") int sampleRate) {
+    return new ListenerDispatcher<>("transaction-listener", bufferSize, overflowPolicy, sampleRate,
+        (listener, confirmation) -> confirmation.deliverTo(listener));
+  }
+
+  /**
+   * Construct a new instance of {@link ListenerDispatcher} for batches of transaction
+   * notifications.
+   * @param bufferSize The maximum number of batches buffered per listener.
+   * @param overflowPolicy What to do with a batch when the buffer of a listener is full.
+   * @param sampleRate The rate of overflowing batches kept with the sample policy.
+   * @return A new instance of {@link ListenerDispatcher}.
+   */
+  @Bean
+  ListenerDispatcher<TransactionBatchListener, List<String>> transactionBatchDispatcher(
+      final @Value("${web3j.listener.buffer-size}") int bufferSize,
+      final @Value("${web3j.listener.overflow-policy}") OverflowPolicy overflowPolicy,
+      final @Value("${web3j.listener.sample-rate}") int sampleRate) {
+    return new ListenerDispatcher<>("transaction-batch-listener", bufferSize, overflowPolicy,
+        sampleRate, TransactionBatchListener::onTransactionsConfirmed);
+  }
+
+  /**
+   * Construct a new instance of {@link ListenerDispatcher} for log notifications, each log being
+   * delivered to the listeners whose filter it matches.
+   * @param logFilterEngine The engine that holds the filters of the log listeners.
+   * @param bufferSize The maximum number of notifications buffered per listener.
+   * @param overflowPolicy What to do with a notification when the buffer of a listener is full.
+   * @param sampleRate The rate of overflowing notifications kept with the sample policy.
+   * @return A new instance of {@link ListenerDispatcher}.
+   */
+  @Bean
+  ListenerDispatcher<LogEventListener, LogEvent> logDispatcher(
+      final LogFilterEngine logFilterEngine,
+      final @Value("${web3j.listener.buffer-size}") int bufferSize,
+      final @Value("${web3j.listener.overflow-policy}") OverflowPolicy overflowPolicy,
+      final @Value("${web3j.listener.sample-rate}") int sampleRate) {
+    return new ListenerDispatcher<>("log-listener", bufferSize, overflowPolicy, sampleRate,
+        logFilterEngine::deliver);
+  }
+
+  /**
+   * Construct a new instance of {@link BlockStream}.
+   * @param web3j The blockchain service.
+   * @param pushSubscriptions Whether the new blocks are pushed by the blockchain client, rather
+   * than polled.
+   * @param minBackoff The minimum time in milliseconds to wait before subscribing again.
+   * @param maxBackoff The maximum time in milliseconds to wait before subscribing again.
+   * @param staleTimeout The time in milliseconds without any new block after which the
+   * subscription is considered lost.
+   * @param maxBackfill The maximum number of missed blocks read after a subscription is restored.
+   * @param backfillConcurrency The maximum number of missed blocks read at once.
+   * @return A new instance of {@link BlockStream}.
+   */
+  @Bean
+  BlockStream blockStream(final Web3j web3j,
+      final @Value("${web3j.subscription.push}") boolean pushSubscriptions,
+      final @Value("${web3j.subscription.reconnect.min-backoff}") long minBackoff,
+      final @Value("${web3j.subscription.reconnect.max-backoff}") long maxBackoff,
+      final @Value("${web3j.subscription.stale-timeout}") long staleTimeout,
+      final @Value("${web3j.subscription.backfill.max-blocks}") int maxBackfill,
+      final @Value("${web3j.subscription.backfill.max-concurrency}") int backfillConcurrency) {
+    return new BlockStream(web3j, pushSubscriptions, minBackoff, maxBackoff, staleTimeout,
+        maxBackfill, backfillConcurrency);
+  }
+
+  /**
+   * Construct a new instance of {@link EventJournal}, if enabled.
+   * @param directory The directory of the journal files.
+   * @param segmentSize The size in bytes of a journal segment file.
+   * @return A new instance of {@link EventJournal}.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "web3j.journal.enabled", havingValue = "true")
+  EventJournal eventJournal(final @Value("${web3j.journal.directory}") String directory,
+      final @Value("${web3j.journal.segment-size}") int segmentSize) {
+    return new EventJournal(Path.of(directory), segmentSize);
+  }
+
+  /**
+   * Construct a new instance of {@link WatchedAccountIndex}, if enabled.
+   * @param web3j The blockchain service.
+   * @param addresses The addresses of the watched accounts.
+   * @param reconciliationInterval The time in milliseconds between two reads of the watched
+   * accounts from the blockchain client.
+   * @return A new instance of {@link WatchedAccountIndex}.
+   */
+  @Bean(destroyMethod = "shutdown")
+  @ConditionalOnProperty(name = "web3j.watched-accounts.enabled", havingValue = "true")
+  WatchedAccountIndex watchedAccountIndex(final Web3j web3j,
+      final @Value("${web3j.watched-accounts.addresses}") String[] addresses,
+      final @Value("${web3j.watched-accounts.reconciliation-interval}")
+          long reconciliationInterval) {
+    LOG.info("Index {} watched accounts locally.", addresses.length);
+    return new WatchedAccountIndex(web3j, List.of(addresses), reconciliationInterval);
   }
 
   /**
    * Construct a new instance of {@link BlockchainService}.
    * @param web3j The blockchain service.
+   * @param accountStateCache The cache of account balances and transaction counts.
+   * @param transferEngine The engine that sends fund transfers.
+   * @param transferJobRegistry The registry of the latest batches of fund transfers.
+   * @param transferTracker The index of the latest fund transfers sent.
+   * @param receiptPollInterval The time in milliseconds between two reads of the receipts of the
+   * transfers still pending.
+   * @param bulkMaxConcurrency The maximum number of concurrent requests of a bulk operation.
+   * @param blockStream The gap-free stream of the blocks mined.
+   * @param eventJournal The journal the blocks confirmed are replayed from, if enabled.
+   * @param watchedAccountIndex The local index of the watched accounts, if enabled.
+   * @param transactionDeduplicator The set of the transactions notified recently.
+   * @param confirmationEngine The engine that holds the transactions until their confirmation
+   * depth.
+   * @param logFilterEngine The engine that reads the logs matching the filters of the log
+   * listeners.
+   * @param blockDispatcher The dispatcher of block notifications.
+   * @param transactionDispatcher The dispatcher of transaction notifications.
+   * @param transactionBatchDispatcher The dispatcher of batches of transaction notifications.
+   * @param logDispatcher The dispatcher of log notifications.
+   * @param transactionBatchWindow The time in milliseconds to collect a batch of transactions.
+   * @param transactionBatchMaxSize The maximum number of transactions in a batch.
+   * @param fullTransactionBlocks Whether block notifications include full transaction objects.
    * @return A new instance of {@link BlockchainService}.
    */
   @Bean
-  BlockchainService blockchainService(final Web3j web3j) {
-    return new BlockchainService(web3j, new ConcurrentLinkedQueue<>(),
-        new ConcurrentLinkedQueue<>());
+  BlockchainService blockchainService(final Web3j web3j,
+      final AccountStateCache accountStateCache, final TransferEngine transferEngine,
+      final TransferJobRegistry transferJobRegistry, final TransferTracker transferTracker,
+      final @Value("${web3j.transfer.tracker.receipt-poll-interval}") long receiptPollInterval,
+      final @Value("${web3j.bulk.max-concurrency}") int bulkMaxConcurrency,
+      final BlockStream blockStream,
+      final ObjectProvider<EventJournal> eventJournal,
+      final ObjectProvider<WatchedAccountIndex> watchedAccountIndex,
+      final TransactionDeduplicator transactionDeduplicator,
+      final ConfirmationEngine confirmationEngine,
+      final LogFilterEngine logFilterEngine,
+      final ListenerDispatcher<BlockEventListener, BlockEvent> blockDispatcher,
+      final ListenerDispatcher<TransactionEventListener, TransactionConfirmation>
+          transactionDispatcher,
+      final ListenerDispatcher<TransactionBatchListener, List<String>> transactionBatchDispatcher,
+      final ListenerDispatcher<LogEventListener, LogEvent> logDispatcher,
+      final @Value("${web3j.listener.batch.window}") long transactionBatchWindow,
+      final @Value("${web3j.listener.batch.max-size}") int transactionBatchMaxSize,
+      final @Value("${web3j.subscription.full-transactions}") boolean fullTransactionBlocks) {
+    return new BlockchainService(web3j, accountStateCache, transferEngine,
+        transferJobRegistry, transferTracker, receiptPollInterval, bulkMaxConcurrency,
+        blockStream, eventJournal.getIfAvailable(), watchedAccountIndex.getIfAvailable(),
+        transactionDeduplicator, confirmationEngine, logFilterEngine, blockDispatcher,
+        transactionDispatcher, transactionBatchDispatcher, logDispatcher, transactionBatchWindow,
+        transactionBatchMaxSize, fullTransactionBlocks);
   }
 }
@@ -3,28 +3,50 @@ package com.sy.web3j.api.demo.blockchain;
 import static io.vavr.control.Try.run;
 import static java.lang.String.format;
 
-import com.sy.web3j.api.demo.listener.BlockListener;
-import com.sy.web3j.api.demo.listener.TransactionListener;
+import com.sy.web3j.api.demo.blockchain.AccountStateCache.Kind;
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.BlockEventListener;
+import com.sy.web3j.api.demo.listener.EventJournal;
+import com.sy.web3j.api.demo.listener.ListenerDispatcher;
+import com.sy.web3j.api.demo.listener.LogEvent;
+import com.sy.web3j.api.demo.listener.LogEventListener;
+import com.sy.web3j.api.demo.listener.TransactionBatchListener;
+import com.sy.web3j.api.demo.listener.TransactionConfirmation;
+import com.sy.web3j.api.demo.listener.TransactionEventListener;
 import com.sy.web3j.api.demo.util.VisibleForTestOnly;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
 import io.reactivex.disposables.Disposable;
 import io.vavr.control.Try;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import lombok.AccessLevel;
-import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.DefaultBlockParameterName;
-import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
 import org.web3j.utils.Convert;
 import org.web3j.utils.Convert.Unit;
 
@@ -34,7 +56,9 @@ import org.web3j.utils.Convert.Unit;
  * @author selim
  */
 @Slf4j
-public class BlockchainService implements InitializingBean, DisposableBean {
+public class BlockchainService implements InitializingBean, DisposableBean, MeterBinder {
+
+  static final String BLOCK_LAG_TIMER = "web3j.block.lag";
 
   static final BigInteger GAS_PRICE = BigInteger.valueOf(200_000_0000L);
 
@@ -42,6 +66,30 @@ public class BlockchainService implements InitializingBean, DisposableBean {
 
   private final Web3j web3j;
 
+  private final AccountStateCache accountStateCache;
+
+  private final TransferEngine transferEngine;
+
+  private final TransferJobRegistry transferJobRegistry;
+
+  private final TransferTracker transferTracker;
+
+  private final long receiptPollInterval;
+
+  private final int bulkMaxConcurrency;
+
+  private final BlockStream blockStream;
+
+  private final EventJournal eventJournal;
+
+  private final WatchedAccountIndex watchedAccountIndex;
+
+  private final TransactionDeduplicator transactionDeduplicator;
+
+  private final ConfirmationEngine confirmationEngine;
+
+  private final LogFilterEngine logFilterEngine;
+
   @VisibleForTestOnly
   @Setter(AccessLevel.PACKAGE)
   private Disposable blockSubscription;
@@ -51,25 +99,98 @@ public class BlockchainService implements InitializingBean, DisposableBean {
   private Disposable transactionSubscription;
 
   @VisibleForTestOnly
-  @Getter(AccessLevel.PACKAGE)
-  private final ConcurrentLinkedQueue<BlockListener> blockListeners;
+  @Setter(AccessLevel.PACKAGE)
+  private Disposable receiptSubscription;
 
   @VisibleForTestOnly
-  @Getter(AccessLevel.PACKAGE)
-  private final ConcurrentLinkedQueue<TransactionListener> transactionListeners;
+  @Setter(AccessLevel.PACKAGE)
+  private Disposable logSubscription;
+
+  private final ListenerDispatcher<BlockEventListener, BlockEvent> blockDispatcher;
+
+  private final ListenerDispatcher<TransactionEventListener, TransactionConfirmation>
+      transactionDispatcher;
+
+  private final ListenerDispatcher<TransactionBatchListener, List<String>>
+      transactionBatchDispatcher;
+
+  private final ListenerDispatcher<LogEventListener, LogEvent> logDispatcher;
+
+  private final long transactionBatchWindow;
+
+  private final boolean fullTransactionBlocks;
+
+  private final int transactionBatchMaxSize;
+
+  private volatile Timer blockLagTimer;
 
   /**
    * Construct a new instance of <code>{@link BlockchainService}</code>.
    *
    * @param web3j The web3jOverHttp component to communicate with the blockchain.
-   * @param blockListeners A list of block listeners.
-   * @param transactionListeners A list of transaction listeners.
+   * @param accountStateCache The cache of account balances and transaction counts.
+   * @param transferEngine The engine that sends fund transfers.
+   * @param transferJobRegistry The registry of the latest batches of fund transfers.
+   * @param transferTracker The index of the latest fund transfers sent.
+   * @param receiptPollInterval The time in milliseconds between two reads of the receipts of the
+   * transfers still pending.
+   * @param bulkMaxConcurrency The maximum number of concurrent requests of a bulk operation.
+   * @param blockStream The gap-free stream of the blocks mined.
+   * @param eventJournal The journal the blocks confirmed are replayed from, or null if disabled.
+   * @param watchedAccountIndex The local index of the watched accounts, or null if disabled.
+   * @param transactionDeduplicator The set of the transactions notified recently, so that they are
+   * not notified twice.
+   * @param confirmationEngine The engine that holds the transactions until their confirmation
+   * depth and retracts them on a reorganization of the chain.
+   * @param logFilterEngine The engine that reads the logs matching the filters of the log
+   * listeners.
+   * @param blockDispatcher The dispatcher of block notifications to the block listeners.
+   * @param transactionDispatcher The dispatcher of transaction confirmations and retractions to
+   * the transaction listeners.
+   * @param transactionBatchDispatcher The dispatcher of transaction batches to the transaction
+   * batch listeners.
+   * @param logDispatcher The dispatcher of logs to the log listeners.
+   * @param transactionBatchWindow The time in milliseconds to collect a batch of transactions.
+   * @param transactionBatchMaxSize The maximum number of transactions in a batch.
+   * @param fullTransactionBlocks Whether block notifications include full transaction objects.
    */
-  public BlockchainService(final Web3j web3j, final ConcurrentLinkedQueue<BlockListener> blockListeners,
-      final ConcurrentLinkedQueue<TransactionListener> transactionListeners) {
+  public BlockchainService(final Web3j web3j, final AccountStateCache accountStateCache,
+      final TransferEngine transferEngine, final TransferJobRegistry transferJobRegistry,
+      final TransferTracker transferTracker, final long receiptPollInterval,
+      final int bulkMaxConcurrency, final BlockStream blockStream,
+      final EventJournal eventJournal, final WatchedAccountIndex watchedAccountIndex,
+      final TransactionDeduplicator transactionDeduplicator,
+      final ConfirmationEngine confirmationEngine, final LogFilterEngine logFilterEngine,
+      final ListenerDispatcher<BlockEventListener, BlockEvent> blockDispatcher,
+      final ListenerDispatcher<TransactionEventListener, TransactionConfirmation>
+          transactionDispatcher,
+      final ListenerDispatcher<TransactionBatchListener, List<String>> transactionBatchDispatcher,
+      final ListenerDispatcher<LogEventListener, LogEvent> logDispatcher,
+      final long transactionBatchWindow, final int transactionBatchMaxSize,
+      final boolean fullTransactionBlocks) {
+    if (receiptPollInterval <= 0) {
+      throw new IllegalArgumentException("The receipt poll interval must be positive");
+    }
     this.web3j = web3j;
-    this.blockListeners = blockListeners;
-    this.transactionListeners = transactionListeners;
+    this.accountStateCache = accountStateCache;
+    this.transferEngine = transferEngine;
+    this.transferJobRegistry = transferJobRegistry;
+    this.transferTracker = transferTracker;
+    this.receiptPollInterval = receiptPollInterval;
+    this.blockStream = blockStream;
+    this.eventJournal = eventJournal;
+    this.watchedAccountIndex = watchedAccountIndex;
+    this.transactionDeduplicator = transactionDeduplicator;
+    this.confirmationEngine = confirmationEngine;
+    this.logFilterEngine = logFilterEngine;
+    this.bulkMaxConcurrency = bulkMaxConcurrency;
+    this.blockDispatcher = blockDispatcher;
+    this.transactionDispatcher = transactionDispatcher;
+    this.transactionBatchDispatcher = transactionBatchDispatcher;
+    this.logDispatcher = logDispatcher;
+    this.transactionBatchWindow = transactionBatchWindow;
+    this.transactionBatchMaxSize = transactionBatchMaxSize;
+    this.fullTransactionBlocks = fullTransactionBlocks;
   }
 
   /**
@@ -89,6 +210,37 @@ public class BlockchainService implements InitializingBean, DisposableBean {
     shutdown();
   }
 
+  /**
+   * Measure the delay between the mining of a block and its dispatch to the block listeners, along
+   * with the efficiency of the account state cache.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    FunctionCounter.builder("web3j.cache.requests", accountStateCache,
+        cache -> cache.stats().getHits())
+        .description("Number of account state reads served by the cache")
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("web3j.cache.requests", accountStateCache,
+        cache -> cache.stats().getMisses())
+        .description("Number of account state reads served by the cache")
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder("web3j.cache.evictions", accountStateCache,
+        cache -> cache.stats().getEvictions())
+        .description("Number of account states evicted from the cache")
+        .register(registry);
+    Gauge.builder("web3j.cache.size", accountStateCache, cache -> cache.stats().getSize())
+        .description("Number of account states held by the cache")
+        .register(registry);
+    blockLagTimer = Timer.builder(BLOCK_LAG_TIMER)
+        .description("Delay between the timestamp of a block and its dispatch to the listeners")
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
   /**
    * Return the number of transaction sent from the given account.
    *
@@ -96,13 +248,49 @@ public class BlockchainService implements InitializingBean, DisposableBean {
    * @return the number of transaction sent or 0 if the account is unknown.
    */
   public BigInteger getTransactionsCount(@NotEmpty final String accountAddress) {
-
-    return Try.of(() -> web3j
+    var address = address(accountAddress);
+    var watchedTransactionCount = watchedTransactionCount(address);
+    if (watchedTransactionCount.isPresent()) {
+      return BigInteger.valueOf(watchedTransactionCount.getAsLong());
+    }
+    return accountStateCache.get(Kind.TRANSACTION_COUNT, address, () -> Try.of(() -> web3j
         .ethGetTransactionCount(accountAddress, DefaultBlockParameterName.LATEST)
         .send())
         .map(ethGetTransactionCount -> ethGetTransactionCount.getTransactionCount())
         .getOrElseThrow(throwable -> new BlockchainException(
-            format("Could not get transaction count for address %s", accountAddress), throwable));
+            format("Could not get transaction count for address %s", accountAddress), throwable)));
+  }
+
+  /**
+   * Return asynchronously the number of transaction sent from the given account, without blocking
+   * the calling thread while the blockchain is queried.
+   *
+   * @param accountAddress the account address to check the number of transaction sent.
+   * @return the number of transaction sent or 0 if the account is unknown.
+   */
+  public CompletableFuture<BigInteger> getTransactionsCountAsync(
+      @NotEmpty final String accountAddress) {
+    var parsedAddress = Try.of(() -> address(accountAddress));
+    if (parsedAddress.isFailure()) {
+      return CompletableFuture.failedFuture(parsedAddress.getCause());
+    }
+    var address = parsedAddress.get();
+    var watchedTransactionCount = watchedTransactionCount(address);
+    if (watchedTransactionCount.isPresent()) {
+      return CompletableFuture.completedFuture(
+          BigInteger.valueOf(watchedTransactionCount.getAsLong()));
+    }
+    return accountStateCache.getAsync(Kind.TRANSACTION_COUNT, address, () -> web3j
+        .ethGetTransactionCount(accountAddress, DefaultBlockParameterName.LATEST)
+        .sendAsync()
+        .thenApply(ethGetTransactionCount -> {
+          if (ethGetTransactionCount.hasError()) {
+            throw new BlockchainException(ethGetTransactionCount.getError().getMessage());
+          }
+          return ethGetTransactionCount.getTransactionCount();
+        }))
+        .exceptionally(rethrow(
+            format("Could not get transaction count for address %s", accountAddress)));
   }
 
   /**
@@ -112,13 +300,55 @@ public class BlockchainService implements InitializingBean, DisposableBean {
    * @return The balance in Ether or 0 if the account is unknown.
    */
   public BigDecimal getBalance(@NotEmpty final String accountAddress) {
-    return Try.of(() -> web3j
-        .ethGetBalance(accountAddress, DefaultBlockParameterName.LATEST)
-        .send())
-        .map(ethGetBalance -> ethGetBalance.getBalance())
-        .map(balance -> Convert.fromWei(balance.toString(), Unit.ETHER))
-        .getOrElseThrow(throwable -> new BlockchainException(
-            format("Could not get the balance of account %s", accountAddress), throwable));
+    var address = address(accountAddress);
+    var balance = watchedBalance(address)
+        .orElseGet(() -> Wei.of(accountStateCache.get(Kind.BALANCE, address, () -> Try.of(() -> web3j
+            .ethGetBalance(accountAddress, DefaultBlockParameterName.LATEST)
+            .send())
+            .map(ethGetBalance -> ethGetBalance.getBalance())
+            .getOrElseThrow(throwable -> new BlockchainException(
+                format("Could not get the balance of account %s", accountAddress), throwable)))));
+    return balance.toEther();
+  }
+
+  /**
+   * Return asynchronously the balance of the given account in Ether, without blocking the calling
+   * thread while the blockchain is queried.
+   *
+   * @param accountAddress the account address to check the balance.
+   * @return The balance in Ether or 0 if the account is unknown.
+   */
+  public CompletableFuture<BigDecimal> getBalanceAsync(@NotEmpty final String accountAddress) {
+    return balanceInWeiAsync(accountAddress)
+        .thenApply(Wei::toEther)
+        .exceptionally(rethrow(format("Could not get the balance of account %s", accountAddress)));
+  }
+
+  /**
+   * Return the balances of the given accounts in Ether, as soon as they are read. The balances are
+   * read asynchronously with a bounded concurrency, and an account whose balance could not be read
+   * is reported with the reason of the failure instead of failing the whole query.
+   *
+   * @param accountAddresses the account addresses to check the balance.
+   * @return The balances in Ether, in no particular order.
+   */
+  public Flowable<AccountBalance> getBalances(@NotEmpty final Collection<String> accountAddresses) {
+    return Flowable.fromIterable(accountAddresses)
+        .flatMapSingle(accountAddress -> toSingle(() -> balanceInWeiAsync(accountAddress))
+                .map(balance -> AccountBalance.of(accountAddress, balance.toEther()))
+                .onErrorReturn(throwable -> AccountBalance.failed(accountAddress,
+                    format("Could not get the balance of account %s: %s", accountAddress,
+                        unwrap(throwable).getMessage()))),
+            false, bulkMaxConcurrency);
+  }
+
+  /**
+   * Return the statistics of the account balances and transaction counts cache.
+   *
+   * @return the cache statistics.
+   */
+  public AccountStateCache.CacheStats getCacheStats() {
+    return accountStateCache.stats();
   }
 
   /**
@@ -136,42 +366,99 @@ public class BlockchainService implements InitializingBean, DisposableBean {
             throwable));
   }
 
+  /**
+   * Returns asynchronously a list of unlocked accounts, without blocking the calling thread while
+   * the blockchain is queried.
+   *
+   * @return the list of accounts owned by the ethereum client.
+   */
+  public CompletableFuture<Collection<String>> getUnlockedAccountsAsync() {
+
+    return web3j
+        .ethAccounts()
+        .sendAsync()
+        .<Collection<String>>thenApply(ethAccounts -> {
+          if (ethAccounts.hasError()) {
+            throw new BlockchainException(ethAccounts.getError().getMessage());
+          }
+          return ethAccounts.getAccounts();
+        })
+        .exceptionally(rethrow("Could not get accounts information"));
+  }
+
   /**
    * Send an amount of Ether from an unlocked account (aka the private key is stored on the
-   * Ethereum client) address to another account.
+   * Ethereum client) address to another account. The transfer is tracked until its transaction is
+   * mined.
    *
    * @param senderAddress the account that sends ether.
    * @param recipientAddress the account that receives ether.
    * @param amountInEther the amount to fundTransfer.
+   * @return the hash of the transaction sent.
    */
-  public void transferFund(@NotEmpty String senderAddress, @NotEmpty String recipientAddress,
-      @Positive BigDecimal amountInEther) {
-    var transaction = Transaction.createEtherTransaction(
-        senderAddress,
-        null,
-        GAS_PRICE,
-        GAS_LIMIT,
-        recipientAddress,
-        Convert.toWei(amountInEther, Unit.ETHER).toBigInteger());
-
-    web3j.ethSendTransaction(transaction)
-        .sendAsync()
-        .thenAccept(ethSendTransaction -> Optional
-            .ofNullable(ethSendTransaction.getTransactionHash())
-            .orElseThrow(() -> new BlockchainException(ethSendTransaction.getError().getMessage())))
-        .exceptionally(throwable -> {
-          LOG.error("Could not complete Ether transfer to the blockchain:", throwable);
-          return null;
-        });
+  public CompletableFuture<String> transferFund(@NotEmpty String senderAddress,
+      @NotEmpty String recipientAddress, @Positive BigDecimal amountInEther) {
+    return sendTransfer(senderAddress, recipientAddress, amountInEther)
+        .exceptionally(rethrow(format("Could not transfer Ether from account %s", senderAddress)));
   }
 
   /**
-   * Add a new block listener to the block notification listeners group.
+   * Return the outcome of a fund transfer sent by this service.
+   *
+   * @param transactionHash the hash of the transaction sent.
+   * @return the transfer, or nothing if the transfer is unknown or has been forgotten.
+   */
+  public Optional<TrackedTransfer> getTransferStatus(@NotEmpty final String transactionHash) {
+    return transferTracker.find(transactionHash);
+  }
+
+  /**
+   * Submit a batch of fund transfers from unlocked accounts without waiting for them to be sent.
+   * The transfers are sent asynchronously with a bounded concurrency, and the returned job reports
+   * the status of every transfer as it progresses: a transfer that fails does not fail the others.
+   *
+   * @param transfers the fund transfers to send.
+   * @return the job that tracks the fund transfers.
+   */
+  public TransferJob submitTransfers(@NotEmpty final List<FundTransfer> transfers) {
+    var transferJob = new TransferJob(transfers);
+    transferJobRegistry.register(transferJob);
+    Flowable.fromIterable(transferJob.getItems())
+        .flatMapCompletable(item -> toSingle(() -> sendTransfer(
+            item.getSenderAddress(),
+            item.getRecipientAddress(),
+            item.getAmountInEther()))
+                .doOnSuccess(item::submitted)
+                .doOnError(throwable -> item.failed(
+                    format("Could not transfer Ether from account %s: %s",
+                        item.getSenderAddress(), unwrap(throwable).getMessage())))
+                .ignoreElement()
+                .onErrorComplete(),
+            false, bulkMaxConcurrency)
+        .subscribe(() -> LOG.info("Transfer job {} completed: {} submitted, {} failed.",
+            transferJob.getJobId(), transferJob.count(TransferJob.Status.SUBMITTED),
+            transferJob.count(TransferJob.Status.FAILED)));
+    return transferJob;
+  }
+
+  /**
+   * Return the batch of fund transfers with the given identifier.
+   *
+   * @param jobId the job identifier.
+   * @return the job, or nothing if the job is unknown or has been forgotten.
+   */
+  public Optional<TransferJob> getTransferJob(@NotEmpty final String jobId) {
+    return transferJobRegistry.find(jobId);
+  }
+
+  /**
+   * Add a new block listener to the block notification listeners group. Listeners that implement
+   * {@link BlockEventListener} only receive the content of the block.
    *
    * @param blockListener The block listener to add.
    */
-  public void addBlockListener(@NotNull BlockListener blockListener) {
-    blockListeners.add(blockListener);
+  public void addBlockListener(@NotNull BlockEventListener blockListener) {
+    blockDispatcher.register(blockListener);
   }
 
   /**
@@ -179,17 +466,18 @@ public class BlockchainService implements InitializingBean, DisposableBean {
    *
    * @param blockListener The block listener to remove.
    */
-  public void removeBlockListener(@NotNull BlockListener blockListener) {
-    blockListeners.remove(blockListener);
+  public void removeBlockListener(@NotNull BlockEventListener blockListener) {
+    blockDispatcher.unregister(blockListener);
   }
 
   /**
-   * Add a new transaction listener to the transaction notification listeners group.
+   * Add a new transaction listener to the transaction notification listeners group. Listeners
+   * that implement {@link TransactionEventListener} only receive the content of the transaction.
    *
    * @param transactionListener The transaction listener to add.
    */
-  public void addTransactionListener(@NotNull TransactionListener transactionListener) {
-    transactionListeners.add(transactionListener);
+  public void addTransactionListener(@NotNull TransactionEventListener transactionListener) {
+    transactionDispatcher.register(transactionListener);
   }
 
   /**
@@ -197,14 +485,229 @@ public class BlockchainService implements InitializingBean, DisposableBean {
    *
    * @param transactionListener The transaction listener to remove.
    */
-  public void removeTransactionListener(@NotNull TransactionListener transactionListener) {
-    transactionListeners.remove(transactionListener);
+  public void removeTransactionListener(@NotNull TransactionEventListener transactionListener) {
+    transactionDispatcher.unregister(transactionListener);
+  }
+
+  /**
+   * Deliver the blocks and transactions confirmed and journaled from the given block number on to
+   * the given listeners, in order, by the calling thread. The listeners may be added to the notification
+   * listeners groups afterwards to receive the next events.
+   *
+   * @param fromBlockNumber The number of the first block to replay.
+   * @param blockListener The block listener.
+   * @param transactionListener The transaction listener.
+   * @return the number of blocks replayed.
+   * @throws IllegalStateException if the event journal is disabled.
+   */
+  public long replayEvents(final long fromBlockNumber,
+      @NotNull final BlockEventListener blockListener,
+      @NotNull final TransactionEventListener transactionListener) {
+    if (eventJournal == null) {
+      throw new IllegalStateException("The event journal is disabled");
+    }
+    return eventJournal.replay(fromBlockNumber, blockListener, transactionListener);
+  }
+
+  private Optional<Wei> watchedBalance(final Address accountAddress) {
+    return watchedAccountIndex == null ? Optional.empty()
+        : watchedAccountIndex.getBalance(accountAddress);
+  }
+
+  private OptionalLong watchedTransactionCount(final Address accountAddress) {
+    return watchedAccountIndex == null ? OptionalLong.empty()
+        : watchedAccountIndex.getTransactionCount(accountAddress);
+  }
+
+  private void index(final BlockEvent blockEvent) {
+    if (watchedAccountIndex != null) {
+      watchedAccountIndex.onNewBlock(blockEvent);
+    }
+  }
+
+  private boolean deduplicate(final TransactionConfirmation confirmation) {
+    var transaction = confirmation.getTransaction();
+    if (!confirmation.isRetracted()) {
+      return transactionDeduplicator.add(transaction.getHash(), transaction.getBlockNumber());
+    }
+    // A transaction retracted may be mined again in another block.
+    transactionDeduplicator.remove(transaction.getHash());
+    return true;
+  }
+
+  private void track(final TransactionConfirmation confirmation) {
+    if (confirmation.isRetracted()) {
+      transferTracker.onTransactionRetracted(confirmation.getTransaction());
+    } else if (transferTracker.onTransactionConfirmed(confirmation.getTransaction())) {
+      // The outcome of the transfer is told by the receipt of its transaction.
+      readReceipt(confirmation.getTransaction().getHash()).subscribe();
+    }
+  }
+
+  private CompletableFuture<String> sendTransfer(final String senderAddress,
+      final String recipientAddress, final BigDecimal amountInEther) {
+    return transferEngine
+        .transfer(senderAddress, recipientAddress,
+            Convert.toWei(amountInEther, Unit.ETHER).toBigInteger())
+        .thenApply(transactionHash -> {
+          transferTracker.track(transactionHash);
+          return transactionHash;
+        });
+  }
+
+  /**
+   * Read the receipts of the transfers not confirmed in time, whose transaction may not have been
+   * notified or whose receipt could not be read once confirmed. The reads are concurrent so that
+   * they are coalesced in JSON-RPC batches by the HTTP service.
+   *
+   * @param minAge the minimum time since the transfers have been sent.
+   */
+  @VisibleForTestOnly
+  Completable pollReceipts(final Duration minAge) {
+    return Flowable.fromIterable(transferTracker.pending(minAge))
+        .flatMapCompletable(this::readReceipt, false, bulkMaxConcurrency);
+  }
+
+  private Completable readReceipt(final String transactionHash) {
+    return toSingle(() -> web3j
+        .ethGetTransactionReceipt(transactionHash)
+        .sendAsync())
+        .doOnSuccess(ethGetTransactionReceipt -> ethGetTransactionReceipt
+            .getTransactionReceipt()
+            .ifPresent(transferTracker::onReceipt))
+        .doOnError(throwable -> LOG.warn("Could not get the receipt of transaction {}: {}",
+            transactionHash, unwrap(throwable).getMessage()))
+        .ignoreElement()
+        .onErrorComplete();
+  }
+
+  private CompletableFuture<Wei> balanceInWeiAsync(final String accountAddress) {
+    var parsedAddress = Try.of(() -> address(accountAddress));
+    if (parsedAddress.isFailure()) {
+      return CompletableFuture.failedFuture(parsedAddress.getCause());
+    }
+    var address = parsedAddress.get();
+    var watchedBalance = watchedBalance(address);
+    if (watchedBalance.isPresent()) {
+      return CompletableFuture.completedFuture(watchedBalance.get());
+    }
+    return accountStateCache.getAsync(Kind.BALANCE, address, () -> web3j
+        .ethGetBalance(accountAddress, DefaultBlockParameterName.LATEST)
+        .sendAsync()
+        .thenApply(ethGetBalance -> {
+          if (ethGetBalance.hasError()) {
+            throw new BlockchainException(ethGetBalance.getError().getMessage());
+          }
+          return ethGetBalance.getBalance();
+        }))
+        .thenApply(Wei::of);
+  }
+
+  private static Address address(final String accountAddress) {
+    return Try.of(() -> Address.parse(accountAddress))
+        .getOrElseThrow(throwable -> new BlockchainException(
+            format("Invalid account address %s", accountAddress), throwable));
+  }
+
+  private static <T> Function<Throwable, T> rethrow(final String message) {
+    return throwable -> {
+      throw new BlockchainException(message, unwrap(throwable));
+    };
+  }
+
+  private static Throwable unwrap(final Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+  }
+
+  /**
+   * Adapt the future of an asynchronous request to a single that never blocks to wait for it.
+   *
+   * @param futureSupplier the supplier of the future, called once per subscription.
+   * @param <T> the type of the value.
+   * @return the single of the value.
+   */
+  static <T> Single<T> toSingle(final Supplier<CompletableFuture<T>> futureSupplier) {
+    return Single.create(emitter -> futureSupplier.get()
+        .whenComplete((value, throwable) -> {
+          if (throwable != null) {
+            emitter.onError(throwable);
+          } else {
+            emitter.onSuccess(value);
+          }
+        }));
+  }
+
+  /**
+   * Add a new transaction batch listener to the transaction notification listeners group.
+   *
+   * @param transactionBatchListener The transaction batch listener to add.
+   */
+  public void addTransactionBatchListener(
+      @NotNull TransactionBatchListener transactionBatchListener) {
+    transactionBatchDispatcher.register(transactionBatchListener);
+  }
+
+  /**
+   * Remove a transaction batch listener from the transaction notification listeners group.
+   *
+   * @param transactionBatchListener The transaction batch listener to remove.
+   */
+  public void removeTransactionBatchListener(
+      @NotNull TransactionBatchListener transactionBatchListener) {
+    transactionBatchDispatcher.unregister(transactionBatchListener);
+  }
+
+  /**
+   * Add a new log listener to the log notification listeners group, or replace the filter of a
+   * listener already added. The listener only receives the logs that match its filter, read from
+   * the blockchain client along with the logs of the other listeners.
+   *
+   * @param logFilter The filter of the logs to receive.
+   * @param logListener The log listener to add.
+   */
+  public void addLogListener(@NotNull LogFilter logFilter, @NotNull LogEventListener logListener) {
+    logFilterEngine.register(logListener, logFilter);
+    logDispatcher.register(logListener);
+  }
+
+  /**
+   * Remove a log listener from the log notification listeners group.
+   *
+   * @param logListener The log listener to remove.
+   */
+  public void removeLogListener(@NotNull LogEventListener logListener) {
+    logDispatcher.unregister(logListener);
+    logFilterEngine.unregister(logListener);
+  }
+
+  @VisibleForTestOnly
+  Collection<BlockEventListener> getBlockListeners() {
+    return blockDispatcher.getListeners();
+  }
+
+  @VisibleForTestOnly
+  Collection<TransactionEventListener> getTransactionListeners() {
+    return transactionDispatcher.getListeners();
+  }
+
+  private void recordBlockLag(final BlockEvent blockEvent) {
+    var timer = blockLagTimer;
+    if (timer != null) {
+      // The block timestamp is in seconds and set by the miner, whose clock may be ahead.
+      timer.record(Math.max(0, System.currentTimeMillis() - blockEvent.getTimestamp() * 1_000),
+          TimeUnit.MILLISECONDS);
+    }
   }
 
   private void shutdown() {
-    blockListeners.clear();
-    transactionListeners.clear();
-    LOG.info("Block and transaction listeners have been successfully unregistered.");
+    accountStateCache.clear();
+    blockDispatcher.shutdown();
+    transactionDispatcher.shutdown();
+    transactionBatchDispatcher.shutdown();
+    logDispatcher.shutdown();
+    LOG.info("Block, transaction and log listeners have been successfully unregistered.");
 
     run(() -> blockSubscription.dispose())
         .onSuccess(aVoid -> LOG.info("Successfully unsubscribed to block notifications."))
@@ -214,26 +717,87 @@ public class BlockchainService implements InitializingBean, DisposableBean {
         .onSuccess(aVoid -> LOG.info("Successfully unsubscribed to transaction notifications."))
         .onFailure(throwable -> LOG.warn("Fail to cancel subscription to transaction notifications: {}",
             throwable.getMessage()));
+    run(() -> receiptSubscription.dispose())
+        .onSuccess(aVoid -> LOG.info("Successfully stopped polling transaction receipts."))
+        .onFailure(throwable -> LOG.warn("Fail to stop polling transaction receipts: {}",
+            throwable.getMessage()));
+    run(() -> logSubscription.dispose())
+        .onSuccess(aVoid -> LOG.info("Successfully unsubscribed to log notifications."))
+        .onFailure(throwable -> LOG.warn("Fail to cancel subscription to log notifications: {}",
+            throwable.getMessage()));
+  }
+
+  private Flowable<Block> transactionBlocks() {
+    var lastJournaledBlock = eventJournal == null
+        ? OptionalLong.empty()
+        : eventJournal.getLastBlockNumber();
+    if (lastJournaledBlock.isEmpty()) {
+      return blockStream.blocks(true);
+    }
+    // The blocks mined while stopped are read first, so that the journal has no gap.
+    LOG.info("Resume the transaction notifications after block {} of the event journal.",
+        lastJournaledBlock.getAsLong());
+    return blockStream.blocks(true, lastJournaledBlock.getAsLong() + 1);
   }
 
   private void enableSubscriptions() {
-    blockSubscription = web3j.blockFlowable(false)
+    blockSubscription = blockStream.blocks(fullTransactionBlocks)
         .map(
-            block -> block.getBlock().getHash())
+            BlockEvent::of)
+        .doOnNext(
+            blockEvent -> accountStateCache.onNewBlock(blockEvent.getNumber()))
+        .doOnNext(
+            logFilterEngine::onNewBlock)
         .doOnSubscribe(
             subscription -> LOG.info("Subscribe to newly block created on the blockchain."))
+        .doAfterNext(
+            this::recordBlockLag)
         .subscribe(
-            blockHash -> blockListeners.forEach(blockListener -> blockListener.onNewBlock(blockHash)),
+            blockDispatcher::dispatch,
             throwable -> LOG.error("Could not subscribe to block notifications:", throwable));
 
-    transactionSubscription = web3j.transactionFlowable()
+    transactionSubscription = transactionBlocks()
         .map(
-            transaction -> transaction.getHash())
+            BlockEvent::of)
+        .doOnNext(
+            this::index)
+        .concatMap(
+            confirmationEngine::onNewBlock)
         .doOnSubscribe(
             subscription -> LOG.info("Subscribe to newly transactions confirmed on the blockchain."))
+        .filter(
+            this::deduplicate)
+        .doOnNext(
+            this::track)
+        .doOnNext(
+            transactionDispatcher::dispatch)
+        .filter(
+            confirmation -> !confirmation.isRetracted())
+        .map(
+            confirmation -> confirmation.getTransaction().getHash())
+        .buffer(transactionBatchWindow, TimeUnit.MILLISECONDS, transactionBatchMaxSize)
+        .filter(
+            transactionHashes -> !transactionHashes.isEmpty())
         .subscribe(
-            transactionHash -> this.transactionListeners
-                .forEach(listeners -> listeners.onTransactionConfirmed(transactionHash)),
+            transactionBatchDispatcher::dispatch,
             throwable -> LOG.error("Could not subscribe to transactions notifications:", throwable));
+
+    logSubscription = logFilterEngine.logs()
+        .doOnSubscribe(
+            subscription -> LOG.info("Subscribe to the logs of the contracts on the blockchain."))
+        .subscribe(
+            logDispatcher::dispatch,
+            throwable -> LOG.error("Could not subscribe to log notifications:", throwable));
+
+    receiptSubscription = Flowable.interval(receiptPollInterval, TimeUnit.MILLISECONDS)
+        .onBackpressureDrop()
+        .concatMapCompletable(
+            tick -> pollReceipts(Duration.ofMillis(receiptPollInterval)))
+        .doOnSubscribe(
+            subscription -> LOG.info("Poll the receipts of pending transfers every {} ms.",
+                receiptPollInterval))
+        .subscribe(
+            () -> { },
+            throwable -> LOG.error("Could not poll transaction receipts:", throwable));
   }
 }
@@ -0,0 +1,249 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static com.sy.web3j.api.demo.blockchain.BlockchainService.toSingle;
+import static io.vavr.control.Try.run;
+import static java.lang.String.format;
+
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.EventJournal;
+import com.sy.web3j.api.demo.listener.TransactionConfirmation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+
+/**
+ * Hold the transactions of the blocks mined until they are buried under a number of blocks, and
+ * retract the transactions already confirmed whose block is dropped by a reorganization of the
+ * chain. The engine keeps the last blocks of the chain indexed by number: a block whose parent
+ * hash is not the hash of the block known at the previous number starts another branch, whose
+ * ancestors are read by hash from the blockchain client up to the common ancestor. The blocks
+ * after the common ancestor are then replaced by the branch.
+ *
+ * <p>A transaction is confirmed once its block is <code>depth</code> blocks deep, the head
+ * included: with a depth of 1, transactions are confirmed as soon as they are mined. The
+ * reorganizations deeper than the number of blocks kept cannot be told apart from a gap in the
+ * blocks delivered: the blocks kept from the first block of the branch on are replaced, the older
+ * ones are left alone.
+ *
+ * <p>The blocks confirmed are written to the event journal, if any, and truncated from it when
+ * they are replaced, so that the journal only holds blocks confirmed on the current chain.
+ *
+ * <p>Blocks are expected one at a time, the next one once the confirmations of the previous one are
+ * consumed, such as through {@link Flowable#concatMap}. The ancestors of a branch are read without
+ * blocking the thread that adds the blocks.
+ *
+ * @author selim
+ */
+@Slf4j
+public class ConfirmationEngine implements MeterBinder {
+
+  static final String PENDING_GAUGE = "web3j.confirmation.pending";
+
+  static final String REORGS_COUNTER = "web3j.confirmation.reorgs";
+
+  static final String RETRACTED_COUNTER = "web3j.confirmation.retracted";
+
+  private static final long NO_BLOCK = -1;
+
+  private final Web3j web3j;
+
+  private final int depth;
+
+  private final int maxReorgDepth;
+
+  private final EventJournal eventJournal;
+
+  private final NavigableMap<Long, BlockEvent> chain = new TreeMap<>();
+
+  private long confirmedBlockNumber = NO_BLOCK;
+
+  private volatile int pendingTransactions;
+
+  private final LongAdder reorgs = new LongAdder();
+
+  private final LongAdder retracted = new LongAdder();
+
+  /**
+   * Construct a new instance of <code>{@link ConfirmationEngine}</code>.
+   *
+   * @param web3j The component to communicate with the blockchain.
+   * @param depth The number of blocks a transaction is buried under, its own block included,
+   * before being confirmed.
+   * @param maxReorgDepth The number of blocks kept beyond the confirmation depth to detect the
+   * reorganizations of confirmed blocks.
+   * @param eventJournal The journal the blocks confirmed are written to, or null if disabled.
+   */
+  public ConfirmationEngine(final Web3j web3j, final int depth, final int maxReorgDepth,
+      final EventJournal eventJournal) {
+    if (depth <= 0 || maxReorgDepth < 0) {
+      throw new IllegalArgumentException(
+          "The confirmation depth must be positive and the reorganization depth not negative");
+    }
+    this.web3j = web3j;
+    this.depth = depth;
+    this.maxReorgDepth = maxReorgDepth;
+    this.eventJournal = eventJournal;
+  }
+
+  /**
+   * Add a block mined and return the transactions it retracts and confirms, retractions first.
+   *
+   * @param blockEvent the block mined, with its transactions.
+   * @return the transactions retracted and confirmed.
+   */
+  public Flowable<TransactionConfirmation> onNewBlock(@NotNull final BlockEvent blockEvent) {
+    return Flowable.defer(() -> {
+      var known = chain.get(blockEvent.getNumber());
+      if (known != null && known.getHash().equals(blockEvent.getHash())) {
+        return Flowable.empty();
+      }
+      var parent = chain.get(blockEvent.getNumber() - 1);
+      var extended = parent == null
+          ? chain.isEmpty() || blockEvent.getNumber() > chain.lastKey()
+          : parent.getHash().equals(blockEvent.getParentHash());
+      if (known == null && extended) {
+        var confirmations = new ArrayList<TransactionConfirmation>();
+        append(blockEvent, confirmations);
+        return Flowable.fromIterable(confirmations);
+      }
+      return branch(List.of(blockEvent))
+          .onErrorReturn(throwable -> {
+            LOG.warn("Could not read the ancestors of block {}, replace the blocks from {} on: {}",
+                blockEvent.getHash(), blockEvent.getNumber(), throwable.getMessage());
+            return List.of(blockEvent);
+          })
+          .flattenAsFlowable(this::reorganize);
+    });
+  }
+
+  /**
+   * Return the number of transactions mined and not confirmed yet.
+   *
+   * @return the number of pending transactions.
+   */
+  public int getPendingTransactions() {
+    return pendingTransactions;
+  }
+
+  /**
+   * Measure the transactions waiting for their confirmation, the reorganizations and the
+   * transactions retracted.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    Gauge.builder(PENDING_GAUGE, this, ConfirmationEngine::getPendingTransactions)
+        .description("Number of transactions mined waiting for their confirmation depth")
+        .register(registry);
+    FunctionCounter.builder(REORGS_COUNTER, reorgs, LongAdder::sum)
+        .description("Number of reorganizations of the chain")
+        .register(registry);
+    FunctionCounter.builder(RETRACTED_COUNTER, retracted, LongAdder::sum)
+        .description("Number of confirmed transactions retracted by a reorganization")
+        .register(registry);
+  }
+
+  private Single<List<BlockEvent>> branch(final List<BlockEvent> branch) {
+    var oldest = branch.get(0);
+    var expected = chain.get(oldest.getNumber() - 1);
+    if (expected == null || expected.getHash().equals(oldest.getParentHash())
+        || branch.size() > depth + maxReorgDepth) {
+      return Single.just(branch);
+    }
+    return block(oldest.getParentHash())
+        .flatMap(parent -> {
+          var longer = new ArrayList<BlockEvent>(branch.size() + 1);
+          longer.add(parent);
+          longer.addAll(branch);
+          return branch(longer);
+        });
+  }
+
+  private List<TransactionConfirmation> reorganize(final List<BlockEvent> branch) {
+    var confirmations = new ArrayList<TransactionConfirmation>();
+    var forkNumber = branch.get(0).getNumber();
+    var dropped = chain.tailMap(forkNumber, true);
+    if (!dropped.isEmpty()) {
+      reorgs.increment();
+      LOG.warn("Reorganization of the chain from block {}: {} blocks replaced by {} blocks.",
+          forkNumber, dropped.size(), branch.size());
+    }
+    // The most recent transactions are retracted first.
+    for (var block : dropped.descendingMap().values()) {
+      if (block.getNumber() > confirmedBlockNumber) {
+        pendingTransactions -= block.getTransactions().size();
+        continue;
+      }
+      for (var transaction : block.getTransactions()) {
+        confirmations.add(TransactionConfirmation.retracted(transaction));
+      }
+      retracted.add(block.getTransactions().size());
+    }
+    dropped.clear();
+    if (forkNumber <= confirmedBlockNumber) {
+      unjournal(forkNumber);
+    }
+    confirmedBlockNumber = Math.min(confirmedBlockNumber, forkNumber - 1);
+    branch.forEach(block -> append(block, confirmations));
+    return confirmations;
+  }
+
+  private void append(final BlockEvent blockEvent,
+      final List<TransactionConfirmation> confirmations) {
+    var head = blockEvent.getNumber();
+    chain.put(head, blockEvent);
+    pendingTransactions += blockEvent.getTransactions().size();
+    // The blocks between the last confirmed one and the new confirmation depth.
+    var from = confirmedBlockNumber == NO_BLOCK ? chain.firstKey() : confirmedBlockNumber + 1;
+    var to = head - depth + 1;
+    if (from <= to) {
+      for (var block : chain.subMap(from, true, to, true).values()) {
+        for (var transaction : block.getTransactions()) {
+          confirmations.add(TransactionConfirmation.confirmed(transaction));
+        }
+        pendingTransactions -= block.getTransactions().size();
+        journal(block);
+      }
+      confirmedBlockNumber = to;
+    }
+    chain.headMap(head - depth - maxReorgDepth, true).clear();
+  }
+
+  private void journal(final BlockEvent blockEvent) {
+    if (eventJournal != null) {
+      run(() -> eventJournal.append(blockEvent))
+          .onFailure(throwable -> LOG.error("Could not journal block {}:", blockEvent.getNumber(),
+              throwable));
+    }
+  }
+
+  private void unjournal(final long fromBlockNumber) {
+    if (eventJournal != null) {
+      run(() -> eventJournal.truncate(fromBlockNumber))
+          .onFailure(throwable -> LOG.error("Could not truncate the journal from block {}:",
+              fromBlockNumber, throwable));
+    }
+  }
+
+  private Single<BlockEvent> block(final String blockHash) {
+    return toSingle(() -> web3j.ethGetBlockByHash(blockHash, true).sendAsync())
+        .map(ethBlock -> {
+          if (ethBlock.getBlock() == null) {
+            throw new BlockchainException(format("Could not read block %s", blockHash));
+          }
+          return BlockEvent.of(ethBlock.getBlock());
+        });
+  }
+}
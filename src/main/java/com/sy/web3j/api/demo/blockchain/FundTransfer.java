@@ -0,0 +1,18 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+/**
+ * Represents an amount of Ether to send from an unlocked account to another account.
+ *
+ * @author selim
+ */
+@Value
+public class FundTransfer {
+
+  private final String senderAddress;
+  private final String recipientAddress;
+  private final BigDecimal amountInEther;
+
+}
@@ -0,0 +1,54 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * OkHttp interceptor that compresses the body of the requests with gzip. Large JSON-RPC batches
+ * shrink a lot, but the blockchain client has to accept compressed requests, which is why it is
+ * opt-in. The responses are decompressed by OkHttp itself.
+ *
+ * @author selim
+ */
+public class GzipRequestInterceptor implements Interceptor {
+
+  @Override
+  public Response intercept(final Chain chain) throws IOException {
+    var request = chain.request();
+    if (request.body() == null || request.header("Content-Encoding") != null) {
+      return chain.proceed(request);
+    }
+    return chain.proceed(request.newBuilder()
+        .header("Content-Encoding", "gzip")
+        .method(request.method(), gzip(request.body()))
+        .build());
+  }
+
+  private static RequestBody gzip(final RequestBody body) {
+    return new RequestBody() {
+      @Override
+      public MediaType contentType() {
+        return body.contentType();
+      }
+
+      @Override
+      public long contentLength() {
+        // The compressed length is unknown until the body is written.
+        return -1;
+      }
+
+      @Override
+      public void writeTo(final BufferedSink sink) throws IOException {
+        try (var gzipSink = Okio.buffer(new GzipSink(sink))) {
+          body.writeTo(gzipSink);
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,59 @@
+package com.sy.web3j.api.demo.blockchain;
+
+/**
+ * Hexadecimal digits, read and written without going through strings or {@link
+ * java.math.BigInteger}.
+ *
+ * @author selim
+ */
+final class Hex {
+
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+  private Hex() {
+  }
+
+  /**
+   * Return the index of the first digit of the given value, after its optional <code>0x</code>
+   * prefix.
+   *
+   * @param value the hexadecimal value.
+   * @return the index of the first digit.
+   */
+  static int start(final CharSequence value) {
+    return value.length() >= 2 && value.charAt(0) == '0'
+        && (value.charAt(1) == 'x' || value.charAt(1) == 'X') ? 2 : 0;
+  }
+
+  /**
+   * Return the value of the digit at the given index.
+   *
+   * @param value the hexadecimal value.
+   * @param index the index of the digit.
+   * @return the value of the digit, from 0 to 15.
+   * @throws IllegalArgumentException if the character is not a hexadecimal digit.
+   */
+  static int digit(final CharSequence value, final int index) {
+    var c = value.charAt(index);
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    }
+    throw new IllegalArgumentException("Invalid hexadecimal value " + value);
+  }
+
+  /**
+   * Return the lowercase digit of the given value.
+   *
+   * @param value the value, from 0 to 15.
+   * @return the digit.
+   */
+  static char toDigit(final int value) {
+    return DIGITS[value];
+  }
+}
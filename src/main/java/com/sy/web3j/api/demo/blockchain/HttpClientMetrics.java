@@ -0,0 +1,61 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import javax.validation.constraints.NotNull;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * Measure the utilisation of the connection pool and of the dispatcher of the HTTP client used to
+ * reach the blockchain client, so that their limits can be sized against the request volume.
+ *
+ * @author selim
+ */
+public class HttpClientMetrics implements MeterBinder {
+
+  static final String CONNECTIONS_GAUGE = "web3j.http.connections";
+
+  static final String CALLS_GAUGE = "web3j.http.calls";
+
+  static final String MAX_CALLS_GAUGE = "web3j.http.calls.max";
+
+  private final OkHttpClient httpClient;
+
+  /**
+   * Construct a new instance of <code>{@link HttpClientMetrics}</code>.
+   *
+   * @param httpClient the HTTP client to measure.
+   */
+  public HttpClientMetrics(final OkHttpClient httpClient) {
+    this.httpClient = httpClient;
+  }
+
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    var connectionPool = httpClient.connectionPool();
+    Gauge.builder(CONNECTIONS_GAUGE, connectionPool,
+        pool -> pool.connectionCount() - pool.idleConnectionCount())
+        .description("Number of connections to the blockchain client")
+        .tag("state", "active")
+        .register(registry);
+    Gauge.builder(CONNECTIONS_GAUGE, connectionPool, ConnectionPool::idleConnectionCount)
+        .description("Number of connections to the blockchain client")
+        .tag("state", "idle")
+        .register(registry);
+    var dispatcher = httpClient.dispatcher();
+    Gauge.builder(CALLS_GAUGE, dispatcher, Dispatcher::runningCallsCount)
+        .description("Number of HTTP calls to the blockchain client")
+        .tag("state", "running")
+        .register(registry);
+    Gauge.builder(CALLS_GAUGE, dispatcher, Dispatcher::queuedCallsCount)
+        .description("Number of HTTP calls to the blockchain client")
+        .tag("state", "queued")
+        .register(registry);
+    Gauge.builder(MAX_CALLS_GAUGE, dispatcher, Dispatcher::getMaxRequestsPerHost)
+        .description("Maximum number of concurrent asynchronous calls to the blockchain client")
+        .register(registry);
+  }
+}
@@ -0,0 +1,133 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+/**
+ * Web3j service that measures every JSON-RPC call sent to the blockchain client through another
+ * service. It records the latency of the calls per method and outcome, counts the failed calls per
+ * cause and gauges the number of calls in flight per method.
+ *
+ * @author selim
+ */
+public class InstrumentedWeb3jService implements Web3jService {
+
+  static final String RPC_TIMER = "web3j.rpc";
+
+  static final String RPC_ERRORS = "web3j.rpc.errors";
+
+  static final String RPC_IN_FLIGHT = "web3j.rpc.in.flight";
+
+  private final Web3jService delegate;
+
+  private final MeterRegistry meterRegistry;
+
+  private final ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Construct a new instance of <code>{@link InstrumentedWeb3jService}</code>.
+   *
+   * @param delegate The service that sends the calls to the blockchain client.
+   * @param meterRegistry The registry of the measures.
+   */
+  public InstrumentedWeb3jService(final Web3jService delegate,
+      final MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public <T extends Response> T send(final Request request, final Class<T> responseType)
+      throws IOException {
+    var method = request.getMethod();
+    var calls = inFlight(method);
+    var sample = Timer.start(meterRegistry);
+    calls.incrementAndGet();
+    try {
+      var response = delegate.send(request, responseType);
+      record(sample, method, response, null);
+      return response;
+    } catch (IOException | RuntimeException e) {
+      record(sample, method, null, e);
+      throw e;
+    } finally {
+      calls.decrementAndGet();
+    }
+  }
+
+  @Override
+  public <T extends Response> CompletableFuture<T> sendAsync(final Request request,
+      final Class<T> responseType) {
+    var method = request.getMethod();
+    var calls = inFlight(method);
+    var sample = Timer.start(meterRegistry);
+    calls.incrementAndGet();
+    return delegate.sendAsync(request, responseType)
+        .whenComplete((response, throwable) -> {
+          calls.decrementAndGet();
+          record(sample, method, response, throwable);
+        });
+  }
+
+  @Override
+  public <T extends Notification<?>> Flowable<T> subscribe(final Request request,
+      final String unsubscribeMethod, final Class<T> responseType) {
+    return delegate.subscribe(request, unsubscribeMethod, responseType);
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  private AtomicInteger inFlight(final String method) {
+    // The gauge only holds a weak reference to the number of calls, the map keeps it alive.
+    return inFlight.computeIfAbsent(method, aMethod ->
+        meterRegistry.gauge(RPC_IN_FLIGHT, Tags.of("method", aMethod), new AtomicInteger()));
+  }
+
+  private void record(final Timer.Sample sample, final String method, final Response response,
+      final Throwable throwable) {
+    String outcome;
+    String cause = null;
+    if (throwable != null) {
+      outcome = "FAILURE";
+      cause = unwrap(throwable).getClass().getSimpleName();
+    } else if (response != null && response.hasError()) {
+      outcome = "RPC_ERROR";
+      cause = "RPC_" + response.getError().getCode();
+    } else {
+      outcome = "SUCCESS";
+    }
+    sample.stop(Timer.builder(RPC_TIMER)
+        .description("Latency of the JSON-RPC calls sent to the blockchain client")
+        .tags("method", method, "outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry));
+    if (cause != null) {
+      Counter.builder(RPC_ERRORS)
+          .description("Number of failed JSON-RPC calls sent to the blockchain client")
+          .tags("method", method, "cause", cause)
+          .register(meterRegistry)
+          .increment();
+    }
+  }
+
+  private static Throwable unwrap(final Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+  }
+}
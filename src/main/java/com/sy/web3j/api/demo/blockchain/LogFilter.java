@@ -0,0 +1,168 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import com.sy.web3j.api.demo.listener.LogEvent;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotNull;
+import lombok.Value;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.EthFilter;
+
+/**
+ * Filter of the logs emitted by contracts, with the semantics of <code>eth_getLogs</code>: a log
+ * matches if it is emitted by one of the addresses, and if each of its topics is one of the topics
+ * expected at its position. No address, or no topic at a position, matches any.
+ *
+ * @author selim
+ */
+@Value
+public class LogFilter {
+
+  /**
+   * The topic of the ERC-20 <code>Transfer(address,address,uint256)</code> event.
+   */
+  public static final String TRANSFER_TOPIC =
+      "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef";
+
+  private static final String ADDRESS_TOPIC_PADDING = "0".repeat(24);
+
+  private final Set<Address> addresses;
+  private final List<Set<String>> topics;
+
+  /**
+   * Return the filter of the logs emitted by the given contracts with the given topics.
+   *
+   * @param addresses the addresses of the contracts, none for any.
+   * @param topics the topics expected at each position, none for any.
+   * @return a new filter.
+   */
+  public static LogFilter of(@NotNull final Collection<Address> addresses,
+      @NotNull final List<? extends Collection<String>> topics) {
+    var normalizedTopics = new ArrayList<Set<String>>(topics.size());
+    for (var topic : topics) {
+      normalizedTopics.add(topic.stream()
+          .map(String::toLowerCase)
+          .collect(Collectors.toUnmodifiableSet()));
+    }
+    // Trailing wildcards are implied.
+    while (!normalizedTopics.isEmpty()
+        && normalizedTopics.get(normalizedTopics.size() - 1).isEmpty()) {
+      normalizedTopics.remove(normalizedTopics.size() - 1);
+    }
+    return new LogFilter(Set.copyOf(addresses), List.copyOf(normalizedTopics));
+  }
+
+  /**
+   * Return the filter of the ERC-20 transfers of the given tokens between the given accounts.
+   *
+   * @param tokens the addresses of the token contracts, none for any.
+   * @param from the sender of the tokens, or null for any.
+   * @param to the recipient of the tokens, or null for any.
+   * @return a new filter.
+   */
+  public static LogFilter transfers(@NotNull final Collection<Address> tokens, final Address from,
+      final Address to) {
+    return of(tokens, List.of(Set.of(TRANSFER_TOPIC), topic(from), topic(to)));
+  }
+
+  /**
+   * Return whether the given log matches this filter.
+   *
+   * @param logEvent the log.
+   * @return true if the log matches.
+   */
+  public boolean matches(@NotNull final LogEvent logEvent) {
+    if (!addresses.isEmpty() && !addresses.contains(logEvent.getAddress())) {
+      return false;
+    }
+    for (int i = 0; i < topics.size(); i++) {
+      var expected = topics.get(i);
+      if (!expected.isEmpty()
+          && (i >= logEvent.getTopics().size() || !expected.contains(logEvent.getTopics().get(i)))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return whether this filter and the given one may match logs of the same event, told by their
+   * first topic.
+   *
+   * @param other the other filter.
+   * @return true if both filters may match the same logs.
+   */
+  boolean overlaps(@NotNull final LogFilter other) {
+    var events = event();
+    var otherEvents = other.event();
+    return events.isEmpty() || otherEvents.isEmpty()
+        || !Collections.disjoint(events, otherEvents);
+  }
+
+  /**
+   * Return the narrowest filter that matches every log matched by this filter or the given one.
+   *
+   * @param other the other filter.
+   * @return the merged filter.
+   */
+  LogFilter merge(@NotNull final LogFilter other) {
+    var mergedAddresses = addresses.isEmpty() || other.addresses.isEmpty()
+        ? Set.<Address>of()
+        : union(addresses, other.addresses);
+    var mergedTopics = new ArrayList<Set<String>>();
+    for (int i = 0; i < Math.min(topics.size(), other.topics.size()); i++) {
+      var topic = topics.get(i);
+      var otherTopic = other.topics.get(i);
+      mergedTopics.add(topic.isEmpty() || otherTopic.isEmpty()
+          ? Set.of()
+          : union(topic, otherTopic));
+    }
+    return of(mergedAddresses, mergedTopics);
+  }
+
+  /**
+   * Return the <code>eth_getLogs</code> request of this filter for the given block.
+   *
+   * @param blockNumber the number of the block.
+   * @return the request filter.
+   */
+  EthFilter toEthFilter(final long blockNumber) {
+    var block = DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber));
+    var ethFilter = new EthFilter(block, block, addresses.stream()
+        .map(Address::toString)
+        .sorted()
+        .collect(Collectors.toList()));
+    for (var topic : topics) {
+      if (topic.isEmpty()) {
+        ethFilter.addNullTopic();
+      } else if (topic.size() == 1) {
+        ethFilter.addSingleTopic(topic.iterator().next());
+      } else {
+        ethFilter.addOptionalTopics(topic.stream().sorted().toArray(String[]::new));
+      }
+    }
+    return ethFilter;
+  }
+
+  private Set<String> event() {
+    return topics.isEmpty() ? Set.of() : topics.get(0);
+  }
+
+  private static Set<String> topic(final Address address) {
+    return address == null
+        ? Set.of()
+        : Set.of("0x" + ADDRESS_TOPIC_PADDING + address.toString().substring(2));
+  }
+
+  private static <T> Set<T> union(final Set<T> first, final Set<T> second) {
+    var union = new HashSet<>(first);
+    union.addAll(second);
+    return union;
+  }
+}
@@ -0,0 +1,254 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static com.sy.web3j.api.demo.blockchain.BlockchainService.toSingle;
+
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.LogEvent;
+import com.sy.web3j.api.demo.listener.LogEventListener;
+import com.sy.web3j.api.demo.util.Backoff;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.Log;
+
+/**
+ * Read the logs emitted by contracts that match the filters of the log listeners, so that the
+ * blockchain client does the filtering rather than every log of every block being read and matched
+ * here. The filters registered are merged into as few <code>eth_getLogs</code> requests as
+ * possible: the filters of the same events, told by their first topic, are merged into one request
+ * that matches every log either filter matches. The requests match disjoint sets of events, so that
+ * a log is read once whatever the number of filters that match it, and each listener is delivered
+ * only the logs that match its own filter.
+ *
+ * <p>The logs are read block by block, in the order the blocks are mined, once per block whatever
+ * the number of listeners, and not at all without listeners. The reads of a block that fail are
+ * retried after an exponential backoff with jitter, the block is skipped once the retries are
+ * exhausted. Over a pool of nodes, the reads are only sent to the nodes that reached the block.
+ *
+ * @author selim
+ */
+@Slf4j
+public class LogFilterEngine implements MeterBinder {
+
+  static final String FILTERS_GAUGE = "web3j.logs.filters";
+
+  static final String REQUESTS_GAUGE = "web3j.logs.requests";
+
+  static final String RECEIVED_COUNTER = "web3j.logs.received";
+
+  static final String FAILURES_COUNTER = "web3j.logs.failures";
+
+  private final Web3j web3j;
+
+  private final int maxRetries;
+
+  private final long minBackoff;
+
+  private final long maxBackoff;
+
+  private final Map<LogEventListener, LogFilter> filters = new ConcurrentHashMap<>();
+
+  private volatile List<LogFilter> requests = List.of();
+
+  private final FlowableProcessor<BlockEvent> blocks =
+      PublishProcessor.<BlockEvent>create().toSerialized();
+
+  private final LongAdder received = new LongAdder();
+
+  private final LongAdder failures = new LongAdder();
+
+  /**
+   * Construct a new instance of <code>{@link LogFilterEngine}</code>.
+   *
+   * @param web3j The component to communicate with the blockchain.
+   * @param maxRetries The maximum number of times the reads of a block are retried.
+   * @param minBackoff The minimum time in milliseconds to wait before reading a block again.
+   * @param maxBackoff The maximum time in milliseconds to wait before reading a block again.
+   */
+  public LogFilterEngine(final Web3j web3j, final int maxRetries, final long minBackoff,
+      final long maxBackoff) {
+    if (maxRetries < 0 || minBackoff <= 0 || maxBackoff < minBackoff) {
+      throw new IllegalArgumentException(
+          "The retries must not be negative and the backoff delays must be positive");
+    }
+    this.web3j = web3j;
+    this.maxRetries = maxRetries;
+    this.minBackoff = minBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * Read the logs of a new block, asynchronously.
+   *
+   * @param blockEvent the block mined.
+   */
+  public void onNewBlock(@NotNull final BlockEvent blockEvent) {
+    blocks.onNext(blockEvent);
+  }
+
+  /**
+   * Return the logs of the blocks mined that match at least one filter, block by block and in the
+   * order they are emitted within a block.
+   *
+   * @return the logs matched.
+   */
+  public Flowable<LogEvent> logs() {
+    return blocks
+        .onBackpressureBuffer()
+        .concatMap(this::read);
+  }
+
+  /**
+   * Register a listener to the logs that match the given filter, replacing its previous filter.
+   *
+   * @param listener the listener.
+   * @param filter the filter of the logs.
+   */
+  public synchronized void register(@NotNull final LogEventListener listener,
+      @NotNull final LogFilter filter) {
+    filters.put(listener, filter);
+    requests = merge(filters.values());
+  }
+
+  /**
+   * Unregister a listener to logs.
+   *
+   * @param listener the listener.
+   */
+  public synchronized void unregister(@NotNull final LogEventListener listener) {
+    filters.remove(listener);
+    requests = merge(filters.values());
+  }
+
+  /**
+   * Deliver a log to the given listener, if it matches the filter of the listener.
+   *
+   * @param listener the listener.
+   * @param logEvent the log read.
+   */
+  public void deliver(@NotNull final LogEventListener listener, @NotNull final LogEvent logEvent) {
+    var filter = filters.get(listener);
+    if (filter != null && filter.matches(logEvent)) {
+      listener.onLog(logEvent);
+    }
+  }
+
+  /**
+   * Return the requests the logs of a block are read with.
+   *
+   * @return the merged filters.
+   */
+  public List<LogFilter> getRequests() {
+    return requests;
+  }
+
+  /**
+   * Measure the number of filters and of requests they are merged into, the logs read and the
+   * blocks whose logs could not be read.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    Gauge.builder(FILTERS_GAUGE, filters, Map::size)
+        .description("Number of log filters registered")
+        .register(registry);
+    Gauge.builder(REQUESTS_GAUGE, this, logFilterEngine -> logFilterEngine.getRequests().size())
+        .description("Number of requests the log filters are merged into")
+        .register(registry);
+    FunctionCounter.builder(RECEIVED_COUNTER, received, LongAdder::sum)
+        .description("Number of logs read")
+        .register(registry);
+    FunctionCounter.builder(FAILURES_COUNTER, failures, LongAdder::sum)
+        .description("Number of blocks whose logs could not be read")
+        .register(registry);
+  }
+
+  /**
+   * Stop reading logs.
+   */
+  public void shutdown() {
+    blocks.onComplete();
+  }
+
+  /**
+   * Merge the filters of the same events until the filters left match disjoint sets of events.
+   */
+  static List<LogFilter> merge(final Iterable<LogFilter> filters) {
+    var merged = new ArrayList<LogFilter>();
+    for (var filter : filters) {
+      var mergedFilter = filter;
+      // A merged filter may overlap filters it did not overlap before being merged.
+      for (int i = merged.size() - 1; i >= 0; i--) {
+        if (merged.get(i).overlaps(mergedFilter)) {
+          mergedFilter = mergedFilter.merge(merged.remove(i));
+          i = merged.size();
+        }
+      }
+      merged.add(mergedFilter);
+    }
+    return List.copyOf(merged);
+  }
+
+  private Flowable<LogEvent> read(final BlockEvent blockEvent) {
+    var blockRequests = requests;
+    if (blockRequests.isEmpty()) {
+      return Flowable.empty();
+    }
+    var attempts = new AtomicInteger();
+    return Flowable.fromIterable(blockRequests)
+        .concatMapEager(request -> read(blockEvent, request).toFlowable())
+        .flatMapIterable(logEvents -> logEvents)
+        .toSortedList(Comparator.comparingLong(LogEvent::getLogIndex))
+        .retryWhen(errors -> errors.concatMap(throwable -> {
+          if (attempts.get() >= maxRetries) {
+            return Flowable.error(throwable);
+          }
+          var delay = Backoff.delay(attempts.getAndIncrement(), minBackoff, maxBackoff);
+          LOG.debug("Could not read the logs of block {}, reading them again in {} ms: {}",
+              blockEvent.getNumber(), delay, throwable.getMessage());
+          return Flowable.timer(delay, TimeUnit.MILLISECONDS);
+        }))
+        .doOnSuccess(logEvents -> received.add(logEvents.size()))
+        .flattenAsFlowable(logEvents -> logEvents)
+        .onErrorResumeNext(throwable -> {
+          failures.increment();
+          LOG.warn("Could not read the logs of block {}: {}", blockEvent.getNumber(),
+              throwable.getMessage());
+          return Flowable.empty();
+        });
+  }
+
+  private Single<List<LogEvent>> read(final BlockEvent blockEvent, final LogFilter request) {
+    return toSingle(() -> web3j.ethGetLogs(request.toEthFilter(blockEvent.getNumber()))
+        .sendAsync())
+        .map(ethLog -> {
+          if (ethLog.hasError()) {
+            throw new BlockchainException(ethLog.getError().getMessage());
+          }
+          // The logs of eth_getLogs are log objects, rather than the hashes of eth_getFilterChanges.
+          return ethLog.getLogs().stream()
+              .map(logResult -> LogEvent.of((Log) logResult.get()))
+              // The block may have been replaced at the same number in the meantime.
+              .filter(logEvent -> blockEvent.getHash().equals(logEvent.getBlockHash()))
+              .collect(Collectors.toList());
+        });
+  }
+}
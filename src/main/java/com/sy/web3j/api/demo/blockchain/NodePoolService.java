@@ -0,0 +1,696 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static java.lang.String.format;
+
+import com.sy.web3j.api.demo.util.VisibleForTestOnly;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.reactivex.Flowable;
+import io.vavr.control.Try;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.websocket.events.NewHead;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Numeric;
+
+/**
+ * Web3j service that spreads the read-only calls over a pool of blockchain clients, while the
+ * writes, the filters and the subscriptions are pinned to the primary client, the only one that
+ * knows about the transactions sent and the filters installed. The clients are checked
+ * periodically: a client lagging behind the others by too many blocks, or failing too many calls
+ * in a row, is ejected from the pool until it catches up. A read that fails on a client is sent
+ * again to another one.
+ *
+ * <p>The clients of the pool do not reach the blocks at the same time: a read at a block, or at
+ * the latest block, is only sent to the clients known to have reached it, the primary otherwise.
+ * The head of every client is known from the checks, from the blocks it returns and, for the
+ * primary, from the heads it announces. A client that does not know a block it is asked for
+ * answers with no block rather than with an error: the read is then sent again to the primary.
+ *
+ * <p>With hedging, a read that is not answered within a percentile of the
+ * latency of the latest reads is sent again to another client, the first answer wins and the other
+ * call is cancelled.
+ *
+ * @author selim
+ */
+@Slf4j
+public class NodePoolService implements Web3jService, MeterBinder {
+
+  static final String OUTSTANDING_GAUGE = "web3j.pool.outstanding";
+
+  static final String HEALTHY_GAUGE = "web3j.pool.healthy";
+
+  static final String LATENCY_GAUGE = "web3j.pool.latency";
+
+  static final String FAILOVER_COUNTER = "web3j.pool.failovers";
+
+  static final String READ_COUNTER = "web3j.pool.reads";
+
+  static final String HEDGE_COUNTER = "web3j.pool.hedges";
+
+  static final String HEDGE_WIN_COUNTER = "web3j.pool.hedge.wins";
+
+  static final String HEDGE_DELAY_GAUGE = "web3j.pool.hedge.delay";
+
+  private static final int LATENCY_WINDOW_SIZE = 1024;
+
+  private static final int MIN_LATENCY_SAMPLES = 100;
+
+  private static final long HEDGE_DELAY_REFRESH_INTERVAL = 1_000;
+
+  private static final long NO_BLOCK = -1;
+
+  static final Set<String> READ_METHODS = Set.of("web3_clientVersion", "net_version",
+      "eth_blockNumber", "eth_gasPrice", "eth_getBalance", "eth_getTransactionCount",
+      "eth_getCode", "eth_getStorageAt", "eth_call", "eth_getBlockByHash", "eth_getBlockByNumber",
+      "eth_getTransactionByHash", "eth_getTransactionReceipt", "eth_getLogs");
+
+  /**
+   * The position of the block parameter of the reads at a block.
+   */
+  private static final Map<String, Integer> BLOCK_PARAMETERS = Map.of("eth_getBalance", 1,
+      "eth_getTransactionCount", 1, "eth_getCode", 1, "eth_getStorageAt", 2, "eth_call", 1,
+      "eth_getBlockByNumber", 0);
+
+  /**
+   * How the read-only calls are spread over the healthy clients.
+   */
+  public enum LoadBalancing {
+    /**
+     * Send the call to the client with the fewest calls in flight.
+     */
+    LEAST_OUTSTANDING,
+    /**
+     * Send the call to a client picked at random, in inverse proportion to its latency.
+     */
+    LATENCY_WEIGHTED
+  }
+
+  private final List<Node> nodes;
+
+  private final Node primary;
+
+  private final LoadBalancing loadBalancing;
+
+  private final BigInteger maxBlockLag;
+
+  private final int maxFailures;
+
+  private final LongAdder failovers = new LongAdder();
+
+  private final boolean hedging;
+
+  private final double hedgePercentile;
+
+  private final long minHedgeDelay;
+
+  private final long maxHedgeDelay;
+
+  private final long[] readLatencies = new long[LATENCY_WINDOW_SIZE];
+
+  private final AtomicLong readLatencyCount = new AtomicLong();
+
+  private final LongAdder reads = new LongAdder();
+
+  private final LongAdder hedges = new LongAdder();
+
+  private final LongAdder hedgeWins = new LongAdder();
+
+  private volatile long hedgeDelay;
+
+  private final ScheduledExecutorService executor;
+
+  /**
+   * Construct a new instance of <code>{@link NodePoolService}</code>.
+   *
+   * @param services the services reaching every client by name, the first one being the primary.
+   * @param loadBalancing how the read-only calls are spread over the clients.
+   * @param healthCheckInterval the time in milliseconds between two checks of the clients.
+   * @param maxBlockLag the number of blocks a client may lag behind the others.
+   * @param maxFailures the number of failed calls in a row that ejects a client.
+   * @param hedging whether the reads not answered in time are sent to another client.
+   * @param hedgePercentile the percentile of the latency of the latest reads after which a read is
+   * hedged, between 0 and 1.
+   * @param minHedgeDelay the minimum time in milliseconds to wait before hedging a read.
+   * @param maxHedgeDelay the maximum time in milliseconds to wait before hedging a read, also used
+   * until enough reads are measured.
+   */
+  public NodePoolService(final Map<String, Web3jService> services,
+      final LoadBalancing loadBalancing, final long healthCheckInterval, final long maxBlockLag,
+      final int maxFailures, final boolean hedging, final double hedgePercentile,
+      final long minHedgeDelay, final long maxHedgeDelay) {
+    if (services.isEmpty() || healthCheckInterval <= 0 || maxFailures <= 0) {
+      throw new IllegalArgumentException(
+          "The pool requires a client, a positive check interval and failure count");
+    }
+    if (hedgePercentile <= 0 || hedgePercentile > 1 || minHedgeDelay < 0
+        || maxHedgeDelay < minHedgeDelay) {
+      throw new IllegalArgumentException(
+          "The hedge percentile must be within (0, 1] and the hedge delays ordered");
+    }
+    this.nodes = services.entrySet().stream()
+        .map(entry -> new Node(entry.getKey(), entry.getValue()))
+        .collect(Collectors.toUnmodifiableList());
+    this.primary = nodes.get(0);
+    this.loadBalancing = loadBalancing;
+    this.maxBlockLag = BigInteger.valueOf(maxBlockLag);
+    this.maxFailures = maxFailures;
+    this.hedging = hedging;
+    this.hedgePercentile = hedgePercentile;
+    this.minHedgeDelay = minHedgeDelay;
+    this.maxHedgeDelay = maxHedgeDelay;
+    this.hedgeDelay = maxHedgeDelay;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "node-pool-health-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // A failed check must neither cancel the next ones nor hold the thread that hedges the reads.
+    this.executor.scheduleWithFixedDelay(() -> Try.of(this::healthCheck)
+            .getOrElseGet(CompletableFuture::failedFuture)
+            .exceptionally(throwable -> {
+              LOG.warn("Could not check the blockchain clients: {}", throwable.getMessage());
+              return null;
+            }),
+        healthCheckInterval, healthCheckInterval, TimeUnit.MILLISECONDS);
+    if (hedging) {
+      this.executor.scheduleAtFixedRate(this::refreshHedgeDelay, HEDGE_DELAY_REFRESH_INTERVAL,
+          HEDGE_DELAY_REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public <T extends Response> T send(final Request request, final Class<T> responseType)
+      throws IOException {
+    var node = select(request, null).orElseThrow();
+    try {
+      return node.send(request, responseType);
+    } catch (IOException e) {
+      var fallback = failover(request, node, e);
+      if (fallback.isEmpty()) {
+        throw e;
+      }
+      return fallback.get().send(request, responseType);
+    }
+  }
+
+  @Override
+  public <T extends Response> CompletableFuture<T> sendAsync(final Request request,
+      final Class<T> responseType) {
+    var node = select(request, null).orElseThrow();
+    if (hedging && isRead(request)) {
+      return new HedgedRead<>(request, responseType).send(node);
+    }
+    return node.sendAsync(request, responseType)
+        .handle((response, throwable) -> {
+          if (throwable == null) {
+            return CompletableFuture.completedFuture(response);
+          }
+          return failover(request, node, unwrap(throwable))
+              .map(fallback -> fallback.sendAsync(request, responseType))
+              .orElseGet(() -> CompletableFuture.failedFuture(unwrap(throwable)));
+        })
+        .thenCompose(Function.identity());
+  }
+
+  @Override
+  public <T extends Notification<?>> Flowable<T> subscribe(final Request request,
+      final String unsubscribeMethod, final Class<T> responseType) {
+    return primary.service.<T>subscribe(request, unsubscribeMethod, responseType)
+        .doOnNext(notification -> {
+          if (notification.getParams().getResult() instanceof NewHead) {
+            var head = (NewHead) notification.getParams().getResult();
+            primary.observe(Numeric.decodeQuantity(head.getNumber()).longValueExact());
+          }
+        });
+  }
+
+  @Override
+  public void close() throws IOException {
+    executor.shutdownNow();
+    for (var node : nodes) {
+      node.service.close();
+    }
+  }
+
+  /**
+   * Measure the calls in flight, the health and the latency of every client, and the number of
+   * reads sent again to another client.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    nodes.forEach(node -> {
+      Gauge.builder(OUTSTANDING_GAUGE, node.outstanding, AtomicInteger::get)
+          .description("Number of calls in flight to a blockchain client of the pool")
+          .tag("node", node.name)
+          .register(registry);
+      Gauge.builder(HEALTHY_GAUGE, node, aNode -> aNode.healthy ? 1 : 0)
+          .description("Whether a blockchain client of the pool receives reads")
+          .tag("node", node.name)
+          .register(registry);
+      Gauge.builder(LATENCY_GAUGE, node, aNode -> aNode.latencyInMillis)
+          .description("Moving average of the latency of a blockchain client of the pool")
+          .tag("node", node.name)
+          .baseUnit("milliseconds")
+          .register(registry);
+    });
+    FunctionCounter.builder(FAILOVER_COUNTER, failovers, LongAdder::sum)
+        .description("Number of reads sent again to another blockchain client")
+        .register(registry);
+    if (hedging) {
+      FunctionCounter.builder(READ_COUNTER, reads, LongAdder::sum)
+          .description("Number of reads eligible to hedging")
+          .register(registry);
+      FunctionCounter.builder(HEDGE_COUNTER, hedges, LongAdder::sum)
+          .description("Number of reads hedged because they were not answered in time")
+          .register(registry);
+      FunctionCounter.builder(HEDGE_WIN_COUNTER, hedgeWins, LongAdder::sum)
+          .description("Number of hedged reads answered first by the second client")
+          .register(registry);
+      Gauge.builder(HEDGE_DELAY_GAUGE, this, pool -> pool.hedgeDelay)
+          .description("Time to wait for an answer before hedging a read")
+          .baseUnit("milliseconds")
+          .register(registry);
+    }
+  }
+
+  /**
+   * Read the latest block number of every client, then eject the clients that fail or lag behind
+   * and reinstate the others.
+   *
+   * @return the completion of the check.
+   */
+  @VisibleForTestOnly
+  CompletableFuture<Void> healthCheck() {
+    var blockNumbers = nodes.stream()
+        .map(node -> node.sendAsync(new Request<>("eth_blockNumber", Collections.emptyList(),
+            node.service, EthBlockNumber.class), EthBlockNumber.class)
+            .handle((ethBlockNumber, throwable) ->
+                throwable != null || ethBlockNumber.hasError()
+                    ? Optional.<BigInteger>empty()
+                    : Optional.of(ethBlockNumber.getBlockNumber())))
+        .collect(Collectors.toList());
+    return CompletableFuture.allOf(blockNumbers.toArray(CompletableFuture[]::new))
+        .thenRun(() -> {
+          var highest = blockNumbers.stream()
+              .map(CompletableFuture::join)
+              .flatMap(Optional::stream)
+              .max(Comparator.naturalOrder())
+              .orElse(BigInteger.ZERO);
+          for (int i = 0; i < nodes.size(); i++) {
+            var node = nodes.get(i);
+            var blockNumber = blockNumbers.get(i).join();
+            blockNumber.ifPresent(number -> node.head.set(number.longValueExact()));
+            node.setHealthy(blockNumber.isPresent()
+                && highest.subtract(blockNumber.get()).compareTo(maxBlockLag) <= 0,
+                blockNumber.isPresent() ? "lags behind at block " + blockNumber.get() : "failed");
+          }
+        });
+  }
+
+  /**
+   * Set the hedge delay to the configured percentile of the latency of the latest reads, within
+   * the configured bounds.
+   */
+  @VisibleForTestOnly
+  void refreshHedgeDelay() {
+    var count = (int) Math.min(readLatencyCount.get(), LATENCY_WINDOW_SIZE);
+    if (count < MIN_LATENCY_SAMPLES) {
+      return;
+    }
+    var latencies = Arrays.copyOf(readLatencies, count);
+    Arrays.sort(latencies);
+    var percentile = latencies[(int) Math.ceil(hedgePercentile * count) - 1];
+    hedgeDelay = Math.max(minHedgeDelay, Math.min(maxHedgeDelay,
+        TimeUnit.NANOSECONDS.toMillis(percentile)));
+  }
+
+  /**
+   * Return the names of the clients that receive reads.
+   *
+   * @return the healthy clients.
+   */
+  public List<String> getHealthyNodes() {
+    return nodes.stream()
+        .filter(node -> node.healthy)
+        .map(node -> node.name)
+        .collect(Collectors.toList());
+  }
+
+  private Optional<Node> failover(final Request request, final Node failed,
+      final Throwable throwable) {
+    if (!isRead(request)) {
+      return Optional.empty();
+    }
+    var fallback = fallback(request, failed, throwable);
+    fallback.ifPresent(node -> {
+      failovers.increment();
+      LOG.debug("Send {} again to {} after a failure of {}.", request.getMethod(), node.name,
+          failed.name);
+    });
+    return fallback;
+  }
+
+  private Optional<Node> fallback(final Request request, final Node failed,
+      final Throwable throwable) {
+    if (throwable instanceof UnknownBlockException) {
+      // The block is known to the primary, which announced it.
+      return failed == primary ? Optional.empty() : Optional.of(primary);
+    }
+    return select(request, failed);
+  }
+
+  private Optional<Node> select(final Request request, final Node excluded) {
+    if (!isRead(request)) {
+      return Optional.of(primary);
+    }
+    var blockNumber = blockNumber(request);
+    var candidates = new ArrayList<Node>(nodes.size());
+    nodes.stream()
+        .filter(node -> node.healthy && node != excluded)
+        .filter(node -> node == primary || node.head.get() >= blockNumber)
+        .forEach(candidates::add);
+    if (candidates.isEmpty()) {
+      // Without any healthy client, the primary is tried anyway.
+      return primary == excluded ? Optional.empty() : Optional.of(primary);
+    }
+    if (loadBalancing == LoadBalancing.LATENCY_WEIGHTED) {
+      return Optional.of(leastLatent(candidates));
+    }
+    // Start from a random client, so that idle clients take turns.
+    Collections.rotate(candidates, ThreadLocalRandom.current().nextInt(candidates.size()));
+    return candidates.stream().min(Comparator.comparingInt(node -> node.outstanding.get()));
+  }
+
+  private static Node leastLatent(final List<Node> candidates) {
+    var fastest = candidates.stream()
+        .mapToDouble(node -> node.latencyInMillis)
+        .filter(latency -> latency > 0)
+        .min()
+        .orElse(1);
+    // A client not measured yet is as fast as the fastest one, so that it gets measured.
+    var weights = candidates.stream()
+        .mapToDouble(node -> 1 / Math.max(node.latencyInMillis > 0 ? node.latencyInMillis
+            : fastest, 0.1))
+        .toArray();
+    var pick = ThreadLocalRandom.current().nextDouble(Arrays.stream(weights).sum());
+    for (int i = 0; i < weights.length; i++) {
+      pick -= weights[i];
+      if (pick < 0) {
+        return candidates.get(i);
+      }
+    }
+    return candidates.get(candidates.size() - 1);
+  }
+
+  /**
+   * Return the number of the block a read is made at, the highest block known for the latest block
+   * or a block read by hash, or {@link #NO_BLOCK} if the read is not made at a block.
+   */
+  private long blockNumber(final Request request) {
+    var method = request.getMethod();
+    var params = request.getParams();
+    Object block = null;
+    if (BLOCK_PARAMETERS.containsKey(method) && params.size() > BLOCK_PARAMETERS.get(method)) {
+      block = params.get(BLOCK_PARAMETERS.get(method));
+    } else if ("eth_getLogs".equals(method) && !params.isEmpty()
+        && params.get(0) instanceof EthFilter) {
+      var toBlock = ((EthFilter) params.get(0)).getToBlock();
+      block = toBlock == null ? null : toBlock.getValue();
+    } else if ("eth_getBlockByHash".equals(method)) {
+      // Most blocks read by hash have just been announced.
+      return head();
+    }
+    if (DefaultBlockParameterName.LATEST.getValue().equals(block)) {
+      return head();
+    }
+    if (block instanceof String && Numeric.containsHexPrefix((String) block)) {
+      return Numeric.decodeQuantity((String) block).longValueExact();
+    }
+    return NO_BLOCK;
+  }
+
+  private long head() {
+    return nodes.stream()
+        .mapToLong(node -> node.head.get())
+        .max()
+        .orElse(NO_BLOCK);
+  }
+
+  private static boolean isRead(final Request request) {
+    // Pending states are only known to the primary, where the transactions are sent.
+    return READ_METHODS.contains(request.getMethod())
+        && !request.getParams().contains(DefaultBlockParameterName.PENDING.getValue());
+  }
+
+  private void recordReadLatency(final long latencyInNanos) {
+    // Concurrent reads may overwrite each other's sample, which a percentile estimate tolerates.
+    var index = readLatencyCount.getAndIncrement() % LATENCY_WINDOW_SIZE;
+    readLatencies[(int) index] = latencyInNanos;
+  }
+
+  private static Throwable unwrap(final Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+  }
+
+  /**
+   * A client of the pool, along with its health and load.
+   */
+  private class Node {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final String name;
+    private final Web3jService service;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicLong head = new AtomicLong(NO_BLOCK);
+    private volatile boolean healthy = true;
+    private volatile double latencyInMillis;
+
+    private Node(final String name, final Web3jService service) {
+      this.name = name;
+      this.service = service;
+    }
+
+    private <T extends Response> T send(final Request request, final Class<T> responseType)
+        throws IOException {
+      var start = System.nanoTime();
+      outstanding.incrementAndGet();
+      T response;
+      try {
+        response = service.send(request, responseType);
+        onSuccess(start);
+      } catch (IOException | RuntimeException e) {
+        onFailure(e);
+        throw e;
+      } finally {
+        outstanding.decrementAndGet();
+      }
+      return verify(request, response);
+    }
+
+    private <T extends Response> CompletableFuture<T> sendAsync(final Request request,
+        final Class<T> responseType) {
+      var start = System.nanoTime();
+      outstanding.incrementAndGet();
+      var call = service.<T>sendAsync(request, responseType);
+      var response = call.whenComplete((aResponse, throwable) -> {
+        outstanding.decrementAndGet();
+        if (throwable == null) {
+          onSuccess(start);
+        } else if (!(unwrap(throwable) instanceof CancellationException)) {
+          onFailure(unwrap(throwable));
+        }
+      }).thenApply(aResponse -> Try.of(() -> verify(request, aResponse))
+          .getOrElseThrow(CompletionException::new));
+      response.whenComplete((aResponse, throwable) -> {
+        if (response.isCancelled()) {
+          call.cancel(true);
+        }
+      });
+      return response;
+    }
+
+    /**
+     * Learn the head of this client from the blocks it returns, and fail the reads of a block it
+     * does not know yet, which is not a failure of the client itself.
+     */
+    private <T extends Response> T verify(final Request request, final T response)
+        throws UnknownBlockException {
+      if (response instanceof EthBlock && !response.hasError()) {
+        var block = ((EthBlock) response).getBlock();
+        if (block != null && block.getNumberRaw() != null) {
+          observe(block.getNumber().longValueExact());
+        } else if (block == null && this != primary) {
+          throw new UnknownBlockException(
+              format("The blockchain client %s does not know the block of %s", name,
+                  request.getMethod()));
+        }
+      } else if (response instanceof EthBlockNumber && !response.hasError()) {
+        observe(((EthBlockNumber) response).getBlockNumber().longValueExact());
+      }
+      return response;
+    }
+
+    private void observe(final long blockNumber) {
+      head.accumulateAndGet(blockNumber, Math::max);
+    }
+
+    private synchronized void onSuccess(final long start) {
+      var latency = (System.nanoTime() - start) / 1_000_000d;
+      latencyInMillis = latencyInMillis == 0
+          ? latency
+          : latencyInMillis + LATENCY_SMOOTHING * (latency - latencyInMillis);
+      failures.set(0);
+    }
+
+    private void onFailure(final Throwable throwable) {
+      if (failures.incrementAndGet() >= maxFailures) {
+        setHealthy(false, "failed " + maxFailures + " calls in a row: " + throwable.getMessage());
+      }
+    }
+
+    private synchronized void setHealthy(final boolean healthy, final String reason) {
+      if (this.healthy && !healthy) {
+        LOG.warn("Eject the blockchain client {} from the pool, it {}.", name, reason);
+      } else if (!this.healthy && healthy) {
+        LOG.info("Reinstate the blockchain client {} in the pool.", name);
+        failures.set(0);
+      }
+      this.healthy = healthy;
+    }
+  }
+
+  /**
+   * The failure of a read of a block that a client does not know yet.
+   */
+  private static class UnknownBlockException extends IOException {
+
+    private UnknownBlockException(final String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * A read sent to a first client, then to a second one if the first one does not answer in time
+   * or fails. The first answer wins and the other call is cancelled.
+   */
+  private class HedgedRead<T extends Response> {
+
+    private final Request request;
+    private final Class<T> responseType;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final List<CompletableFuture<T>> calls = new ArrayList<>(2);
+    private Node first;
+    private ScheduledFuture<?> hedgeTimer;
+    private boolean hedged;
+    private int failed;
+
+    private HedgedRead(final Request request, final Class<T> responseType) {
+      this.request = request;
+      this.responseType = responseType;
+    }
+
+    private CompletableFuture<T> send(final Node node) {
+      reads.increment();
+      synchronized (this) {
+        first = node;
+        hedgeTimer = executor.schedule(() -> hedge(null), hedgeDelay, TimeUnit.MILLISECONDS);
+      }
+      call(node, false);
+      result.whenComplete((response, throwable) -> cancel());
+      return result;
+    }
+
+    private void call(final Node node, final boolean isHedge) {
+      var start = System.nanoTime();
+      var call = node.sendAsync(request, responseType);
+      synchronized (this) {
+        calls.add(call);
+      }
+      call.whenComplete((response, throwable) -> {
+        if (throwable == null) {
+          recordReadLatency(System.nanoTime() - start);
+          if (result.complete(response) && isHedge) {
+            hedgeWins.increment();
+          }
+        } else if (!call.isCancelled()) {
+          onFailure(unwrap(throwable));
+        }
+      });
+    }
+
+    private void onFailure(final Throwable throwable) {
+      synchronized (this) {
+        failed++;
+        if (!hedged) {
+          // The first client failed before the hedge delay, fail over right away.
+          hedge(throwable);
+        }
+        if (failed < calls.size()) {
+          return;
+        }
+      }
+      result.completeExceptionally(throwable);
+    }
+
+    private synchronized void hedge(final Throwable failure) {
+      if (hedged || result.isDone()) {
+        return;
+      }
+      hedged = true;
+      hedgeTimer.cancel(false);
+      var node = failure == null ? select(request, first) : fallback(request, first, failure);
+      node.ifPresent(aNode -> {
+        (failure != null ? failovers : hedges).increment();
+        call(aNode, failure == null);
+      });
+    }
+
+    private void cancel() {
+      List<CompletableFuture<T>> pendingCalls;
+      synchronized (this) {
+        hedgeTimer.cancel(false);
+        pendingCalls = List.copyOf(calls);
+      }
+      pendingCalls.forEach(call -> call.cancel(true));
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import com.sy.web3j.api.demo.util.Backoff;
+import io.vavr.control.Try;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.handshake.ServerHandshake;
+import org.web3j.protocol.websocket.WebSocketClient;
+
+/**
+ * WebSocket client that reconnects to the blockchain client whenever the connection drops, after
+ * an exponential backoff with jitter. The pending requests and subscriptions are failed by the
+ * web3j service when the connection drops, it is up to their callers to send them again.
+ *
+ * @author selim
+ */
+@Slf4j
+public class ReconnectingWebSocketClient extends WebSocketClient {
+
+  private final long minBackoff;
+
+  private final long maxBackoff;
+
+  private final ScheduledExecutorService executor;
+
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  private final AtomicBoolean reconnecting = new AtomicBoolean();
+
+  private volatile boolean closing;
+
+  /**
+   * Construct a new instance of <code>{@link ReconnectingWebSocketClient}</code>.
+   *
+   * @param serverUri the blockchain client address.
+   * @param minBackoff the minimum time in milliseconds to wait before reconnecting.
+   * @param maxBackoff the maximum time in milliseconds to wait before reconnecting.
+   */
+  public ReconnectingWebSocketClient(final URI serverUri, final long minBackoff,
+      final long maxBackoff) {
+    super(serverUri);
+    if (minBackoff <= 0 || maxBackoff < minBackoff) {
+      throw new IllegalArgumentException("The backoff delays must be positive and ordered");
+    }
+    this.minBackoff = minBackoff;
+    this.maxBackoff = maxBackoff;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "websocket-reconnect");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public void onOpen(final ServerHandshake serverHandshake) {
+    super.onOpen(serverHandshake);
+    if (attempts.getAndSet(0) > 0) {
+      LOG.info("Reconnected to the blockchain client {}.", getURI());
+    }
+  }
+
+  @Override
+  public void onClose(final int code, final String reason, final boolean remote) {
+    super.onClose(code, reason, remote);
+    if (!closing) {
+      scheduleReconnect();
+    }
+  }
+
+  @Override
+  public void close() {
+    closing = true;
+    executor.shutdownNow();
+    super.close();
+  }
+
+  private void scheduleReconnect() {
+    // A failed reconnection closes the connection again, only one attempt is scheduled at once.
+    if (!reconnecting.compareAndSet(false, true)) {
+      return;
+    }
+    var delay = Backoff.delay(attempts.getAndIncrement(), minBackoff, maxBackoff);
+    LOG.warn("Connection to the blockchain client {} lost, reconnecting in {} ms.", getURI(),
+        delay);
+    executor.schedule(this::tryReconnect, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void tryReconnect() {
+    reconnecting.set(false);
+    var connected = Try.of(this::reconnectBlocking)
+        .onFailure(throwable -> LOG.debug("Could not reconnect to {}: {}", getURI(),
+            throwable.getMessage()))
+        .getOrElse(false);
+    if (!connected && !closing) {
+      scheduleReconnect();
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import java.time.Instant;
+import lombok.Value;
+
+/**
+ * Represents the outcome of a fund transfer sent to the blockchain. A transfer is resolved once its
+ * block is at the confirmation depth and the status of its receipt is known, whichever comes last.
+ *
+ * @author selim
+ */
+@Value
+@JsonInclude(Include.NON_NULL)
+public class TrackedTransfer {
+
+  /**
+   * The status of a transfer sent to the blockchain.
+   */
+  public enum Status {
+    /**
+     * The transaction has not been mined yet.
+     */
+    PENDING,
+    /**
+     * The transaction has been mined, but is not confirmed yet.
+     */
+    MINED,
+    /**
+     * The transaction has been mined and confirmed.
+     */
+    CONFIRMED,
+    /**
+     * The transaction has been mined and confirmed but reverted.
+     */
+    FAILED
+  }
+
+  private final String transactionHash;
+  private final Status status;
+  private final Long blockNumber;
+  @JsonIgnore
+  private final String blockHash;
+  private final Instant submittedAt;
+  /**
+   * Whether the transaction was reverted, as told by its receipt, or null if not known yet.
+   */
+  @JsonIgnore
+  private final Boolean reverted;
+  /**
+   * Whether the block of the transaction is at the confirmation depth.
+   */
+  @JsonIgnore
+  private final boolean confirmed;
+
+  /**
+   * Return a transfer that has just been sent.
+   *
+   * @param transactionHash the hash of the transaction sent.
+   * @return a new pending transfer.
+   */
+  public static TrackedTransfer pending(String transactionHash) {
+    return new TrackedTransfer(transactionHash, Status.PENDING, null, null, Instant.now(), null,
+        false);
+  }
+
+  /**
+   * Return this transfer once the receipt of its transaction has been read. The receipt of a block
+   * other than the one confirmed is ignored.
+   *
+   * @param blockNumber the number of the block that includes the transaction.
+   * @param blockHash the hash of the block that includes the transaction.
+   * @param reverted whether the transaction was reverted.
+   * @return a new transfer, resolved if its block is confirmed.
+   */
+  public TrackedTransfer onReceipt(long blockNumber, String blockHash, boolean reverted) {
+    if (confirmed && !isIn(blockHash)) {
+      return this;
+    }
+    return of(blockNumber, blockHash, reverted, confirmed);
+  }
+
+  /**
+   * Return this transfer once the block of its transaction is at the confirmation depth. The
+   * status of a receipt read from another block is forgotten.
+   *
+   * @param blockNumber the number of the block that includes the transaction.
+   * @param blockHash the hash of the block that includes the transaction.
+   * @return a new transfer, resolved if the status of its receipt is known.
+   */
+  public TrackedTransfer onConfirmed(long blockNumber, String blockHash) {
+    return of(blockNumber, blockHash, isIn(blockHash) ? reverted : null, true);
+  }
+
+  /**
+   * Return whether the transaction is known to be mined in the given block.
+   *
+   * @param blockHash the hash of the block.
+   * @return true if the transaction is in the block.
+   */
+  public boolean isIn(String blockHash) {
+    return blockHash != null && blockHash.equalsIgnoreCase(this.blockHash);
+  }
+
+  /**
+   * Return this transfer pending again, once its block is dropped by a reorganization of the
+   * chain.
+   *
+   * @return a new pending transfer.
+   */
+  public TrackedTransfer retract() {
+    return new TrackedTransfer(transactionHash, Status.PENDING, null, null, submittedAt, null,
+        false);
+  }
+
+  /**
+   * Return whether the transaction has not been confirmed yet.
+   *
+   * @return true if the transaction is pending or mined.
+   */
+  @JsonIgnore
+  public boolean isPending() {
+    return status == Status.PENDING || status == Status.MINED;
+  }
+
+  private TrackedTransfer of(long blockNumber, String blockHash, Boolean reverted,
+      boolean confirmed) {
+    var status = !confirmed || reverted == null
+        ? Status.MINED
+        : reverted ? Status.FAILED : Status.CONFIRMED;
+    return new TrackedTransfer(transactionHash, status, blockNumber, blockHash, submittedAt,
+        reverted, confirmed);
+  }
+}
@@ -0,0 +1,295 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded set of the hashes of the transactions notified recently, so that a transaction
+ * delivered again, after a reconnection or a reorganization of the chain, is notified once. The
+ * 32-byte hashes are kept off-heap, in open-addressing tables with linear probing allocated once:
+ * the memory used is known up front whatever the number of hashes, and adding a hash allocates
+ * nothing.
+ *
+ * <p>The hashes expire by generation: a generation holds the hashes first seen during a number of
+ * blocks, then becomes the previous generation and the one before is dropped at once. A hash is
+ * thus remembered for at least that number of blocks, unless a generation fills up first, in which
+ * case it is turned over early so that the tables never hold more than half of their slots.
+ *
+ * @author selim
+ */
+@Slf4j
+public class TransactionDeduplicator implements MeterBinder {
+
+  static final String DUPLICATES_COUNTER = "web3j.dedup.duplicates";
+
+  static final String SIZE_GAUGE = "web3j.dedup.size";
+
+  static final String MEMORY_GAUGE = "web3j.dedup.memory";
+
+  private static final int HASH_BYTES = 32;
+
+  private static final int HASH_DIGITS = HASH_BYTES * 2;
+
+  // Twice as many slots of 32 bytes must fit in a buffer.
+  private static final int MAX_SIZE = 1 << 24;
+
+  private final int maxSize;
+
+  private final long retentionBlocks;
+
+  private final int mask;
+
+  private ByteBuffer current;
+
+  private ByteBuffer previous;
+
+  private volatile int currentSize;
+
+  private volatile int previousSize;
+
+  private long generationStart = -1;
+
+  private final LongAdder duplicates = new LongAdder();
+
+  // The hash being looked up, reused to allocate nothing.
+  private final long[] key = new long[HASH_BYTES / Long.BYTES];
+
+  /**
+   * Construct a new instance of <code>{@link TransactionDeduplicator}</code>.
+   *
+   * @param maxSize the maximum number of hashes of a generation.
+   * @param retentionBlocks the number of blocks of a generation.
+   */
+  public TransactionDeduplicator(final int maxSize, final long retentionBlocks) {
+    if (maxSize <= 0 || maxSize > MAX_SIZE || retentionBlocks <= 0) {
+      throw new IllegalArgumentException(
+          "The number of hashes must be between 1 and " + MAX_SIZE
+              + " and the number of blocks they are remembered must be positive");
+    }
+    this.maxSize = maxSize;
+    this.retentionBlocks = retentionBlocks;
+    // At most half of the slots are used, which keeps the probes short.
+    var slots = Integer.highestOneBit(maxSize * 2 - 1) << 1;
+    this.mask = slots - 1;
+    this.current = ByteBuffer.allocateDirect(slots * HASH_BYTES);
+    this.previous = ByteBuffer.allocateDirect(slots * HASH_BYTES);
+    LOG.info("Remember the hashes of the last {} blocks in {} KB off-heap.", retentionBlocks,
+        getMemory() / 1024);
+  }
+
+  /**
+   * Add the hash of a transaction notified, unless it has been notified recently.
+   *
+   * @param transactionHash the hash of the transaction, as 64 hexadecimal digits.
+   * @param blockNumber the number of the block of the transaction.
+   * @return true if the transaction has not been notified recently, false if it is a duplicate.
+   * Transactions whose hash is not a 32-byte hash are never considered duplicates.
+   */
+  public synchronized boolean add(@NotNull final String transactionHash, final long blockNumber) {
+    if (!parse(transactionHash)) {
+      return true;
+    }
+    var h0 = key[0];
+    var h1 = key[1];
+    var h2 = key[2];
+    var h3 = key[3];
+    if (contains(previous, h0, h1, h2, h3) || contains(current, h0, h1, h2, h3)) {
+      duplicates.increment();
+      return false;
+    }
+    turnOver(blockNumber);
+    insert(current, h0, h1, h2, h3);
+    currentSize++;
+    return true;
+  }
+
+  /**
+   * Forget the hash of a transaction, so that it is notified again, such as when its block is
+   * dropped by a reorganization of the chain and the transaction is mined again in another block.
+   *
+   * @param transactionHash the hash of the transaction, as 64 hexadecimal digits.
+   */
+  public synchronized void remove(@NotNull final String transactionHash) {
+    if (!parse(transactionHash)) {
+      return;
+    }
+    if (delete(previous, key[0], key[1], key[2], key[3])) {
+      previousSize--;
+    } else if (delete(current, key[0], key[1], key[2], key[3])) {
+      currentSize--;
+    }
+  }
+
+  /**
+   * Return the number of hashes remembered.
+   *
+   * @return the number of hashes.
+   */
+  public int getSize() {
+    return currentSize + previousSize;
+  }
+
+  /**
+   * Return the number of bytes allocated off-heap.
+   *
+   * @return the memory used in bytes.
+   */
+  public long getMemory() {
+    return (long) current.capacity() + previous.capacity();
+  }
+
+  /**
+   * Measure the duplicates dropped, the number of hashes remembered and the memory they use.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    FunctionCounter.builder(DUPLICATES_COUNTER, duplicates, LongAdder::sum)
+        .description("Number of transactions notified again and dropped")
+        .register(registry);
+    Gauge.builder(SIZE_GAUGE, this, TransactionDeduplicator::getSize)
+        .description("Number of transaction hashes remembered")
+        .register(registry);
+    Gauge.builder(MEMORY_GAUGE, this, TransactionDeduplicator::getMemory)
+        .description("Off-heap memory of the transaction hashes remembered")
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  private void turnOver(final long blockNumber) {
+    if (generationStart < 0) {
+      generationStart = blockNumber;
+    }
+    var expired = blockNumber - generationStart >= retentionBlocks;
+    if (!expired && currentSize < maxSize) {
+      return;
+    }
+    if (!expired) {
+      LOG.warn("More than {} transactions in {} blocks, forget the oldest hashes early.", maxSize,
+          blockNumber - generationStart + 1);
+    }
+    clear(previous);
+    var buffer = previous;
+    previous = current;
+    previousSize = currentSize;
+    current = buffer;
+    currentSize = 0;
+    generationStart = blockNumber;
+  }
+
+  private boolean contains(final ByteBuffer table, final long h0, final long h1, final long h2,
+      final long h3) {
+    var slot = (int) h0 & mask;
+    while (true) {
+      var offset = slot * HASH_BYTES;
+      var s0 = table.getLong(offset);
+      var s1 = table.getLong(offset + 8);
+      var s2 = table.getLong(offset + 16);
+      var s3 = table.getLong(offset + 24);
+      if ((s0 | s1 | s2 | s3) == 0) {
+        return false;
+      }
+      if (s0 == h0 && s1 == h1 && s2 == h2 && s3 == h3) {
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void insert(final ByteBuffer table, final long h0, final long h1, final long h2,
+      final long h3) {
+    var slot = (int) h0 & mask;
+    while (true) {
+      var offset = slot * HASH_BYTES;
+      if ((table.getLong(offset) | table.getLong(offset + 8) | table.getLong(offset + 16)
+          | table.getLong(offset + 24)) == 0) {
+        table.putLong(offset, h0)
+            .putLong(offset + 8, h1)
+            .putLong(offset + 16, h2)
+            .putLong(offset + 24, h3);
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private boolean delete(final ByteBuffer table, final long h0, final long h1, final long h2,
+      final long h3) {
+    var hole = (int) h0 & mask;
+    while (true) {
+      var offset = hole * HASH_BYTES;
+      var s0 = table.getLong(offset);
+      if ((s0 | table.getLong(offset + 8) | table.getLong(offset + 16)
+          | table.getLong(offset + 24)) == 0) {
+        return false;
+      }
+      if (s0 == h0 && table.getLong(offset + 8) == h1 && table.getLong(offset + 16) == h2
+          && table.getLong(offset + 24) == h3) {
+        break;
+      }
+      hole = (hole + 1) & mask;
+    }
+    // Shift back the hashes of the same run that cannot be found past the hole anymore, rather
+    // than leaving a tombstone.
+    var slot = (hole + 1) & mask;
+    while (true) {
+      var offset = slot * HASH_BYTES;
+      var s0 = table.getLong(offset);
+      if ((s0 | table.getLong(offset + 8) | table.getLong(offset + 16)
+          | table.getLong(offset + 24)) == 0) {
+        break;
+      }
+      var home = (int) s0 & mask;
+      if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+        var holeOffset = hole * HASH_BYTES;
+        for (int i = 0; i < HASH_BYTES; i += Long.BYTES) {
+          table.putLong(holeOffset + i, table.getLong(offset + i));
+        }
+        hole = slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    var holeOffset = hole * HASH_BYTES;
+    for (int i = 0; i < HASH_BYTES; i += Long.BYTES) {
+      table.putLong(holeOffset + i, 0);
+    }
+    return true;
+  }
+
+  private static void clear(final ByteBuffer table) {
+    for (int offset = 0; offset < table.capacity(); offset += Long.BYTES) {
+      table.putLong(offset, 0);
+    }
+  }
+
+  private boolean parse(final String transactionHash) {
+    var start = Hex.start(transactionHash);
+    if (transactionHash.length() - start != HASH_DIGITS) {
+      return false;
+    }
+    try {
+      for (int i = 0; i < key.length; i++) {
+        key[i] = parseLong(transactionHash, start + i * 16);
+      }
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    // The zero hash marks the empty slots.
+    return (key[0] | key[1] | key[2] | key[3]) != 0;
+  }
+
+  private static long parseLong(final String value, final int start) {
+    long result = 0;
+    for (int i = start; i < start + 16; i++) {
+      result = result << 4 | Hex.digit(value, i);
+    }
+    return result;
+  }
+}
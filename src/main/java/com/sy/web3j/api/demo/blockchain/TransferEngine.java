@@ -0,0 +1,196 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static com.sy.web3j.api.demo.blockchain.BlockchainService.GAS_LIMIT;
+import static com.sy.web3j.api.demo.blockchain.BlockchainService.GAS_PRICE;
+
+import java.math.BigInteger;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response.Error;
+import org.web3j.protocol.core.methods.request.Transaction;
+
+/**
+ * Send Ether transfers from unlocked accounts with nonces managed locally, so that many
+ * transfers from the same account can be in flight at once without waiting for the node to
+ * resolve their nonce. The nonce of an account is seeded once from its pending transaction count,
+ * then incremented locally.
+ *
+ * <p>A transfer rejected by the node for another reason than its nonce releases its nonce, which
+ * the next transfer of the account reuses so that the gap it leaves does not hold the transfers
+ * sent after it. A transfer rejected because of its nonce is retried with a fresh one, read again
+ * from the node, as is any transfer following a send whose outcome is unknown. A transfer the node
+ * already knows is pending, so it fails without being sent again.
+ *
+ * @author selim
+ */
+@Slf4j
+public class TransferEngine {
+
+  private final Web3j web3j;
+
+  private final int maxRetries;
+
+  private final ConcurrentHashMap<String, SenderNonce> nonces = new ConcurrentHashMap<>();
+
+  /**
+   * Construct a new instance of <code>{@link TransferEngine}</code>.
+   *
+   * @param web3j The component to communicate with the blockchain.
+   * @param maxRetries The maximum number of times a transfer rejected because of its nonce is
+   * retried.
+   */
+  public TransferEngine(final Web3j web3j, final int maxRetries) {
+    this.web3j = web3j;
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * Send an amount of Wei from an unlocked account to another account.
+   *
+   * @param senderAddress the account that sends ether.
+   * @param recipientAddress the account that receives ether.
+   * @param amountInWei the amount to transfer.
+   * @return the hash of the transaction sent.
+   */
+  public CompletableFuture<String> transfer(@NotEmpty final String senderAddress,
+      @NotEmpty final String recipientAddress, @NotNull final BigInteger amountInWei) {
+    return transfer(senderAddress, recipientAddress, amountInWei, 0);
+  }
+
+  private CompletableFuture<String> transfer(final String senderAddress,
+      final String recipientAddress, final BigInteger amountInWei, final int attempt) {
+    var senderNonce = nonces.computeIfAbsent(senderAddress.toLowerCase(),
+        address -> new SenderNonce(senderAddress));
+    var allocation = senderNonce.next();
+    return allocation.getNonce()
+        .thenCompose(nonce -> web3j
+            .ethSendTransaction(Transaction.createEtherTransaction(
+                senderAddress,
+                nonce,
+                GAS_PRICE,
+                GAS_LIMIT,
+                recipientAddress,
+                amountInWei))
+            .sendAsync())
+        .handle((ethSendTransaction, throwable) -> {
+          if (throwable == null && !ethSendTransaction.hasError()) {
+            return CompletableFuture.completedFuture(ethSendTransaction.getTransactionHash());
+          }
+          if (throwable != null) {
+            // Whether the node received the transfer is unknown, the nonce has to be read again.
+            senderNonce.resync(allocation.getSeed());
+            return CompletableFuture.<String>failedFuture(unwrap(throwable));
+          }
+          var message = ethSendTransaction.getError().getMessage();
+          if (isKnown(message)) {
+            // The same transfer is pending already, sending it again would pay it twice.
+            return CompletableFuture.<String>failedFuture(new BlockchainException(
+                String.format("Transfer already pending on the node: %s", message)));
+          }
+          if (!isNonceRejected(message)) {
+            // The nonce is left unused, the next transfer of the account fills the gap.
+            senderNonce.release(allocation);
+            return CompletableFuture.<String>failedFuture(new BlockchainException(message));
+          }
+          senderNonce.resync(allocation.getSeed());
+          if (attempt < maxRetries) {
+            LOG.debug("Nonce of account {} rejected, retrying: {}", senderAddress, message);
+            return transfer(senderAddress, recipientAddress, amountInWei, attempt + 1);
+          }
+          return CompletableFuture.<String>failedFuture(new BlockchainException(message));
+        })
+        .thenCompose(future -> future);
+  }
+
+  private static boolean isKnown(final String message) {
+    var lowerCaseMessage = String.valueOf(message).toLowerCase();
+    return lowerCaseMessage.contains("known transaction")
+        || lowerCaseMessage.contains("already known");
+  }
+
+  private static boolean isNonceRejected(final String message) {
+    var lowerCaseMessage = String.valueOf(message).toLowerCase();
+    return lowerCaseMessage.contains("nonce") || lowerCaseMessage.contains("underpriced");
+  }
+
+  private static Throwable unwrap(final Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+  }
+
+  /**
+   * The nonces of an account, that is the pending transaction count read from the node plus the
+   * number of nonces allocated since, along with the nonces released by rejected transfers.
+   */
+  private class SenderNonce {
+
+    private final String senderAddress;
+    private final TreeSet<BigInteger> released = new TreeSet<>();
+    private CompletableFuture<BigInteger> seed;
+    private long allocated;
+
+    private SenderNonce(final String senderAddress) {
+      this.senderAddress = senderAddress;
+    }
+
+    private synchronized Allocation next() {
+      if (seed == null || seed.isCompletedExceptionally()) {
+        seed = web3j
+            .ethGetTransactionCount(senderAddress, DefaultBlockParameterName.PENDING)
+            .sendAsync()
+            .thenApply(ethGetTransactionCount -> {
+              if (ethGetTransactionCount.hasError()) {
+                throw new BlockchainException(
+                    errorMessage(ethGetTransactionCount.getError()));
+              }
+              return ethGetTransactionCount.getTransactionCount();
+            });
+        allocated = 0;
+        released.clear();
+      }
+      if (!released.isEmpty()) {
+        return new Allocation(seed, CompletableFuture.completedFuture(released.pollFirst()));
+      }
+      var offset = BigInteger.valueOf(allocated++);
+      return new Allocation(seed, seed.thenApply(count -> count.add(offset)));
+    }
+
+    private synchronized void release(final Allocation allocation) {
+      // A nonce of a previous seed may have been allocated again since.
+      if (allocation.getSeed() == seed) {
+        released.add(allocation.getNonce().join());
+      }
+    }
+
+    private synchronized void resync(final CompletableFuture<BigInteger> failedSeed) {
+      // In-flight transfers of the same seed fail together, the account is read again only once.
+      if (failedSeed == seed) {
+        seed = null;
+      }
+    }
+
+    private String errorMessage(final Error error) {
+      return String.format("Could not get the nonce of account %s: %s", senderAddress,
+          error.getMessage());
+    }
+  }
+
+  /**
+   * A nonce allocated to a transfer, along with the seed it derives from.
+   */
+  @Value
+  private static class Allocation {
+
+    private final CompletableFuture<BigInteger> seed;
+    private final CompletableFuture<BigInteger> nonce;
+  }
+}
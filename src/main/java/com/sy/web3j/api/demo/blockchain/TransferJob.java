@@ -0,0 +1,97 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.Getter;
+
+/**
+ * A batch of fund transfers submitted at once, along with the status of every transfer.
+ *
+ * @author selim
+ */
+@Getter
+public class TransferJob {
+
+  /**
+   * The status of a fund transfer.
+   */
+  public enum Status {
+    PENDING,
+    SUBMITTED,
+    FAILED
+  }
+
+  private final String jobId;
+
+  private final Instant createdAt;
+
+  private final List<Item> items;
+
+  /**
+   * Construct a new instance of <code>{@link TransferJob}</code> whose transfers are pending.
+   *
+   * @param transfers the fund transfers of the job.
+   */
+  public TransferJob(final List<FundTransfer> transfers) {
+    this.jobId = UUID.randomUUID().toString();
+    this.createdAt = Instant.now();
+    this.items = IntStream.range(0, transfers.size())
+        .mapToObj(index -> new Item(index, transfers.get(index)))
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * Return the number of transfers that are in the given status.
+   *
+   * @param status the status of the transfers to count.
+   * @return the number of transfers in the given status.
+   */
+  public long count(final Status status) {
+    return items.stream().filter(item -> item.getStatus() == status).count();
+  }
+
+  /**
+   * Return whether all transfers of the job have been either submitted or failed.
+   *
+   * @return true if no transfer is pending.
+   */
+  public boolean isCompleted() {
+    return count(Status.PENDING) == 0;
+  }
+
+  /**
+   * The status of a fund transfer of the job.
+   */
+  @Getter
+  public static class Item {
+
+    private final int index;
+    private final String senderAddress;
+    private final String recipientAddress;
+    private final BigDecimal amountInEther;
+    private volatile Status status = Status.PENDING;
+    private volatile String transactionHash;
+    private volatile String error;
+
+    private Item(final int index, final FundTransfer transfer) {
+      this.index = index;
+      this.senderAddress = transfer.getSenderAddress();
+      this.recipientAddress = transfer.getRecipientAddress();
+      this.amountInEther = transfer.getAmountInEther();
+    }
+
+    void submitted(final String transactionHash) {
+      this.transactionHash = transactionHash;
+      this.status = Status.SUBMITTED;
+    }
+
+    void failed(final String error) {
+      this.error = error;
+      this.status = Status.FAILED;
+    }
+  }
+}
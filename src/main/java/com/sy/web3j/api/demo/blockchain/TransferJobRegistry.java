@@ -0,0 +1,52 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Bounded registry of the latest fund transfer jobs, the oldest jobs are forgotten first.
+ *
+ * @author selim
+ */
+public class TransferJobRegistry {
+
+  private final LinkedHashMap<String, TransferJob> jobs;
+
+  /**
+   * Construct a new instance of <code>{@link TransferJobRegistry}</code>.
+   *
+   * @param maxJobs the maximum number of jobs remembered.
+   */
+  public TransferJobRegistry(final int maxJobs) {
+    if (maxJobs <= 0) {
+      throw new IllegalArgumentException("The number of jobs must be positive");
+    }
+    this.jobs = new LinkedHashMap<>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, TransferJob> eldest) {
+        return size() > maxJobs;
+      }
+    };
+  }
+
+  /**
+   * Remember a job.
+   *
+   * @param transferJob the job to remember.
+   */
+  public synchronized void register(@NotNull final TransferJob transferJob) {
+    jobs.put(transferJob.getJobId(), transferJob);
+  }
+
+  /**
+   * Return the job with the given identifier, if it is still remembered.
+   *
+   * @param jobId the job identifier.
+   * @return the job, or nothing if the job is unknown or forgotten.
+   */
+  public synchronized Optional<TransferJob> find(final String jobId) {
+    return Optional.ofNullable(jobs.get(jobId));
+  }
+}
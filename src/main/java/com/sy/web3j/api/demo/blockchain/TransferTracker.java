@@ -0,0 +1,129 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import com.sy.web3j.api.demo.listener.TransactionEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Bounded index of the latest fund transfers sent to the blockchain, keyed by transaction hash.
+ * Transfers are confirmed as their transactions are notified at the confirmation depth, and get
+ * their outcome from their receipts: a receipt read before the confirmation only makes the transfer
+ * mined. The oldest transfers are forgotten first.
+ *
+ * @author selim
+ */
+@Slf4j
+public class TransferTracker {
+
+  private final LinkedHashMap<String, TrackedTransfer> transfers;
+
+  /**
+   * Construct a new instance of <code>{@link TransferTracker}</code>.
+   *
+   * @param maxSize the maximum number of transfers remembered.
+   */
+  public TransferTracker(final int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The number of transfers must be positive");
+    }
+    this.transfers = new LinkedHashMap<>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, TrackedTransfer> eldest) {
+        var evict = size() > maxSize;
+        if (evict && eldest.getValue().isPending()) {
+          LOG.warn("Transfer {} is forgotten before being confirmed.", eldest.getKey());
+        }
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * Track a transfer that has just been sent.
+   *
+   * @param transactionHash the hash of the transaction sent.
+   */
+  public synchronized void track(@NotEmpty final String transactionHash) {
+    transfers.putIfAbsent(transactionHash.toLowerCase(), TrackedTransfer.pending(transactionHash));
+  }
+
+  /**
+   * Confirm the tracked transfer of a transaction whose block is at the confirmation depth.
+   *
+   * @param transactionEvent the transaction notified by the blockchain.
+   * @return true if the transfer is tracked and its receipt must be read to resolve it.
+   */
+  public synchronized boolean onTransactionConfirmed(
+      @NotNull final TransactionEvent transactionEvent) {
+    // Most notified transactions are not ours, only the tracked ones are resolved.
+    var transfer = transfers.computeIfPresent(transactionEvent.getHash().toLowerCase(),
+        (hash, tracked) -> tracked.isPending()
+            ? tracked.onConfirmed(transactionEvent.getBlockNumber(),
+            transactionEvent.getBlockHash())
+            : tracked);
+    return transfer != null && transfer.isPending();
+  }
+
+  /**
+   * Make the tracked transfer of a transaction dropped by a reorganization of the chain pending
+   * again, until its transaction is mined in another block.
+   *
+   * @param transactionEvent the transaction retracted.
+   */
+  public synchronized void onTransactionRetracted(
+      @NotNull final TransactionEvent transactionEvent) {
+    transfers.computeIfPresent(transactionEvent.getHash().toLowerCase(),
+        (hash, transfer) -> transfer.isIn(transactionEvent.getBlockHash())
+            ? transfer.retract()
+            : transfer);
+  }
+
+  /**
+   * Resolve the tracked transfer of a transaction whose receipt has been read, if its block is
+   * confirmed, or make it mined otherwise.
+   *
+   * @param transactionReceipt the receipt of a mined transaction.
+   */
+  public synchronized void onReceipt(@NotNull final TransactionReceipt transactionReceipt) {
+    transfers.computeIfPresent(transactionReceipt.getTransactionHash().toLowerCase(),
+        (hash, transfer) -> transfer.isPending()
+            ? transfer.onReceipt(transactionReceipt.getBlockNumber().longValueExact(),
+            transactionReceipt.getBlockHash(),
+            !transactionReceipt.isStatusOK())
+            : transfer);
+  }
+
+  /**
+   * Return the hashes of the transfers that are still pending or mined after the given time.
+   *
+   * @param minAge the minimum time since the transfers have been sent.
+   * @return the hashes of the pending transfers, the oldest first.
+   */
+  public synchronized List<String> pending(@NotNull final Duration minAge) {
+    var sentBefore = Instant.now().minus(minAge);
+    return transfers.values().stream()
+        .filter(TrackedTransfer::isPending)
+        .filter(transfer -> !transfer.getSubmittedAt().isAfter(sentBefore))
+        .map(TrackedTransfer::getTransactionHash)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Return the transfer of the given transaction, if it is still remembered.
+   *
+   * @param transactionHash the hash of the transaction sent.
+   * @return the transfer, or nothing if the transfer is unknown or forgotten.
+   */
+  public synchronized Optional<TrackedTransfer> find(@NotEmpty final String transactionHash) {
+    return Optional.ofNullable(transfers.get(transactionHash.toLowerCase()));
+  }
+}
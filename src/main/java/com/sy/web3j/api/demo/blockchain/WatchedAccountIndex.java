@@ -0,0 +1,321 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static com.sy.web3j.api.demo.blockchain.BlockchainService.toSingle;
+import static java.lang.String.format;
+
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.TransactionEvent;
+import com.sy.web3j.api.demo.util.VisibleForTestOnly;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Local index of the balance and transaction count of a fixed set of watched accounts, so that
+ * their reads are answered without querying the blockchain client. The accounts are read once from
+ * the blockchain client at the first block, then every block mined is applied in order: the
+ * sender of a transaction pays its value, if it succeeded, and its gas, and the recipient gets its
+ * value. The receipts of these transactions only are read, for the gas used and the status.
+ *
+ * <p>Whatever cannot be told from the transactions of a block, such as mining rewards or value
+ * transferred by contracts, is caught up by reading the accounts again periodically, at the last
+ * block applied. The accounts are also read again whenever blocks were missed or could not be
+ * applied, or whenever a block does not follow the last block applied, such as after a
+ * reorganization of the chain: their state is dropped at once and they are answered by the
+ * blockchain client in the meantime.
+ *
+ * <p>The reads of the blockchain client never block a thread, so that the watched accounts are
+ * read concurrently and their requests batched.
+ *
+ * @author selim
+ */
+@Slf4j
+public class WatchedAccountIndex implements MeterBinder {
+
+  static final String ACCOUNTS_GAUGE = "web3j.watched.accounts";
+
+  static final String READS_COUNTER = "web3j.watched.reads";
+
+  static final String MISMATCHES_COUNTER = "web3j.watched.mismatches";
+
+  private final Web3j web3j;
+
+  private final Set<Address> accountAddresses;
+
+  private final Map<Address, AccountState> states = new ConcurrentHashMap<>();
+
+  private final FlowableProcessor<BlockEvent> blocks =
+      PublishProcessor.<BlockEvent>create().toSerialized();
+
+  private final Disposable subscription;
+
+  private final LongAdder reads = new LongAdder();
+
+  private final LongAdder mismatches = new LongAdder();
+
+  private volatile long appliedBlockNumber = -1;
+
+  // The hash of the last block applied, told apart from a block of another branch.
+  private String appliedBlockHash;
+
+  /**
+   * Construct a new instance of <code>{@link WatchedAccountIndex}</code>.
+   *
+   * @param web3j The component to communicate with the blockchain.
+   * @param accountAddresses The addresses of the watched accounts.
+   * @param reconciliationInterval The time in milliseconds between two reads of the watched
+   * accounts from the blockchain client.
+   */
+  public WatchedAccountIndex(final Web3j web3j, final Collection<String> accountAddresses,
+      final long reconciliationInterval) {
+    if (reconciliationInterval <= 0) {
+      throw new IllegalArgumentException("The reconciliation interval must be positive");
+    }
+    this.web3j = web3j;
+    this.accountAddresses = accountAddresses.stream()
+        .map(Address::parse)
+        .collect(Collectors.toUnmodifiableSet());
+    // The blocks and the reconciliations are applied one at a time, in order.
+    this.subscription = Flowable.merge(
+        blocks.map(blockEvent -> Completable.defer(() -> apply(blockEvent))),
+        Flowable.interval(reconciliationInterval, TimeUnit.MILLISECONDS)
+            .map(tick -> Completable.defer(this::reconcile)))
+        .onBackpressureBuffer()
+        .concatMapCompletable(task -> task)
+        .subscribe(
+            () -> { },
+            throwable -> LOG.error("Watched accounts are no longer indexed:", throwable));
+  }
+
+  /**
+   * Apply a new block to the watched accounts, asynchronously.
+   *
+   * @param blockEvent the block mined, along with its transactions.
+   */
+  public void onNewBlock(@NotNull final BlockEvent blockEvent) {
+    blocks.onNext(blockEvent);
+  }
+
+  /**
+   * Return the balance of the given account in wei, if it is watched and in sync.
+   *
+   * @param accountAddress the account address.
+   * @return the balance in wei, or nothing if it has to be read from the blockchain client.
+   */
+  public Optional<Wei> getBalance(@NotNull final Address accountAddress) {
+    return state(accountAddress).map(AccountState::getBalance);
+  }
+
+  /**
+   * Return the number of transactions sent from the given account, if it is watched and in sync.
+   *
+   * @param accountAddress the account address.
+   * @return the transaction count, or nothing if it has to be read from the blockchain client.
+   */
+  public OptionalLong getTransactionCount(@NotNull final Address accountAddress) {
+    return state(accountAddress)
+        .map(state -> OptionalLong.of(state.getTransactionCount()))
+        .orElseGet(OptionalLong::empty);
+  }
+
+  /**
+   * Return the number of the last block applied to the watched accounts.
+   *
+   * @return the block number, or -1 if the watched accounts are not in sync yet.
+   */
+  public long getAppliedBlockNumber() {
+    return appliedBlockNumber;
+  }
+
+  /**
+   * Measure the number of watched accounts in sync, the reads they answered and the number of
+   * times an account was found out of sync with the blockchain client.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    Gauge.builder(ACCOUNTS_GAUGE, states, Map::size)
+        .description("Number of watched accounts in sync with the blockchain")
+        .register(registry);
+    FunctionCounter.builder(READS_COUNTER, reads, LongAdder::sum)
+        .description("Number of account reads answered by the watched accounts")
+        .register(registry);
+    FunctionCounter.builder(MISMATCHES_COUNTER, mismatches, LongAdder::sum)
+        .description("Number of watched accounts found out of sync with the blockchain")
+        .register(registry);
+  }
+
+  /**
+   * Stop indexing the watched accounts.
+   */
+  public void shutdown() {
+    subscription.dispose();
+    blocks.onComplete();
+  }
+
+  /**
+   * Read the watched accounts again at the last block applied.
+   *
+   * @return the completion of the reads.
+   */
+  @VisibleForTestOnly
+  Completable reconcile() {
+    var blockNumber = appliedBlockNumber;
+    return blockNumber < 0 ? Completable.complete()
+        : synchronize(blockNumber, appliedBlockHash);
+  }
+
+  private Optional<AccountState> state(final Address accountAddress) {
+    var state = Optional.ofNullable(states.get(accountAddress));
+    state.ifPresent(aState -> reads.increment());
+    return state;
+  }
+
+  private Completable apply(final BlockEvent blockEvent) {
+    var blockNumber = blockEvent.getNumber();
+    var blockHash = blockEvent.getHash();
+    if (blockNumber == appliedBlockNumber && blockHash.equals(appliedBlockHash)) {
+      return Completable.complete();
+    }
+    // A block already applied, of another branch, or after missed blocks.
+    if (appliedBlockNumber < 0 || blockNumber != appliedBlockNumber + 1
+        || !blockEvent.getParentHash().equals(appliedBlockHash)) {
+      // The accounts are read from the blockchain client until they are read again.
+      states.clear();
+      return synchronize(blockNumber, blockHash);
+    }
+    if (isWatched(blockEvent.getMiner())) {
+      return synchronize(blockNumber, blockHash);
+    }
+    var transactions = blockEvent.getTransactions().stream()
+        .filter(transaction -> isWatched(transaction.getFrom()) || isWatched(transaction.getTo()))
+        .collect(Collectors.toList());
+    return Flowable.fromIterable(transactions)
+        .concatMapEager(transaction -> receipt(transaction.getHash()).toFlowable())
+        .toList()
+        .doOnSuccess(receipts -> {
+          for (int i = 0; i < transactions.size(); i++) {
+            apply(transactions.get(i), receipts.get(i));
+          }
+          appliedBlockNumber = blockNumber;
+          appliedBlockHash = blockHash;
+        })
+        .ignoreElement()
+        .onErrorResumeNext(throwable -> {
+          LOG.warn("Could not apply block {} to the watched accounts, read them again: {}",
+              blockNumber, throwable.getMessage());
+          states.clear();
+          return synchronize(blockNumber, blockHash);
+        });
+  }
+
+  private void apply(final TransactionEvent transaction, final TransactionReceipt receipt) {
+    // A failed transaction consumes its gas but does not transfer its value.
+    var value = receipt.isStatusOK() ? transaction.getValue() : Wei.ZERO;
+    var fee = transaction.getGasPrice().multiply(receipt.getGasUsed().longValueExact());
+    states.computeIfPresent(transaction.getFrom(), (accountAddress, state) ->
+        new AccountState(state.balance.subtract(value).subtract(fee),
+            state.transactionCount + 1));
+    if (transaction.getTo() != null) {
+      states.computeIfPresent(transaction.getTo(), (accountAddress, state) ->
+          new AccountState(state.balance.add(value), state.transactionCount));
+    }
+  }
+
+  private Completable synchronize(final long blockNumber, final String blockHash) {
+    var block = DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber));
+    return Flowable.fromIterable(accountAddresses)
+        .flatMapSingle(accountAddress -> Single.zip(
+            balance(accountAddress, block), transactionCount(accountAddress, block),
+            AccountState::new)
+            .map(state -> Map.entry(accountAddress, state)))
+        .toList()
+        .doOnSuccess(entries -> {
+          entries.forEach(entry -> {
+            var previous = states.put(entry.getKey(), entry.getValue());
+            if (previous != null && !previous.equals(entry.getValue())) {
+              mismatches.increment();
+              LOG.debug("Watched account {} was out of sync at block {}.", entry.getKey(),
+                  blockNumber);
+            }
+          });
+          appliedBlockNumber = blockNumber;
+          appliedBlockHash = blockHash;
+        })
+        .ignoreElement()
+        .onErrorResumeNext(throwable -> {
+          LOG.warn("Could not read the watched accounts at block {}: {}", blockNumber,
+              throwable.getMessage());
+          // The accounts are read from the blockchain client until the next block.
+          states.clear();
+          appliedBlockNumber = -1;
+          appliedBlockHash = null;
+          return Completable.complete();
+        });
+  }
+
+  private boolean isWatched(final Address accountAddress) {
+    return accountAddress != null && accountAddresses.contains(accountAddress);
+  }
+
+  private Single<Wei> balance(final Address accountAddress, final DefaultBlockParameter block) {
+    return toSingle(() -> web3j.ethGetBalance(accountAddress.toString(), block).sendAsync())
+        .map(ethGetBalance -> {
+          if (ethGetBalance.hasError()) {
+            throw new BlockchainException(ethGetBalance.getError().getMessage());
+          }
+          return Wei.parseHex(ethGetBalance.getResult());
+        });
+  }
+
+  private Single<Long> transactionCount(final Address accountAddress,
+      final DefaultBlockParameter block) {
+    return toSingle(() -> web3j
+        .ethGetTransactionCount(accountAddress.toString(), block)
+        .sendAsync())
+        .map(ethGetTransactionCount -> {
+          if (ethGetTransactionCount.hasError()) {
+            throw new BlockchainException(ethGetTransactionCount.getError().getMessage());
+          }
+          return ethGetTransactionCount.getTransactionCount().longValueExact();
+        });
+  }
+
+  private Single<TransactionReceipt> receipt(final String transactionHash) {
+    return toSingle(() -> web3j.ethGetTransactionReceipt(transactionHash).sendAsync())
+        .map(ethGetTransactionReceipt -> ethGetTransactionReceipt.getTransactionReceipt()
+            .orElseThrow(() -> new BlockchainException(
+                format("Could not read the receipt of transaction %s", transactionHash))));
+  }
+
+  @Value
+  private static class AccountState {
+
+    private final Wei balance;
+    private final long transactionCount;
+  }
+}
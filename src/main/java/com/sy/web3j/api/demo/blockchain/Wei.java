@@ -0,0 +1,370 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Objects;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Amount of wei, held as an unsigned 128-bit integer in two longs rather than as a {@link
+ * BigInteger}. 128 bits hold more than 10^20 ether, far beyond the ether in circulation, so that
+ * real balances, values and gas prices fit. Amounts are read from and written to JSON-RPC
+ * quantities, added, subtracted and converted to ether without allocating anything but the result.
+ *
+ * <p>The chain allows any 256-bit amount though, such as the balance a development node funds its
+ * accounts with: the amounts beyond 128 bits are held as a {@link BigInteger} instead.
+ *
+ * @author selim
+ */
+public final class Wei implements Comparable<Wei> {
+
+  /**
+   * No wei.
+   */
+  public static final Wei ZERO = new Wei(0, 0, null);
+
+  private static final long GWEI = 1_000_000_000L;
+
+  private static final long ETHER = GWEI * GWEI;
+
+  private static final BigDecimal ETHER_FACTOR = BigDecimal.valueOf(ETHER);
+
+  private static final int ETHER_DECIMALS = 18;
+
+  private static final long[] POWERS_OF_TEN = new long[ETHER_DECIMALS + 1];
+
+  private static final long MASK = 0xFFFF_FFFFL;
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private final long high;
+
+  private final long low;
+
+  /**
+   * The amount if it does not fit in 128 bits, null otherwise.
+   */
+  private final BigInteger wide;
+
+  private Wei(final long high, final long low, final BigInteger wide) {
+    this.high = high;
+    this.low = low;
+    this.wide = wide;
+  }
+
+  private Wei(final long high, final long low) {
+    this(high, low, null);
+  }
+
+  /**
+   * Return the given amount of wei.
+   *
+   * @param value the amount of wei.
+   * @return the amount.
+   * @throws ArithmeticException if the amount is negative.
+   */
+  public static Wei of(final long value) {
+    if (value < 0) {
+      throw new ArithmeticException("An amount of wei cannot be negative");
+    }
+    return value == 0 ? ZERO : new Wei(0, value);
+  }
+
+  /**
+   * Return the given amount of wei.
+   *
+   * @param value the amount of wei.
+   * @return the amount.
+   * @throws ArithmeticException if the amount is negative.
+   */
+  @JsonCreator
+  public static Wei of(@NotNull final BigInteger value) {
+    if (value.signum() < 0) {
+      throw new ArithmeticException("An amount of wei cannot be negative");
+    }
+    if (value.bitLength() > Long.SIZE * 2) {
+      return new Wei(0, 0, value);
+    }
+    var high = value.bitLength() < Long.SIZE ? 0 : value.shiftRight(Long.SIZE).longValue();
+    return new Wei(high, value.longValue());
+  }
+
+  /**
+   * Return the amount of wei of a JSON-RPC quantity, written in hexadecimal with or without a
+   * <code>0x</code> prefix.
+   *
+   * @param value the hexadecimal quantity.
+   * @return the amount.
+   * @throws IllegalArgumentException if the value is not hexadecimal.
+   */
+  public static Wei parseHex(@NotNull final CharSequence value) {
+    var start = Hex.start(value);
+    if (start == value.length()) {
+      throw new IllegalArgumentException("Invalid hexadecimal value " + value);
+    }
+    long high = 0;
+    long low = 0;
+    for (int i = start; i < value.length(); i++) {
+      if (high >>> 60 != 0) {
+        return of(new BigInteger(value.subSequence(start, value.length()).toString(), 16));
+      }
+      high = high << 4 | low >>> 60;
+      low = low << 4 | Hex.digit(value, i);
+    }
+    return new Wei(high, low);
+  }
+
+  /**
+   * Return the amount of wei of the given big-endian two's-complement bytes, as written by {@link
+   * BigInteger#toByteArray()}.
+   *
+   * @param bytes the bytes of the amount.
+   * @return the amount.
+   * @throws ArithmeticException if the amount is negative.
+   */
+  public static Wei fromByteArray(@NotNull final byte[] bytes) {
+    if (bytes.length == 0 || bytes[0] < 0) {
+      throw new ArithmeticException("Amount of wei out of range");
+    }
+    long high = 0;
+    long low = 0;
+    for (var b : bytes) {
+      if (high >>> 56 != 0) {
+        return of(new BigInteger(bytes));
+      }
+      high = high << 8 | low >>> 56;
+      low = low << 8 | b & 0xFF;
+    }
+    return new Wei(high, low);
+  }
+
+  /**
+   * Return the sum of this amount and the given one.
+   *
+   * @param other the amount to add.
+   * @return the sum.
+   */
+  public Wei add(@NotNull final Wei other) {
+    if (wide != null || other.wide != null) {
+      return of(toBigInteger().add(other.toBigInteger()));
+    }
+    var sumLow = low + other.low;
+    var carry = Long.compareUnsigned(sumLow, low) < 0 ? 1 : 0;
+    var sumHigh = high + other.high + carry;
+    if (Long.compareUnsigned(sumHigh, high) < 0 || carry == 1 && sumHigh == high) {
+      return of(toBigInteger().add(other.toBigInteger()));
+    }
+    return new Wei(sumHigh, sumLow);
+  }
+
+  /**
+   * Return the difference between this amount and the given one.
+   *
+   * @param other the amount to subtract.
+   * @return the difference.
+   * @throws ArithmeticException if the given amount is greater than this one.
+   */
+  public Wei subtract(@NotNull final Wei other) {
+    if (compareTo(other) < 0) {
+      throw new ArithmeticException("An amount of wei cannot be negative");
+    }
+    if (wide != null) {
+      return of(wide.subtract(other.toBigInteger()));
+    }
+    var borrow = Long.compareUnsigned(low, other.low) < 0 ? 1 : 0;
+    return new Wei(high - other.high - borrow, low - other.low);
+  }
+
+  /**
+   * Return the product of this amount by the given factor, such as a gas price by the gas used.
+   *
+   * @param factor the factor.
+   * @return the product.
+   * @throws ArithmeticException if the factor is negative.
+   */
+  public Wei multiply(final long factor) {
+    if (factor < 0) {
+      throw new ArithmeticException("An amount of wei cannot be negative");
+    }
+    if (wide != null) {
+      return of(wide.multiply(BigInteger.valueOf(factor)));
+    }
+    // The factor is positive, the unsigned high product of the low part needs one correction.
+    var carry = Math.multiplyHigh(low, factor) + (low >> 63 & factor);
+    var highProduct = high * factor;
+    var productHigh = highProduct + carry;
+    if (Math.multiplyHigh(high, factor) + (high >> 63 & factor) != 0
+        || Long.compareUnsigned(productHigh, highProduct) < 0) {
+      return of(toBigInteger().multiply(BigInteger.valueOf(factor)));
+    }
+    return new Wei(productHigh, low * factor);
+  }
+
+  /**
+   * Return this amount in ether, with as many decimals as needed and no trailing zero, as {@link
+   * org.web3j.utils.Convert#fromWei(BigDecimal, org.web3j.utils.Convert.Unit)} does.
+   *
+   * @return the amount in ether.
+   */
+  public BigDecimal toEther() {
+    if (wide != null) {
+      return new BigDecimal(wide).divide(ETHER_FACTOR);
+    }
+    long ether;
+    long fraction;
+    if (high == 0 && low >= 0) {
+      ether = low / ETHER;
+      fraction = low % ETHER;
+    } else {
+      var gwei = divide(this, GWEI);
+      var quotient = divide(gwei, GWEI);
+      if (quotient.high != 0 || quotient.low < 0) {
+        return new BigDecimal(toBigInteger()).divide(ETHER_FACTOR);
+      }
+      ether = quotient.low;
+      // The remainders are below 10^9, they are told by the low parts of the quotients.
+      fraction = (gwei.low - quotient.low * GWEI) * GWEI + (low - gwei.low * GWEI);
+    }
+    if (fraction == 0) {
+      return BigDecimal.valueOf(ether);
+    }
+    var scale = ETHER_DECIMALS;
+    while (fraction % 10 == 0) {
+      fraction /= 10;
+      scale--;
+    }
+    if (ether > (Long.MAX_VALUE - fraction) / POWERS_OF_TEN[scale]) {
+      return new BigDecimal(toBigInteger()).divide(ETHER_FACTOR);
+    }
+    return BigDecimal.valueOf(ether * POWERS_OF_TEN[scale] + fraction, scale);
+  }
+
+  /**
+   * Return this amount as a {@link BigInteger}.
+   *
+   * @return the amount of wei.
+   */
+  @JsonValue
+  public BigInteger toBigInteger() {
+    if (wide != null) {
+      return wide;
+    }
+    if (high == 0 && low >= 0) {
+      return BigInteger.valueOf(low);
+    }
+    return new BigInteger(1, toUnsignedByteArray());
+  }
+
+  /**
+   * Return this amount as big-endian two's-complement bytes, as {@link BigInteger#toByteArray()}
+   * does.
+   *
+   * @return the bytes of the amount.
+   */
+  public byte[] toByteArray() {
+    if (wide != null) {
+      return wide.toByteArray();
+    }
+    var bitLength = high != 0
+        ? Long.SIZE * 2 - Long.numberOfLeadingZeros(high)
+        : Long.SIZE - Long.numberOfLeadingZeros(low);
+    // One more bit for the sign, which may take one more byte than the unsigned amount.
+    var bytes = new byte[bitLength / Byte.SIZE + 1];
+    var unsignedBytes = toUnsignedByteArray();
+    var length = Math.min(bytes.length, unsignedBytes.length);
+    System.arraycopy(unsignedBytes, unsignedBytes.length - length, bytes, bytes.length - length,
+        length);
+    return bytes;
+  }
+
+  /**
+   * Return this amount as a JSON-RPC quantity: lowercase hexadecimal digits without leading
+   * zeros, with the <code>0x</code> prefix.
+   *
+   * @return the hexadecimal quantity.
+   */
+  public String toHexString() {
+    if (wide != null) {
+      return "0x" + wide.toString(16);
+    }
+    var digits = high != 0
+        ? 32 - Long.numberOfLeadingZeros(high) / 4
+        : Math.max(1, 16 - Long.numberOfLeadingZeros(low) / 4);
+    var chars = new char[digits + 2];
+    chars[0] = '0';
+    chars[1] = 'x';
+    for (int i = 0; i < digits; i++) {
+      var shift = 4 * (digits - 1 - i);
+      var part = shift >= Long.SIZE ? high >>> (shift - Long.SIZE) : low >>> shift;
+      chars[2 + i] = Hex.toDigit((int) part & 0xF);
+    }
+    return new String(chars);
+  }
+
+  @Override
+  public int compareTo(@NotNull final Wei other) {
+    if (wide != null || other.wide != null) {
+      // An amount held as a big integer is greater than any amount that fits in 128 bits.
+      return wide == null ? -1 : other.wide == null ? 1 : wide.compareTo(other.wide);
+    }
+    var compare = Long.compareUnsigned(high, other.high);
+    return compare != 0 ? compare : Long.compareUnsigned(low, other.low);
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Wei)) {
+      return false;
+    }
+    var wei = (Wei) other;
+    return high == wei.high && low == wei.low && Objects.equals(wide, wei.wide);
+  }
+
+  @Override
+  public int hashCode() {
+    return wide != null ? wide.hashCode() : Long.hashCode(high) * 31 + Long.hashCode(low);
+  }
+
+  /**
+   * Return this amount of wei in decimal.
+   *
+   * @return the decimal amount.
+   */
+  @Override
+  public String toString() {
+    return high == 0 && low >= 0 && wide == null ? Long.toString(low) : toBigInteger().toString();
+  }
+
+  private byte[] toUnsignedByteArray() {
+    var bytes = new byte[Long.BYTES * 2];
+    for (int i = 0; i < Long.BYTES; i++) {
+      bytes[i] = (byte) (high >>> (56 - 8 * i));
+      bytes[Long.BYTES + i] = (byte) (low >>> (56 - 8 * i));
+    }
+    return bytes;
+  }
+
+  private static Wei divide(final Wei dividend, final long divisor) {
+    // Long division 32 bits at a time: the remainder is below the divisor, itself below 2^31, so
+    // that every partial dividend fits in a long.
+    var partial = dividend.high >>> 32;
+    var q3 = partial / divisor;
+    partial = partial % divisor << 32 | dividend.high & MASK;
+    var q2 = partial / divisor;
+    partial = partial % divisor << 32 | dividend.low >>> 32;
+    var q1 = partial / divisor;
+    partial = partial % divisor << 32 | dividend.low & MASK;
+    var q0 = partial / divisor;
+    return new Wei(q3 << 32 | q2, q1 << 32 | q0);
+  }
+}
@@ -0,0 +1,24 @@
+package com.sy.web3j.api.demo.blockchain.web;
+
+import java.util.List;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the accounts whose balances are requested.
+ *
+ * @author selim.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalancesRequest {
+
+  @NotEmpty(message = "Account addresses cannot be null or empty")
+  @Size(max = 10_000, message = "Cannot request more than 10000 account balances")
+  private List<@NotEmpty String> accountAddresses;
+
+}
@@ -1,20 +1,28 @@
 package com.sy.web3j.api.demo.blockchain.web;
 
 import com.sy.web3j.api.demo.blockchain.BlockchainService;
+import com.sy.web3j.api.demo.blockchain.FundTransfer;
+import com.sy.web3j.api.demo.blockchain.TrackedTransfer;
+import com.sy.web3j.api.demo.blockchain.TransferJob;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 /**
  * Controller to interact with the blockchain.
@@ -27,53 +35,132 @@ import org.springframework.web.bind.annotation.RestController;
 @SuppressWarnings("unused")
 public class BlockchainController {
 
+  private static final String LINE_SEPARATOR = "\n";
+
   private final BlockchainService blockchainService;
 
   /**
-   * Return the number of transaction sent from the given account.
+   * Return the number of transaction sent from the given account. The request thread is released
+   * while the blockchain is queried.
    *
    * @param accountAddress the account address to check the number of transaction sent..
    * @return the number of transaction sent.
    */
   @GetMapping("/transactions/{accountAddress}/count")
   @SuppressWarnings("unused")
-  public BigInteger getTransactionsCount(@PathVariable @NotEmpty final String accountAddress) {
-    return blockchainService.getTransactionsCount(accountAddress);
+  public CompletableFuture<BigInteger> getTransactionsCount(
+      @PathVariable @NotEmpty final String accountAddress) {
+    return blockchainService.getTransactionsCountAsync(accountAddress);
   }
 
   /**
-   * Return the balance of the given account in Ether.
+   * Return the balance of the given account in Ether. The request thread is released while the
+   * blockchain is queried.
    *
    * @param accountAddress the account address to check the balance.
    * @return The balance in Ether.
    */
   @GetMapping("/accounts/{accountAddress}/balance")
   @SuppressWarnings("unused")
-  public BigDecimal getAccountBalance(@PathVariable @NotEmpty final String accountAddress) {
-    return blockchainService.getBalance(accountAddress);
+  public CompletableFuture<BigDecimal> getAccountBalance(
+      @PathVariable @NotEmpty final String accountAddress) {
+    return blockchainService.getBalanceAsync(accountAddress);
+  }
+
+  /**
+   * Stream the balances of the given accounts in Ether, one JSON document per line.
+   *
+   * @param accountBalancesRequest the accounts to check the balance.
+   * @return The balances in Ether, in no particular order.
+   */
+  @PostMapping(value = "/accounts/balances", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+  @SuppressWarnings("unused")
+  public ResponseBodyEmitter getAccountBalances(
+      @Valid @RequestBody final AccountBalancesRequest accountBalancesRequest) {
+    var emitter = new ResponseBodyEmitter();
+    var subscription = blockchainService
+        .getBalances(accountBalancesRequest.getAccountAddresses())
+        .subscribe(
+            accountBalance -> {
+              emitter.send(accountBalance, MediaType.APPLICATION_JSON);
+              emitter.send(LINE_SEPARATOR, MediaType.TEXT_PLAIN);
+            },
+            emitter::completeWithError,
+            emitter::complete);
+    emitter.onTimeout(subscription::dispose);
+    emitter.onError(throwable -> subscription.dispose());
+    return emitter;
   }
 
   /**
-   * Returns a list of unlocked accounts.
+   * Returns a list of unlocked accounts. The request thread is released while the blockchain is
+   * queried.
    *
    * @return the list of accounts owned by the ethereum client.
    */
   @GetMapping("/accounts")
   @SuppressWarnings("unused")
-  public Collection<String> getAccounts() {
-    return blockchainService.getUnlockedAccounts();
+  public CompletableFuture<Collection<String>> getAccounts() {
+    return blockchainService.getUnlockedAccountsAsync();
   }
 
   /**
-   * Send an amount of Ether from an unlocked account address to another account.
+   * Send an amount of Ether from an unlocked account address to another account. The request
+   * thread is released while the transaction is sent.
    * @param fundTransferRequest the fund transfer request.
+   * @return the hash of the transaction sent.
    */
   @PostMapping(value = "/transactions")
   @ResponseStatus(HttpStatus.ACCEPTED)
   @SuppressWarnings("unused")
-  public void fundTransfer(@Valid @RequestBody final FundTransferRequest fundTransferRequest) {
-    blockchainService.transferFund(fundTransferRequest.getFromAccountAddress(),
+  public CompletableFuture<String> fundTransfer(
+      @Valid @RequestBody final FundTransferRequest fundTransferRequest) {
+    return blockchainService.transferFund(fundTransferRequest.getFromAccountAddress(),
         fundTransferRequest.getToAccountAddress(),
         fundTransferRequest.getAmountInEther());
   }
+
+  /**
+   * Return the outcome of a fund transfer sent by this application.
+   *
+   * @param transactionHash the hash of the transaction sent.
+   * @return the transfer, or not found if the transfer is unknown or has been forgotten.
+   */
+  @GetMapping("/transactions/{transactionHash}/status")
+  @SuppressWarnings("unused")
+  public ResponseEntity<TrackedTransfer> getTransferStatus(
+      @PathVariable @NotEmpty final String transactionHash) {
+    return ResponseEntity.of(blockchainService.getTransferStatus(transactionHash));
+  }
+
+  /**
+   * Send a batch of fund transfers from unlocked account addresses to other accounts. All the
+   * transfers are validated before any is sent, then they are sent in the background.
+   *
+   * @param fundTransfersRequest the fund transfers request.
+   * @return the job that tracks the status of every transfer.
+   */
+  @PostMapping(value = "/transactions/batch")
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  @SuppressWarnings("unused")
+  public TransferJob fundTransfers(
+      @Valid @RequestBody final FundTransfersRequest fundTransfersRequest) {
+    return blockchainService.submitTransfers(fundTransfersRequest.getTransfers().stream()
+        .map(fundTransferRequest -> new FundTransfer(fundTransferRequest.getFromAccountAddress(),
+            fundTransferRequest.getToAccountAddress(),
+            fundTransferRequest.getAmountInEther()))
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Return the status of every transfer of a batch of fund transfers.
+   *
+   * @param jobId the job identifier returned when the batch was sent.
+   * @return the job, or not found if the job is unknown or has been forgotten.
+   */
+  @GetMapping("/transactions/batch/{jobId}")
+  @SuppressWarnings("unused")
+  public ResponseEntity<TransferJob> getFundTransfers(@PathVariable @NotEmpty final String jobId) {
+    return ResponseEntity.of(blockchainService.getTransferJob(jobId));
+  }
 }
@@ -0,0 +1,90 @@
+package com.sy.web3j.api.demo.blockchain.web;
+
+import com.sy.web3j.api.demo.listener.EventBroadcaster;
+import com.sy.web3j.api.demo.listener.EventBroadcaster.BroadcastEvent;
+import com.sy.web3j.api.demo.listener.EventBroadcaster.Type;
+import io.reactivex.Completable;
+import io.reactivex.schedulers.Schedulers;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Controller to stream the blockchain events to the clients.
+ *
+ * @author selim
+ */
+@RestController
+@Slf4j
+@SuppressWarnings("unused")
+public class EventStreamController {
+
+  private final EventBroadcaster eventBroadcaster;
+
+  private final long timeout;
+
+  /**
+   * Construct a new instance of <code>{@link EventStreamController}</code>.
+   *
+   * @param eventBroadcaster the broadcaster of the blockchain events.
+   * @param timeout the time in milliseconds after which a stream is closed, clients are expected
+   * to reconnect.
+   */
+  public EventStreamController(final EventBroadcaster eventBroadcaster,
+      final @Value("${web3j.stream.timeout}") long timeout) {
+    this.eventBroadcaster = eventBroadcaster;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Stream the blocks mined, the transactions confirmed and the confirmed transactions retracted
+   * by a reorganization from now on as server-sent events, named <code>block</code>,
+   * <code>transaction</code> and <code>retraction</code>. The request thread is released while
+   * the stream is open, and events are dropped rather than buffered without bound when the client
+   * is too slow to read them.
+   *
+   * <p>The writes to the client block until the client reads them, so that they are handed over
+   * from the threads of the broadcaster to I/O threads, one write at a time. A client that stops
+   * reading holds an I/O thread until the servlet container times its write out, while the other
+   * clients are not slowed down.
+   *
+   * @param types the types of events to stream, all by default.
+   * @return the stream of events.
+   */
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @SuppressWarnings("unused")
+  public SseEmitter streamEvents(
+      @RequestParam(defaultValue = "BLOCK,TRANSACTION,RETRACTION") final Set<Type> types) {
+    var emitter = new SseEmitter(timeout);
+    var subscription = eventBroadcaster.events(types)
+        .concatMapCompletable(event -> Completable
+            .fromAction(() -> emitter.send(toServerSentEvent(event)))
+            .subscribeOn(Schedulers.io()), 1)
+        .subscribe(
+            emitter::complete,
+            throwable -> {
+              LOG.debug("Event stream closed: {}", throwable.getMessage());
+              emitter.completeWithError(throwable);
+            });
+    emitter.onCompletion(subscription::dispose);
+    emitter.onTimeout(subscription::dispose);
+    emitter.onError(throwable -> subscription.dispose());
+    return emitter;
+  }
+
+  private static SseEventBuilder toServerSentEvent(final BroadcastEvent event) {
+    if (event.getType() == Type.HEARTBEAT) {
+      return SseEmitter.event().comment("heartbeat");
+    }
+    return SseEmitter.event()
+        .name(event.getType().name().toLowerCase())
+        .id(event.getId())
+        .data(event.getData(), MediaType.APPLICATION_JSON);
+  }
+}
@@ -0,0 +1,26 @@
+package com.sy.web3j.api.demo.blockchain.web;
+
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a batch of fund transfers, every transfer is validated before any is sent.
+ *
+ * @author selim.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FundTransfersRequest {
+
+  @NotEmpty(message = "Transfers cannot be null or empty")
+  @Size(max = 1_000, message = "Cannot request more than 1000 transfers")
+  private List<@NotNull @Valid FundTransferRequest> transfers;
+
+}
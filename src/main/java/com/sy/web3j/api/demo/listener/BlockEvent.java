@@ -0,0 +1,78 @@
+package com.sy.web3j.api.demo.listener;
+
+import com.sy.web3j.api.demo.blockchain.Address;
+import com.sy.web3j.api.demo.blockchain.Wei;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Value;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionObject;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionResult;
+import org.web3j.utils.Numeric;
+
+/**
+ * Immutable notification of a newly mined block, built once from the data delivered by the
+ * blockchain client so that listeners do not have to look the block up again. The transactions
+ * are only available when the subscription is made with full transaction objects, otherwise only
+ * their hashes are.
+ *
+ * @author selim
+ */
+@Value
+public class BlockEvent {
+
+  private final long number;
+  private final String hash;
+  private final String parentHash;
+  private final long timestamp;
+  private final Address miner;
+  private final BigInteger gasUsed;
+  private final BigInteger gasLimit;
+  private final List<String> transactionHashes;
+  private final List<TransactionEvent> transactions;
+
+  /**
+   * Return the notification of the given block.
+   *
+   * @param block the block delivered by the blockchain client.
+   * @return a new block notification.
+   */
+  public static BlockEvent of(Block block) {
+    List<TransactionResult> results = block.getTransactions() == null
+        ? List.of()
+        : block.getTransactions();
+    var transactions = results.stream()
+        .filter(result -> result instanceof TransactionObject)
+        .map(result -> TransactionEvent.of(((TransactionObject) result).get()))
+        .collect(Collectors.toUnmodifiableList());
+    var transactionHashes = results.stream()
+        .map(result -> result instanceof TransactionObject
+            ? ((TransactionObject) result).getHash()
+            : (String) result.get())
+        .collect(Collectors.toUnmodifiableList());
+
+    return new BlockEvent(
+        quantity(block.getNumberRaw()).longValue(),
+        block.getHash(),
+        block.getParentHash(),
+        quantity(block.getTimestampRaw()).longValue(),
+        address(block.getMiner()),
+        quantity(block.getGasUsedRaw()),
+        quantity(block.getGasLimitRaw()),
+        transactionHashes,
+        transactions);
+  }
+
+  static BigInteger quantity(String value) {
+    return value == null ? BigInteger.ZERO : Numeric.decodeQuantity(value);
+  }
+
+  static Wei wei(String value) {
+    return value == null ? Wei.ZERO : Wei.parseHex(value);
+  }
+
+  static Address address(String value) {
+    return value == null ? null : Address.parse(value);
+  }
+}
@@ -0,0 +1,16 @@
+package com.sy.web3j.api.demo.listener;
+
+/**
+ * Interface for listener to new block events, that needs the content of the block.
+ *
+ * @author selim
+ */
+public interface BlockEventListener {
+
+  /**
+   * Called by the blockchain client when a new block is mined.
+   * @param blockEvent The block mined.
+   */
+  void onNewBlock(BlockEvent blockEvent);
+
+}
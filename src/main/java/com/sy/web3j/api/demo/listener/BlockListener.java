@@ -5,7 +5,7 @@ package com.sy.web3j.api.demo.listener;
  *
  * @author selim
  */
-public interface BlockListener {
+public interface BlockListener extends BlockEventListener {
 
   /**
    * Called by the blockchain client when a new block is mined.
@@ -13,4 +13,13 @@ public interface BlockListener {
    */
   void onNewBlock(String blockHash);
 
+  /**
+   * Delegate to {@link #onNewBlock(String)} with the block hash.
+   * @param blockEvent The block mined.
+   */
+  @Override
+  default void onNewBlock(BlockEvent blockEvent) {
+    onNewBlock(blockEvent.getHash());
+  }
+
 }
@@ -50,4 +50,13 @@ public class BlockchainEventConsumer implements BlockListener, TransactionListen
   public void onTransactionConfirmed(String transactionHash) {
     LOG.info("A new transaction with hash {} has been confirmed", transactionHash);
   }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public void onTransactionRetracted(String transactionHash) {
+    LOG.warn("The transaction with hash {} has been retracted by a reorganization",
+        transactionHash);
+  }
 }
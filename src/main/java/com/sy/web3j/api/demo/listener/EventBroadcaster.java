@@ -0,0 +1,240 @@
+package com.sy.web3j.api.demo.listener;
+
+import com.sy.web3j.api.demo.blockchain.BlockchainService;
+import com.sy.web3j.api.demo.util.VisibleForTestOnly;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.CompletableSubject;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+import lombok.Value;
+
+/**
+ * Broadcast block and transaction events to many subscribers, such as the clients of a streaming
+ * endpoint. The broadcaster is registered once to the blockchain service whatever the number of
+ * subscribers: every subscriber gets its own bounded buffer, drained by a small pool of threads
+ * shared by all subscribers, so that no thread is held by a subscriber that has nothing to
+ * receive. When the buffer of a subscriber is full, its oldest event is dropped.
+ *
+ * <p>A subscriber that blocks while it receives an event holds one of the shared threads and
+ * stalls the subscribers drained by it: subscribers that block, such as on a network write, are
+ * expected to hand the event over to a thread of their own.
+ *
+ * @author selim
+ */
+public class EventBroadcaster implements BlockEventListener, TransactionEventListener,
+    MeterBinder {
+
+  static final String SUBSCRIBERS_GAUGE = "web3j.stream.subscribers";
+
+  static final String DROPPED_COUNTER = "web3j.stream.dropped";
+
+  /**
+   * The type of events broadcast.
+   */
+  public enum Type {
+    /**
+     * A block mined.
+     */
+    BLOCK,
+    /**
+     * A transaction confirmed.
+     */
+    TRANSACTION,
+    /**
+     * A transaction confirmed then dropped by a reorganization of the chain.
+     */
+    RETRACTION,
+    /**
+     * Nothing happened, sent to idle subscribers so that closed connections are detected.
+     */
+    HEARTBEAT
+  }
+
+  private final BlockchainService blockchainService;
+
+  private final int bufferSize;
+
+  private final long heartbeatInterval;
+
+  private final ExecutorService executor;
+
+  private final Scheduler scheduler;
+
+  private final FlowableProcessor<BroadcastEvent> blocks =
+      PublishProcessor.<BroadcastEvent>create().toSerialized();
+
+  private final FlowableProcessor<BroadcastEvent> transactions =
+      PublishProcessor.<BroadcastEvent>create().toSerialized();
+
+  private final FlowableProcessor<BroadcastEvent> retractions =
+      PublishProcessor.<BroadcastEvent>create().toSerialized();
+
+  private final CompletableSubject stopped = CompletableSubject.create();
+
+  private final AtomicInteger subscribers = new AtomicInteger();
+
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * Construct a new instance of <code>{@link EventBroadcaster}</code>.
+   *
+   * @param blockchainService the blockchain service that produces the events.
+   * @param bufferSize the maximum number of events buffered per subscriber.
+   * @param heartbeatInterval the time in milliseconds between two heartbeats, 0 to disable them.
+   * @param threads the number of threads that deliver the events to the subscribers.
+   */
+  public EventBroadcaster(final BlockchainService blockchainService, final int bufferSize,
+      final long heartbeatInterval, final int threads) {
+    if (bufferSize <= 0 || heartbeatInterval < 0 || threads <= 0) {
+      throw new IllegalArgumentException(
+          "The buffer size and number of threads must be positive");
+    }
+    this.blockchainService = blockchainService;
+    this.bufferSize = bufferSize;
+    this.heartbeatInterval = heartbeatInterval;
+    var threadCount = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      var thread = new Thread(runnable, "event-broadcaster-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.scheduler = Schedulers.from(executor);
+  }
+
+  @VisibleForTestOnly
+  @PostConstruct
+  void enableListeners() {
+    blockchainService.addBlockListener(this);
+    blockchainService.addTransactionListener(this);
+  }
+
+  /**
+   * Unregister from the blockchain service, end the streams of every subscriber and stop the
+   * delivery threads.
+   */
+  @VisibleForTestOnly
+  @PreDestroy
+  void shutdown() {
+    blockchainService.removeBlockListener(this);
+    blockchainService.removeTransactionListener(this);
+    blocks.onComplete();
+    transactions.onComplete();
+    retractions.onComplete();
+    stopped.onComplete();
+    executor.shutdown();
+  }
+
+  /**
+   * Return the stream of the events of the given types broadcast from now on. The events are
+   * delivered on a thread of the broadcaster, one at a time.
+   *
+   * @param types the types of events to receive.
+   * @return the stream of events, that ends when the broadcaster is shut down.
+   */
+  public Flowable<BroadcastEvent> events(@NotNull final Set<Type> types) {
+    var sources = new ArrayList<Flowable<BroadcastEvent>>();
+    if (types.contains(Type.BLOCK)) {
+      sources.add(blocks);
+    }
+    if (types.contains(Type.TRANSACTION)) {
+      sources.add(transactions);
+    }
+    if (types.contains(Type.RETRACTION)) {
+      sources.add(retractions);
+    }
+    var events = Flowable.merge(sources);
+    if (heartbeatInterval > 0) {
+      var heartbeats = Flowable.interval(heartbeatInterval, TimeUnit.MILLISECONDS)
+          .map(tick -> BroadcastEvent.HEARTBEAT_EVENT)
+          .takeUntil(stopped.toFlowable());
+      events = events.mergeWith(heartbeats);
+    }
+    return events
+        .onBackpressureBuffer(bufferSize, dropped::increment,
+            BackpressureOverflowStrategy.DROP_OLDEST)
+        .observeOn(scheduler, false, 1)
+        .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+        .doFinally(subscribers::decrementAndGet);
+  }
+
+  /**
+   * Return the number of current subscribers.
+   *
+   * @return the number of subscribers.
+   */
+  public int getSubscribers() {
+    return subscribers.get();
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public void onNewBlock(final BlockEvent blockEvent) {
+    blocks.onNext(new BroadcastEvent(Type.BLOCK, blockEvent.getHash(), blockEvent));
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public void onTransactionConfirmed(final TransactionEvent transactionEvent) {
+    transactions.onNext(new BroadcastEvent(Type.TRANSACTION, transactionEvent.getHash(),
+        transactionEvent));
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public void onTransactionRetracted(final TransactionEvent transactionEvent) {
+    retractions.onNext(new BroadcastEvent(Type.RETRACTION, transactionEvent.getHash(),
+        transactionEvent));
+  }
+
+  /**
+   * Measure the number of subscribers and of the events dropped because a subscriber was too
+   * slow.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    Gauge.builder(SUBSCRIBERS_GAUGE, subscribers, AtomicInteger::get)
+        .description("Number of subscribers to the broadcast events")
+        .register(registry);
+    FunctionCounter.builder(DROPPED_COUNTER, dropped, LongAdder::sum)
+        .description("Number of events dropped because a subscriber was too slow")
+        .register(registry);
+  }
+
+  /**
+   * Event broadcast to the subscribers.
+   */
+  @Value
+  public static class BroadcastEvent {
+
+    static final BroadcastEvent HEARTBEAT_EVENT = new BroadcastEvent(Type.HEARTBEAT, null, null);
+
+    private final Type type;
+    private final String id;
+    private final Object data;
+  }
+}
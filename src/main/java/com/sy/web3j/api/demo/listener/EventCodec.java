@@ -0,0 +1,187 @@
+package com.sy.web3j.api.demo.listener;
+
+import com.sy.web3j.api.demo.blockchain.Address;
+import com.sy.web3j.api.demo.blockchain.Wei;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.web3j.utils.Numeric;
+
+/**
+ * Compact binary encoding of the block events, along with their transactions, written to the
+ * {@link EventJournal}. Hashes, addresses and quantities are stored as raw bytes rather than hex
+ * strings, and the numbers and lengths as variable-length integers. The block number comes first,
+ * on eight bytes, so that it can be read without decoding the rest of the record.
+ *
+ * @author selim
+ */
+final class EventCodec {
+
+  private EventCodec() {
+  }
+
+  /**
+   * Encode a block event along with its transactions, or their hashes only if the block event
+   * does not carry the transactions.
+   *
+   * @param blockEvent the block event.
+   * @return the encoded block event.
+   */
+  static byte[] encode(final BlockEvent blockEvent) {
+    var out = new ByteArrayOutputStream(256);
+    var number = blockEvent.getNumber();
+    for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      out.write((int) (number >>> shift));
+    }
+    writeHex(out, blockEvent.getHash());
+    writeHex(out, blockEvent.getParentHash());
+    writeVarLong(out, blockEvent.getTimestamp());
+    writeAddress(out, blockEvent.getMiner());
+    writeQuantity(out, blockEvent.getGasUsed());
+    writeQuantity(out, blockEvent.getGasLimit());
+    var transactions = blockEvent.getTransactions();
+    if (transactions.isEmpty()) {
+      out.write(0);
+      writeVarLong(out, blockEvent.getTransactionHashes().size());
+      blockEvent.getTransactionHashes().forEach(hash -> writeHex(out, hash));
+    } else {
+      out.write(1);
+      writeVarLong(out, transactions.size());
+      for (var transaction : transactions) {
+        writeHex(out, transaction.getHash());
+        writeAddress(out, transaction.getFrom());
+        writeAddress(out, transaction.getTo());
+        writeWei(out, transaction.getValue());
+        writeQuantity(out, transaction.getGas());
+        writeWei(out, transaction.getGasPrice());
+        writeQuantity(out, transaction.getNonce());
+        writeHex(out, transaction.getInput());
+      }
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decode a block event, from the current position of the given buffer.
+   *
+   * @param in the encoded block event.
+   * @return the block event.
+   */
+  static BlockEvent decode(final ByteBuffer in) {
+    var number = in.getLong();
+    var hash = readHex(in);
+    var parentHash = readHex(in);
+    var timestamp = readVarLong(in);
+    var miner = readAddress(in);
+    var gasUsed = readQuantity(in);
+    var gasLimit = readQuantity(in);
+    var full = in.get() == 1;
+    var count = (int) readVarLong(in);
+    var transactionHashes = new ArrayList<String>(count);
+    var transactions = new ArrayList<TransactionEvent>(full ? count : 0);
+    for (int i = 0; i < count; i++) {
+      if (full) {
+        var transaction = new TransactionEvent(readHex(in), hash, number, readAddress(in),
+            readAddress(in), readWei(in), readQuantity(in), readWei(in), readQuantity(in),
+            readHex(in));
+        transactions.add(transaction);
+        transactionHashes.add(transaction.getHash());
+      } else {
+        transactionHashes.add(readHex(in));
+      }
+    }
+    return new BlockEvent(number, hash, parentHash, timestamp, miner, gasUsed, gasLimit,
+        List.copyOf(transactionHashes), List.copyOf(transactions));
+  }
+
+  /**
+   * Return the number of the block encoded from the given position.
+   *
+   * @param in the encoded block event.
+   * @param position the position of the encoded block event.
+   * @return the block number.
+   */
+  static long blockNumber(final ByteBuffer in, final int position) {
+    return in.getLong(position);
+  }
+
+  private static void writeVarLong(final ByteArrayOutputStream out, final long value) {
+    var remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      out.write((int) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    out.write((int) remaining);
+  }
+
+  private static long readVarLong(final ByteBuffer in) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = in.get();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
+  private static void writeBytes(final ByteArrayOutputStream out, final byte[] bytes) {
+    // The length is shifted by one so that null and empty values are told apart.
+    if (bytes == null) {
+      writeVarLong(out, 0);
+      return;
+    }
+    writeVarLong(out, bytes.length + 1L);
+    out.write(bytes, 0, bytes.length);
+  }
+
+  private static byte[] readBytes(final ByteBuffer in) {
+    var length = (int) readVarLong(in);
+    if (length == 0) {
+      return null;
+    }
+    var bytes = new byte[length - 1];
+    in.get(bytes);
+    return bytes;
+  }
+
+  private static void writeHex(final ByteArrayOutputStream out, final String value) {
+    writeBytes(out, value == null ? null : Numeric.hexStringToByteArray(value));
+  }
+
+  private static String readHex(final ByteBuffer in) {
+    var bytes = readBytes(in);
+    return bytes == null ? null : Numeric.toHexString(bytes);
+  }
+
+  private static void writeQuantity(final ByteArrayOutputStream out, final BigInteger value) {
+    writeBytes(out, value == null ? null : value.toByteArray());
+  }
+
+  private static BigInteger readQuantity(final ByteBuffer in) {
+    var bytes = readBytes(in);
+    return bytes == null ? null : new BigInteger(bytes);
+  }
+
+  private static void writeAddress(final ByteArrayOutputStream out, final Address value) {
+    writeBytes(out, value == null ? null : value.toByteArray());
+  }
+
+  private static Address readAddress(final ByteBuffer in) {
+    var bytes = readBytes(in);
+    return bytes == null ? null : Address.fromByteArray(bytes);
+  }
+
+  private static void writeWei(final ByteArrayOutputStream out, final Wei value) {
+    // Same bytes as the quantity of the same value.
+    writeBytes(out, value == null ? null : value.toByteArray());
+  }
+
+  private static Wei readWei(final ByteBuffer in) {
+    var bytes = readBytes(in);
+    return bytes == null ? null : Wei.fromByteArray(bytes);
+  }
+}
@@ -0,0 +1,407 @@
+package com.sy.web3j.api.demo.listener;
+
+import static java.lang.String.format;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.zip.CRC32;
+import javax.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of the blocks confirmed along with their transactions, kept on the local
+ * disk so that the events can be replayed after a restart without reading the blocks from the
+ * blockchain client again. The blocks dropped by a reorganization of the chain are truncated from
+ * the journal, and the blocks of the new branch appended in turn.
+ *
+ * <p>The records are written to memory-mapped segment files of a fixed size: a record is made of
+ * its length, its CRC32 checksum and the block event encoded by {@link EventCodec}. Every record
+ * is also indexed by block number in a separate file of fixed-size entries, loaded in memory when
+ * the journal is opened, so that a replay starts right at the requested block. Records torn by a
+ * crash are detected by their checksum and discarded when the journal is opened again.
+ *
+ * <p>The journal has a single writer and any number of concurrent readers, a replay reads the
+ * records appended before it started, and stops early if they are truncated in the meantime.
+ *
+ * @author selim
+ */
+@Slf4j
+public class EventJournal implements Closeable, MeterBinder {
+
+  static final String INDEX_FILE = "index";
+
+  static final String BLOCKS_GAUGE = "web3j.journal.blocks";
+
+  static final String SIZE_GAUGE = "web3j.journal.size";
+
+  private static final String SEGMENT_FILE = "%010d.log";
+
+  private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+  private static final int INDEX_ENTRY_SIZE = Long.BYTES * 2;
+
+  private final Path directory;
+
+  private final int segmentSize;
+
+  private final FileChannel indexChannel;
+
+  private long[] blockNumbers = new long[1024];
+
+  private long[] positions = new long[1024];
+
+  private int size;
+
+  private int segment;
+
+  private FileChannel segmentChannel;
+
+  private MappedByteBuffer segmentBuffer;
+
+  private volatile long end;
+
+  private boolean outdatedBlockLogged;
+
+  /**
+   * Open the journal kept in the given directory, or create it if it does not exist.
+   *
+   * @param directory the directory of the journal files.
+   * @param segmentSize the size in bytes of a segment file.
+   */
+  public EventJournal(final Path directory, final int segmentSize) {
+    if (segmentSize <= HEADER_SIZE) {
+      throw new IllegalArgumentException(
+          format("The segment size must be greater than %d bytes", HEADER_SIZE));
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    try {
+      Files.createDirectories(directory);
+      indexChannel = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+      recover();
+    } catch (IOException e) {
+      throw new UncheckedIOException(format("Could not open the event journal %s", directory), e);
+    }
+    LOG.info("Opened the event journal {} with {} blocks.", directory, size);
+  }
+
+  /**
+   * Append a block event to the journal. A block event that does not come after the last block
+   * journaled is ignored.
+   *
+   * @param blockEvent the block event, along with its transactions.
+   */
+  public synchronized void append(@NotNull final BlockEvent blockEvent) {
+    if (size > 0 && blockEvent.getNumber() <= blockNumbers[size - 1]) {
+      if (!outdatedBlockLogged) {
+        LOG.warn("Ignore block {} that does not come after the last block journaled {}.",
+            blockEvent.getNumber(), blockNumbers[size - 1]);
+        outdatedBlockLogged = true;
+      }
+      return;
+    }
+    if (size > 0 && blockEvent.getNumber() > blockNumbers[size - 1] + 1) {
+      // A replay goes on past the gap, it cannot tell it from the blocks journaled.
+      LOG.warn("Blocks {} to {} are missing from the event journal.", blockNumbers[size - 1] + 1,
+          blockEvent.getNumber() - 1);
+    }
+    var payload = EventCodec.encode(blockEvent);
+    var recordSize = HEADER_SIZE + payload.length;
+    if (recordSize > segmentSize) {
+      throw new IllegalArgumentException(format("Block %s does not fit in a journal segment",
+          blockEvent.getNumber()));
+    }
+    var offset = offset(end);
+    try {
+      if (offset + recordSize > segmentSize) {
+        openSegment(segment + 1);
+        offset = 0;
+      }
+      var crc = new CRC32();
+      crc.update(payload);
+      var record = segmentBuffer.duplicate();
+      record.position(offset);
+      record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+      var position = position(segment, offset);
+      appendIndex(blockEvent.getNumber(), position);
+      end = position(segment, offset + recordSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not append to the event journal", e);
+    }
+  }
+
+  /**
+   * Drop the block events journaled from the given block number on, such as the blocks replaced by
+   * a reorganization of the chain.
+   *
+   * @param fromBlockNumber the number of the first block to drop.
+   * @return the number of blocks dropped.
+   */
+  public synchronized int truncate(final long fromBlockNumber) {
+    var index = Arrays.binarySearch(blockNumbers, 0, size, fromBlockNumber);
+    index = index < 0 ? -index - 1 : index;
+    if (index == size) {
+      return 0;
+    }
+    var dropped = size - index;
+    var position = positions[index];
+    try {
+      // The index entries go first, so that a crash never leaves an entry without its record.
+      indexChannel.truncate((long) index * INDEX_ENTRY_SIZE);
+      size = index;
+      if (segment(position) != segment) {
+        openSegment(segment(position));
+      }
+      for (int next = segment + 1; Files.deleteIfExists(segmentFile(next)); next++) {
+        LOG.debug("Deleted the journal segment {}.", next);
+      }
+      for (int i = offset(position); i < segmentSize; i++) {
+        segmentBuffer.put(i, (byte) 0);
+      }
+      end = position;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not truncate the event journal", e);
+    }
+    LOG.warn("Truncated {} blocks from block {} on from the event journal.", dropped,
+        fromBlockNumber);
+    return dropped;
+  }
+
+  /**
+   * Deliver the block events journaled from the given block number on, along with their
+   * transactions, to the given listeners. The events are delivered by the calling thread, in
+   * order, as fast as they are read from the disk.
+   *
+   * @param fromBlockNumber the number of the first block to replay.
+   * @param blockListener the listener of the blocks.
+   * @param transactionListener the listener of the transactions.
+   * @return the number of blocks replayed.
+   */
+  public long replay(final long fromBlockNumber, @NotNull final BlockEventListener blockListener,
+      @NotNull final TransactionEventListener transactionListener) {
+    long start;
+    long stop;
+    synchronized (this) {
+      var index = Arrays.binarySearch(blockNumbers, 0, size, fromBlockNumber);
+      index = index < 0 ? -index - 1 : index;
+      if (index == size) {
+        return 0;
+      }
+      start = positions[index];
+      stop = end;
+    }
+    long replayed = 0;
+    for (int current = segment(start); current <= segment(stop); current++) {
+      var from = current == segment(start) ? offset(start) : 0;
+      var to = current == segment(stop) ? offset(stop) : segmentSize;
+      try (var channel = FileChannel.open(segmentFile(current), StandardOpenOption.READ)) {
+        var buffer = channel.map(MapMode.READ_ONLY, 0, Math.min(to, channel.size()));
+        var offset = from;
+        while (isRecord(buffer, offset)) {
+          var length = buffer.getInt(offset);
+          var blockEvent = EventCodec.decode(buffer.duplicate()
+              .position(offset + HEADER_SIZE)
+              .limit(offset + HEADER_SIZE + length));
+          blockListener.onNewBlock(blockEvent);
+          blockEvent.getTransactions().forEach(transactionListener::onTransactionConfirmed);
+          replayed++;
+          offset += HEADER_SIZE + length;
+        }
+      } catch (NoSuchFileException e) {
+        // The segment has been truncated since the replay started.
+        break;
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not read the event journal", e);
+      }
+    }
+    return replayed;
+  }
+
+  /**
+   * Return the number of the last block journaled.
+   *
+   * @return the number of the last block, or nothing if the journal is empty.
+   */
+  public synchronized OptionalLong getLastBlockNumber() {
+    return size == 0 ? OptionalLong.empty() : OptionalLong.of(blockNumbers[size - 1]);
+  }
+
+  /**
+   * Return the number of blocks journaled.
+   *
+   * @return the number of blocks.
+   */
+  public synchronized int getSize() {
+    return size;
+  }
+
+  /**
+   * Measure the number of blocks journaled and the size of the journal.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    Gauge.builder(BLOCKS_GAUGE, this, EventJournal::getSize)
+        .description("Number of blocks in the event journal")
+        .register(registry);
+    Gauge.builder(SIZE_GAUGE, this, journal -> (double) segment(end) * segmentSize + offset(end))
+        .description("Size of the event journal")
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  /**
+   * Flush the journal to the disk and close its files.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    segmentBuffer.force();
+    segmentChannel.close();
+    indexChannel.force(false);
+    indexChannel.close();
+  }
+
+  private void recover() throws IOException {
+    var entries = (int) (indexChannel.size() / INDEX_ENTRY_SIZE);
+    var index = ByteBuffer.allocate(entries * INDEX_ENTRY_SIZE);
+    indexChannel.read(index, 0);
+    index.flip();
+    for (int i = 0; i < entries; i++) {
+      addEntry(index.getLong(), index.getLong());
+    }
+    // The records are written before their index entry, an entry whose record is torn is dropped.
+    while (size > 0 && !isIndexedRecord(size - 1)) {
+      size--;
+    }
+    var indexed = size;
+    var position = size == 0 ? 0 : positions[size - 1];
+    openSegment(segment(position));
+    var offset = offset(position);
+    if (size > 0) {
+      offset += HEADER_SIZE + segmentBuffer.getInt(offset);
+    }
+    // Index the records written after the last index entry, in the last segments.
+    while (true) {
+      if (isRecord(segmentBuffer, offset)) {
+        var length = segmentBuffer.getInt(offset);
+        addEntry(EventCodec.blockNumber(segmentBuffer, offset + HEADER_SIZE),
+            position(segment, offset));
+        offset += HEADER_SIZE + length;
+      } else if (Files.exists(segmentFile(segment + 1)) && isRecord(map(segment + 1), 0)) {
+        openSegment(segment + 1);
+        offset = 0;
+      } else {
+        break;
+      }
+    }
+    indexChannel.truncate((long) indexed * INDEX_ENTRY_SIZE);
+    var entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+    for (int i = indexed; i < size; i++) {
+      entry.clear();
+      entry.putLong(blockNumbers[i]).putLong(positions[i]).flip();
+      indexChannel.write(entry, (long) i * INDEX_ENTRY_SIZE);
+    }
+    // Clear the torn record, if any, so that it is never mistaken for a record later on.
+    if (offset + HEADER_SIZE <= segmentSize && segmentBuffer.getInt(offset) != 0) {
+      LOG.warn("Discard the torn records at the end of the event journal {}.", directory);
+      for (int i = offset; i < segmentSize; i++) {
+        segmentBuffer.put(i, (byte) 0);
+      }
+    }
+    for (int next = segment + 1; Files.deleteIfExists(segmentFile(next)); next++) {
+      LOG.warn("Discard the torn journal segment {}.", next);
+    }
+    end = position(segment, offset);
+  }
+
+  private boolean isIndexedRecord(final int entry) throws IOException {
+    var position = positions[entry];
+    if (!Files.exists(segmentFile(segment(position)))) {
+      return false;
+    }
+    var buffer = map(segment(position));
+    return isRecord(buffer, offset(position))
+        && EventCodec.blockNumber(buffer, offset(position) + HEADER_SIZE) == blockNumbers[entry];
+  }
+
+  private static boolean isRecord(final ByteBuffer buffer, final int offset) {
+    if (offset + HEADER_SIZE > buffer.limit()) {
+      return false;
+    }
+    var length = buffer.getInt(offset);
+    if (length < Long.BYTES || offset + HEADER_SIZE + length > buffer.limit()) {
+      return false;
+    }
+    var crc = new CRC32();
+    crc.update(buffer.duplicate()
+        .position(offset + HEADER_SIZE)
+        .limit(offset + HEADER_SIZE + length));
+    return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES);
+  }
+
+  private void appendIndex(final long blockNumber, final long position) throws IOException {
+    var entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+    entry.putLong(blockNumber).putLong(position).flip();
+    indexChannel.write(entry, (long) size * INDEX_ENTRY_SIZE);
+    addEntry(blockNumber, position);
+  }
+
+  private void addEntry(final long blockNumber, final long position) {
+    if (size == blockNumbers.length) {
+      blockNumbers = Arrays.copyOf(blockNumbers, size * 2);
+      positions = Arrays.copyOf(positions, size * 2);
+    }
+    blockNumbers[size] = blockNumber;
+    positions[size] = position;
+    size++;
+  }
+
+  private void openSegment(final int next) throws IOException {
+    if (segmentChannel != null) {
+      segmentBuffer.force();
+      segmentChannel.close();
+    }
+    segment = next;
+    segmentChannel = FileChannel.open(segmentFile(next), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    segmentBuffer = segmentChannel.map(MapMode.READ_WRITE, 0, segmentSize);
+  }
+
+  private MappedByteBuffer map(final int segment) throws IOException {
+    try (var channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ)) {
+      return channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  private Path segmentFile(final int segment) {
+    return directory.resolve(format(SEGMENT_FILE, segment));
+  }
+
+  private static long position(final int segment, final int offset) {
+    return (long) segment << Integer.SIZE | offset;
+  }
+
+  private static int segment(final long position) {
+    return (int) (position >>> Integer.SIZE);
+  }
+
+  private static int offset(final long position) {
+    return (int) position;
+  }
+}
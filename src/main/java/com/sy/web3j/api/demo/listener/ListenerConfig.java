@@ -1,6 +1,7 @@
 package com.sy.web3j.api.demo.listener;
 
 import com.sy.web3j.api.demo.blockchain.BlockchainService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -22,4 +23,20 @@ public class ListenerConfig {
   BlockchainEventConsumer blockChainEventConsumer(BlockchainService blockchainService) {
     return new BlockchainEventConsumer(blockchainService);
   }
+
+  /**
+   * Construct a new instance of {@link EventBroadcaster}.
+   * @param blockchainService The blockchain service.
+   * @param bufferSize The maximum number of events buffered per subscriber.
+   * @param heartbeatInterval The time in milliseconds between two heartbeats, 0 to disable them.
+   * @param threads The number of threads that deliver the events to the subscribers.
+   * @return A new instance of {@link EventBroadcaster}.
+   */
+  @Bean
+  EventBroadcaster eventBroadcaster(BlockchainService blockchainService,
+      @Value("${web3j.stream.buffer-size}") int bufferSize,
+      @Value("${web3j.stream.heartbeat-interval}") long heartbeatInterval,
+      @Value("${web3j.stream.threads}") int threads) {
+    return new EventBroadcaster(blockchainService, bufferSize, heartbeatInterval, threads);
+  }
 }
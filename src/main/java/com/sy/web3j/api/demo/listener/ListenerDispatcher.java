@@ -0,0 +1,309 @@
+package com.sy.web3j.api.demo.listener;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatch events to listeners asynchronously. Every registered listener gets its own bounded
+ * buffer and worker thread, so that a slow listener neither stalls the event source nor the other
+ * listeners. When the buffer of a listener is full, the {@link OverflowPolicy} decides what happens
+ * to the events. Once bound to a meter registry, the callback latency, lag, delivered and dropped
+ * events of every listener are measured.
+ *
+ * @param <L> the type of listener.
+ * @param <E> the type of event.
+ * @author selim
+ */
+@Slf4j
+public class ListenerDispatcher<L, E> implements MeterBinder {
+
+  static final String CALLBACK_TIMER = "web3j.listener.callback";
+
+  static final String LAG_GAUGE = "web3j.listener.lag";
+
+  static final String DELIVERED_COUNTER = "web3j.listener.delivered";
+
+  static final String DROPPED_COUNTER = "web3j.listener.dropped";
+
+  /**
+   * What to do with an event when the buffer of a listener is full.
+   */
+  public enum OverflowPolicy {
+    /**
+     * Drop the oldest buffered event to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * Block the event source until the listener catches up.
+     */
+    BLOCK,
+    /**
+     * Keep one overflowing event out of the sample rate, by dropping the oldest buffered event,
+     * and drop the others.
+     */
+    SAMPLE
+  }
+
+  private final String name;
+
+  private final int bufferSize;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final int sampleRate;
+
+  private final BiConsumer<L, E> callback;
+
+  private final ConcurrentHashMap<L, Worker> workers = new ConcurrentHashMap<>();
+
+  private final AtomicInteger workerCount = new AtomicInteger();
+
+  private volatile MeterRegistry meterRegistry;
+
+  /**
+   * Construct a new instance of <code>{@link ListenerDispatcher}</code>.
+   *
+   * @param name the name of the dispatcher, used to name the worker threads.
+   * @param bufferSize the maximum number of events buffered per listener.
+   * @param overflowPolicy what to do with an event when the buffer of a listener is full.
+   * @param sampleRate the rate of overflowing events kept with the sample policy.
+   * @param callback the function that delivers an event to a listener.
+   */
+  public ListenerDispatcher(final String name, final int bufferSize,
+      final OverflowPolicy overflowPolicy, final int sampleRate, final BiConsumer<L, E> callback) {
+    if (bufferSize <= 0 || sampleRate <= 0) {
+      throw new IllegalArgumentException("The buffer size and sample rate must be positive");
+    }
+    this.name = name;
+    this.bufferSize = bufferSize;
+    this.overflowPolicy = overflowPolicy;
+    this.sampleRate = sampleRate;
+    this.callback = callback;
+  }
+
+  /**
+   * Register a listener and start its worker, registering a listener twice has no effect.
+   *
+   * @param listener the listener to register.
+   */
+  public void register(@NotNull final L listener) {
+    workers.computeIfAbsent(listener, Worker::new);
+  }
+
+  /**
+   * Unregister a listener and stop its worker, buffered events are discarded.
+   *
+   * @param listener the listener to unregister.
+   */
+  public void unregister(@NotNull final L listener) {
+    var worker = workers.remove(listener);
+    if (worker != null) {
+      worker.stop();
+    }
+  }
+
+  /**
+   * Buffer an event for every registered listener.
+   *
+   * @param event the event to dispatch.
+   */
+  public void dispatch(@NotNull final E event) {
+    workers.values().forEach(worker -> worker.offer(event));
+  }
+
+  /**
+   * Return the registered listeners.
+   *
+   * @return the registered listeners.
+   */
+  public Collection<L> getListeners() {
+    return List.copyOf(workers.keySet());
+  }
+
+  /**
+   * Return the delivery statistics of every registered listener.
+   *
+   * @return the delivery statistics.
+   */
+  public Collection<ListenerStats> stats() {
+    return workers.values().stream()
+        .map(Worker::stats)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Measure the delivery of the events to the registered listeners, and to the listeners
+   * registered later on.
+   *
+   * @param registry the registry of the measures.
+   */
+  @Override
+  public void bindTo(@NotNull final MeterRegistry registry) {
+    this.meterRegistry = registry;
+    workers.values().forEach(worker -> worker.bindTo(registry));
+  }
+
+  /**
+   * Unregister all listeners and stop their workers.
+   */
+  public void shutdown() {
+    workers.keySet().forEach(this::unregister);
+  }
+
+  private class Worker implements Runnable {
+
+    private final L listener;
+    private final BlockingQueue<E> buffer;
+    private final Thread thread;
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong overflows = new AtomicLong();
+    private final String id;
+    private final List<Meter> meters = new CopyOnWriteArrayList<>();
+    private volatile Timer callbackTimer;
+    private volatile boolean running = true;
+
+    private Worker(final L listener) {
+      this.listener = listener;
+      this.buffer = new ArrayBlockingQueue<>(bufferSize);
+      this.id = listener.getClass().getSimpleName() + "-" + workerCount.incrementAndGet();
+      this.thread = new Thread(this, name + "-" + listener.getClass().getSimpleName());
+      this.thread.setDaemon(true);
+      var registry = meterRegistry;
+      if (registry != null) {
+        bindTo(registry);
+      }
+      this.thread.start();
+    }
+
+    private synchronized void bindTo(final MeterRegistry registry) {
+      if (callbackTimer != null) {
+        return;
+      }
+      var tags = Tags.of("dispatcher", name, "listener", id);
+      meters.add(Gauge.builder(LAG_GAUGE, buffer, BlockingQueue::size)
+          .description("Number of events buffered for a listener")
+          .tags(tags)
+          .register(registry));
+      meters.add(FunctionCounter.builder(DELIVERED_COUNTER, delivered, LongAdder::sum)
+          .description("Number of events delivered to a listener")
+          .tags(tags)
+          .register(registry));
+      meters.add(FunctionCounter.builder(DROPPED_COUNTER, dropped, LongAdder::sum)
+          .description("Number of events dropped because a listener was too slow")
+          .tags(tags)
+          .register(registry));
+      var timer = Timer.builder(CALLBACK_TIMER)
+          .description("Latency of the listener callbacks")
+          .tags(tags)
+          .publishPercentileHistogram()
+          .register(registry);
+      meters.add(timer);
+      callbackTimer = timer;
+    }
+
+    private void offer(final E event) {
+      if (buffer.offer(event)) {
+        return;
+      }
+      switch (overflowPolicy) {
+        case BLOCK:
+          put(event);
+          break;
+        case SAMPLE:
+          if (overflows.incrementAndGet() % sampleRate == 0) {
+            replaceOldest(event);
+          } else {
+            dropped.increment();
+          }
+          break;
+        case DROP_OLDEST:
+        default:
+          replaceOldest(event);
+      }
+    }
+
+    private void put(final E event) {
+      try {
+        buffer.put(event);
+      } catch (InterruptedException e) {
+        dropped.increment();
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void replaceOldest(final E event) {
+      while (!buffer.offer(event)) {
+        if (buffer.poll() != null) {
+          dropped.increment();
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        try {
+          var event = buffer.take();
+          var timer = callbackTimer;
+          if (timer == null) {
+            callback.accept(listener, event);
+          } else {
+            timer.record(() -> callback.accept(listener, event));
+          }
+          delivered.increment();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } catch (RuntimeException e) {
+          LOG.error("Listener {} failed to handle an event:", listener, e);
+        }
+      }
+    }
+
+    private void stop() {
+      running = false;
+      thread.interrupt();
+      buffer.clear();
+      var registry = meterRegistry;
+      if (registry != null) {
+        meters.forEach(registry::remove);
+      }
+    }
+
+    private ListenerStats stats() {
+      return new ListenerStats(listener.toString(), buffer.size(), delivered.sum(), dropped.sum());
+    }
+  }
+
+  /**
+   * Snapshot of the delivery statistics of a listener.
+   */
+  @Value
+  public static class ListenerStats {
+
+    private final String listener;
+    private final int lag;
+    private final long delivered;
+    private final long dropped;
+  }
+}
@@ -0,0 +1,52 @@
+package com.sy.web3j.api.demo.listener;
+
+import static com.sy.web3j.api.demo.listener.BlockEvent.address;
+import static com.sy.web3j.api.demo.listener.BlockEvent.quantity;
+
+import com.sy.web3j.api.demo.blockchain.Address;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Value;
+import org.web3j.protocol.core.methods.response.Log;
+
+/**
+ * Immutable notification of a log emitted by a contract, such as an ERC-20 <code>Transfer</code>
+ * event, built once from the data delivered by the blockchain client. The topics are lowercase.
+ *
+ * @author selim
+ */
+@Value
+public class LogEvent {
+
+  private final Address address;
+  private final List<String> topics;
+  private final String data;
+  private final long blockNumber;
+  private final String blockHash;
+  private final String transactionHash;
+  private final long logIndex;
+  private final boolean removed;
+
+  /**
+   * Return the notification of the given log.
+   *
+   * @param log the log delivered by the blockchain client.
+   * @return a new log notification.
+   */
+  public static LogEvent of(Log log) {
+    var topics = log.getTopics() == null
+        ? List.<String>of()
+        : log.getTopics().stream()
+            .map(String::toLowerCase)
+            .collect(Collectors.toUnmodifiableList());
+    return new LogEvent(
+        address(log.getAddress()),
+        topics,
+        log.getData(),
+        quantity(log.getBlockNumberRaw()).longValue(),
+        log.getBlockHash(),
+        log.getTransactionHash(),
+        quantity(log.getLogIndexRaw()).longValue(),
+        log.isRemoved());
+  }
+}
@@ -0,0 +1,17 @@
+package com.sy.web3j.api.demo.listener;
+
+/**
+ * Interface for listener to the logs emitted by contracts that match a filter.
+ *
+ * @author selim
+ */
+public interface LogEventListener {
+
+  /**
+   * Called by the blockchain client when a block mined holds a log that matches the filter of the
+   * listener.
+   * @param logEvent The log matched.
+   */
+  void onLog(LogEvent logEvent);
+
+}
@@ -0,0 +1,21 @@
+package com.sy.web3j.api.demo.listener;
+
+import java.util.List;
+
+/**
+ * Interface for listener to batches of confirmed transaction events. It suits listeners that
+ * handle high-volume transaction streams, and would rather handle the confirmed transactions in
+ * one go than one by one.
+ *
+ * @author selim
+ */
+public interface TransactionBatchListener {
+
+  /**
+   * Called by the blockchain client with the transactions confirmed during a time window, or as
+   * soon as the batch is full.
+   * @param transactionHashes The hashes of the transactions confirmed, in confirmation order.
+   */
+  void onTransactionsConfirmed(List<String> transactionHashes);
+
+}
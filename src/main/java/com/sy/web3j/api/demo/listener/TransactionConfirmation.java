@@ -0,0 +1,49 @@
+package com.sy.web3j.api.demo.listener;
+
+import lombok.Value;
+
+/**
+ * Immutable notification of a transaction confirmed at the confirmation depth, or retracted by a
+ * reorganization of the chain after having been confirmed.
+ *
+ * @author selim
+ */
+@Value
+public class TransactionConfirmation {
+
+  private final TransactionEvent transaction;
+  private final boolean retracted;
+
+  /**
+   * Return the confirmation of the given transaction.
+   *
+   * @param transactionEvent the transaction confirmed.
+   * @return a new confirmation.
+   */
+  public static TransactionConfirmation confirmed(TransactionEvent transactionEvent) {
+    return new TransactionConfirmation(transactionEvent, false);
+  }
+
+  /**
+   * Return the retraction of the given transaction.
+   *
+   * @param transactionEvent the transaction retracted.
+   * @return a new retraction.
+   */
+  public static TransactionConfirmation retracted(TransactionEvent transactionEvent) {
+    return new TransactionConfirmation(transactionEvent, true);
+  }
+
+  /**
+   * Deliver the transaction to the given listener, as confirmed or retracted.
+   *
+   * @param listener the transaction listener.
+   */
+  public void deliverTo(TransactionEventListener listener) {
+    if (retracted) {
+      listener.onTransactionRetracted(transaction);
+    } else {
+      listener.onTransactionConfirmed(transaction);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.sy.web3j.api.demo.listener;
+
+import static com.sy.web3j.api.demo.listener.BlockEvent.address;
+import static com.sy.web3j.api.demo.listener.BlockEvent.quantity;
+import static com.sy.web3j.api.demo.listener.BlockEvent.wei;
+
+import com.sy.web3j.api.demo.blockchain.Address;
+import com.sy.web3j.api.demo.blockchain.Wei;
+import java.math.BigInteger;
+import lombok.Value;
+import org.web3j.protocol.core.methods.response.Transaction;
+
+/**
+ * Immutable notification of a confirmed transaction, built once from the data delivered by the
+ * blockchain client so that listeners do not have to look the transaction up again.
+ *
+ * @author selim
+ */
+@Value
+public class TransactionEvent {
+
+  private final String hash;
+  private final String blockHash;
+  private final long blockNumber;
+  private final Address from;
+  private final Address to;
+  private final Wei value;
+  private final BigInteger gas;
+  private final Wei gasPrice;
+  private final BigInteger nonce;
+  private final String input;
+
+  /**
+   * Return the notification of the given transaction.
+   *
+   * @param transaction the transaction delivered by the blockchain client.
+   * @return a new transaction notification.
+   */
+  public static TransactionEvent of(Transaction transaction) {
+    return new TransactionEvent(
+        transaction.getHash(),
+        transaction.getBlockHash(),
+        quantity(transaction.getBlockNumberRaw()).longValue(),
+        address(transaction.getFrom()),
+        address(transaction.getTo()),
+        wei(transaction.getValueRaw()),
+        quantity(transaction.getGasRaw()),
+        wei(transaction.getGasPriceRaw()),
+        quantity(transaction.getNonceRaw()),
+        transaction.getInput());
+  }
+}
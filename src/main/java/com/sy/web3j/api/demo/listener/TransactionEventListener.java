@@ -0,0 +1,26 @@
+package com.sy.web3j.api.demo.listener;
+
+/**
+ * Interface for listener to confirmed transaction events, that needs the content of the
+ * transaction.
+ *
+ * @author selim
+ */
+public interface TransactionEventListener {
+
+  /**
+   * Called by the blockchain client when a transaction is confirmed.
+   * @param transactionEvent The transaction confirmed.
+   */
+  void onTransactionConfirmed(TransactionEvent transactionEvent);
+
+  /**
+   * Called by the blockchain client when a transaction confirmed is dropped by a reorganization of
+   * the chain. The transaction is confirmed again if it is mined in another block. Does nothing by
+   * default.
+   * @param transactionEvent The transaction retracted.
+   */
+  default void onTransactionRetracted(TransactionEvent transactionEvent) {
+  }
+
+}
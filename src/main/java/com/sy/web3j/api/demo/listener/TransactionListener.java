@@ -5,7 +5,7 @@ package com.sy.web3j.api.demo.listener;
  *
  * @author selim
  */
-public interface TransactionListener {
+public interface TransactionListener extends TransactionEventListener {
 
   /**
    * Called by the blockchain client when a transaction is confirmed.
@@ -13,4 +13,30 @@ public interface TransactionListener {
    */
   void onTransactionConfirmed(String transactionHash);
 
+  /**
+   * Called by the blockchain client when a transaction confirmed is dropped by a reorganization of
+   * the chain. Does nothing by default.
+   * @param transactionHash The hash of the transaction retracted.
+   */
+  default void onTransactionRetracted(String transactionHash) {
+  }
+
+  /**
+   * Delegate to {@link #onTransactionConfirmed(String)} with the transaction hash.
+   * @param transactionEvent The transaction confirmed.
+   */
+  @Override
+  default void onTransactionConfirmed(TransactionEvent transactionEvent) {
+    onTransactionConfirmed(transactionEvent.getHash());
+  }
+
+  /**
+   * Delegate to {@link #onTransactionRetracted(String)} with the transaction hash.
+   * @param transactionEvent The transaction retracted.
+   */
+  @Override
+  default void onTransactionRetracted(TransactionEvent transactionEvent) {
+    onTransactionRetracted(transactionEvent.getHash());
+  }
+
 }
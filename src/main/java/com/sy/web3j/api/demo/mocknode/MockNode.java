@@ -0,0 +1,551 @@
+package com.sy.web3j.api.demo.mocknode;
+
+import static org.web3j.utils.Numeric.encodeQuantity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sy.web3j.api.demo.util.VisibleForTestOnly;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+/**
+ * In-process fake of an Ethereum node answering JSON-RPC requests. It owns a set of unlocked
+ * accounts, mines a block at a fixed interval with a configurable number of synthetic transactions
+ * plus the transactions sent to it, and answers every request after a configurable latency or with
+ * an error at a configurable rate. Only the methods used by this application are supported, and
+ * only the latest blocks are remembered.
+ *
+ * @author selim
+ */
+@Slf4j
+public class MockNode {
+
+  static final int MAX_BLOCKS = 1024;
+
+  static final BigInteger INITIAL_BALANCE = new BigInteger("3000000000000000000000000");
+
+  private static final BigInteger GAS_PER_TRANSACTION = BigInteger.valueOf(21_000);
+
+  private static final BigInteger BLOCK_GAS_LIMIT = BigInteger.valueOf(6_721_975);
+
+  private static final String PARSE_ERROR =
+      "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32700,\"message\":\"Parse error\"}}";
+
+  private static final String ZERO_HASH = Numeric.toHexString(new byte[32]);
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final JsonNodeFactory json = JsonNodeFactory.instance;
+
+  private final long blockInterval;
+
+  private final int transactionsPerBlock;
+
+  private final long latency;
+
+  private final long latencyJitter;
+
+  private final double errorRate;
+
+  private final ScheduledExecutorService executor;
+
+  private final Map<String, Account> accounts = new LinkedHashMap<>();
+
+  private final Deque<MockBlock> blocks = new ArrayDeque<>();
+
+  private final Map<String, MockBlock> blocksByHash = new HashMap<>();
+
+  private final Map<String, Location> transactionsByHash = new HashMap<>();
+
+  private final List<MockTransaction> pendingTransactions = new ArrayList<>();
+
+  private final Map<BigInteger, Filter> filters = new ConcurrentHashMap<>();
+
+  private final List<Consumer<JsonNode>> headListeners = new CopyOnWriteArrayList<>();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * Construct a new instance of <code>{@link MockNode}</code>, along with its genesis block.
+   *
+   * @param accounts the number of unlocked accounts owned by the node.
+   * @param blockInterval the time in milliseconds between two blocks.
+   * @param transactionsPerBlock the number of synthetic transactions mined in every block.
+   * @param latency the time in milliseconds to wait before answering a request.
+   * @param latencyJitter the maximum random time in milliseconds added to the latency.
+   * @param errorRate the rate of requests answered with an error, between 0 and 1.
+   */
+  public MockNode(final int accounts, final long blockInterval, final int transactionsPerBlock,
+      final long latency, final long latencyJitter, final double errorRate) {
+    if (blockInterval <= 0 || errorRate < 0 || errorRate > 1) {
+      throw new IllegalArgumentException(
+          "The block interval must be positive and the error rate between 0 and 1");
+    }
+    this.blockInterval = blockInterval;
+    this.transactionsPerBlock = transactionsPerBlock;
+    this.latency = latency;
+    this.latencyJitter = latencyJitter;
+    this.errorRate = errorRate;
+    this.executor = Executors.newScheduledThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        runnable -> {
+          var thread = new Thread(runnable, "mock-node-" + sequence.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    IntStream.range(0, accounts)
+        .mapToObj(index -> address("account-" + index))
+        .forEach(address -> this.accounts.put(address, new Account(INITIAL_BALANCE, 0, 0)));
+    mine(0);
+  }
+
+  /**
+   * Start mining blocks.
+   */
+  public void start() {
+    executor.scheduleAtFixedRate(this::mine, blockInterval, blockInterval,
+        TimeUnit.MILLISECONDS);
+    LOG.info("Mock node mines a block every {} ms with {} transactions.", blockInterval,
+        transactionsPerBlock);
+  }
+
+  /**
+   * Stop mining blocks and answering requests.
+   */
+  public void stop() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Register a function called with the header of every block mined.
+   *
+   * @param headListener the function to call.
+   */
+  public void addHeadListener(final Consumer<JsonNode> headListener) {
+    headListeners.add(headListener);
+  }
+
+  /**
+   * Remove a function called with the header of every block mined.
+   *
+   * @param headListener the function to remove.
+   */
+  public void removeHeadListener(final Consumer<JsonNode> headListener) {
+    headListeners.remove(headListener);
+  }
+
+  /**
+   * Answer a JSON-RPC payload, that is a single request or a batch of requests, after the
+   * configured latency.
+   *
+   * @param payload the JSON-RPC payload.
+   * @return the JSON-RPC response.
+   */
+  public CompletableFuture<String> handle(final String payload) {
+    var delay = latencyJitter > 0
+        ? latency + ThreadLocalRandom.current().nextLong(latencyJitter)
+        : latency;
+    return CompletableFuture.supplyAsync(() -> answer(payload),
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor));
+  }
+
+  /**
+   * Return the addresses of the unlocked accounts.
+   *
+   * @return the account addresses.
+   */
+  public synchronized List<String> getAccounts() {
+    return List.copyOf(accounts.keySet());
+  }
+
+  String answer(final String payload) {
+    try {
+      var request = objectMapper.readTree(payload);
+      if (request.isArray()) {
+        var responses = json.arrayNode();
+        request.forEach(item -> responses.add(answer(item)));
+        return objectMapper.writeValueAsString(responses);
+      }
+      return objectMapper.writeValueAsString(answer(request));
+    } catch (IOException e) {
+      return PARSE_ERROR;
+    }
+  }
+
+  private ObjectNode answer(final JsonNode request) {
+    var response = json.objectNode().put("jsonrpc", "2.0");
+    response.set("id", request.path("id"));
+    var method = request.path("method").asText();
+    var params = request.path("params");
+    if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+      return error(response, -32000, "Mock node failure");
+    }
+    try {
+      response.set("result", call(method, params));
+      return response;
+    } catch (MockNodeException e) {
+      return error(response, e.getCode(), e.getMessage());
+    }
+  }
+
+  private JsonNode call(final String method, final JsonNode params) {
+    switch (method) {
+      case "web3_clientVersion":
+        return json.textNode("MockNode/v1.0.0");
+      case "net_version":
+        return json.textNode("1337");
+      case "eth_accounts":
+        var addresses = json.arrayNode();
+        getAccounts().forEach(addresses::add);
+        return addresses;
+      case "eth_blockNumber":
+        return json.textNode(encodeQuantity(BigInteger.valueOf(latestBlock().number)));
+      case "eth_getBalance":
+        return json.textNode(encodeQuantity(account(params.path(0).asText()).balance));
+      case "eth_getTransactionCount":
+        return json.textNode(encodeQuantity(transactionCount(params.path(0).asText(),
+            params.path(1).asText("latest"))));
+      case "eth_sendTransaction":
+        return json.textNode(sendTransaction(params.path(0)));
+      case "eth_getTransactionByHash":
+        return transaction(params.path(0).asText());
+      case "eth_getTransactionReceipt":
+        return receipt(params.path(0).asText());
+      case "eth_getBlockByHash":
+        return block(blockByHash(params.path(0).asText()), params.path(1).asBoolean());
+      case "eth_getBlockByNumber":
+        return block(blockByNumber(params.path(0).asText()), params.path(1).asBoolean());
+      case "eth_newBlockFilter":
+        return json.textNode(newFilter(FilterType.BLOCK));
+      case "eth_newPendingTransactionFilter":
+        return json.textNode(newFilter(FilterType.PENDING_TRANSACTION));
+      case "eth_newFilter":
+        return json.textNode(newFilter(FilterType.LOG));
+      case "eth_getLogs":
+        // The transfers mined emit no logs.
+        return json.arrayNode();
+      case "eth_getFilterChanges":
+        return filterChanges(params.path(0).asText());
+      case "eth_uninstallFilter":
+        return json.booleanNode(filters.remove(filterId(params.path(0).asText())) != null);
+      default:
+        throw new MockNodeException(-32601,
+            String.format("The method %s does not exist/is not available", method));
+    }
+  }
+
+  private synchronized BigInteger transactionCount(final String address, final String block) {
+    var account = account(address);
+    return BigInteger.valueOf("pending".equals(block) ? account.pendingNonce : account.nonce);
+  }
+
+  private synchronized String sendTransaction(final JsonNode transaction) {
+    var from = transaction.path("from").asText().toLowerCase();
+    var account = accounts.get(from);
+    if (account == null) {
+      throw new MockNodeException(-32000, String.format("sender account %s not recognized", from));
+    }
+    var nonce = transaction.hasNonNull("nonce")
+        ? Numeric.decodeQuantity(transaction.path("nonce").asText()).longValueExact()
+        : account.pendingNonce;
+    if (nonce != account.pendingNonce) {
+      throw new MockNodeException(-32000, String.format(
+          "the tx doesn't have the correct nonce. account has nonce of: %d tx has nonce of: %d",
+          account.pendingNonce, nonce));
+    }
+    account.pendingNonce++;
+    var pendingTransaction = new MockTransaction(
+        Hash.sha3String("transaction-" + sequence.incrementAndGet()),
+        from,
+        transaction.path("to").asText(null),
+        quantity(transaction, "value"),
+        BigInteger.valueOf(nonce),
+        quantity(transaction, "gas"),
+        quantity(transaction, "gasPrice"),
+        transaction.path("data").asText("0x"));
+    pendingTransactions.add(pendingTransaction);
+    return pendingTransaction.hash;
+  }
+
+  @VisibleForTestOnly
+  void mine() {
+    try {
+      mine(transactionsPerBlock);
+    } catch (RuntimeException e) {
+      LOG.error("Mock node could not mine a block:", e);
+    }
+  }
+
+  private void mine(final int syntheticTransactions) {
+    MockBlock block;
+    synchronized (this) {
+      var parent = blocks.peekLast();
+      var number = parent == null ? 0 : parent.number + 1;
+      var transactions = new ArrayList<>(pendingTransactions);
+      pendingTransactions.clear();
+      var random = ThreadLocalRandom.current();
+      for (var index = 0; index < syntheticTransactions; index++) {
+        transactions.add(new MockTransaction(
+            Hash.sha3String("transaction-" + sequence.incrementAndGet()),
+            address("external-" + random.nextInt(1_000)),
+            address("external-" + random.nextInt(1_000)),
+            BigInteger.valueOf(random.nextLong(1, Long.MAX_VALUE)),
+            BigInteger.valueOf(number),
+            GAS_PER_TRANSACTION,
+            BigInteger.ONE,
+            "0x"));
+      }
+      block = new MockBlock(number, Hash.sha3String("block-" + number),
+          parent == null ? ZERO_HASH : parent.hash, Instant.now().getEpochSecond(), transactions);
+      for (var index = 0; index < transactions.size(); index++) {
+        var transaction = transactions.get(index);
+        transactionsByHash.put(transaction.hash, new Location(block, index));
+        var account = accounts.get(transaction.from);
+        if (account != null) {
+          account.nonce++;
+          account.balance = account.balance.subtract(transaction.value)
+              .subtract(GAS_PER_TRANSACTION.multiply(transaction.gasPrice));
+        }
+        var recipient = transaction.to == null ? null : accounts.get(transaction.to.toLowerCase());
+        if (recipient != null) {
+          recipient.balance = recipient.balance.add(transaction.value);
+        }
+      }
+      blocks.addLast(block);
+      blocksByHash.put(block.hash, block);
+      if (blocks.size() > MAX_BLOCKS) {
+        var evicted = blocks.removeFirst();
+        blocksByHash.remove(evicted.hash);
+        evicted.transactions.forEach(transaction -> transactionsByHash.remove(transaction.hash));
+      }
+    }
+    if (!headListeners.isEmpty()) {
+      var header = block(block, false);
+      headListeners.forEach(headListener -> headListener.accept(header));
+    }
+  }
+
+  private String newFilter(final FilterType type) {
+    var filterId = BigInteger.valueOf(sequence.incrementAndGet());
+    filters.put(filterId, new Filter(type, latestBlock().number + 1));
+    return encodeQuantity(filterId);
+  }
+
+  private synchronized ArrayNode filterChanges(final String filterId) {
+    var filter = filters.get(filterId(filterId));
+    if (filter == null) {
+      throw new MockNodeException(-32000, "filter not found");
+    }
+    var changes = json.arrayNode();
+    if (filter.type == FilterType.BLOCK) {
+      blocks.stream()
+          .filter(block -> block.number >= filter.nextBlock)
+          .forEach(block -> changes.add(block.hash));
+      filter.nextBlock = latestBlock().number + 1;
+    }
+    return changes;
+  }
+
+  private synchronized MockBlock latestBlock() {
+    return blocks.getLast();
+  }
+
+  private synchronized MockBlock blockByHash(final String hash) {
+    return blocksByHash.get(hash.toLowerCase());
+  }
+
+  private synchronized MockBlock blockByNumber(final String number) {
+    switch (number) {
+      case "latest":
+      case "pending":
+        return blocks.getLast();
+      case "earliest":
+        return blocks.getFirst();
+      default:
+        var offset = Numeric.decodeQuantity(number).longValueExact() - blocks.getFirst().number;
+        return offset < 0 || offset >= blocks.size()
+            ? null
+            : blocks.stream().skip(offset).findFirst().orElse(null);
+    }
+  }
+
+  private synchronized JsonNode transaction(final String hash) {
+    var location = transactionsByHash.get(hash.toLowerCase());
+    return location == null
+        ? json.nullNode()
+        : transaction(location.block, location.index);
+  }
+
+  private synchronized JsonNode receipt(final String hash) {
+    var location = transactionsByHash.get(hash.toLowerCase());
+    if (location == null) {
+      return json.nullNode();
+    }
+    var transaction = location.block.transactions.get(location.index);
+    var receipt = json.objectNode()
+        .put("transactionHash", transaction.hash)
+        .put("transactionIndex", encodeQuantity(BigInteger.valueOf(location.index)))
+        .put("blockHash", location.block.hash)
+        .put("blockNumber", encodeQuantity(BigInteger.valueOf(location.block.number)))
+        .put("from", transaction.from)
+        .put("to", transaction.to)
+        .put("cumulativeGasUsed", encodeQuantity(
+            GAS_PER_TRANSACTION.multiply(BigInteger.valueOf(location.index + 1L))))
+        .put("gasUsed", encodeQuantity(GAS_PER_TRANSACTION))
+        .put("status", "0x1")
+        .put("logsBloom", "0x" + "0".repeat(512));
+    receipt.set("logs", json.arrayNode());
+    return receipt;
+  }
+
+  private JsonNode block(final MockBlock block, final boolean fullTransactions) {
+    if (block == null) {
+      return json.nullNode();
+    }
+    var transactions = json.arrayNode();
+    IntStream.range(0, block.transactions.size())
+        .forEach(index -> transactions.add(fullTransactions
+            ? transaction(block, index)
+            : json.textNode(block.transactions.get(index).hash)));
+    var node = json.objectNode()
+        .put("number", encodeQuantity(BigInteger.valueOf(block.number)))
+        .put("hash", block.hash)
+        .put("parentHash", block.parentHash)
+        .put("nonce", "0x0000000000000000")
+        .put("sha3Uncles", ZERO_HASH)
+        .put("logsBloom", "0x" + "0".repeat(512))
+        .put("transactionsRoot", ZERO_HASH)
+        .put("stateRoot", ZERO_HASH)
+        .put("receiptsRoot", ZERO_HASH)
+        .put("miner", Numeric.toHexString(new byte[20]))
+        .put("difficulty", "0x0")
+        .put("totalDifficulty", "0x0")
+        .put("extraData", "0x")
+        .put("size", "0x3e8")
+        .put("gasLimit", encodeQuantity(BLOCK_GAS_LIMIT))
+        .put("gasUsed", encodeQuantity(
+            GAS_PER_TRANSACTION.multiply(BigInteger.valueOf(block.transactions.size()))))
+        .put("timestamp", encodeQuantity(BigInteger.valueOf(block.timestamp)));
+    node.set("transactions", transactions);
+    node.set("uncles", json.arrayNode());
+    return node;
+  }
+
+  private ObjectNode transaction(final MockBlock block, final int index) {
+    var transaction = block.transactions.get(index);
+    return json.objectNode()
+        .put("hash", transaction.hash)
+        .put("nonce", encodeQuantity(transaction.nonce))
+        .put("blockHash", block.hash)
+        .put("blockNumber", encodeQuantity(BigInteger.valueOf(block.number)))
+        .put("transactionIndex", encodeQuantity(BigInteger.valueOf(index)))
+        .put("from", transaction.from)
+        .put("to", transaction.to)
+        .put("value", encodeQuantity(transaction.value))
+        .put("gas", encodeQuantity(transaction.gas))
+        .put("gasPrice", encodeQuantity(transaction.gasPrice))
+        .put("input", transaction.input);
+  }
+
+  private synchronized Account account(final String address) {
+    return accounts.getOrDefault(address.toLowerCase(), new Account(BigInteger.ZERO, 0, 0));
+  }
+
+  private ObjectNode error(final ObjectNode response, final int code, final String message) {
+    response.set("error", json.objectNode()
+        .put("code", code)
+        .put("message", message));
+    return response;
+  }
+
+  private static BigInteger quantity(final JsonNode node, final String field) {
+    return node.hasNonNull(field)
+        ? Numeric.decodeQuantity(node.path(field).asText())
+        : BigInteger.ZERO;
+  }
+
+  private static BigInteger filterId(final String filterId) {
+    // Clients may pad the identifiers with zeros, they are compared as numbers.
+    return Numeric.toBigInt(filterId);
+  }
+
+  private static String address(final String seed) {
+    return "0x" + Hash.sha3String(seed).substring(26);
+  }
+
+  @AllArgsConstructor
+  private static class Account {
+
+    private BigInteger balance;
+    private long nonce;
+    private long pendingNonce;
+  }
+
+  @AllArgsConstructor
+  private static class MockTransaction {
+
+    private final String hash;
+    private final String from;
+    private final String to;
+    private final BigInteger value;
+    private final BigInteger nonce;
+    private final BigInteger gas;
+    private final BigInteger gasPrice;
+    private final String input;
+  }
+
+  @AllArgsConstructor
+  private static class MockBlock {
+
+    private final long number;
+    private final String hash;
+    private final String parentHash;
+    private final long timestamp;
+    private final List<MockTransaction> transactions;
+  }
+
+  @AllArgsConstructor
+  private static class Location {
+
+    private final MockBlock block;
+    private final int index;
+  }
+
+  private enum FilterType {
+    BLOCK,
+    PENDING_TRANSACTION,
+    LOG
+  }
+
+  @AllArgsConstructor
+  private static class Filter {
+
+    private final FilterType type;
+    private long nextBlock;
+  }
+}
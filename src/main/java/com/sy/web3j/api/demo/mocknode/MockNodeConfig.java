@@ -0,0 +1,69 @@
+package com.sy.web3j.api.demo.mocknode;
+
+import lombok.SneakyThrows;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration of the in-process mock node, enabled by the <code>mock-node</code> profile.
+ *
+ * @author selim
+ */
+@Configuration
+@Profile("mock-node")
+@SuppressWarnings("unused")
+public class MockNodeConfig {
+
+  /**
+   * Construct a new instance of {@link MockNode}.
+   * @param accounts The number of unlocked accounts owned by the node.
+   * @param blockInterval The time in milliseconds between two blocks.
+   * @param transactionsPerBlock The number of synthetic transactions mined in every block.
+   * @param latency The time in milliseconds to wait before answering a request.
+   * @param latencyJitter The maximum random time in milliseconds added to the latency.
+   * @param errorRate The rate of requests answered with an error, between 0 and 1.
+   * @return A new instance of {@link MockNode}.
+   */
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  MockNode mockNode(final @Value("${web3j.mock-node.accounts}") int accounts,
+      final @Value("${web3j.mock-node.block-interval}") long blockInterval,
+      final @Value("${web3j.mock-node.transactions-per-block}") int transactionsPerBlock,
+      final @Value("${web3j.mock-node.latency}") long latency,
+      final @Value("${web3j.mock-node.latency-jitter}") long latencyJitter,
+      final @Value("${web3j.mock-node.error-rate}") double errorRate) {
+    return new MockNode(accounts, blockInterval, transactionsPerBlock, latency, latencyJitter,
+        errorRate);
+  }
+
+  /**
+   * Construct and start a new instance of {@link MockNodeHttpServer}.
+   * @param mockNode The mock node answering the requests.
+   * @param port The port to listen to.
+   * @return A new instance of {@link MockNodeHttpServer}.
+   */
+  @Bean(destroyMethod = "stop")
+  @SneakyThrows
+  MockNodeHttpServer mockNodeHttpServer(final MockNode mockNode,
+      final @Value("${web3j.mock-node.http-port}") int port) {
+    var mockNodeHttpServer = new MockNodeHttpServer(mockNode, port);
+    mockNodeHttpServer.start();
+    return mockNodeHttpServer;
+  }
+
+  /**
+   * Construct and start a new instance of {@link MockNodeWebSocketServer}.
+   * @param mockNode The mock node answering the requests.
+   * @param port The port to listen to.
+   * @return A new instance of {@link MockNodeWebSocketServer}.
+   */
+  @Bean(destroyMethod = "stop")
+  @SneakyThrows
+  MockNodeWebSocketServer mockNodeWebSocketServer(final MockNode mockNode,
+      final @Value("${web3j.mock-node.ws-port}") int port) {
+    var mockNodeWebSocketServer = new MockNodeWebSocketServer(mockNode, port);
+    mockNodeWebSocketServer.startAndWait(10_000);
+    return mockNodeWebSocketServer;
+  }
+}
@@ -0,0 +1,19 @@
+package com.sy.web3j.api.demo.mocknode;
+
+import lombok.Getter;
+
+/**
+ * JSON-RPC error answered by the mock node.
+ *
+ * @author selim
+ */
+@Getter
+class MockNodeException extends RuntimeException {
+
+  private final int code;
+
+  MockNodeException(final int code, final String message) {
+    super(message);
+    this.code = code;
+  }
+}
@@ -0,0 +1,115 @@
+package com.sy.web3j.api.demo.mocknode;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HTTP JSON-RPC endpoint of the mock node. Like real nodes behind a compressing proxy, it accepts
+ * gzip requests and compresses its responses when the client accepts gzip.
+ *
+ * @author selim
+ */
+@Slf4j
+public class MockNodeHttpServer {
+
+  private final MockNode mockNode;
+
+  private final HttpServer httpServer;
+
+  private final ExecutorService executor;
+
+  /**
+   * Construct a new instance of <code>{@link MockNodeHttpServer}</code>.
+   *
+   * @param mockNode the mock node answering the requests.
+   * @param port the port to listen to, 0 picks a free port.
+   * @throws IOException if the port cannot be bound.
+   */
+  public MockNodeHttpServer(final MockNode mockNode, final int port) throws IOException {
+    this.mockNode = mockNode;
+    this.httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    var threadCount = new AtomicInteger();
+    this.executor = Executors.newCachedThreadPool(runnable -> {
+      var thread = new Thread(runnable, "mock-node-http-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.httpServer.setExecutor(executor);
+    this.httpServer.createContext("/", this::handle);
+  }
+
+  /**
+   * Start listening to requests.
+   */
+  public void start() {
+    httpServer.start();
+    LOG.info("Mock node listens to HTTP requests on port {}.", getPort());
+  }
+
+  /**
+   * Stop listening to requests.
+   */
+  public void stop() {
+    httpServer.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Return the port the server listens to.
+   *
+   * @return the port.
+   */
+  public int getPort() {
+    return httpServer.getAddress().getPort();
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    var requestBody = "gzip".equalsIgnoreCase(
+        exchange.getRequestHeaders().getFirst("Content-Encoding"))
+        ? new GZIPInputStream(exchange.getRequestBody())
+        : exchange.getRequestBody();
+    var payload = new String(requestBody.readAllBytes(), StandardCharsets.UTF_8);
+    var gzip = String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding"))
+        .contains("gzip");
+    // The exchange is answered once the latency of the node has elapsed, without holding a thread.
+    mockNode.handle(payload).whenComplete((response, throwable) -> {
+      try {
+        if (throwable != null) {
+          exchange.sendResponseHeaders(500, -1);
+          return;
+        }
+        var body = gzip
+            ? gzip(response.getBytes(StandardCharsets.UTF_8))
+            : response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (gzip) {
+          exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+      } catch (IOException e) {
+        LOG.debug("Mock node could not answer a HTTP request: {}", e.getMessage());
+      } finally {
+        exchange.close();
+      }
+    });
+  }
+
+  private static byte[] gzip(final byte[] body) throws IOException {
+    var outputStream = new ByteArrayOutputStream(body.length);
+    try (var gzipOutputStream = new GZIPOutputStream(outputStream)) {
+      gzipOutputStream.write(body);
+    }
+    return outputStream.toByteArray();
+  }
+}
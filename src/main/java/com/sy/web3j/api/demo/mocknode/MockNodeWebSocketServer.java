@@ -0,0 +1,172 @@
+package com.sy.web3j.api.demo.mocknode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+/**
+ * WebSocket JSON-RPC endpoint of the mock node. On top of the requests answered by the node, it
+ * pushes the header of every block mined to the connections subscribed to <code>newHeads</code>.
+ *
+ * @author selim
+ */
+@Slf4j
+public class MockNodeWebSocketServer extends WebSocketServer {
+
+  private final MockNode mockNode;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+  private final CountDownLatch started = new CountDownLatch(1);
+
+  /**
+   * Construct a new instance of <code>{@link MockNodeWebSocketServer}</code>.
+   *
+   * @param mockNode the mock node answering the requests.
+   * @param port the port to listen to.
+   */
+  public MockNodeWebSocketServer(final MockNode mockNode, final int port) {
+    super(new InetSocketAddress("localhost", port));
+    this.mockNode = mockNode;
+    setReuseAddr(true);
+  }
+
+  /**
+   * Start listening to requests and wait until the server is ready to accept connections.
+   *
+   * @param timeoutInMillis the maximum time to wait.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public void startAndWait(final long timeoutInMillis) throws InterruptedException {
+    start();
+    if (!started.await(timeoutInMillis, TimeUnit.MILLISECONDS)) {
+      throw new IllegalStateException("The mock node WebSocket server did not start in time");
+    }
+  }
+
+  @Override
+  public void onStart() {
+    started.countDown();
+    LOG.info("Mock node listens to WebSocket requests on port {}.", getPort());
+  }
+
+  @Override
+  public void onOpen(final WebSocket connection, final ClientHandshake handshake) {
+    LOG.debug("Mock node accepted a WebSocket connection from {}.",
+        connection.getRemoteSocketAddress());
+  }
+
+  @Override
+  public void onClose(final WebSocket connection, final int code, final String reason,
+      final boolean remote) {
+    subscriptions.values().removeIf(subscription -> {
+      if (subscription.connection == connection) {
+        mockNode.removeHeadListener(subscription);
+        return true;
+      }
+      return false;
+    });
+  }
+
+  @Override
+  public void onMessage(final WebSocket connection, final String payload) {
+    try {
+      var request = objectMapper.readTree(payload);
+      var method = request.path("method").asText();
+      if ("eth_subscribe".equals(method)) {
+        send(connection, request, subscribe(connection, request.path("params").path(0).asText()));
+        return;
+      }
+      if ("eth_unsubscribe".equals(method)) {
+        send(connection, request, JsonNodeFactory.instance.booleanNode(
+            unsubscribe(request.path("params").path(0).asText())));
+        return;
+      }
+    } catch (IOException e) {
+      LOG.debug("Mock node received an invalid WebSocket payload: {}", e.getMessage());
+    }
+    mockNode.handle(payload).thenAccept(response -> {
+      if (connection.isOpen()) {
+        connection.send(response);
+      }
+    });
+  }
+
+  @Override
+  public void onError(final WebSocket connection, final Exception exception) {
+    LOG.warn("Mock node WebSocket error: {}", exception.getMessage());
+  }
+
+  private JsonNode subscribe(final WebSocket connection, final String type) {
+    if (!"newHeads".equals(type)) {
+      return JsonNodeFactory.instance.nullNode();
+    }
+    var subscription = new Subscription(
+        "0x" + UUID.randomUUID().toString().replace("-", ""), connection);
+    subscriptions.put(subscription.id, subscription);
+    mockNode.addHeadListener(subscription);
+    return JsonNodeFactory.instance.textNode(subscription.id);
+  }
+
+  private boolean unsubscribe(final String subscriptionId) {
+    var subscription = subscriptions.remove(subscriptionId);
+    if (subscription != null) {
+      mockNode.removeHeadListener(subscription);
+    }
+    return subscription != null;
+  }
+
+  private void send(final WebSocket connection, final JsonNode request, final JsonNode result)
+      throws IOException {
+    var response = JsonNodeFactory.instance.objectNode().put("jsonrpc", "2.0");
+    response.set("id", request.path("id"));
+    response.set("result", result);
+    connection.send(objectMapper.writeValueAsString(response));
+  }
+
+  /**
+   * Push the block headers of a subscription to its connection.
+   */
+  private class Subscription implements Consumer<JsonNode> {
+
+    private final String id;
+    private final WebSocket connection;
+
+    private Subscription(final String id, final WebSocket connection) {
+      this.id = id;
+      this.connection = connection;
+    }
+
+    @Override
+    public void accept(final JsonNode header) {
+      if (!connection.isOpen()) {
+        return;
+      }
+      var params = JsonNodeFactory.instance.objectNode().put("subscription", id);
+      params.set("result", header);
+      var notification = JsonNodeFactory.instance.objectNode()
+          .put("jsonrpc", "2.0")
+          .put("method", "eth_subscription");
+      notification.set("params", params);
+      try {
+        connection.send(objectMapper.writeValueAsString(notification));
+      } catch (IOException e) {
+        LOG.debug("Mock node could not push a block header: {}", e.getMessage());
+      }
+    }
+  }
+}
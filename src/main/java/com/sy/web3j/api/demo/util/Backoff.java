@@ -0,0 +1,32 @@
+package com.sy.web3j.api.demo.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter, so that many clients retrying after the same failure do
+ * not hit the blockchain client all at once.
+ *
+ * @author selim
+ */
+public final class Backoff {
+
+  private Backoff() {
+  }
+
+  /**
+   * Return the time to wait before the given retry attempt, picked at random between the minimum
+   * delay and the minimum delay doubled at every attempt, up to the maximum delay.
+   *
+   * @param attempt the number of attempts already made, starting at 0.
+   * @param minDelay the minimum delay.
+   * @param maxDelay the maximum delay.
+   * @return the delay, in the unit of the given delays.
+   */
+  public static long delay(final int attempt, final long minDelay, final long maxDelay) {
+    var ceiling = Math.min(maxDelay, minDelay << Math.min(attempt, 30));
+    if (ceiling <= minDelay) {
+      return minDelay;
+    }
+    return ThreadLocalRandom.current().nextLong(minDelay, ceiling + 1);
+  }
+}
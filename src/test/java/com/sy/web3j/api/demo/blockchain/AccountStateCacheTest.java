@@ -0,0 +1,109 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sy.web3j.api.demo.blockchain.AccountStateCache.Kind;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link AccountStateCache}.
+ *
+ * @author selim
+ */
+class AccountStateCacheTest {
+
+  private static final String DEFAULT_ACCOUNT_ADDRESS = "0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2";
+
+  private final AtomicInteger nbOfLoads = new AtomicInteger(0);
+
+  private AccountStateCache underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new AccountStateCache(2);
+  }
+
+  @Test
+  void get_withoutBlock_bypassCache() {
+    load(DEFAULT_ACCOUNT_ADDRESS);
+    load(DEFAULT_ACCOUNT_ADDRESS);
+
+    assertThat(nbOfLoads.get())
+        .withFailMessage("The cache should be bypassed until a block is mined.")
+        .isEqualTo(2);
+    assertThat(underTest.stats().getMisses()).isEqualTo(2);
+  }
+
+  @Test
+  void get_withinTheSameBlock_hitCache() {
+    underTest.onNewBlock(1);
+
+    load(DEFAULT_ACCOUNT_ADDRESS);
+    load(DEFAULT_ACCOUNT_ADDRESS.toLowerCase());
+
+    assertThat(nbOfLoads.get())
+        .withFailMessage("The account state should be loaded once.")
+        .isEqualTo(1);
+    assertThat(underTest.stats().getHits()).isEqualTo(1);
+    assertThat(underTest.stats().getMisses()).isEqualTo(1);
+  }
+
+  @Test
+  void onNewBlock_invalidateCache() {
+    underTest.onNewBlock(1);
+    load(DEFAULT_ACCOUNT_ADDRESS);
+
+    underTest.onNewBlock(2);
+    load(DEFAULT_ACCOUNT_ADDRESS);
+
+    assertThat(nbOfLoads.get())
+        .withFailMessage("The account state should be loaded again on a new block.")
+        .isEqualTo(2);
+  }
+
+  @Test
+  void onNewBlock_replacedBlock_invalidateCache() {
+    underTest.onNewBlock(2);
+    load(DEFAULT_ACCOUNT_ADDRESS);
+
+    underTest.onNewBlock(2);
+    load(DEFAULT_ACCOUNT_ADDRESS);
+
+    assertThat(nbOfLoads.get())
+        .withFailMessage("The account state should be loaded again when its block is replaced.")
+        .isEqualTo(2);
+  }
+
+  @Test
+  void onNewBlock_olderBlock_isIgnored() {
+    underTest.onNewBlock(2);
+    load(DEFAULT_ACCOUNT_ADDRESS);
+
+    underTest.onNewBlock(1);
+    load(DEFAULT_ACCOUNT_ADDRESS);
+
+    assertThat(nbOfLoads.get())
+        .withFailMessage("An older block should not invalidate the cache.")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void get_cacheIsFull_evictLeastRecentlyUsed() {
+    underTest.onNewBlock(1);
+
+    load("0x0000000000000000000000000000000000000001");
+    load("0x0000000000000000000000000000000000000002");
+    load("0x0000000000000000000000000000000000000003");
+
+    assertThat(underTest.stats().getEvictions()).isEqualTo(1);
+    assertThat(underTest.stats().getSize()).isEqualTo(2);
+  }
+
+  private BigInteger load(String accountAddress) {
+    return underTest.get(Kind.BALANCE, Address.parse(accountAddress),
+        () -> BigInteger.valueOf(nbOfLoads.incrementAndGet()));
+  }
+}
@@ -0,0 +1,51 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.utils.Numeric;
+
+/**
+ * Test class for {@link Address}.
+ *
+ * @author selim
+ */
+class AddressTest {
+
+  private static final String DEFAULT_ACCOUNT_ADDRESS = "0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2";
+
+  @Test
+  void parse_anyCase_equalAddresses() {
+    var address = Address.parse(DEFAULT_ACCOUNT_ADDRESS);
+
+    assertThat(address)
+        .isEqualTo(Address.parse(DEFAULT_ACCOUNT_ADDRESS.toLowerCase()))
+        .isEqualTo(Address.parse(DEFAULT_ACCOUNT_ADDRESS.substring(2).toUpperCase()));
+    assertThat(address.hashCode())
+        .isEqualTo(Address.parse(DEFAULT_ACCOUNT_ADDRESS.toLowerCase()).hashCode());
+    assertThat(address).isNotEqualTo(Address.parse("0x" + "0".repeat(40)));
+  }
+
+  @Test
+  void toString_lowercaseHex() {
+    assertThat(Address.parse(DEFAULT_ACCOUNT_ADDRESS).toString())
+        .isEqualTo(DEFAULT_ACCOUNT_ADDRESS.toLowerCase());
+  }
+
+  @Test
+  void toByteArray_sameAsNumeric() {
+    var address = Address.parse(DEFAULT_ACCOUNT_ADDRESS);
+
+    assertThat(address.toByteArray())
+        .isEqualTo(Numeric.hexStringToByteArray(DEFAULT_ACCOUNT_ADDRESS));
+    assertThat(Address.fromByteArray(address.toByteArray())).isEqualTo(address);
+  }
+
+  @Test
+  void parse_invalidAddress_throwIllegalArgumentException() {
+    assertThatThrownBy(() -> Address.parse("0x1")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> Address.parse(DEFAULT_ACCOUNT_ADDRESS.replace('d', 'g')))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
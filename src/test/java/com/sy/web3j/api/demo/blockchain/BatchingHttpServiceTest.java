@@ -0,0 +1,138 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+
+/**
+ * Test class for {@link BatchingHttpService}.
+ *
+ * @author selim
+ */
+class BatchingHttpServiceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final List<String> payloads = new CopyOnWriteArrayList<>();
+
+  private BatchingHttpService underTest;
+
+  private Web3j web3j;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new BatchingHttpService("http://localhost:8545", 50, 10) {
+      @Override
+      @SneakyThrows
+      protected CompletableFuture<InputStream> performIOAsync(String payload) {
+        payloads.add(payload);
+        var requests = objectMapper.readTree(payload);
+        var responses = objectMapper.createArrayNode();
+        // Answer in reverse order, the balance being the index of the account address.
+        for (int i = requests.size() - 1; i >= 0; i--) {
+          var request = requests.get(i);
+          responses.addObject()
+              .put("jsonrpc", "2.0")
+              .put("id", request.get("id").asLong())
+              .put("result", request.get("params").get(0).asText().replace("0xaddress", "0x"));
+        }
+        return CompletableFuture.completedFuture(
+            new ByteArrayInputStream(objectMapper.writeValueAsBytes(responses)));
+      }
+    };
+    web3j = Web3j.build(underTest);
+  }
+
+  @AfterEach
+  void tearDown() {
+    web3j.shutdown();
+  }
+
+  @Test
+  @SneakyThrows
+  void sendAsync_concurrentCalls_areSentInOneBatch() {
+    var futures = IntStream.range(1, 6)
+        .mapToObj(i -> balanceOf("0xaddress" + i))
+        .collect(Collectors.toList());
+
+    var balances = futures.stream()
+        .map(CompletableFuture::join)
+        .map(EthGetBalance::getBalance)
+        .collect(Collectors.toList());
+    assertThat(payloads)
+        .withFailMessage("There should be a single JSON-RPC batch.")
+        .hasSize(1);
+    assertThat(balances)
+        .withFailMessage("Every caller should receive its own response.")
+        .containsExactly(BigInteger.valueOf(1), BigInteger.valueOf(2), BigInteger.valueOf(3),
+            BigInteger.valueOf(4), BigInteger.valueOf(5));
+  }
+
+  @Test
+  @SneakyThrows
+  void sendAsync_batchIsFull_isSentWithoutWaiting() {
+    var futures = IntStream.range(0, 25)
+        .mapToObj(i -> balanceOf("0xaddress" + i))
+        .collect(Collectors.toList());
+
+    futures.forEach(CompletableFuture::join);
+    assertThat(payloads)
+        .withFailMessage("Calls should be split into batches of ten.")
+        .hasSize(3);
+  }
+
+  @Test
+  @SneakyThrows
+  void send_isBatched() {
+    var balance = web3j.ethGetBalance("0xaddress7", DefaultBlockParameterName.LATEST).send();
+
+    assertThat(balance.getBalance()).isEqualTo(BigInteger.valueOf(7));
+    assertThat(payloads.get(0)).startsWith("[");
+  }
+
+  @Test
+  void close_pendingCalls_areFailed() throws IOException {
+    var future = balanceOf("0xaddress1");
+
+    underTest.close();
+    assertThatThrownBy(future::get)
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IOException.class);
+  }
+
+  @Test
+  void close_sharedHttpClient_leftRunning() throws IOException {
+    var httpClient = new OkHttpClient();
+    var service = new BatchingHttpService("http://localhost:8545", httpClient, 50, 10);
+
+    service.close();
+
+    assertThat(httpClient.dispatcher().executorService().isShutdown())
+        .withFailMessage("The HTTP client shared with other services should not be shut down.")
+        .isFalse();
+    httpClient.dispatcher().executorService().shutdown();
+  }
+
+  private CompletableFuture<EthGetBalance> balanceOf(String accountAddress) {
+    return web3j.ethGetBalance(accountAddress, DefaultBlockParameterName.LATEST).sendAsync();
+  }
+}
@@ -0,0 +1,180 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.web3j.utils.Numeric.encodeQuantity;
+
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.websocket.events.NewHeadsNotification;
+
+/**
+ * Test class for {@link BlockStream}.
+ *
+ * @author selim
+ */
+@ExtendWith(MockitoExtension.class)
+class BlockStreamTest {
+
+  @Mock
+  private Web3j web3j;
+
+  private BlockStream underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new BlockStream(web3j, false, 10, 100, 60_000, 2, 4);
+  }
+
+  @Test
+  void blocks_subscriptionLost_missedBlocksAreBackfilledInOrderWithoutDuplicates() {
+    when(web3j.blockFlowable(false)).thenReturn(
+        Flowable.just(ethBlock(1), ethBlock(2)).concatWith(Flowable.error(new IOException())),
+        Flowable.just(ethBlock(2), ethBlock(5)).concatWith(Flowable.never()));
+    readBlocksByNumber();
+
+    var blocks = underTest.blocks(false)
+        .map(Block::getNumber)
+        .take(5)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .values();
+
+    assertThat(blocks)
+        .withFailMessage("The missed blocks should be delivered once, in order.")
+        .containsExactly(BigInteger.valueOf(1), BigInteger.valueOf(2), BigInteger.valueOf(3),
+            BigInteger.valueOf(4), BigInteger.valueOf(5));
+  }
+
+  @Test
+  void blocks_tooManyMissedBlocks_onlyTheLatestAreBackfilled() {
+    when(web3j.blockFlowable(false)).thenReturn(
+        Flowable.just(ethBlock(1)).concatWith(Flowable.error(new IOException())),
+        Flowable.just(ethBlock(10)).concatWith(Flowable.never()));
+    readBlocksByNumber();
+
+    var blocks = underTest.blocks(false)
+        .map(Block::getNumber)
+        .take(4)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .values();
+
+    assertThat(blocks)
+        .withFailMessage("Only the last two missed blocks should be read.")
+        .containsExactly(BigInteger.valueOf(1), BigInteger.valueOf(8), BigInteger.valueOf(9),
+            BigInteger.valueOf(10));
+  }
+
+  @Test
+  void blocks_fromBlockNumber_blocksMinedSinceReadFirst() {
+    when(web3j.blockFlowable(false))
+        .thenReturn(Flowable.just(ethBlock(9), ethBlock(10)).concatWith(Flowable.never()));
+    readBlocksByNumber();
+
+    var blocks = underTest.blocks(false, 7)
+        .map(Block::getNumber)
+        .take(4)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .values();
+
+    assertThat(blocks)
+        .withFailMessage("The blocks mined from the given block on should be delivered in order.")
+        .containsExactly(BigInteger.valueOf(7), BigInteger.valueOf(8), BigInteger.valueOf(9),
+            BigInteger.valueOf(10));
+  }
+
+  @Test
+  void blocks_blockReplacedAtSameNumber_replacementDelivered() {
+    when(web3j.blockFlowable(false)).thenReturn(
+        Flowable.just(ethBlock(1), ethBlock(2)).concatWith(Flowable.error(new IOException())),
+        Flowable.just(ethBlock(2), ethBlock(2, "0x2b"), ethBlock(2, "0x2b"), ethBlock(3))
+            .concatWith(Flowable.never()));
+
+    var blocks = underTest.blocks(false)
+        .map(Block::getHash)
+        .take(4)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .values();
+
+    assertThat(blocks)
+        .withFailMessage("Only the exact repeats of a delivered block should be skipped.")
+        .containsExactly("0x1", "0x2", "0x2b", "0x3");
+  }
+
+  @Test
+  void blocks_pushSubscriptions_announcedBlocksAreReadWithoutPolling() {
+    underTest = new BlockStream(web3j, true, 10, 100, 60_000, 2, 4);
+    when(web3j.newHeadsNotifications()).thenReturn(
+        Flowable.just(newHead(1), newHead(2)).concatWith(Flowable.error(new IOException())),
+        Flowable.just(newHead(4)).concatWith(Flowable.never()));
+    readBlocksByNumber();
+
+    var blocks = underTest.blocks(false)
+        .map(Block::getNumber)
+        .take(4)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .values();
+
+    assertThat(blocks)
+        .withFailMessage("The announced and missed blocks should be delivered once, in order.")
+        .containsExactly(BigInteger.valueOf(1), BigInteger.valueOf(2), BigInteger.valueOf(3),
+            BigInteger.valueOf(4));
+    verify(web3j, never()).blockFlowable(anyBoolean());
+  }
+
+  private void readBlocksByNumber() {
+    // The request answers any call with the block of the requested number.
+    doAnswer(invocation -> {
+      var number = ((DefaultBlockParameterNumber) invocation.getArgument(0)).getBlockNumber();
+      return mock(Request.class,
+          request -> CompletableFuture.completedFuture(ethBlock(number.longValue())));
+    }).when(web3j).ethGetBlockByNumber(any(), eq(false));
+  }
+
+  @SneakyThrows
+  private static NewHeadsNotification newHead(final long number) {
+    return ObjectMapperFactory.getObjectMapper().readValue(
+        format("{\"params\":{\"result\":{\"number\":\"%s\"}}}",
+            encodeQuantity(BigInteger.valueOf(number))), NewHeadsNotification.class);
+  }
+
+  private static EthBlock ethBlock(final long number) {
+    return ethBlock(number, "0x" + number);
+  }
+
+  private static EthBlock ethBlock(final long number, final String hash) {
+    var ethBlock = new EthBlock();
+    var block = new Block();
+    block.setNumber(encodeQuantity(BigInteger.valueOf(number)));
+    block.setHash(hash);
+    ethBlock.setResult(block);
+    return ethBlock;
+  }
+}
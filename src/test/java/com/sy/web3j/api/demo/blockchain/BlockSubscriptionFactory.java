@@ -27,6 +27,7 @@ final class BlockSubscriptionFactory {
           var ethBlock = new EthBlock();
           var block = new Block();
           block.setHash(RandomString.make());
+          block.setNumber("0x1");
           ethBlock.setResult(block);
           emitter.onNext(ethBlock);
         },
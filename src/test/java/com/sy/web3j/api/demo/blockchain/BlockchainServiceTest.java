@@ -6,20 +6,29 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.web3j.utils.Numeric.encodeQuantity;
 
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.BlockEventListener;
 import com.sy.web3j.api.demo.listener.BlockListener;
+import com.sy.web3j.api.demo.listener.ListenerDispatcher;
+import com.sy.web3j.api.demo.listener.ListenerDispatcher.OverflowPolicy;
+import com.sy.web3j.api.demo.listener.TransactionBatchListener;
+import com.sy.web3j.api.demo.listener.TransactionEventListener;
 import com.sy.web3j.api.demo.listener.TransactionListener;
 import io.reactivex.disposables.Disposable;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,6 +45,9 @@ import org.web3j.protocol.core.methods.request.TransactionAssert;
 import org.web3j.protocol.core.methods.response.EthAccounts;
 import org.web3j.protocol.core.methods.response.EthGetBalance;
 import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
 /**
  * Test class for {@link BlockchainService}.
@@ -48,6 +60,8 @@ public class BlockchainServiceTest {
 
   private static final String DEFAULT_ACCOUNT_ADDRESS = "0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2";
 
+  private static final String OTHER_ACCOUNT_ADDRESS = "0xEFF48dBF9b40Dd5bA47Ff52841D359FC1e749491";
+
   private static final String ONE_ETHER = "1";
 
   private static final Long ONE_ETHER_TO_WEI = 100_000_000_000_000_0000L;
@@ -55,12 +69,28 @@ public class BlockchainServiceTest {
   @Mock
   private Web3j web3j;
 
+  private AccountStateCache accountStateCache;
+
   private BlockchainService underTest;
 
   @BeforeEach
   void setUp() {
-    underTest = new BlockchainService(web3j, new ConcurrentLinkedQueue<>(),
-        new ConcurrentLinkedQueue<>());
+    accountStateCache = new AccountStateCache(100);
+    var logFilterEngine = new LogFilterEngine(web3j, 1, 1, 1);
+    underTest = new BlockchainService(web3j, accountStateCache, new TransferEngine(web3j, 1),
+        new TransferJobRegistry(10), new TransferTracker(10), 60_000, 2,
+        new BlockStream(web3j, false, 10, 100, 60_000, 1000, 4), null, null,
+        new TransactionDeduplicator(100, 64), new ConfirmationEngine(web3j, 1, 64, null),
+        logFilterEngine,
+        new ListenerDispatcher<>("block-listener", 16, OverflowPolicy.BLOCK, 1,
+            BlockEventListener::onNewBlock),
+        new ListenerDispatcher<>("transaction-listener", 16, OverflowPolicy.BLOCK, 1,
+            (listener, confirmation) -> confirmation.deliverTo(listener)),
+        new ListenerDispatcher<>("transaction-batch-listener", 16, OverflowPolicy.BLOCK, 1,
+            TransactionBatchListener::onTransactionsConfirmed),
+        new ListenerDispatcher<>("log-listener", 16, OverflowPolicy.BLOCK, 1,
+            logFilterEngine::deliver),
+        10, 100, false);
   }
 
   @Test
@@ -111,23 +141,67 @@ public class BlockchainServiceTest {
 
   @Test
   void afterPropertiesSet_allListeners_areCalled() throws Exception {
-    var nbOfBlocks = new AtomicInteger(0);
-    final BlockListener blockListener = blockHash -> nbOfBlocks.incrementAndGet();
-    var nbOfTransactions = new AtomicInteger(0);
+    var nbOfBlocks = new CountDownLatch(1);
+    final BlockListener blockListener = blockHash -> nbOfBlocks.countDown();
+    var nbOfTransactions = new CountDownLatch(1);
     final TransactionListener transactionListener = transactionHash ->
-        nbOfTransactions.incrementAndGet();
+        nbOfTransactions.countDown();
     when(web3j.blockFlowable(false)).thenReturn(BlockSubscriptionFactory.monoBlock());
     underTest.addBlockListener(blockListener);
-    when(web3j.transactionFlowable()).thenReturn(TransactionSubscriptionFactory.monoTransaction());
+    doReturn(TransactionSubscriptionFactory.monoTransaction()).when(web3j).blockFlowable(true);
     underTest.addTransactionListener(transactionListener);
 
     underTest.afterPropertiesSet();
-    assertThat(nbOfBlocks.get())
+    // Listeners are called asynchronously by their own worker.
+    assertThat(nbOfBlocks.await(5, TimeUnit.SECONDS))
         .withFailMessage("There should be one block.")
-        .isEqualTo(1);
-    assertThat(nbOfTransactions.get())
+        .isTrue();
+    assertThat(nbOfTransactions.await(5, TimeUnit.SECONDS))
         .withFailMessage("There should be one transaction.")
-        .isEqualTo(1);
+        .isTrue();
+  }
+
+  @Test
+  void afterPropertiesSet_blockEventListener_receivesBlockContent() throws Exception {
+    var blockEvents = new CopyOnWriteArrayList<BlockEvent>();
+    var nbOfBlocks = new CountDownLatch(1);
+    final BlockEventListener blockEventListener = blockEvent -> {
+      blockEvents.add(blockEvent);
+      nbOfBlocks.countDown();
+    };
+    when(web3j.blockFlowable(false)).thenReturn(BlockSubscriptionFactory.monoBlock());
+    doReturn(TransactionSubscriptionFactory.monoTransaction()).when(web3j).blockFlowable(true);
+    underTest.addBlockListener(blockEventListener);
+
+    underTest.afterPropertiesSet();
+    assertThat(nbOfBlocks.await(5, TimeUnit.SECONDS))
+        .withFailMessage("There should be one block.")
+        .isTrue();
+    assertThat(blockEvents.get(0).getNumber())
+        .withFailMessage("The block event should carry the block number.")
+        .isEqualTo(1L);
+  }
+
+  @Test
+  void afterPropertiesSet_transactionBatchListener_receivesTransactionsInOneBatch()
+      throws Exception {
+    var batches = new CopyOnWriteArrayList<List<String>>();
+    var nbOfBatches = new CountDownLatch(1);
+    final TransactionBatchListener transactionBatchListener = transactionHashes -> {
+      batches.add(transactionHashes);
+      nbOfBatches.countDown();
+    };
+    when(web3j.blockFlowable(false)).thenReturn(BlockSubscriptionFactory.monoBlock());
+    doReturn(TransactionSubscriptionFactory.transactions(3)).when(web3j).blockFlowable(true);
+    underTest.addTransactionBatchListener(transactionBatchListener);
+
+    underTest.afterPropertiesSet();
+    assertThat(nbOfBatches.await(5, TimeUnit.SECONDS))
+        .withFailMessage("There should be one batch of transactions.")
+        .isTrue();
+    assertThat(batches.get(0))
+        .withFailMessage("The batch should contain the three transactions.")
+        .hasSize(3);
   }
 
   @Test
@@ -149,6 +223,23 @@ public class BlockchainServiceTest {
         .withFailMessage("There should be ten transactions.");
   }
 
+  @Test
+  void getTransactionsCountAsync_returnsTransactionCount() {
+    var transactionCountRequest = mock(Request.class);
+    var transactionCountResponse = mock(EthGetTransactionCount.class);
+    // Usage of doReturn is explained in the test above.
+    doReturn(transactionCountRequest)
+        .when(web3j)
+        .ethGetTransactionCount(DEFAULT_ACCOUNT_ADDRESS, DefaultBlockParameterName.LATEST);
+    when(transactionCountRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(transactionCountResponse));
+    when(transactionCountResponse.getTransactionCount()).thenReturn(BigInteger.TEN);
+
+    assertThat(underTest.getTransactionsCountAsync(DEFAULT_ACCOUNT_ADDRESS).join())
+        .isEqualTo(BigInteger.TEN)
+        .withFailMessage("There should be ten transactions.");
+  }
+
   @Test
   @SneakyThrows
   void getTransactionsCount_onFailure_throwBlockchainException() {
@@ -184,6 +275,56 @@ public class BlockchainServiceTest {
         .withFailMessage("The balance in wei should be converted in Ether and equal to 0.1");
   }
 
+  @Test
+  @SneakyThrows
+  void getBalance_withinTheSameBlock_isReadOnce() {
+    var balanceRequest = mock(Request.class);
+    var balanceResponse = mock(EthGetBalance.class);
+    // Usage of doReturn is explained in the test above.
+    doReturn(balanceRequest)
+        .when(web3j)
+        .ethGetBalance(DEFAULT_ACCOUNT_ADDRESS, DefaultBlockParameterName.LATEST);
+    when(balanceRequest.send()).thenReturn(balanceResponse);
+    when(balanceResponse.getBalance()).thenReturn(BigInteger.valueOf(ONE_ETHER_TO_WEI));
+    accountStateCache.onNewBlock(1);
+
+    underTest.getBalance(DEFAULT_ACCOUNT_ADDRESS);
+    assertThat(underTest.getBalance(DEFAULT_ACCOUNT_ADDRESS))
+        .isEqualTo(BigDecimal.valueOf(1))
+        .withFailMessage("The cached balance should be converted in Ether and equal to 1");
+    verify(balanceRequest, times(1)).send();
+  }
+
+  @Test
+  void getBalanceAsync_returnsBalanceInEther() {
+    var balanceRequest = mock(Request.class);
+    var balanceResponse = mock(EthGetBalance.class);
+    // Usage of doReturn is explained in the test above.
+    doReturn(balanceRequest)
+        .when(web3j)
+        .ethGetBalance(DEFAULT_ACCOUNT_ADDRESS, DefaultBlockParameterName.LATEST);
+    when(balanceRequest.sendAsync()).thenReturn(CompletableFuture.completedFuture(balanceResponse));
+    when(balanceResponse.getBalance()).thenReturn(BigInteger.valueOf(ONE_ETHER_TO_WEI));
+
+    assertThat(underTest.getBalanceAsync(DEFAULT_ACCOUNT_ADDRESS).join())
+        .isEqualTo(BigDecimal.valueOf(1))
+        .withFailMessage("The balance in wei should be converted in Ether and equal to 1");
+  }
+
+  @Test
+  void getBalanceAsync_onFailure_completeWithBlockchainException() {
+    var balanceRequest = mock(Request.class);
+    // Usage of doReturn is explained in the test above.
+    doReturn(balanceRequest)
+        .when(web3j)
+        .ethGetBalance(DEFAULT_ACCOUNT_ADDRESS, DefaultBlockParameterName.LATEST);
+    when(balanceRequest.sendAsync()).thenReturn(CompletableFuture.failedFuture(new IOException()));
+
+    assertThatThrownBy(() -> underTest.getBalanceAsync(DEFAULT_ACCOUNT_ADDRESS).join())
+        .hasCauseInstanceOf(BlockchainException.class)
+        .hasMessageContaining("Could not get the balance of account " + DEFAULT_ACCOUNT_ADDRESS);
+  }
+
   @Test
   @SneakyThrows
   void getBalance_onFailure_throwBlockchainException() {
@@ -199,11 +340,59 @@ public class BlockchainServiceTest {
         .hasMessage("Could not get the balance of account %s", DEFAULT_ACCOUNT_ADDRESS);
   }
 
+  @Test
+  void getBalance_malformedAddress_throwBlockchainException() {
+    assertThatThrownBy(() -> underTest.getBalance("0xzz"))
+        .isInstanceOf(BlockchainException.class)
+        .hasMessage("Invalid account address 0xzz");
+    assertThatThrownBy(() -> underTest.getTransactionsCount("0xzz"))
+        .isInstanceOf(BlockchainException.class);
+    assertThatThrownBy(() -> underTest.getBalanceAsync("0xzz").join())
+        .hasCauseInstanceOf(BlockchainException.class);
+    assertThatThrownBy(() -> underTest.getTransactionsCountAsync("0xzz").join())
+        .hasCauseInstanceOf(BlockchainException.class);
+  }
+
+  @Test
+  void getBalances_onPartialFailure_returnsEveryAccount() {
+    var balanceRequest = mock(Request.class);
+    var balanceResponse = mock(EthGetBalance.class);
+    var failedBalanceRequest = mock(Request.class);
+    // Usage of doReturn is explained in the test above.
+    doReturn(balanceRequest)
+        .when(web3j)
+        .ethGetBalance(DEFAULT_ACCOUNT_ADDRESS, DefaultBlockParameterName.LATEST);
+    when(balanceRequest.sendAsync()).thenReturn(CompletableFuture.completedFuture(balanceResponse));
+    when(balanceResponse.getBalance()).thenReturn(BigInteger.valueOf(ONE_ETHER_TO_WEI));
+    doReturn(failedBalanceRequest)
+        .when(web3j)
+        .ethGetBalance(OTHER_ACCOUNT_ADDRESS, DefaultBlockParameterName.LATEST);
+    when(failedBalanceRequest.sendAsync())
+        .thenReturn(CompletableFuture.failedFuture(new IOException("Connection refused")));
+
+    assertThat(underTest.getBalances(List.of(DEFAULT_ACCOUNT_ADDRESS, OTHER_ACCOUNT_ADDRESS))
+        .toList()
+        .blockingGet())
+        .containsExactlyInAnyOrder(
+            AccountBalance.of(DEFAULT_ACCOUNT_ADDRESS, BigDecimal.valueOf(1)),
+            AccountBalance.failed(OTHER_ACCOUNT_ADDRESS,
+                "Could not get the balance of account " + OTHER_ACCOUNT_ADDRESS
+                    + ": Connection refused"));
+  }
+
   @Test
   void transferFund_isAsynchronous() {
     var transactionArgumentCaptor = ArgumentCaptor.forClass(Transaction.class);
+    var transactionCountRequest = mock(Request.class);
+    var transactionCountResponse = mock(EthGetTransactionCount.class);
     var transactionRequest = mock(Request.class);
     // Usage of doReturn is explained in the test above.
+    doReturn(transactionCountRequest)
+        .when(web3j)
+        .ethGetTransactionCount(DEFAULT_ACCOUNT_ADDRESS, DefaultBlockParameterName.PENDING);
+    when(transactionCountRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(transactionCountResponse));
+    when(transactionCountResponse.getTransactionCount()).thenReturn(BigInteger.TEN);
     doReturn(transactionRequest)
         .when(web3j)
         .ethSendTransaction(any(Transaction.class));
@@ -220,9 +409,98 @@ public class BlockchainServiceTest {
         .hasTo("0xEFF48dBF9b40Dd5bA47Ff52841D359FC1e749491")
         .hasGasPrice(encodeQuantity(BlockchainService.GAS_PRICE))
         .hasGas(encodeQuantity(BlockchainService.GAS_LIMIT))
+        .hasNonce(encodeQuantity(BigInteger.TEN))
         .hasValue(encodeQuantity(BigInteger.valueOf(ONE_ETHER_TO_WEI)));
   }
 
+  @Test
+  void pollReceipts_minesPendingTransfer() {
+    var transactionCountRequest = mock(Request.class);
+    var transactionCountResponse = mock(EthGetTransactionCount.class);
+    var transactionRequest = mock(Request.class);
+    var transactionResponse = new EthSendTransaction();
+    transactionResponse.setResult("0x1");
+    var receiptRequest = mock(Request.class);
+    var receiptResponse = new EthGetTransactionReceipt();
+    var receipt = new TransactionReceipt();
+    receipt.setTransactionHash("0x1");
+    receipt.setBlockNumber("0x2");
+    receipt.setStatus("0x1");
+    receiptResponse.setResult(receipt);
+    // Usage of doReturn is explained in the test above.
+    doReturn(transactionCountRequest)
+        .when(web3j)
+        .ethGetTransactionCount(DEFAULT_ACCOUNT_ADDRESS, DefaultBlockParameterName.PENDING);
+    when(transactionCountRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(transactionCountResponse));
+    when(transactionCountResponse.getTransactionCount()).thenReturn(BigInteger.TEN);
+    doReturn(transactionRequest)
+        .when(web3j)
+        .ethSendTransaction(any(Transaction.class));
+    when(transactionRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(transactionResponse));
+    doReturn(receiptRequest)
+        .when(web3j)
+        .ethGetTransactionReceipt("0x1");
+    when(receiptRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(receiptResponse));
+
+    var transactionHash = underTest
+        .transferFund(DEFAULT_ACCOUNT_ADDRESS, OTHER_ACCOUNT_ADDRESS, BigDecimal.ONE)
+        .join();
+    assertThat(underTest.getTransferStatus(transactionHash))
+        .hasValueSatisfying(transfer -> assertThat(transfer.isPending()).isTrue());
+
+    underTest.pollReceipts(Duration.ZERO).blockingAwait();
+    assertThat(underTest.getTransferStatus(transactionHash))
+        .hasValueSatisfying(transfer -> assertAll(
+            () -> assertThat(transfer.getStatus()).isEqualTo(TrackedTransfer.Status.MINED),
+            () -> assertThat(transfer.getBlockNumber()).isEqualTo(2L)));
+  }
+
+  @Test
+  void submitTransfers_reportsStatusOfEveryTransfer() {
+    var transactionCountRequest = mock(Request.class);
+    var transactionCountResponse = mock(EthGetTransactionCount.class);
+    var failingTransactionCountRequest = mock(Request.class);
+    var transactionRequest = mock(Request.class);
+    var transactionResponse = new EthSendTransaction();
+    transactionResponse.setResult("0x1");
+    // Usage of doReturn is explained in the test above.
+    doReturn(transactionCountRequest)
+        .when(web3j)
+        .ethGetTransactionCount(DEFAULT_ACCOUNT_ADDRESS, DefaultBlockParameterName.PENDING);
+    when(transactionCountRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(transactionCountResponse));
+    when(transactionCountResponse.getTransactionCount()).thenReturn(BigInteger.TEN);
+    doReturn(failingTransactionCountRequest)
+        .when(web3j)
+        .ethGetTransactionCount(OTHER_ACCOUNT_ADDRESS, DefaultBlockParameterName.PENDING);
+    when(failingTransactionCountRequest.sendAsync())
+        .thenReturn(CompletableFuture.failedFuture(new IOException("Node unavailable")));
+    doReturn(transactionRequest)
+        .when(web3j)
+        .ethSendTransaction(any(Transaction.class));
+    when(transactionRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(transactionResponse));
+
+    var transferJob = underTest.submitTransfers(List.of(
+        new FundTransfer(DEFAULT_ACCOUNT_ADDRESS, OTHER_ACCOUNT_ADDRESS, BigDecimal.ONE),
+        new FundTransfer(OTHER_ACCOUNT_ADDRESS, DEFAULT_ACCOUNT_ADDRESS, BigDecimal.ONE)));
+
+    assertAll(
+        () -> assertThat(transferJob.isCompleted())
+            .withFailMessage("All the transfers should have been processed.")
+            .isTrue(),
+        () -> assertThat(transferJob.getItems().get(0).getStatus())
+            .isEqualTo(TransferJob.Status.SUBMITTED),
+        () -> assertThat(transferJob.getItems().get(0).getTransactionHash()).isEqualTo("0x1"),
+        () -> assertThat(transferJob.getItems().get(1).getStatus())
+            .isEqualTo(TransferJob.Status.FAILED),
+        () -> assertThat(transferJob.getItems().get(1).getError()).contains("Node unavailable"),
+        () -> assertThat(underTest.getTransferJob(transferJob.getJobId())).contains(transferJob));
+  }
+
   @Test
   @SneakyThrows
   void getUnlockedAccounts_returnsAllAccounts() {
@@ -240,6 +518,22 @@ public class BlockchainServiceTest {
         .withFailMessage("The account should contain one account %s", DEFAULT_ACCOUNT_ADDRESS);
   }
 
+  @Test
+  void getUnlockedAccountsAsync_returnsAllAccounts() {
+    var accountRequest = mock(Request.class);
+    var ethAccounts = mock(EthAccounts.class);
+    // Usage of doReturn is explained in the test above.
+    doReturn(accountRequest)
+        .when(web3j)
+        .ethAccounts();
+    when(accountRequest.sendAsync()).thenReturn(CompletableFuture.completedFuture(ethAccounts));
+    when(ethAccounts.getAccounts()).thenReturn(List.of(DEFAULT_ACCOUNT_ADDRESS));
+
+    assertThat(underTest.getUnlockedAccountsAsync().join())
+        .isEqualTo(List.of(DEFAULT_ACCOUNT_ADDRESS))
+        .withFailMessage("The account should contain one account %s", DEFAULT_ACCOUNT_ADDRESS);
+  }
+
   @Test
   @SneakyThrows
   void getUnlockedAccounts_onFailure_throwBlockchainException() {
@@ -0,0 +1,191 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.web3j.utils.Numeric.encodeQuantity;
+
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.EventJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionObject;
+
+/**
+ * Test class for {@link ConfirmationEngine}.
+ *
+ * @author selim
+ */
+@ExtendWith(MockitoExtension.class)
+class ConfirmationEngineTest {
+
+  @Mock
+  private Web3j web3j;
+
+  @Test
+  void onNewBlock_belowDepth_holdTransactions() {
+    var underTest = new ConfirmationEngine(web3j, 3, 8, null);
+
+    assertThat(confirm(underTest, block(1, "a", "0x0"))).isEmpty();
+    assertThat(confirm(underTest, block(2, "a", "a"))).isEmpty();
+    assertThat(underTest.getPendingTransactions()).isEqualTo(2);
+
+    assertThat(confirm(underTest, block(3, "a", "a")))
+        .withFailMessage("The transaction of the first block should be confirmed 3 blocks deep.")
+        .containsExactly("+0x1a");
+    assertThat(confirm(underTest, block(4, "a", "a"))).containsExactly("+0x2a");
+    assertThat(underTest.getPendingTransactions()).isEqualTo(2);
+  }
+
+  @Test
+  void onNewBlock_reorganization_retractConfirmedTransactions() {
+    var underTest = new ConfirmationEngine(web3j, 1, 8, null);
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest.bindTo(meterRegistry);
+    confirm(underTest, block(1, "a", "0x0"));
+    confirm(underTest, block(2, "a", "a"));
+    confirm(underTest, block(3, "a", "a"));
+    givenBlock(block(3, "b", "b"));
+    givenBlock(block(2, "b", "a"));
+
+    var confirmations = confirm(underTest, block(4, "b", "b"));
+
+    assertThat(confirmations)
+        .withFailMessage("The replaced blocks should be retracted, the newest first, "
+            + "then the new branch confirmed, but got %s.", confirmations)
+        .containsExactly("-0x3a", "-0x2a", "+0x2b", "+0x3b", "+0x4b");
+    assertThat(meterRegistry.get(ConfirmationEngine.REORGS_COUNTER).functionCounter().count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get(ConfirmationEngine.RETRACTED_COUNTER).functionCounter().count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  void onNewBlock_reorganization_journalConfirmedBlocksOfChain() {
+    var eventJournal = mock(EventJournal.class);
+    var underTest = new ConfirmationEngine(web3j, 2, 8, eventJournal);
+    confirm(underTest, block(1, "a", "0x0"));
+    confirm(underTest, block(2, "a", "a"));
+    confirm(underTest, block(3, "a", "a"));
+    givenBlock(block(3, "b", "b"));
+    givenBlock(block(2, "b", "a"));
+
+    confirm(underTest, block(4, "b", "b"));
+
+    var inOrder = inOrder(eventJournal);
+    inOrder.verify(eventJournal).append(argThat(blockEvent -> blockEvent.getHash().equals("0xb1a")));
+    inOrder.verify(eventJournal).append(argThat(blockEvent -> blockEvent.getHash().equals("0xb2a")));
+    inOrder.verify(eventJournal).truncate(2);
+    inOrder.verify(eventJournal).append(argThat(blockEvent -> blockEvent.getHash().equals("0xb2b")));
+    inOrder.verify(eventJournal).append(argThat(blockEvent -> blockEvent.getHash().equals("0xb3b")));
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void onNewBlock_reorganizationOfPendingBlocks_retractNothing() {
+    var underTest = new ConfirmationEngine(web3j, 3, 8, null);
+    confirm(underTest, block(1, "a", "0x0"));
+    confirm(underTest, block(2, "a", "a"));
+    confirm(underTest, block(3, "a", "a"));
+    givenBlock(block(3, "b", "a"));
+
+    var confirmations = confirm(underTest, block(4, "b", "b"));
+
+    assertThat(confirmations).containsExactly("+0x2a");
+    assertThat(underTest.getPendingTransactions()).isEqualTo(2);
+    assertThat(confirm(underTest, block(5, "b", "b"))).containsExactly("+0x3b");
+  }
+
+  @Test
+  void onNewBlock_sameBlockAgain_ignored() {
+    var underTest = new ConfirmationEngine(web3j, 1, 8, null);
+    confirm(underTest, block(1, "a", "0x0"));
+
+    assertThat(confirm(underTest, block(1, "a", "0x0"))).isEmpty();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void onNewBlock_ancestorsUnavailable_replaceFromBlock() {
+    var underTest = new ConfirmationEngine(web3j, 1, 8, null);
+    confirm(underTest, block(1, "a", "0x0"));
+    confirm(underTest, block(2, "a", "a"));
+    var request = mock(Request.class);
+    when(request.sendAsync())
+        .thenReturn(CompletableFuture.failedFuture(new BlockchainException("Unavailable")));
+    doReturn(request).when(web3j).ethGetBlockByHash(anyString(), anyBoolean());
+
+    var confirmations = confirm(underTest, block(2, "b", "b"));
+
+    assertThat(confirmations).containsExactly("-0x2a", "+0x2b");
+  }
+
+  private static List<String> confirm(final ConfirmationEngine underTest,
+      final BlockEvent blockEvent) {
+    return underTest.onNewBlock(blockEvent)
+        .map(confirmation -> (confirmation.isRetracted() ? "-" : "+")
+            + confirmation.getTransaction().getHash())
+        .toList()
+        .blockingGet();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void givenBlock(final BlockEvent blockEvent) {
+    var ethBlock = new EthBlock();
+    ethBlock.setResult(toBlock(blockEvent));
+    var request = mock(Request.class);
+    when(request.sendAsync()).thenReturn(CompletableFuture.completedFuture(ethBlock));
+    doReturn(request).when(web3j).ethGetBlockByHash(blockEvent.getHash(), true);
+  }
+
+  /**
+   * Return the block of the given number on the given branch, with a single transaction, whose
+   * parent is on the given parent branch.
+   */
+  private static BlockEvent block(final long number, final String branch,
+      final String parentBranch) {
+    var transaction = new TransactionObject();
+    transaction.setHash("0x" + number + branch);
+    transaction.setBlockNumber(encodeQuantity(BigInteger.valueOf(number)));
+    var block = new Block();
+    block.setNumber(encodeQuantity(BigInteger.valueOf(number)));
+    block.setHash("0xb" + number + branch);
+    block.setParentHash(parentBranch.startsWith("0x") ? parentBranch
+        : "0xb" + (number - 1) + parentBranch);
+    block.setTransactions(List.of(transaction));
+    return BlockEvent.of(block);
+  }
+
+  private static Block toBlock(final BlockEvent blockEvent) {
+    var block = new Block();
+    block.setNumber(encodeQuantity(BigInteger.valueOf(blockEvent.getNumber())));
+    block.setHash(blockEvent.getHash());
+    block.setParentHash(blockEvent.getParentHash());
+    block.setTransactions(blockEvent.getTransactions().stream()
+        .map(transactionEvent -> {
+          var transaction = new TransactionObject();
+          transaction.setHash(transactionEvent.getHash());
+          transaction.setBlockNumber(encodeQuantity(
+              BigInteger.valueOf(transactionEvent.getBlockNumber())));
+          return transaction;
+        })
+        .collect(Collectors.toList()));
+    return block;
+  }
+}
@@ -0,0 +1,86 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static com.sy.web3j.api.demo.blockchain.HttpClientMetrics.CALLS_GAUGE;
+import static com.sy.web3j.api.demo.blockchain.HttpClientMetrics.CONNECTIONS_GAUGE;
+import static com.sy.web3j.api.demo.blockchain.HttpClientMetrics.MAX_CALLS_GAUGE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sy.web3j.api.demo.mocknode.MockNode;
+import com.sy.web3j.api.demo.mocknode.MockNodeHttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+/**
+ * Test class for {@link HttpClientMetrics}, along with a tuned {@link OkHttpClient} sending gzip
+ * requests to the mock node.
+ *
+ * @author selim
+ */
+class HttpClientMetricsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private MockNode mockNode;
+
+  private MockNodeHttpServer mockNodeHttpServer;
+
+  private Web3j web3j;
+
+  private HttpClientMetrics underTest;
+
+  @BeforeEach
+  @SneakyThrows
+  void setUp() {
+    mockNode = new MockNode(2, 60_000, 0, 0, 0, 0);
+    mockNodeHttpServer = new MockNodeHttpServer(mockNode, 0);
+    mockNodeHttpServer.start();
+    var dispatcher = new Dispatcher();
+    dispatcher.setMaxRequestsPerHost(4);
+    var httpClient = new OkHttpClient.Builder()
+        .dispatcher(dispatcher)
+        .addInterceptor(new GzipRequestInterceptor())
+        .build();
+    underTest = new HttpClientMetrics(httpClient);
+    underTest.bindTo(meterRegistry);
+    web3j = Web3j.build(new BatchingHttpService(
+        "http://localhost:" + mockNodeHttpServer.getPort(), httpClient, 5, 1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    web3j.shutdown();
+    mockNodeHttpServer.stop();
+    mockNode.stop();
+  }
+
+  @Test
+  @SneakyThrows
+  void bindTo_gzipCallsAreMeasured() {
+    var accounts = web3j.ethAccounts().send().getAccounts();
+    var balances = IntStream.range(0, 20)
+        .mapToObj(i -> web3j
+            .ethGetBalance(accounts.get(i % 2), DefaultBlockParameterName.LATEST)
+            .sendAsync())
+        .collect(Collectors.toList());
+
+    assertThat(balances.stream().map(CompletableFuture::join))
+        .withFailMessage("The node should answer every compressed request.")
+        .allSatisfy(balance -> assertThat(balance.getBalance()).isPositive());
+    assertThat(meterRegistry.get(MAX_CALLS_GAUGE).gauge().value()).isEqualTo(4);
+    assertThat(meterRegistry.get(CALLS_GAUGE).tag("state", "queued").gauge().value())
+        .isZero();
+    assertThat(meterRegistry.get(CONNECTIONS_GAUGE).tag("state", "idle").gauge().value())
+        .withFailMessage("The connections should be kept alive in the pool.")
+        .isBetween(1.0, 4.0);
+  }
+}
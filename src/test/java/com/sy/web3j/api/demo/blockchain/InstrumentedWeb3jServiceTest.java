@@ -0,0 +1,101 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response.Error;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+
+/**
+ * Test class for {@link InstrumentedWeb3jService}.
+ *
+ * @author selim
+ */
+@ExtendWith(MockitoExtension.class)
+class InstrumentedWeb3jServiceTest {
+
+  @Mock
+  private Web3jService delegate;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private Web3j web3j;
+
+  @BeforeEach
+  void setUp() {
+    web3j = Web3j.build(new InstrumentedWeb3jService(delegate, meterRegistry));
+  }
+
+  @Test
+  @SneakyThrows
+  void sendAsync_success_isTimedPerMethod() {
+    var ethGetBalance = new EthGetBalance();
+    ethGetBalance.setResult("0x1");
+    when(delegate.sendAsync(any(), eq(EthGetBalance.class)))
+        .thenReturn(CompletableFuture.completedFuture(ethGetBalance));
+
+    web3j.ethGetBalance("0x1", DefaultBlockParameterName.LATEST).sendAsync().join();
+
+    assertThat(meterRegistry.get(InstrumentedWeb3jService.RPC_TIMER)
+        .tags("method", "eth_getBalance", "outcome", "SUCCESS")
+        .timer()
+        .count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get(InstrumentedWeb3jService.RPC_IN_FLIGHT)
+        .tags("method", "eth_getBalance")
+        .gauge()
+        .value())
+        .withFailMessage("No call should be in flight once answered.")
+        .isZero();
+  }
+
+  @Test
+  @SneakyThrows
+  void send_rpcError_isCountedByCode() {
+    var ethBlockNumber = new EthBlockNumber();
+    ethBlockNumber.setError(new Error(-32000, "Node failure"));
+    when(delegate.send(any(), eq(EthBlockNumber.class))).thenReturn(ethBlockNumber);
+
+    web3j.ethBlockNumber().send();
+
+    assertThat(meterRegistry.get(InstrumentedWeb3jService.RPC_ERRORS)
+        .tags("method", "eth_blockNumber", "cause", "RPC_-32000")
+        .counter()
+        .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  @SneakyThrows
+  void send_failure_isCountedByException() {
+    when(delegate.send(any(), eq(EthBlockNumber.class))).thenThrow(new IOException("Timeout"));
+
+    assertThatThrownBy(() -> web3j.ethBlockNumber().send()).isInstanceOf(IOException.class);
+    assertThat(meterRegistry.get(InstrumentedWeb3jService.RPC_ERRORS)
+        .tags("method", "eth_blockNumber", "cause", "IOException")
+        .counter()
+        .count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get(InstrumentedWeb3jService.RPC_TIMER)
+        .tags("method", "eth_blockNumber", "outcome", "FAILURE")
+        .timer()
+        .count())
+        .isEqualTo(1);
+  }
+}
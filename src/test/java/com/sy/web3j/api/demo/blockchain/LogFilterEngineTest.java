@@ -0,0 +1,241 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.web3j.utils.Numeric.encodeQuantity;
+
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.LogEvent;
+import com.sy.web3j.api.demo.listener.LogEventListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.EthLog.LogObject;
+import org.web3j.protocol.core.methods.response.EthLog.LogResult;
+
+/**
+ * Test class for {@link LogFilterEngine}.
+ *
+ * @author selim
+ */
+@ExtendWith(MockitoExtension.class)
+class LogFilterEngineTest {
+
+  private static final String APPROVAL_TOPIC =
+      "0x8c5be1e5ebec7d5bd14f71427d1e84f3dd0314c0f7b2291e5b200ac8c7c3b925";
+
+  private static final Address TOKEN = Address.parse("0x" + "1".repeat(40));
+
+  private static final Address OTHER_TOKEN = Address.parse("0x" + "2".repeat(40));
+
+  private static final Address ALICE = Address.parse("0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2");
+
+  private static final Address BOB = Address.parse("0xEFF48dBF9b40Dd5bA47Ff52841D359FC1e749491");
+
+  private static final String BLOCK_HASH = "0xb1";
+
+  @Mock
+  private Web3j web3j;
+
+  private LogFilterEngine underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new LogFilterEngine(web3j, 1, 1, 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    underTest.shutdown();
+  }
+
+  @Test
+  void register_filtersOfSameEvent_mergedIntoOneRequest() {
+    underTest.register(logEvent -> { }, LogFilter.transfers(List.of(TOKEN), null, ALICE));
+    underTest.register(logEvent -> { }, LogFilter.transfers(List.of(OTHER_TOKEN), null, null));
+    underTest.register(logEvent -> { },
+        LogFilter.of(List.of(TOKEN), List.of(Set.of(APPROVAL_TOPIC))));
+
+    assertThat(underTest.getRequests())
+        .withFailMessage("The transfer filters should be merged, but got %s.",
+            underTest.getRequests())
+        .hasSize(2);
+
+    LogEventListener anyLog = logEvent -> { };
+    underTest.register(anyLog, LogFilter.of(List.of(BOB), List.of()));
+
+    assertThat(underTest.getRequests())
+        .withFailMessage("A filter of any event should be merged with every filter.")
+        .hasSize(1);
+
+    underTest.unregister(anyLog);
+
+    assertThat(underTest.getRequests()).hasSize(2);
+  }
+
+  @Test
+  void logs_matchingLogs_deliveredToMatchingListeners() {
+    var transfersToAlice = new ArrayList<LogEvent>();
+    var otherTokenTransfers = new ArrayList<LogEvent>();
+    var approvals = new ArrayList<LogEvent>();
+    LogEventListener transfersToAliceListener = transfersToAlice::add;
+    LogEventListener otherTokenTransfersListener = otherTokenTransfers::add;
+    LogEventListener approvalsListener = approvals::add;
+    underTest.register(transfersToAliceListener, LogFilter.transfers(List.of(TOKEN), null, ALICE));
+    underTest.register(otherTokenTransfersListener,
+        LogFilter.transfers(List.of(OTHER_TOKEN), null, null));
+    underTest.register(approvalsListener,
+        LogFilter.of(List.of(TOKEN), List.of(Set.of(APPROVAL_TOPIC))));
+    givenLogs(List.of(
+        log(TOKEN, LogFilter.TRANSFER_TOPIC, BOB, ALICE, 3, BLOCK_HASH),
+        log(TOKEN, LogFilter.TRANSFER_TOPIC, ALICE, BOB, 2, BLOCK_HASH),
+        log(OTHER_TOKEN, LogFilter.TRANSFER_TOPIC, ALICE, BOB, 0, BLOCK_HASH),
+        log(TOKEN, LogFilter.TRANSFER_TOPIC, BOB, ALICE, 4, "0xb1bis")),
+        List.of(log(TOKEN, APPROVAL_TOPIC, ALICE, BOB, 1, BLOCK_HASH)));
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest.bindTo(meterRegistry);
+    var logs = underTest.logs().test();
+
+    underTest.onNewBlock(block());
+
+    assertThat(logs.values().stream().map(LogEvent::getLogIndex).collect(Collectors.toList()))
+        .withFailMessage("The logs of the block should be read once, in order, "
+            + "but got %s.", logs.values())
+        .containsExactly(0L, 1L, 2L, 3L);
+    for (var logEvent : logs.values()) {
+      underTest.deliver(transfersToAliceListener, logEvent);
+      underTest.deliver(otherTokenTransfersListener, logEvent);
+      underTest.deliver(approvalsListener, logEvent);
+    }
+    assertThat(transfersToAlice).extracting(LogEvent::getLogIndex).containsExactly(3L);
+    assertThat(otherTokenTransfers).extracting(LogEvent::getLogIndex).containsExactly(0L);
+    assertThat(approvals).extracting(LogEvent::getLogIndex).containsExactly(1L);
+    assertThat(meterRegistry.get(LogFilterEngine.RECEIVED_COUNTER).functionCounter().count())
+        .isEqualTo(4);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void logs_readFailedAfterRetries_skipBlock() {
+    underTest.register(logEvent -> { }, LogFilter.transfers(List.of(TOKEN), null, null));
+    var request = mock(Request.class);
+    when(request.sendAsync())
+        .thenReturn(CompletableFuture.failedFuture(new BlockchainException("Unavailable")));
+    doAnswer(invocation -> request).when(web3j).ethGetLogs(any());
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest.bindTo(meterRegistry);
+    var logs = underTest.logs().test();
+
+    underTest.onNewBlock(block());
+    underTest.shutdown();
+
+    logs.awaitDone(5, TimeUnit.SECONDS);
+    assertThat(logs.values()).isEmpty();
+    logs.assertNoErrors();
+    verify(request, times(2)).sendAsync();
+    assertThat(meterRegistry.get(LogFilterEngine.FAILURES_COUNTER).functionCounter().count())
+        .withFailMessage("A block should be skipped once its retries are exhausted.")
+        .isEqualTo(1);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void logs_readFailedOnce_retried() {
+    underTest.register(logEvent -> { }, LogFilter.transfers(List.of(TOKEN), null, null));
+    var ethLog = new EthLog();
+    ethLog.setResult(List.of(log(TOKEN, LogFilter.TRANSFER_TOPIC, ALICE, BOB, 0, BLOCK_HASH)));
+    var request = mock(Request.class);
+    when(request.sendAsync()).thenReturn(
+        CompletableFuture.failedFuture(new BlockchainException("Unavailable")),
+        CompletableFuture.completedFuture(ethLog));
+    doAnswer(invocation -> request).when(web3j).ethGetLogs(any());
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest.bindTo(meterRegistry);
+    var logs = underTest.logs().test();
+
+    underTest.onNewBlock(block());
+
+    logs.awaitCount(1);
+    assertThat(logs.values())
+        .withFailMessage("A failed read should be retried rather than the block skipped.")
+        .extracting(LogEvent::getLogIndex)
+        .containsExactly(0L);
+    assertThat(meterRegistry.get(LogFilterEngine.FAILURES_COUNTER).functionCounter().count())
+        .isEqualTo(0);
+  }
+
+  @Test
+  void logs_noFilter_readNothing() {
+    var logs = underTest.logs().test();
+
+    underTest.onNewBlock(block());
+
+    assertThat(logs.values()).isEmpty();
+    verify(web3j, never()).ethGetLogs(any());
+  }
+
+  /**
+   * Answer the requests of transfers with the given transfer logs and the requests of approvals
+   * with the given approval logs.
+   */
+  @SuppressWarnings("unchecked")
+  private void givenLogs(final List<LogObject> transfers, final List<LogObject> approvals) {
+    doAnswer(invocation -> {
+      EthFilter ethFilter = invocation.getArgument(0);
+      var ethLog = new EthLog();
+      ethLog.setResult((List<LogResult>) (List<?>) (LogFilter.TRANSFER_TOPIC.equals(
+          ethFilter.getTopics().get(0).getValue()) ? transfers : approvals));
+      var request = mock(Request.class);
+      when(request.sendAsync()).thenReturn(CompletableFuture.completedFuture(ethLog));
+      return request;
+    }).when(web3j).ethGetLogs(any());
+  }
+
+  private static LogObject log(final Address address, final String event, final Address from,
+      final Address to, final long logIndex, final String blockHash) {
+    var log = new LogObject();
+    log.setAddress(address.toString());
+    log.setTopics(List.of(event, topic(from), topic(to)));
+    log.setData("0x01");
+    log.setBlockNumber("0x1");
+    log.setBlockHash(blockHash);
+    log.setTransactionHash("0x0" + logIndex);
+    log.setLogIndex(encodeQuantity(BigInteger.valueOf(logIndex)));
+    return log;
+  }
+
+  private static String topic(final Address address) {
+    return "0x" + "0".repeat(24) + address.toString().substring(2);
+  }
+
+  private static BlockEvent block() {
+    var block = new Block();
+    block.setNumber("0x1");
+    block.setHash(BLOCK_HASH);
+    block.setParentHash("0xb0");
+    block.setTransactions(List.of());
+    return BlockEvent.of(block);
+  }
+}
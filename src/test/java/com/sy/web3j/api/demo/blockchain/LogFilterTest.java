@@ -0,0 +1,103 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sy.web3j.api.demo.listener.LogEvent;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link LogFilter}.
+ *
+ * @author selim
+ */
+class LogFilterTest {
+
+  private static final String APPROVAL_TOPIC =
+      "0x8c5be1e5ebec7d5bd14f71427d1e84f3dd0314c0f7b2291e5b200ac8c7c3b925";
+
+  private static final Address TOKEN = Address.parse("0x" + "1".repeat(40));
+
+  private static final Address OTHER_TOKEN = Address.parse("0x" + "2".repeat(40));
+
+  private static final Address ALICE = Address.parse("0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2");
+
+  private static final Address BOB = Address.parse("0xEFF48dBF9b40Dd5bA47Ff52841D359FC1e749491");
+
+  @Test
+  void transfers_matchIndexedAccounts() {
+    var underTest = LogFilter.transfers(List.of(TOKEN), null, ALICE);
+
+    assertThat(underTest.matches(log(TOKEN, LogFilter.TRANSFER_TOPIC, BOB, ALICE))).isTrue();
+    assertThat(underTest.matches(log(TOKEN, LogFilter.TRANSFER_TOPIC, ALICE, BOB)))
+        .withFailMessage("A transfer to another account should not match.")
+        .isFalse();
+    assertThat(underTest.matches(log(OTHER_TOKEN, LogFilter.TRANSFER_TOPIC, BOB, ALICE)))
+        .isFalse();
+    assertThat(underTest.matches(log(TOKEN, APPROVAL_TOPIC, BOB, ALICE))).isFalse();
+  }
+
+  @Test
+  void of_trailingWildcards_matchAnyTopics() {
+    var underTest = LogFilter.of(Set.of(), List.of(Set.of(APPROVAL_TOPIC.toUpperCase()), Set.of()));
+
+    assertThat(underTest.getTopics()).containsExactly(Set.of(APPROVAL_TOPIC));
+    assertThat(underTest.matches(log(OTHER_TOKEN, APPROVAL_TOPIC, BOB, ALICE))).isTrue();
+  }
+
+  @Test
+  void merge_sameEvent_matchBoth() {
+    var transfersToAlice = LogFilter.transfers(List.of(TOKEN), null, ALICE);
+    var transfersFromBob = LogFilter.transfers(List.of(OTHER_TOKEN), BOB, null);
+
+    assertThat(transfersToAlice.overlaps(transfersFromBob)).isTrue();
+
+    var underTest = transfersToAlice.merge(transfersFromBob);
+
+    assertThat(underTest.getAddresses()).containsOnly(TOKEN, OTHER_TOKEN);
+    assertThat(underTest.getTopics())
+        .withFailMessage("The accounts of either side should match any account, but got %s.",
+            underTest.getTopics())
+        .containsExactly(Set.of(LogFilter.TRANSFER_TOPIC));
+    assertThat(underTest.matches(log(TOKEN, LogFilter.TRANSFER_TOPIC, BOB, ALICE))).isTrue();
+    assertThat(underTest.matches(log(OTHER_TOKEN, LogFilter.TRANSFER_TOPIC, BOB, ALICE))).isTrue();
+  }
+
+  @Test
+  void overlaps_otherEvent_false() {
+    var transfers = LogFilter.transfers(List.of(TOKEN), null, null);
+    var approvals = LogFilter.of(List.of(TOKEN), List.of(Set.of(APPROVAL_TOPIC)));
+    var anyLog = LogFilter.of(List.of(TOKEN), List.of());
+
+    assertThat(transfers.overlaps(approvals)).isFalse();
+    assertThat(transfers.overlaps(anyLog))
+        .withFailMessage("A filter of any event should overlap every filter.")
+        .isTrue();
+  }
+
+  @Test
+  void toEthFilter_topicsByPosition() {
+    var underTest = LogFilter.of(List.of(TOKEN),
+        List.of(Set.of(), Set.of(APPROVAL_TOPIC, LogFilter.TRANSFER_TOPIC), Set.of(APPROVAL_TOPIC)));
+
+    var ethFilter = underTest.toEthFilter(42);
+
+    assertThat(ethFilter.getAddress()).containsExactly(TOKEN.toString());
+    assertThat(ethFilter.getFromBlock().getValue()).isEqualTo("0x2a");
+    assertThat(ethFilter.getToBlock().getValue()).isEqualTo("0x2a");
+    assertThat(ethFilter.getTopics()).hasSize(3);
+    assertThat(ethFilter.getTopics().get(0).getValue()).isNull();
+    assertThat(ethFilter.getTopics().get(2).getValue()).isEqualTo(APPROVAL_TOPIC);
+  }
+
+  private static LogEvent log(final Address address, final String event, final Address from,
+      final Address to) {
+    return new LogEvent(address, List.of(event, topic(from), topic(to)), "0x", 1, "0xb1", "0x01", 0,
+        false);
+  }
+
+  private static String topic(final Address address) {
+    return "0x" + "0".repeat(24) + address.toString().substring(2);
+  }
+}
@@ -0,0 +1,233 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.sy.web3j.api.demo.blockchain.NodePoolService.LoadBalancing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+
+/**
+ * Test class for {@link NodePoolService}.
+ *
+ * @author selim
+ */
+@ExtendWith(MockitoExtension.class)
+class NodePoolServiceTest {
+
+  private static final String PRIMARY = "http://primary:8545";
+
+  private static final String REPLICA = "http://replica:8545";
+
+  @Mock
+  private Web3jService primary;
+
+  @Mock
+  private Web3jService replica;
+
+  private NodePoolService underTest;
+
+  private Web3j web3j;
+
+  @BeforeEach
+  void setUp() {
+    start(false);
+  }
+
+  @AfterEach
+  void tearDown() {
+    web3j.shutdown();
+  }
+
+  @Test
+  void sendAsync_reads_areSpreadOverNodes() {
+    when(primary.sendAsync(any(), eq(EthGetBalance.class))).thenReturn(balance());
+    when(replica.sendAsync(any(), eq(EthGetBalance.class))).thenReturn(balance());
+
+    IntStream.range(0, 100).forEach(i -> web3j
+        .ethGetBalance("0x1", DefaultBlockParameterName.LATEST).sendAsync().join());
+
+    verify(primary, atLeastOnce()).sendAsync(any(), eq(EthGetBalance.class));
+    verify(replica, atLeastOnce()).sendAsync(any(), eq(EthGetBalance.class));
+  }
+
+  @Test
+  void sendAsync_writesAndPendingStates_arePinnedToPrimary() {
+    doReturn(CompletableFuture.completedFuture(new EthSendTransaction()))
+        .when(primary).sendAsync(any(), eq(EthSendTransaction.class));
+    doReturn(CompletableFuture.completedFuture(new EthGetTransactionCount()))
+        .when(primary).sendAsync(any(), eq(EthGetTransactionCount.class));
+
+    IntStream.range(0, 10).forEach(i -> {
+      web3j.ethSendTransaction(Transaction.createEtherTransaction("0x1", BigInteger.ZERO,
+          BigInteger.ONE, BigInteger.ONE, "0x2", BigInteger.ONE)).sendAsync().join();
+      web3j.ethGetTransactionCount("0x1", DefaultBlockParameterName.PENDING).sendAsync().join();
+    });
+
+    verify(replica, never()).sendAsync(any(), any());
+  }
+
+  @Test
+  void sendAsync_failingNode_isEjectedAndReadsFailOver() {
+    when(primary.sendAsync(any(), eq(EthGetBalance.class))).thenReturn(balance());
+    when(replica.sendAsync(any(), eq(EthGetBalance.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IOException("Connection refused")));
+
+    var balances = IntStream.range(0, 50)
+        .mapToObj(i -> web3j.ethGetBalance("0x1", DefaultBlockParameterName.LATEST)
+            .sendAsync().join().getBalance());
+
+    assertThat(balances)
+        .withFailMessage("Every read should fail over to the healthy node.")
+        .allMatch(BigInteger.TEN::equals);
+    assertThat(underTest.getHealthyNodes()).containsExactly(PRIMARY);
+  }
+
+  @Test
+  void healthCheck_laggingNode_isEjectedUntilItCatchesUp() {
+    when(primary.sendAsync(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber("0x10"));
+    when(replica.sendAsync(any(), eq(EthBlockNumber.class)))
+        .thenReturn(blockNumber("0x0c"), blockNumber("0x0f"));
+
+    underTest.healthCheck().join();
+    assertThat(underTest.getHealthyNodes())
+        .withFailMessage("A node four blocks behind should be ejected.")
+        .containsExactly(PRIMARY);
+
+    underTest.healthCheck().join();
+    assertThat(underTest.getHealthyNodes()).containsExactly(PRIMARY, REPLICA);
+  }
+
+  @Test
+  void sendAsync_blockAheadOfNode_readFromPrimary() {
+    when(primary.sendAsync(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber("0x10"));
+    when(replica.sendAsync(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber("0x0f"));
+    doAnswer(invocation -> block("0x10")).when(primary).sendAsync(any(), eq(EthBlock.class));
+    doReturn(balance()).when(primary).sendAsync(any(), eq(EthGetBalance.class));
+    underTest.healthCheck().join();
+
+    IntStream.range(0, 20).forEach(i -> {
+      web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(16)), false)
+          .sendAsync().join();
+      web3j.ethGetBalance("0x1", DefaultBlockParameterName.LATEST).sendAsync().join();
+    });
+
+    verify(replica, never()).sendAsync(any(), eq(EthBlock.class));
+    verify(replica, never()).sendAsync(any(), eq(EthGetBalance.class));
+    assertThat(underTest.getHealthyNodes())
+        .withFailMessage("A node one block behind should stay in the pool.")
+        .containsExactly(PRIMARY, REPLICA);
+  }
+
+  @Test
+  void sendAsync_blockUnknownToNode_readFromPrimary() {
+    when(primary.sendAsync(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber("0x10"));
+    when(replica.sendAsync(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber("0x10"));
+    doAnswer(invocation -> block("0x10")).when(primary).sendAsync(any(), eq(EthBlock.class));
+    doAnswer(invocation -> CompletableFuture.completedFuture(new EthBlock()))
+        .when(replica).sendAsync(any(), eq(EthBlock.class));
+    underTest.healthCheck().join();
+
+    var blocks = IntStream.range(0, 20)
+        .mapToObj(i -> web3j.ethGetBlockByHash("0xb16", false).sendAsync().join().getBlock());
+
+    assertThat(blocks)
+        .withFailMessage("A block unknown to a node should be read from the primary.")
+        .allMatch(block -> block != null && block.getNumber().longValue() == 16);
+    verify(replica, atLeastOnce()).sendAsync(any(), eq(EthBlock.class));
+    assertThat(underTest.getHealthyNodes())
+        .withFailMessage("A block unknown to a node should not count as a failure.")
+        .containsExactly(PRIMARY, REPLICA);
+  }
+
+  @Test
+  void sendAsync_slowNode_readsAreHedgedAndLosersCancelled() {
+    web3j.shutdown();
+    start(true);
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest.bindTo(meterRegistry);
+    var slowCalls = new CopyOnWriteArrayList<CompletableFuture<EthGetBalance>>();
+    when(primary.sendAsync(any(), eq(EthGetBalance.class))).thenAnswer(invocation -> balance());
+    when(replica.sendAsync(any(), eq(EthGetBalance.class))).thenAnswer(invocation -> {
+      var slowCall = new CompletableFuture<EthGetBalance>();
+      slowCalls.add(slowCall);
+      return slowCall;
+    });
+
+    var balances = IntStream.range(0, 20)
+        .mapToObj(i -> web3j.ethGetBalance("0x1", DefaultBlockParameterName.LATEST)
+            .sendAsync().join().getBalance());
+
+    assertThat(balances)
+        .withFailMessage("Every read should be answered by the fast node.")
+        .allMatch(BigInteger.TEN::equals);
+    assertThat(slowCalls)
+        .withFailMessage("The calls to the slow node should be cancelled once hedged.")
+        .isNotEmpty()
+        .allMatch(CompletableFuture::isCancelled);
+    assertThat(meterRegistry.get(NodePoolService.HEDGE_WIN_COUNTER).functionCounter().count())
+        .isEqualTo(meterRegistry.get(NodePoolService.HEDGE_COUNTER).functionCounter().count())
+        .isEqualTo(slowCalls.size());
+    assertThat(underTest.getHealthyNodes())
+        .withFailMessage("A cancelled call should not count as a failure.")
+        .containsExactly(PRIMARY, REPLICA);
+  }
+
+  private void start(final boolean hedging) {
+    var services = new LinkedHashMap<String, Web3jService>();
+    services.put(PRIMARY, primary);
+    services.put(REPLICA, replica);
+    underTest = new NodePoolService(services, LoadBalancing.LEAST_OUTSTANDING, 60_000, 3, 2,
+        hedging, 0.95, 50, 50);
+    web3j = Web3j.build(underTest);
+  }
+
+  private static CompletableFuture<EthGetBalance> balance() {
+    var ethGetBalance = new EthGetBalance();
+    ethGetBalance.setResult("0xa");
+    return CompletableFuture.completedFuture(ethGetBalance);
+  }
+
+  private static CompletableFuture<EthBlock> block(final String blockNumber) {
+    var block = new Block();
+    block.setNumber(blockNumber);
+    var ethBlock = new EthBlock();
+    ethBlock.setResult(block);
+    return CompletableFuture.completedFuture(ethBlock);
+  }
+
+  private static CompletableFuture<EthBlockNumber> blockNumber(final String blockNumber) {
+    var ethBlockNumber = new EthBlockNumber();
+    ethBlockNumber.setResult(blockNumber);
+    return CompletableFuture.completedFuture(ethBlockNumber);
+  }
+}
@@ -0,0 +1,142 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link TransactionDeduplicator}.
+ *
+ * @author selim
+ */
+class TransactionDeduplicatorTest {
+
+  private static final String TRANSACTION_HASH =
+      "0x5c504ed432cb51138bcf09aa5e8a410dd4a1e204ef84bfed1be16dfba1b22060";
+
+  private final Random random = new Random(42);
+
+  @Test
+  void add_sameHash_duplicate() {
+    var underTest = new TransactionDeduplicator(10, 64);
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest.bindTo(meterRegistry);
+
+    assertThat(underTest.add(TRANSACTION_HASH, 1)).isTrue();
+
+    assertThat(underTest.add(TRANSACTION_HASH, 1))
+        .withFailMessage("A transaction notified again should be a duplicate.")
+        .isFalse();
+    assertThat(underTest.add(TRANSACTION_HASH.substring(2).toUpperCase(), 2)).isFalse();
+    assertThat(underTest.add(hash(), 2)).isTrue();
+    assertThat(underTest.getSize()).isEqualTo(2);
+    assertThat(meterRegistry.get(TransactionDeduplicator.DUPLICATES_COUNTER).functionCounter()
+        .count()).isEqualTo(2);
+  }
+
+  @Test
+  void add_afterRetention_forgetHash() {
+    var underTest = new TransactionDeduplicator(10, 2);
+    underTest.add(TRANSACTION_HASH, 1);
+    underTest.add(hash(), 2);
+    // A new generation starts, the hash is still remembered.
+    underTest.add(hash(), 3);
+
+    assertThat(underTest.add(TRANSACTION_HASH, 4)).isFalse();
+
+    // Yet another generation starts, the first one is forgotten.
+    underTest.add(hash(), 5);
+
+    assertThat(underTest.add(TRANSACTION_HASH, 5))
+        .withFailMessage("A transaction notified more than two generations ago should be new.")
+        .isTrue();
+  }
+
+  @Test
+  void add_generationFull_forgetOldestHashesEarly() {
+    var underTest = new TransactionDeduplicator(2, 64);
+    underTest.add(TRANSACTION_HASH, 1);
+    for (int i = 0; i < 3; i++) {
+      underTest.add(hash(), 1);
+    }
+
+    assertThat(underTest.getSize()).isEqualTo(4);
+    assertThat(underTest.add(TRANSACTION_HASH, 1)).isFalse();
+
+    underTest.add(hash(), 1);
+
+    assertThat(underTest.getSize())
+        .withFailMessage("No more than two generations of two hashes should be remembered.")
+        .isEqualTo(3);
+    assertThat(underTest.add(TRANSACTION_HASH, 1)).isTrue();
+  }
+
+  @Test
+  void add_manyHashes_rememberAll() {
+    var size = 50_000;
+    var underTest = new TransactionDeduplicator(size, 64);
+    var hashes = new String[size];
+    var added = 0;
+    for (int i = 0; i < size; i++) {
+      hashes[i] = hash();
+      added += underTest.add(hashes[i], 1) ? 1 : 0;
+    }
+    var duplicates = 0;
+    for (var hash : hashes) {
+      duplicates += underTest.add(hash, 2) ? 0 : 1;
+    }
+
+    assertThat(added).isEqualTo(size);
+    assertThat(duplicates)
+        .withFailMessage("Every transaction notified again should be a duplicate.")
+        .isEqualTo(size);
+    assertThat(underTest.getSize()).isEqualTo(size);
+    assertThat(underTest.getMemory())
+        .withFailMessage("The hashes should take two tables of 2^17 slots of 32 bytes.")
+        .isEqualTo(2L * (1 << 17) * 32);
+  }
+
+  @Test
+  void remove_collidingHashes_othersStillFound() {
+    var underTest = new TransactionDeduplicator(4, 64);
+    // Hashes of the same home slot, so that they are probed one after the other.
+    var first = "0x" + "0".repeat(62) + "10";
+    var second = "0x" + "0".repeat(62) + "20";
+    var third = "0x" + "0".repeat(62) + "30";
+    underTest.add(first, 1);
+    underTest.add(second, 1);
+    underTest.add(third, 1);
+
+    underTest.remove(first);
+
+    assertThat(underTest.add(third, 1))
+        .withFailMessage("A hash probed past the removed one should still be found.")
+        .isFalse();
+    assertThat(underTest.add(second, 1)).isFalse();
+    assertThat(underTest.add(first, 1))
+        .withFailMessage("A removed hash should be new again.")
+        .isTrue();
+    assertThat(underTest.getSize()).isEqualTo(3);
+  }
+
+  @Test
+  void add_notTransactionHash_neverDuplicate() {
+    var underTest = new TransactionDeduplicator(10, 64);
+
+    assertThat(underTest.add("0xAB", 1)).isTrue();
+    assertThat(underTest.add("0xAB", 1)).isTrue();
+    assertThat(underTest.add(TRANSACTION_HASH.replace('a', 'g'), 1)).isTrue();
+    assertThat(underTest.add(TRANSACTION_HASH.replace('a', 'g'), 1)).isTrue();
+    assertThat(underTest.getSize()).isZero();
+  }
+
+  private String hash() {
+    var digits = new char[64];
+    for (int i = 0; i < digits.length; i++) {
+      digits[i] = Character.forDigit(random.nextInt(16), 16);
+    }
+    return "0x" + new String(digits);
+  }
+}
@@ -2,11 +2,16 @@ package com.sy.web3j.api.demo.blockchain;
 
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
+import java.util.ArrayList;
+import java.util.List;
 import org.assertj.core.internal.bytebuddy.utility.RandomString;
-import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionObject;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionResult;
 
 /**
- * Return prepared instance {@link Transaction} flowable.
+ * Return prepared instance of flowable of blocks carrying full transaction objects.
  *
  * @author selim
  */
@@ -14,16 +19,36 @@ abstract class TransactionSubscriptionFactory {
 
 
   /**
-   * Returns a subscription that signals a single transaction.
+   * Returns a subscription that signals a block of a single transaction.
    *
-   * @return a new flowable of one transaction.
+   * @return a new flowable of one block of one transaction.
    */
-  public static Flowable<Transaction> monoTransaction() {
+  public static Flowable<EthBlock> monoTransaction() {
+    return transactions(1);
+  }
+
+  /**
+   * Returns a subscription that signals a block of the given number of transactions.
+   *
+   * @param nbOfTransactions the number of transactions.
+   * @return a new flowable of one block of transactions.
+   */
+  public static Flowable<EthBlock> transactions(int nbOfTransactions) {
     return Flowable.create(
         emitter -> {
-          var transaction = new Transaction();
-          transaction.setHash(RandomString.make());
-          emitter.onNext(transaction);
+          List<TransactionResult> transactions = new ArrayList<>();
+          for (int i = 0; i < nbOfTransactions; i++) {
+            var transaction = new TransactionObject();
+            transaction.setHash(RandomString.make());
+            transactions.add(transaction);
+          }
+          var ethBlock = new EthBlock();
+          var block = new Block();
+          block.setHash(RandomString.make());
+          block.setNumber("0x1");
+          block.setTransactions(transactions);
+          ethBlock.setResult(block);
+          emitter.onNext(ethBlock);
         },
         BackpressureStrategy.BUFFER);
   }
@@ -0,0 +1,181 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response.Error;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+
+/**
+ * Test class for {@link TransferEngine}.
+ *
+ * @author selim
+ */
+@ExtendWith(MockitoExtension.class)
+class TransferEngineTest {
+
+  private static final String SENDER_ADDRESS = "0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2";
+
+  private static final String RECIPIENT_ADDRESS = "0xEFF48dBF9b40Dd5bA47Ff52841D359FC1e749491";
+
+  @Mock
+  private Web3j web3j;
+
+  @Mock
+  private Request transactionCountRequest;
+
+  @Mock
+  private Request transactionRequest;
+
+  private TransferEngine underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new TransferEngine(web3j, 1);
+    // Usage of doReturn is explained in BlockchainServiceTest.
+    doReturn(transactionCountRequest)
+        .when(web3j)
+        .ethGetTransactionCount(SENDER_ADDRESS, DefaultBlockParameterName.PENDING);
+    doReturn(transactionRequest)
+        .when(web3j)
+        .ethSendTransaction(any(Transaction.class));
+  }
+
+  @Test
+  void transfer_concurrentTransfers_haveConsecutiveNonces() {
+    when(transactionCountRequest.sendAsync()).thenReturn(transactionCount(5));
+    when(transactionRequest.sendAsync()).thenReturn(sent("0xhash"));
+
+    CompletableFuture.allOf(transfer(), transfer(), transfer()).join();
+    assertThat(sentNonces(3))
+        .withFailMessage("Nonces should be allocated locally from the pending transaction count.")
+        .containsExactly("0x5", "0x6", "0x7");
+    verify(transactionCountRequest, times(1)).sendAsync();
+  }
+
+  @Test
+  void transfer_concurrentTransfers_inFlightAtOnce() {
+    var firstSent = new CompletableFuture<EthSendTransaction>();
+    when(transactionCountRequest.sendAsync()).thenReturn(transactionCount(5));
+    when(transactionRequest.sendAsync()).thenReturn(firstSent, sent("0xhash2"));
+
+    var first = transfer();
+    var second = transfer();
+
+    assertThat(second.join())
+        .withFailMessage("A transfer should not wait for the previous one of the same account.")
+        .isEqualTo("0xhash2");
+    assertThat(first).isNotDone();
+
+    firstSent.complete(sent("0xhash1").join());
+
+    assertThat(first.join()).isEqualTo("0xhash1");
+    assertThat(sentNonces(2)).containsExactly("0x5", "0x6");
+  }
+
+  @Test
+  void transfer_rejectedTransfer_nonceReusedByNextTransfer() {
+    var firstSent = new CompletableFuture<EthSendTransaction>();
+    when(transactionCountRequest.sendAsync()).thenReturn(transactionCount(5));
+    when(transactionRequest.sendAsync())
+        .thenReturn(firstSent, sent("0xhash2"), sent("0xhash3"));
+
+    var rejected = transfer();
+    var inFlight = transfer();
+    firstSent.complete(rejected("insufficient funds").join());
+    var next = transfer();
+
+    assertThatThrownBy(rejected::join).hasCauseInstanceOf(BlockchainException.class);
+    assertThat(inFlight.join()).isEqualTo("0xhash2");
+    assertThat(next.join()).isEqualTo("0xhash3");
+    assertThat(sentNonces(3))
+        .withFailMessage("The nonce of a rejected transfer should fill the gap it left.")
+        .containsExactly("0x5", "0x6", "0x5");
+    verify(transactionCountRequest, times(1)).sendAsync();
+  }
+
+  @Test
+  void transfer_knownTransaction_failWithoutRetry() {
+    when(transactionCountRequest.sendAsync()).thenReturn(transactionCount(5));
+    when(transactionRequest.sendAsync()).thenReturn(rejected("known transaction: 0xhash"));
+
+    assertThatThrownBy(() -> transfer().join())
+        .isInstanceOf(CompletionException.class)
+        .hasCauseInstanceOf(BlockchainException.class);
+    verify(web3j, times(1)).ethSendTransaction(any(Transaction.class));
+    verify(transactionCountRequest, times(1)).sendAsync();
+  }
+
+  @Test
+  void transfer_nonceTooLow_isRetriedWithResyncedNonce() {
+    when(transactionCountRequest.sendAsync())
+        .thenReturn(transactionCount(5), transactionCount(8));
+    when(transactionRequest.sendAsync())
+        .thenReturn(rejected("nonce too low"), sent("0xhash"));
+
+    assertThat(transfer().join()).isEqualTo("0xhash");
+    assertThat(sentNonces(2)).containsExactly("0x5", "0x8");
+  }
+
+  @Test
+  void transfer_rejected_failWithBlockchainException() {
+    when(transactionCountRequest.sendAsync()).thenReturn(transactionCount(5));
+    when(transactionRequest.sendAsync()).thenReturn(rejected("insufficient funds"));
+
+    assertThatThrownBy(() -> transfer().join())
+        .isInstanceOf(CompletionException.class)
+        .hasCauseInstanceOf(BlockchainException.class);
+  }
+
+  private CompletableFuture<String> transfer() {
+    return underTest.transfer(SENDER_ADDRESS, RECIPIENT_ADDRESS, BigInteger.ONE);
+  }
+
+  private List<String> sentNonces(int nbOfTransactions) {
+    var transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
+    verify(web3j, times(nbOfTransactions)).ethSendTransaction(transactionCaptor.capture());
+    return transactionCaptor.getAllValues().stream()
+        .map(Transaction::getNonce)
+        .collect(Collectors.toList());
+  }
+
+  private static CompletableFuture<EthGetTransactionCount> transactionCount(long count) {
+    var transactionCount = new EthGetTransactionCount();
+    transactionCount.setResult("0x" + Long.toHexString(count));
+    return CompletableFuture.completedFuture(transactionCount);
+  }
+
+  private static CompletableFuture<EthSendTransaction> sent(String transactionHash) {
+    var ethSendTransaction = new EthSendTransaction();
+    ethSendTransaction.setResult(transactionHash);
+    return CompletableFuture.completedFuture(ethSendTransaction);
+  }
+
+  private static CompletableFuture<EthSendTransaction> rejected(String message) {
+    var ethSendTransaction = new EthSendTransaction();
+    ethSendTransaction.setError(new Error(-32000, message));
+    return CompletableFuture.completedFuture(ethSendTransaction);
+  }
+}
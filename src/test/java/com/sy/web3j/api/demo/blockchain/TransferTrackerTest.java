@@ -0,0 +1,157 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sy.web3j.api.demo.blockchain.TrackedTransfer.Status;
+import com.sy.web3j.api.demo.listener.TransactionEvent;
+import java.math.BigInteger;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Test class for {@link TransferTracker}.
+ *
+ * @author selim
+ */
+class TransferTrackerTest {
+
+  private static final String TRANSACTION_HASH = "0xAB";
+
+  private TransferTracker underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new TransferTracker(2);
+  }
+
+  @Test
+  void onTransactionConfirmed_thenReceipt_resolvesTrackedTransfer() {
+    underTest.track(TRANSACTION_HASH);
+
+    assertThat(underTest.onTransactionConfirmed(transaction(TRANSACTION_HASH.toLowerCase())))
+        .withFailMessage("The receipt should be read to tell the outcome of the transfer.")
+        .isTrue();
+    assertThat(underTest.find(TRANSACTION_HASH))
+        .hasValueSatisfying(transfer -> assertThat(transfer.getStatus()).isEqualTo(Status.MINED));
+
+    underTest.onReceipt(receipt("0x1"));
+
+    assertThat(underTest.find(TRANSACTION_HASH))
+        .hasValueSatisfying(transfer -> {
+          assertThat(transfer.getStatus()).isEqualTo(Status.CONFIRMED);
+          assertThat(transfer.getBlockNumber()).isEqualTo(7L);
+        });
+    assertThat(underTest.pending(Duration.ZERO))
+        .withFailMessage("A confirmed transfer should not be pending.")
+        .isEmpty();
+  }
+
+  @Test
+  void onReceipt_beforeConfirmation_minedUntilConfirmed() {
+    underTest.track(TRANSACTION_HASH);
+
+    underTest.onReceipt(receipt("0x1"));
+
+    assertThat(underTest.find(TRANSACTION_HASH))
+        .hasValueSatisfying(transfer -> {
+          assertThat(transfer.getStatus()).isEqualTo(Status.MINED);
+          assertThat(transfer.getBlockNumber()).isEqualTo(7L);
+        });
+    assertThat(underTest.pending(Duration.ZERO))
+        .withFailMessage("A mined transfer should be pending until confirmed.")
+        .containsExactly(TRANSACTION_HASH);
+
+    assertThat(underTest.onTransactionConfirmed(transaction(TRANSACTION_HASH))).isFalse();
+    assertThat(underTest.find(TRANSACTION_HASH))
+        .hasValueSatisfying(transfer -> assertThat(transfer.getStatus())
+            .isEqualTo(Status.CONFIRMED));
+  }
+
+  @Test
+  void onReceipt_otherBlockThanConfirmed_ignored() {
+    underTest.track(TRANSACTION_HASH);
+    underTest.onTransactionConfirmed(transaction(TRANSACTION_HASH));
+    var receipt = receipt("0x1");
+    receipt.setBlockHash("0xC");
+
+    underTest.onReceipt(receipt);
+
+    assertThat(underTest.find(TRANSACTION_HASH))
+        .hasValueSatisfying(transfer -> assertThat(transfer.getStatus()).isEqualTo(Status.MINED));
+  }
+
+  @Test
+  void onTransactionConfirmed_ignoresUntrackedTransaction() {
+    underTest.onTransactionConfirmed(transaction(TRANSACTION_HASH));
+
+    assertThat(underTest.find(TRANSACTION_HASH)).isEmpty();
+  }
+
+  @Test
+  void onReceipt_revertedTransaction_failsTransfer() {
+    underTest.track(TRANSACTION_HASH);
+    underTest.onTransactionConfirmed(transaction(TRANSACTION_HASH));
+
+    underTest.onReceipt(receipt("0x0"));
+
+    assertThat(underTest.find(TRANSACTION_HASH))
+        .hasValueSatisfying(transfer -> assertThat(transfer.getStatus()).isEqualTo(Status.FAILED));
+  }
+
+  @Test
+  void onReceipt_receiptWithoutStatus_confirmsTransfer() {
+    underTest.track(TRANSACTION_HASH);
+    underTest.onTransactionConfirmed(transaction(TRANSACTION_HASH));
+
+    // The receipts of the blocks mined before Byzantium have no status.
+    underTest.onReceipt(receipt(null));
+
+    assertThat(underTest.find(TRANSACTION_HASH))
+        .withFailMessage("A receipt without status should not fail the transfer.")
+        .hasValueSatisfying(transfer -> assertThat(transfer.getStatus())
+            .isEqualTo(Status.CONFIRMED));
+  }
+
+  @Test
+  void onTransactionRetracted_confirmedTransfer_pendingAgain() {
+    underTest.track(TRANSACTION_HASH);
+    underTest.onTransactionConfirmed(transaction(TRANSACTION_HASH));
+    underTest.onReceipt(receipt("0x1"));
+
+    underTest.onTransactionRetracted(transaction(TRANSACTION_HASH));
+
+    assertThat(underTest.find(TRANSACTION_HASH))
+        .hasValueSatisfying(transfer -> assertThat(transfer.isPending()).isTrue());
+    assertThat(underTest.pending(Duration.ZERO))
+        .withFailMessage("A retracted transfer should be pending until mined again.")
+        .containsExactly(TRANSACTION_HASH);
+  }
+
+  @Test
+  void track_beyondMaxSize_forgetsOldestTransfer() {
+    underTest.track("0x1");
+    underTest.track("0x2");
+    underTest.track("0x3");
+
+    assertThat(underTest.find("0x1")).isEmpty();
+    assertThat(underTest.pending(Duration.ZERO)).containsExactly("0x2", "0x3");
+  }
+
+  private static TransactionReceipt receipt(final String status) {
+    var receipt = new TransactionReceipt();
+    receipt.setTransactionHash(TRANSACTION_HASH);
+    receipt.setBlockNumber("0x7");
+    receipt.setBlockHash("0xb");
+    receipt.setStatus(status);
+    return receipt;
+  }
+
+  private static TransactionEvent transaction(final String hash) {
+    return new TransactionEvent(hash, "0xB", 7,
+        Address.parse("0x000000000000000000000000000000000000000C"),
+        Address.parse("0x000000000000000000000000000000000000000D"), Wei.of(1), BigInteger.ONE,
+        Wei.of(1), BigInteger.ONE, "0x");
+  }
+}
@@ -0,0 +1,249 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.web3j.utils.Numeric.encodeQuantity;
+
+import com.sy.web3j.api.demo.listener.BlockEvent;
+import com.sy.web3j.api.demo.listener.TransactionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Test class for {@link WatchedAccountIndex}.
+ *
+ * @author selim
+ */
+@ExtendWith(MockitoExtension.class)
+class WatchedAccountIndexTest {
+
+  private static final String SENDER_ADDRESS = "0x5dd4232f1AF576F239D69f77F61Dc08d9Fda4CA2";
+
+  private static final String RECIPIENT_ADDRESS = "0xEFF48dBF9b40Dd5bA47Ff52841D359FC1e749491";
+
+  private static final Address SENDER = Address.parse(SENDER_ADDRESS);
+
+  private static final Address RECIPIENT = Address.parse(RECIPIENT_ADDRESS);
+
+  private static final String TRANSACTION_HASH = "0x01";
+
+  private static final Wei GAS_PRICE = Wei.of(2);
+
+  private static final BigInteger GAS_USED = BigInteger.valueOf(21_000);
+
+  @Mock
+  private Web3j web3j;
+
+  private WatchedAccountIndex underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new WatchedAccountIndex(web3j, List.of(SENDER_ADDRESS, RECIPIENT_ADDRESS),
+        60_000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    underTest.shutdown();
+  }
+
+  @Test
+  void onNewBlock_transfer_applyValueAndGas() {
+    givenAccount(SENDER_ADDRESS, 1_000_000, 5);
+    givenAccount(RECIPIENT_ADDRESS, 0, 0);
+    givenReceipt("0x1");
+
+    underTest.onNewBlock(block(1));
+    underTest.onNewBlock(block(2, transfer(100)));
+
+    assertThat(underTest.getBalance(SENDER))
+        .withFailMessage("The sender should pay the value and the gas of the transfer.")
+        .isEqualTo(Optional.of(Wei.of(1_000_000 - 100 - 42_000)));
+    assertThat(underTest.getTransactionCount(SENDER)).isEqualTo(OptionalLong.of(6));
+    assertThat(underTest.getBalance(RECIPIENT)).isEqualTo(Optional.of(Wei.of(100)));
+    assertThat(underTest.getAppliedBlockNumber()).isEqualTo(2);
+    verify(web3j, times(2)).ethGetBalance(any(), any());
+  }
+
+  @Test
+  void onNewBlock_failedTransfer_applyGasOnly() {
+    givenAccount(SENDER_ADDRESS, 1_000_000, 5);
+    givenAccount(RECIPIENT_ADDRESS, 0, 0);
+    givenReceipt("0x0");
+
+    underTest.onNewBlock(block(1));
+    underTest.onNewBlock(block(2, transfer(100)));
+
+    assertThat(underTest.getBalance(SENDER))
+        .withFailMessage("A failed transfer should only consume its gas.")
+        .isEqualTo(Optional.of(Wei.of(1_000_000 - 42_000)));
+    assertThat(underTest.getBalance(RECIPIENT)).isEqualTo(Optional.of(Wei.ZERO));
+  }
+
+  @Test
+  void onNewBlock_missedBlocks_readAccountsAgain() {
+    givenAccount(SENDER_ADDRESS, 1_000_000, 5);
+    givenAccount(RECIPIENT_ADDRESS, 0, 0);
+
+    underTest.onNewBlock(block(1));
+    underTest.onNewBlock(block(3));
+
+    assertThat(underTest.getAppliedBlockNumber()).isEqualTo(3);
+    verify(web3j, times(4)).ethGetBalance(any(), any());
+  }
+
+  @Test
+  void onNewBlock_blockReplaced_readAccountsAgain() {
+    givenAccount(SENDER_ADDRESS, 1_000_000, 5);
+    givenAccount(RECIPIENT_ADDRESS, 0, 0);
+    givenReceipt("0x1");
+    underTest.onNewBlock(block(1));
+    underTest.onNewBlock(block(2, transfer(100)));
+
+    // The transfer is dropped along with its block.
+    underTest.onNewBlock(block(2, "0xb2b", "0xb1"));
+
+    assertThat(underTest.getBalance(SENDER))
+        .withFailMessage("The transfer of the replaced block should not be applied anymore.")
+        .isEqualTo(Optional.of(Wei.of(1_000_000)));
+    assertThat(underTest.getTransactionCount(SENDER)).isEqualTo(OptionalLong.of(5));
+    verify(web3j, times(4)).ethGetBalance(any(), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void onNewBlock_blockReplaced_readFromBlockchainMeanwhile() {
+    givenAccount(SENDER_ADDRESS, 1_000_000, 5);
+    givenAccount(RECIPIENT_ADDRESS, 0, 0);
+    givenReceipt("0x1");
+    underTest.onNewBlock(block(1));
+    underTest.onNewBlock(block(2, transfer(100)));
+    var pendingRequest = mock(Request.class);
+    when(pendingRequest.sendAsync()).thenReturn(new CompletableFuture<>());
+    doReturn(pendingRequest).when(web3j).ethGetBalance(any(), any(DefaultBlockParameter.class));
+
+    underTest.onNewBlock(block(2, "0xb2b", "0xb1"));
+
+    assertThat(underTest.getBalance(SENDER))
+        .withFailMessage("The balance of a replaced block should not be served.")
+        .isEmpty();
+  }
+
+  @Test
+  void onNewBlock_parentNotApplied_readAccountsAgain() {
+    givenAccount(SENDER_ADDRESS, 1_000_000, 5);
+    givenAccount(RECIPIENT_ADDRESS, 0, 0);
+    underTest.onNewBlock(block(1));
+    underTest.onNewBlock(block(2));
+
+    underTest.onNewBlock(block(3, "0xb3b", "0xb2b"));
+
+    assertThat(underTest.getAppliedBlockNumber()).isEqualTo(3);
+    verify(web3j, times(4)).ethGetBalance(any(), any());
+  }
+
+  @Test
+  void reconcile_outOfSync_readAccountsAgain() {
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest.bindTo(meterRegistry);
+    givenAccount(SENDER_ADDRESS, 1_000_000, 5);
+    givenAccount(RECIPIENT_ADDRESS, 0, 0);
+    underTest.onNewBlock(block(1));
+
+    // The recipient got value from outside of the transactions of the block.
+    givenAccount(RECIPIENT_ADDRESS, 7, 0);
+    underTest.reconcile().blockingAwait();
+
+    assertThat(underTest.getBalance(RECIPIENT)).isEqualTo(Optional.of(Wei.of(7)));
+    assertThat(meterRegistry.get(WatchedAccountIndex.MISMATCHES_COUNTER).functionCounter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void getBalance_notWatched_readFromBlockchain() {
+    givenAccount(SENDER_ADDRESS, 1_000_000, 5);
+    givenAccount(RECIPIENT_ADDRESS, 0, 0);
+    underTest.onNewBlock(block(1));
+
+    assertThat(underTest.getBalance(Address.parse("0x0000000000000000000000000000000000000001")))
+        .isEmpty();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void givenAccount(final String accountAddress, final long balance,
+      final long transactionCount) {
+    var ethGetBalance = new EthGetBalance();
+    ethGetBalance.setResult(encodeQuantity(BigInteger.valueOf(balance)));
+    var balanceRequest = mock(Request.class);
+    when(balanceRequest.sendAsync()).thenReturn(CompletableFuture.completedFuture(ethGetBalance));
+    doReturn(balanceRequest).when(web3j)
+        .ethGetBalance(eq(accountAddress.toLowerCase()), any(DefaultBlockParameter.class));
+
+    var ethGetTransactionCount = new EthGetTransactionCount();
+    ethGetTransactionCount.setResult(encodeQuantity(BigInteger.valueOf(transactionCount)));
+    var transactionCountRequest = mock(Request.class);
+    when(transactionCountRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(ethGetTransactionCount));
+    doReturn(transactionCountRequest).when(web3j)
+        .ethGetTransactionCount(eq(accountAddress.toLowerCase()), any(DefaultBlockParameter.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void givenReceipt(final String status) {
+    var receipt = new TransactionReceipt();
+    receipt.setTransactionHash(TRANSACTION_HASH);
+    receipt.setGasUsed(encodeQuantity(GAS_USED));
+    receipt.setStatus(status);
+    var ethGetTransactionReceipt = new EthGetTransactionReceipt();
+    ethGetTransactionReceipt.setResult(receipt);
+    var receiptRequest = mock(Request.class);
+    when(receiptRequest.sendAsync())
+        .thenReturn(CompletableFuture.completedFuture(ethGetTransactionReceipt));
+    doReturn(receiptRequest).when(web3j).ethGetTransactionReceipt(TRANSACTION_HASH);
+  }
+
+  private static TransactionEvent transfer(final long value) {
+    return new TransactionEvent(TRANSACTION_HASH, "0xb2", 2, SENDER, RECIPIENT, Wei.of(value),
+        GAS_USED, GAS_PRICE, BigInteger.valueOf(5), "0x");
+  }
+
+  private static BlockEvent block(final long number, final TransactionEvent... transactions) {
+    return block(number, "0xb" + number, "0xb" + (number - 1), transactions);
+  }
+
+  private static BlockEvent block(final long number, final String hash, final String parentHash,
+      final TransactionEvent... transactions) {
+    var transactionHashes = Stream.of(transactions)
+        .map(TransactionEvent::getHash)
+        .collect(Collectors.toList());
+    return new BlockEvent(number, hash, parentHash, number,
+        Address.parse("0x0000000000000000000000000000000000000000"), BigInteger.ZERO,
+        BigInteger.ZERO,
+        transactionHashes, List.of(transactions));
+  }
+}
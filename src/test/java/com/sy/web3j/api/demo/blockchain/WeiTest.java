@@ -0,0 +1,117 @@
+package com.sy.web3j.api.demo.blockchain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.web3j.utils.Convert;
+import org.web3j.utils.Convert.Unit;
+import org.web3j.utils.Numeric;
+
+/**
+ * Test class for {@link Wei}.
+ *
+ * @author selim
+ */
+class WeiTest {
+
+  private static final BigInteger MAX = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+
+  /**
+   * The balance of the accounts funded by <code>geth --dev</code>.
+   */
+  private static final BigInteger DEV_BALANCE =
+      BigInteger.ONE.shiftLeft(256).subtract(BigInteger.valueOf(9));
+
+  private static final List<BigInteger> AMOUNTS = amounts();
+
+  @Test
+  void toEther_sameAsConvert() {
+    for (var amount : AMOUNTS) {
+      assertThat(Wei.of(amount).toEther())
+          .withFailMessage("%s wei should be converted to ether as web3j does", amount)
+          .isEqualTo(Convert.fromWei(amount.toString(), Unit.ETHER));
+    }
+  }
+
+  @Test
+  void parseHex_toHexString_sameAsNumeric() {
+    for (var amount : AMOUNTS) {
+      var quantity = Numeric.encodeQuantity(amount);
+
+      assertThat(Wei.parseHex(quantity).toBigInteger()).isEqualTo(amount);
+      assertThat(Wei.of(amount).toHexString()).isEqualTo(quantity);
+    }
+    assertThat(Wei.parseHex("0x00000000000000000000000000000000000000000000000000000000000000ff"))
+        .isEqualTo(Wei.of(255));
+  }
+
+  @Test
+  void toByteArray_sameAsBigInteger() {
+    for (var amount : AMOUNTS) {
+      assertThat(Wei.of(amount).toByteArray()).isEqualTo(amount.toByteArray());
+      assertThat(Wei.fromByteArray(amount.toByteArray()).toBigInteger()).isEqualTo(amount);
+    }
+  }
+
+  @Test
+  void arithmetic_sameAsBigInteger() {
+    var random = new Random(42);
+    for (var amount : AMOUNTS) {
+      var other = new BigInteger(random.nextInt(128), random);
+      var factor = random.nextInt(100_000);
+      var sum = amount.add(other);
+      var product = amount.multiply(BigInteger.valueOf(factor));
+
+      assertThat(Wei.of(amount).add(Wei.of(other)).toBigInteger()).isEqualTo(sum);
+      assertThat(Wei.of(sum).subtract(Wei.of(other)).toBigInteger()).isEqualTo(amount);
+      assertThat(Wei.of(amount).multiply(factor).toBigInteger()).isEqualTo(product);
+    }
+  }
+
+  @Test
+  void arithmetic_beyond128Bits_sameAsBigInteger() {
+    var max = Wei.of(MAX);
+    var devBalance = Wei.parseHex(Numeric.encodeQuantity(DEV_BALANCE));
+
+    assertThat(max.add(Wei.of(1)))
+        .withFailMessage("An amount beyond 128 bits should be held as a big integer.")
+        .isEqualTo(Wei.parseHex("0x1" + "0".repeat(32)));
+    assertThat(max.add(Wei.of(1)).subtract(Wei.of(1))).isEqualTo(max);
+    assertThat(max.multiply(2).toBigInteger()).isEqualTo(MAX.shiftLeft(1));
+    assertThat(devBalance).isEqualTo(Wei.of(DEV_BALANCE)).isGreaterThan(max);
+    assertThat(devBalance.toEther())
+        .isEqualTo(Convert.fromWei(DEV_BALANCE.toString(), Unit.ETHER));
+  }
+
+  @Test
+  void arithmetic_negative_throwArithmeticException() {
+    assertThatThrownBy(() -> Wei.ZERO.subtract(Wei.of(1)))
+        .isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(() -> Wei.of(1).subtract(Wei.of(MAX.add(BigInteger.ONE))))
+        .isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(() -> Wei.of(BigInteger.ONE.negate()))
+        .isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(() -> Wei.fromByteArray(new byte[] {-1}))
+        .isInstanceOf(ArithmeticException.class);
+  }
+
+  private static List<BigInteger> amounts() {
+    var random = new Random(7);
+    var fixed = Stream.of("0", "1", "10", "1000000000000000000", "1500000000000000000",
+        "9223372036854775807", "9223372036854775808", "18446744073709551616",
+        "3000000000000000000000000", "2999996999874000000000000", "123456789012345678901234567")
+        .map(BigInteger::new);
+    var extremes = Stream.of(MAX, MAX.shiftRight(1), BigInteger.ONE.shiftLeft(127),
+        MAX.add(BigInteger.ONE), DEV_BALANCE);
+    var randoms = Stream.generate(() -> new BigInteger(random.nextInt(129), random)).limit(1000);
+    return Stream.of(fixed, extremes, randoms)
+        .flatMap(amounts -> amounts)
+        .collect(Collectors.toList());
+  }
+}
@@ -1,19 +1,32 @@
 package com.sy.web3j.api.demo.blockchain.web;
 
 import static com.sy.web3j.api.demo.blockchain.web.FundTransferRequestFactory.sendTenEther;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.sy.web3j.api.demo.blockchain.AccountBalance;
+import com.sy.web3j.api.demo.blockchain.BlockchainException;
 import com.sy.web3j.api.demo.blockchain.BlockchainService;
+import com.sy.web3j.api.demo.blockchain.FundTransfer;
+import com.sy.web3j.api.demo.blockchain.TrackedTransfer;
+import com.sy.web3j.api.demo.blockchain.TransferJob;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.Flowable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
@@ -29,6 +42,9 @@ class BlockchainControllerTest {
 
   static final String TEST_ACCOUNT = "0x64ba2c532c23c0a935834d16020f5c1e026aaa00";
 
+  static final String TEST_TRANSACTION =
+      "0x8e5200c7ea78a2eb82a83652a5864ddd4bb228f842a945fb593d0075dcb2f442";
+
   @Autowired
   MockMvc mockMvc;
 
@@ -39,11 +55,15 @@ class BlockchainControllerTest {
   @SneakyThrows
   void getTransactionsCount() {
     when(blockchainService
-        .getTransactionsCount(TEST_ACCOUNT))
-        .thenReturn(BigInteger.TEN);
+        .getTransactionsCountAsync(TEST_ACCOUNT))
+        .thenReturn(CompletableFuture.completedFuture(BigInteger.TEN));
 
-    mockMvc
+    var result = mockMvc
         .perform(get("/transactions/{account}/count", TEST_ACCOUNT))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc
+        .perform(asyncDispatch(result))
         .andDo(print())
         .andExpect(status().isOk())
         .andExpect(content().string("10"));
@@ -53,11 +73,15 @@ class BlockchainControllerTest {
   @SneakyThrows
   void getAccountBalance() {
     when(blockchainService
-        .getBalance(TEST_ACCOUNT))
-        .thenReturn(BigDecimal.TEN);
+        .getBalanceAsync(TEST_ACCOUNT))
+        .thenReturn(CompletableFuture.completedFuture(BigDecimal.TEN));
 
-    mockMvc
+    var result = mockMvc
         .perform(get("/accounts/{account}/balance", TEST_ACCOUNT))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc
+        .perform(asyncDispatch(result))
         .andDo(print())
         .andExpect(status().isOk())
         .andExpect(content().string("10"));
@@ -65,13 +89,68 @@ class BlockchainControllerTest {
 
   @Test
   @SneakyThrows
-  void getAccounts() {
+  void getAccountBalance_onFailure_isConflict() {
+    when(blockchainService
+        .getBalanceAsync(TEST_ACCOUNT))
+        .thenReturn(CompletableFuture.failedFuture(new BlockchainException("Node is down")));
+
+    var result = mockMvc
+        .perform(get("/accounts/{account}/balance", TEST_ACCOUNT))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andDo(print())
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  @SneakyThrows
+  void getAccountBalances() {
     when(blockchainService
-        .getUnlockedAccounts())
-        .thenReturn(List.of(TEST_ACCOUNT));
+        .getBalances(List.of(TEST_ACCOUNT)))
+        .thenReturn(Flowable.just(AccountBalance.of(TEST_ACCOUNT, BigDecimal.TEN)));
 
+    var result = mockMvc
+        .perform(post("/accounts/balances")
+            .contentType("application/json")
+            .content(new ObjectMapper()
+                .writeValueAsString(new AccountBalancesRequest(List.of(TEST_ACCOUNT)))))
+        .andExpect(request().asyncStarted())
+        .andReturn();
     mockMvc
+        .perform(asyncDispatch(result))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(content().string(
+            "{\"accountAddress\":\"" + TEST_ACCOUNT + "\",\"balanceInEther\":10}\n"));
+  }
+
+  @Test
+  @SneakyThrows
+  void getAccountBalances_withoutAccounts_isBadRequest() {
+    mockMvc
+        .perform(post("/accounts/balances")
+            .contentType("application/json")
+            .content(new ObjectMapper()
+                .writeValueAsString(new AccountBalancesRequest(List.of()))))
+        .andDo(print())
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @SneakyThrows
+  void getAccounts() {
+    when(blockchainService
+        .getUnlockedAccountsAsync())
+        .thenReturn(CompletableFuture.completedFuture(List.of(TEST_ACCOUNT)));
+
+    var result = mockMvc
         .perform(get("/accounts"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc
+        .perform(asyncDispatch(result))
         .andDo(print())
         .andExpect(status().isOk())
         .andExpect(content().string("[\""+TEST_ACCOUNT+"\"]"));
@@ -81,16 +160,79 @@ class BlockchainControllerTest {
   @SneakyThrows
   void fundTransfer() {
     var fundTransfer = sendTenEther();
-    doNothing()
-        .when(blockchainService)
+    when(blockchainService
         .transferFund(fundTransfer.getFromAccountAddress(),
             fundTransfer.getToAccountAddress(),
-            fundTransfer.getAmountInEther());
+            fundTransfer.getAmountInEther()))
+        .thenReturn(CompletableFuture.completedFuture(TEST_TRANSACTION));
 
-    mockMvc.perform(post("/transactions")
+    var result = mockMvc.perform(post("/transactions")
         .contentType("application/json")
         .content(new ObjectMapper().writeValueAsString(fundTransfer)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andDo(print())
+        .andExpect(status().isAccepted())
+        .andExpect(content().string(TEST_TRANSACTION));
+  }
+
+  @Test
+  @SneakyThrows
+  void getTransferStatus() {
+    when(blockchainService.getTransferStatus(TEST_TRANSACTION))
+        .thenReturn(Optional.of(TrackedTransfer.pending(TEST_TRANSACTION)));
+
+    mockMvc.perform(get("/transactions/{transactionHash}/status", TEST_TRANSACTION))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.transactionHash").value(TEST_TRANSACTION))
+        .andExpect(jsonPath("$.status").value("PENDING"))
+        .andExpect(jsonPath("$.blockNumber").doesNotExist());
+  }
+
+  @Test
+  @SneakyThrows
+  void fundTransfers() {
+    var fundTransfer = sendTenEther();
+    var transferJob = new TransferJob(List.of(new FundTransfer(
+        fundTransfer.getFromAccountAddress(),
+        fundTransfer.getToAccountAddress(),
+        fundTransfer.getAmountInEther())));
+    when(blockchainService.submitTransfers(any())).thenReturn(transferJob);
+
+    mockMvc.perform(post("/transactions/batch")
+        .contentType("application/json")
+        .content(new ObjectMapper().writeValueAsString(
+            new FundTransfersRequest(List.of(fundTransfer)))))
+        .andDo(print())
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.jobId").value(transferJob.getJobId()))
+        .andExpect(jsonPath("$.items[0].status").value("PENDING"));
+  }
+
+  @Test
+  @SneakyThrows
+  void fundTransfers_rejectsInvalidTransfer() {
+    var invalidTransfer = new FundTransferRequest(TEST_ACCOUNT, "", BigDecimal.ONE);
+
+    mockMvc.perform(post("/transactions/batch")
+        .contentType("application/json")
+        .content(new ObjectMapper().writeValueAsString(
+            new FundTransfersRequest(List.of(sendTenEther(), invalidTransfer)))))
+        .andDo(print())
+        .andExpect(status().isBadRequest());
+    verify(blockchainService, never()).submitTransfers(any());
+  }
+
+  @Test
+  @SneakyThrows
+  void getFundTransfers_unknownJob() {
+    when(blockchainService.getTransferJob("unknown")).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/transactions/batch/{jobId}", "unknown"))
         .andDo(print())
-        .andExpect(status().isAccepted());
+        .andExpect(status().isNotFound());
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.sy.web3j.api.demo.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sy.web3j.api.demo.blockchain.Address;
+import com.sy.web3j.api.demo.blockchain.Wei;
+import java.math.BigInteger;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionHash;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionObject;
+
+/**
+ * Test class for {@link BlockEvent}.
+ *
+ * @author selim
+ */
+class BlockEventTest {
+
+  private static final String FROM_ADDRESS = "0x5dd4232f1af576f239d69f77f61dc08d9fda4ca2";
+
+  private static final String TO_ADDRESS = "0xeff48dbf9b40dd5ba47ff52841d359fc1e749491";
+
+  @Test
+  void of_blockWithTransactionHashes_hasNoTransactionContent() {
+    var block = block();
+    block.setTransactions(List.of(new TransactionHash("0xt1"), new TransactionHash("0xt2")));
+
+    var blockEvent = BlockEvent.of(block);
+    assertThat(blockEvent.getNumber()).isEqualTo(16L);
+    assertThat(blockEvent.getTimestamp()).isEqualTo(1_552_479_363L);
+    assertThat(blockEvent.getGasUsed()).isEqualTo(BigInteger.valueOf(21_000));
+    assertThat(blockEvent.getTransactionHashes()).containsExactly("0xt1", "0xt2");
+    assertThat(blockEvent.getTransactions()).isEmpty();
+  }
+
+  @Test
+  void of_blockWithTransactionObjects_hasTransactionContent() {
+    var block = block();
+    var transaction = new TransactionObject();
+    transaction.setHash("0xt1");
+    transaction.setBlockNumber("0x10");
+    transaction.setFrom(FROM_ADDRESS);
+    transaction.setTo(TO_ADDRESS);
+    transaction.setValue("0xde0b6b3a7640000");
+    transaction.setGasPrice("0x77359400");
+    block.setTransactions(List.of(transaction));
+
+    var blockEvent = BlockEvent.of(block);
+    assertThat(blockEvent.getTransactionHashes()).containsExactly("0xt1");
+    assertThat(blockEvent.getTransactions())
+        .extracting("hash", "blockNumber", "from", "to", "value")
+        .containsExactly(org.assertj.core.groups.Tuple.tuple("0xt1", 16L,
+            Address.parse(FROM_ADDRESS), Address.parse(TO_ADDRESS),
+            Wei.of(new BigInteger("1000000000000000000"))));
+  }
+
+  @Test
+  void of_valueBeyond128Bits_mapped() {
+    var block = block();
+    var transaction = new TransactionObject();
+    transaction.setHash("0xt1");
+    transaction.setFrom(FROM_ADDRESS);
+    transaction.setValue("0x" + "f".repeat(63) + "7");
+    transaction.setGasPrice("0x" + "f".repeat(64));
+    block.setTransactions(List.of(transaction));
+
+    var blockEvent = BlockEvent.of(block);
+    assertThat(blockEvent.getTransactions().get(0).getValue().toBigInteger())
+        .withFailMessage("Any 256-bit value should be mapped.")
+        .isEqualTo(BigInteger.ONE.shiftLeft(256).subtract(BigInteger.valueOf(9)));
+  }
+
+  private Block block() {
+    var block = new Block();
+    block.setNumber("0x10");
+    block.setHash("0xb16");
+    block.setParentHash("0xb15");
+    block.setTimestamp("0x5c88f483");
+    block.setGasUsed("0x5208");
+    return block;
+  }
+}
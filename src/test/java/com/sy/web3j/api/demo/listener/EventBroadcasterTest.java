@@ -0,0 +1,136 @@
+package com.sy.web3j.api.demo.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sy.web3j.api.demo.blockchain.BlockchainService;
+import com.sy.web3j.api.demo.listener.EventBroadcaster.BroadcastEvent;
+import com.sy.web3j.api.demo.listener.EventBroadcaster.Type;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.core.methods.response.Transaction;
+
+/**
+ * Test class for {@link EventBroadcaster}.
+ *
+ * @author selim
+ */
+@ExtendWith(MockitoExtension.class)
+class EventBroadcasterTest {
+
+  @Mock
+  private BlockchainService blockchainService;
+
+  private EventBroadcaster underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new EventBroadcaster(blockchainService, 4, 0, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    underTest.shutdown();
+  }
+
+  @Test
+  void events_areDeliveredToEverySubscriberOfTheirType() {
+    var blocks = underTest.events(Set.of(Type.BLOCK)).test();
+    var all = underTest.events(Set.of(Type.BLOCK, Type.TRANSACTION)).test();
+
+    underTest.onNewBlock(block(1));
+    underTest.onTransactionConfirmed(transaction("0xa"));
+
+    blocks.awaitCount(1);
+    all.awaitCount(2);
+    assertThat(blocks.values())
+        .extracting(BroadcastEvent::getType)
+        .withFailMessage("A block subscriber should only receive blocks.")
+        .containsExactly(Type.BLOCK);
+    assertThat(all.values())
+        .extracting(BroadcastEvent::getId)
+        .containsExactlyInAnyOrder("0x1", "0xa");
+  }
+
+  @Test
+  @SneakyThrows
+  void events_slowSubscriber_dropsOldestEventsWithoutStallingOthers() {
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest.bindTo(meterRegistry);
+    var release = new CountDownLatch(1);
+    var slow = underTest.events(Set.of(Type.BLOCK))
+        .doOnNext(event -> release.await())
+        .test();
+    var fast = underTest.events(Set.of(Type.BLOCK)).test();
+
+    for (int i = 1; i <= 100; i++) {
+      underTest.onNewBlock(block(i));
+      fast.awaitCount(i);
+    }
+    assertThat(fast.values())
+        .withFailMessage("A fast subscriber should receive every event.")
+        .hasSize(100);
+    release.countDown();
+    underTest.shutdown();
+    slow.awaitDone(5, TimeUnit.SECONDS);
+
+    var received = slow.values().stream()
+        .map(BroadcastEvent::getId)
+        .collect(Collectors.toList());
+    assertThat(received.size())
+        .withFailMessage("A slow subscriber should only receive its bounded buffer.")
+        .isLessThan(10);
+    assertThat(received)
+        .withFailMessage("A slow subscriber should receive the first and latest events.")
+        .startsWith("0x1")
+        .endsWith("0x100");
+    assertThat(meterRegistry.get(EventBroadcaster.DROPPED_COUNTER).functionCounter().count())
+        .isEqualTo(100 - received.size());
+  }
+
+  @Test
+  void shutdown_streamsAreCompleted() {
+    var events = underTest.events(Set.of(Type.BLOCK, Type.TRANSACTION)).test();
+    assertThat(underTest.getSubscribers()).isEqualTo(1);
+
+    underTest.shutdown();
+
+    events.awaitDone(5, TimeUnit.SECONDS).assertComplete();
+    // The subscriber is counted out once the completion is delivered.
+    awaitNoSubscriber();
+    assertThat(underTest.getSubscribers())
+        .withFailMessage("There should not be any subscriber left.")
+        .isZero();
+  }
+
+  @SneakyThrows
+  private void awaitNoSubscriber() {
+    var deadline = System.currentTimeMillis() + 5_000;
+    while (underTest.getSubscribers() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static BlockEvent block(final int number) {
+    var block = new Block();
+    block.setNumber("0x" + Integer.toHexString(number));
+    block.setHash("0x" + number);
+    return BlockEvent.of(block);
+  }
+
+  private static TransactionEvent transaction(final String hash) {
+    var transaction = new Transaction();
+    transaction.setHash(hash);
+    return TransactionEvent.of(transaction);
+  }
+}
@@ -0,0 +1,171 @@
+package com.sy.web3j.api.demo.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.web3j.utils.Numeric.encodeQuantity;
+import static org.web3j.utils.Numeric.toHexStringWithPrefixZeroPadded;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+import org.web3j.protocol.core.methods.response.EthBlock.Block;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionObject;
+import org.web3j.protocol.core.methods.response.EthBlock.TransactionResult;
+
+/**
+ * Test class for {@link EventJournal}.
+ *
+ * @author selim
+ */
+class EventJournalTest {
+
+  private static final int SEGMENT_SIZE = 1024;
+
+  private Path directory;
+
+  private EventJournal underTest;
+
+  private final List<BlockEvent> blocks = new ArrayList<>();
+
+  private final List<TransactionEvent> transactions = new ArrayList<>();
+
+  @BeforeEach
+  @SneakyThrows
+  void setUp() {
+    directory = Files.createTempDirectory("journal");
+    underTest = new EventJournal(directory, SEGMENT_SIZE);
+  }
+
+  @AfterEach
+  @SneakyThrows
+  void tearDown() {
+    underTest.close();
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Test
+  void replay_fromBlockNumber_deliversBlocksAndTransactionsInOrder() {
+    var journaled = IntStream.rangeClosed(1, 20)
+        .mapToObj(EventJournalTest::block)
+        .peek(underTest::append)
+        .collect(Collectors.toList());
+
+    var replayed = underTest.replay(15, blocks::add, transactions::add);
+
+    assertThat(replayed).isEqualTo(6);
+    assertThat(blocks)
+        .withFailMessage("The blocks should be replayed unchanged from the requested block.")
+        .isEqualTo(journaled.subList(14, 20));
+    assertThat(transactions)
+        .isEqualTo(journaled.subList(14, 20).stream()
+            .flatMap(blockEvent -> blockEvent.getTransactions().stream())
+            .collect(Collectors.toList()));
+    assertThat(Files.exists(directory.resolve(String.format("%010d.log", 1))))
+        .withFailMessage("The journal should span several segments.")
+        .isTrue();
+  }
+
+  @Test
+  @SneakyThrows
+  void append_outdatedBlock_isIgnored() {
+    underTest.append(block(2));
+    underTest.append(block(1));
+    underTest.append(block(2));
+
+    assertThat(underTest.getSize()).isEqualTo(1);
+    assertThat(underTest.replay(0, blocks::add, transactions::add)).isEqualTo(1);
+  }
+
+  @Test
+  @SneakyThrows
+  void truncate_fromBlockNumber_blocksReplacedOnReopen() {
+    IntStream.rangeClosed(1, 20).mapToObj(EventJournalTest::block).forEach(underTest::append);
+
+    assertThat(underTest.truncate(2)).isEqualTo(19);
+    underTest.append(block(2));
+    underTest.close();
+    underTest = new EventJournal(directory, SEGMENT_SIZE);
+
+    assertThat(underTest.replay(0, blocks::add, transactions::add)).isEqualTo(2);
+    assertThat(blocks)
+        .withFailMessage("The blocks truncated should be gone for good, but got %s.", blocks)
+        .extracting(BlockEvent::getNumber)
+        .containsExactly(1L, 2L);
+    assertThat(Files.exists(directory.resolve(String.format("%010d.log", 1)))).isFalse();
+  }
+
+  @Test
+  @SneakyThrows
+  void open_afterCrash_unindexedRecordsAreRecoveredAndTornRecordsDiscarded() {
+    IntStream.rangeClosed(1, 3).mapToObj(EventJournalTest::block).forEach(underTest::append);
+    underTest.close();
+    // The index entries of the last two blocks are lost and the last record is torn.
+    try (var index = FileChannel.open(directory.resolve(EventJournal.INDEX_FILE),
+        StandardOpenOption.WRITE);
+        var segment = FileChannel.open(directory.resolve(String.format("%010d.log", 0)),
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      index.truncate(16);
+      var header = ByteBuffer.allocate(4);
+      var offset = 0L;
+      for (int i = 0; i < 2; i++) {
+        segment.read(header.clear(), offset);
+        offset += 8 + header.flip().getInt();
+      }
+      segment.write(ByteBuffer.wrap(new byte[] {42}), offset + 20);
+    }
+
+    underTest = new EventJournal(directory, SEGMENT_SIZE);
+    assertThat(underTest.getLastBlockNumber())
+        .withFailMessage("Only the intact records should be recovered.")
+        .hasValue(2);
+    underTest.append(block(3));
+    underTest.replay(0, blocks::add, transactions::add);
+    assertThat(blocks)
+        .extracting(BlockEvent::getNumber)
+        .containsExactly(1L, 2L, 3L);
+  }
+
+  private static BlockEvent block(final int number) {
+    var block = new Block();
+    var hash = hash(number);
+    block.setNumber(encodeQuantity(BigInteger.valueOf(number)));
+    block.setHash(hash);
+    block.setParentHash(hash(number - 1));
+    block.setTimestamp(encodeQuantity(BigInteger.valueOf(1_550_000_000L + number)));
+    block.setMiner(toHexStringWithPrefixZeroPadded(BigInteger.ONE, 40));
+    block.setGasUsed(encodeQuantity(BigInteger.valueOf(42_000)));
+    block.setGasLimit(encodeQuantity(BigInteger.valueOf(6_721_975)));
+    List<TransactionResult> transactions = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      var transaction = new TransactionObject();
+      transaction.setHash(hash(number * 100 + i));
+      transaction.setBlockHash(hash);
+      transaction.setBlockNumber(block.getNumberRaw());
+      transaction.setFrom(toHexStringWithPrefixZeroPadded(BigInteger.valueOf(number), 40));
+      transaction.setTo(i == 0 ? toHexStringWithPrefixZeroPadded(BigInteger.TEN, 40) : null);
+      transaction.setValue(encodeQuantity(BigInteger.TEN.pow(18)));
+      transaction.setGas(encodeQuantity(BigInteger.valueOf(21_000)));
+      transaction.setGasPrice(encodeQuantity(BigInteger.valueOf(20_000_000_000L)));
+      transaction.setNonce(encodeQuantity(BigInteger.valueOf(i)));
+      transaction.setInput(i == 0 ? "0x" : "0x60806040");
+      transactions.add(transaction);
+    }
+    block.setTransactions(transactions);
+    return BlockEvent.of(block);
+  }
+
+  private static String hash(final int value) {
+    return toHexStringWithPrefixZeroPadded(BigInteger.valueOf(value), 64);
+  }
+}
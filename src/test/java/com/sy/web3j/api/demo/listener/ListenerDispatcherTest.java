@@ -0,0 +1,164 @@
+package com.sy.web3j.api.demo.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sy.web3j.api.demo.listener.ListenerDispatcher.OverflowPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link ListenerDispatcher}.
+ *
+ * @author selim
+ */
+class ListenerDispatcherTest {
+
+  private final List<String> received = new CopyOnWriteArrayList<>();
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private ListenerDispatcher<BlockListener, String> underTest;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    underTest.shutdown();
+  }
+
+  @Test
+  @SneakyThrows
+  void dispatch_eventIsDeliveredToEveryListener() {
+    underTest = dispatcher(OverflowPolicy.BLOCK);
+    var nbOfBlocks = new CountDownLatch(2);
+    underTest.register(blockHash -> nbOfBlocks.countDown());
+    underTest.register(blockHash -> nbOfBlocks.countDown());
+
+    underTest.dispatch("0x1");
+    assertThat(nbOfBlocks.await(5, TimeUnit.SECONDS))
+        .withFailMessage("Every listener should receive the block.")
+        .isTrue();
+  }
+
+  @Test
+  @SneakyThrows
+  void dispatch_slowListener_doesNotStallOtherListeners() {
+    underTest = new ListenerDispatcher<>("test", 16, OverflowPolicy.BLOCK, 1,
+        BlockListener::onNewBlock);
+    var nbOfBlocks = new CountDownLatch(10);
+    underTest.register(slowListener(new CountDownLatch(1)));
+    underTest.register(blockHash -> nbOfBlocks.countDown());
+
+    for (int i = 0; i < 10; i++) {
+      underTest.dispatch("0x" + i);
+    }
+    assertThat(nbOfBlocks.await(5, TimeUnit.SECONDS))
+        .withFailMessage("The fast listener should receive every block.")
+        .isTrue();
+  }
+
+  @Test
+  @SneakyThrows
+  void dispatch_bufferIsFull_dropOldest() {
+    underTest = dispatcher(OverflowPolicy.DROP_OLDEST);
+    var started = new CountDownLatch(1);
+    underTest.register(slowListener(started));
+
+    underTest.dispatch("0x0");
+    started.await(5, TimeUnit.SECONDS);
+    for (int i = 1; i <= 4; i++) {
+      underTest.dispatch("0x" + i);
+    }
+    assertThat(underTest.stats())
+        .extracting("lag", "dropped")
+        .containsExactly(org.assertj.core.groups.Tuple.tuple(2, 2L));
+
+    release.countDown();
+    awaitDelivered(3);
+    assertThat(received).containsExactly("0x0", "0x3", "0x4");
+  }
+
+  @Test
+  @SneakyThrows
+  void dispatch_bufferIsFull_sample() {
+    underTest = dispatcher(OverflowPolicy.SAMPLE);
+    var started = new CountDownLatch(1);
+    underTest.register(slowListener(started));
+
+    underTest.dispatch("0x0");
+    started.await(5, TimeUnit.SECONDS);
+    for (int i = 1; i <= 6; i++) {
+      underTest.dispatch("0x" + i);
+    }
+
+    release.countDown();
+    awaitDelivered(3);
+    // 0x3 and 0x5 overflow and are dropped, 0x4 and 0x6 are sampled in place of the oldest.
+    assertThat(received).containsExactly("0x0", "0x4", "0x6");
+  }
+
+  @Test
+  @SneakyThrows
+  void unregister_listenerIsNotCalledAnymore() {
+    underTest = dispatcher(OverflowPolicy.BLOCK);
+    final BlockListener listener = received::add;
+    underTest.register(listener);
+
+    underTest.unregister(listener);
+    underTest.dispatch("0x1");
+    assertThat(underTest.getListeners()).isEmpty();
+    assertThat(received).isEmpty();
+  }
+
+  @Test
+  @SneakyThrows
+  void bindTo_callbacksAreMeasuredUntilUnregistered() {
+    var meterRegistry = new SimpleMeterRegistry();
+    underTest = dispatcher(OverflowPolicy.BLOCK);
+    final BlockListener listener = received::add;
+    underTest.register(listener);
+
+    underTest.bindTo(meterRegistry);
+    underTest.dispatch("0x1");
+    awaitDelivered(1);
+    assertThat(meterRegistry.get(ListenerDispatcher.CALLBACK_TIMER)
+        .tag("dispatcher", "test")
+        .timer()
+        .count())
+        .isEqualTo(1);
+
+    underTest.unregister(listener);
+    assertThat(meterRegistry.find(ListenerDispatcher.CALLBACK_TIMER).timers())
+        .withFailMessage("The measures of an unregistered listener should be removed.")
+        .isEmpty();
+  }
+
+  private ListenerDispatcher<BlockListener, String> dispatcher(OverflowPolicy overflowPolicy) {
+    return new ListenerDispatcher<>("test", 2, overflowPolicy, 2, BlockListener::onNewBlock);
+  }
+
+  private BlockListener slowListener(CountDownLatch started) {
+    return blockHash -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      received.add(blockHash);
+    };
+  }
+
+  @SneakyThrows
+  private void awaitDelivered(int nbOfEvents) {
+    var deadline = System.currentTimeMillis() + 5_000;
+    while (received.size() < nbOfEvents && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.sy.web3j.api.demo.mocknode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.http.HttpService;
+
+/**
+ * Test class for {@link MockNode} through {@link MockNodeHttpServer}.
+ *
+ * @author selim
+ */
+class MockNodeTest {
+
+  private MockNode mockNode;
+
+  private MockNodeHttpServer mockNodeHttpServer;
+
+  private Web3j web3j;
+
+  @AfterEach
+  void tearDown() {
+    web3j.shutdown();
+    mockNodeHttpServer.stop();
+    mockNode.stop();
+  }
+
+  @Test
+  @SneakyThrows
+  void sendTransaction_isMinedInTheNextBlock() {
+    start(0);
+    var accounts = web3j.ethAccounts().send().getAccounts();
+    var transactionHash = web3j
+        .ethSendTransaction(Transaction.createEtherTransaction(accounts.get(0), BigInteger.ZERO,
+            BigInteger.ONE, BigInteger.valueOf(21_000), accounts.get(1), BigInteger.TEN))
+        .send()
+        .getTransactionHash();
+
+    assertThat(web3j.ethGetTransactionReceipt(transactionHash).send().getTransactionReceipt())
+        .withFailMessage("The transaction should not be mined before the next block.")
+        .isEmpty();
+    assertThat(web3j.ethGetTransactionCount(accounts.get(0), DefaultBlockParameterName.PENDING)
+        .send().getTransactionCount())
+        .isEqualTo(BigInteger.ONE);
+
+    mockNode.mine();
+
+    assertThat(web3j.ethGetTransactionReceipt(transactionHash).send().getTransactionReceipt())
+        .hasValueSatisfying(receipt -> assertThat(receipt.getBlockNumber())
+            .isEqualTo(BigInteger.ONE));
+    assertThat(web3j.ethGetBalance(accounts.get(1), DefaultBlockParameterName.LATEST)
+        .send().getBalance())
+        .isEqualTo(MockNode.INITIAL_BALANCE.add(BigInteger.TEN));
+  }
+
+  @Test
+  @SneakyThrows
+  void sendTransaction_withWrongNonce_isRejected() {
+    start(0);
+    var accounts = web3j.ethAccounts().send().getAccounts();
+
+    var ethSendTransaction = web3j
+        .ethSendTransaction(Transaction.createEtherTransaction(accounts.get(0), BigInteger.TEN,
+            BigInteger.ONE, BigInteger.valueOf(21_000), accounts.get(1), BigInteger.TEN))
+        .send();
+
+    assertThat(ethSendTransaction.hasError()).isTrue();
+    assertThat(ethSendTransaction.getError().getMessage()).contains("nonce");
+  }
+
+  @Test
+  @SneakyThrows
+  void blockFilter_returnsBlocksMinedSinceLastPoll() {
+    start(0);
+    var filterId = web3j.ethNewBlockFilter().send().getFilterId();
+
+    mockNode.mine();
+    mockNode.mine();
+
+    assertThat(web3j.ethGetFilterChanges(filterId).send().getLogs()).hasSize(2);
+    assertThat(web3j.ethGetFilterChanges(filterId).send().getLogs()).isEmpty();
+  }
+
+  @Test
+  @SneakyThrows
+  void answer_withErrorRate_failsRequests() {
+    start(1);
+
+    var ethBlockNumber = web3j.ethBlockNumber().send();
+
+    assertThat(ethBlockNumber.hasError())
+        .withFailMessage("Every request should fail with an error rate of 1.")
+        .isTrue();
+  }
+
+  @Test
+  void answer_batch_answersEveryRequest() {
+    start(0);
+
+    var response = mockNode.answer("[{\"jsonrpc\":\"2.0\",\"method\":\"eth_blockNumber\",\"id\":1},"
+        + "{\"jsonrpc\":\"2.0\",\"method\":\"eth_unknown\",\"id\":2}]");
+
+    assertThat(response)
+        .contains("\"id\":1,\"result\":\"0x0\"")
+        .contains("\"id\":2,\"error\"");
+  }
+
+  @SneakyThrows
+  private void start(final double errorRate) {
+    mockNode = new MockNode(2, 60_000, 0, 0, 0, errorRate);
+    mockNodeHttpServer = new MockNodeHttpServer(mockNode, 0);
+    mockNodeHttpServer.start();
+    web3j = Web3j.build(new HttpService("http://localhost:" + mockNodeHttpServer.getPort()));
+  }
+}